@@ -23,6 +23,8 @@ class EventCodeGenerator {
 		package «PACKAGE_NAME»;
 		
 		public class «CLASS_NAME» {
+			// Integer identifier of the event in the generated component (-1 if not set)
+			private int id = -1;
 			private String event;
 			private Object[] value;
 			
@@ -35,6 +37,21 @@ class EventCodeGenerator {
 				this.value = value;
 			}
 			
+			public Event(int id, String event) {
+				this.id = id;
+				this.event = event;
+			}
+			
+			public Event(int id, String event, Object... value) {
+				this.id = id;
+				this.event = event;
+				this.value = value;
+			}
+			
+			public int getId() {
+				return id;
+			}
+			
 			public String getEvent() {
 				return event;
 			}
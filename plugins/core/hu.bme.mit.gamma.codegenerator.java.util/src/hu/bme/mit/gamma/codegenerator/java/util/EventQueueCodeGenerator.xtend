@@ -0,0 +1,133 @@
+/********************************************************************************
+ * Copyright (c) 2018-2021 Contributors to the Gamma project
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ ********************************************************************************/
+package hu.bme.mit.gamma.codegenerator.java.util
+
+class EventQueueCodeGenerator {
+
+	protected final String PACKAGE_NAME
+	protected final String CLASS_NAME = Namings.GAMMA_EVENT_QUEUE_CLASS
+
+	new(String packageName) {
+		this.PACKAGE_NAME = packageName
+	}
+
+	/**
+	 * Creates a growable ring buffer of integer event ids and their parameter values,
+	 * which does not allocate objects for the queued events.
+	 */
+	def createEventQueueClass() '''
+		package «PACKAGE_NAME»;
+
+		import java.util.Arrays;
+
+		public class «CLASS_NAME» {
+
+			private static final int INITIAL_CAPACITY = 16;
+			// Maximum number of parameter values of an event
+			private final int valueCount;
+			private int[] events;
+			private Object[] values;
+			private int head = 0;
+			private int size = 0;
+			// Parameter values of the last removed event
+			private final Object[] removedValues;
+
+			public «CLASS_NAME»(int valueCount) {
+				this.valueCount = valueCount;
+				this.events = new int[INITIAL_CAPACITY];
+				this.values = new Object[INITIAL_CAPACITY * valueCount];
+				this.removedValues = new Object[valueCount];
+			}
+
+			public void add(int event) {
+				int index = reserve();
+				events[index] = event;
+			}
+
+			public void add(int event, Object value) {
+				int index = reserve();
+				events[index] = event;
+				values[index * valueCount] = value;
+			}
+
+			public void add(int event, Object... values) {
+				int index = reserve();
+				events[index] = event;
+				System.arraycopy(values, 0, this.values, index * valueCount, values.length);
+			}
+
+			/** Removes the first event and returns its id; its values can be accessed with getValue. */
+			public int remove() {
+				if (size == 0) {
+					throw new IllegalStateException("The queue is empty");
+				}
+				int event = events[head];
+				int valueIndex = head * valueCount;
+				for (int i = 0; i < valueCount; i++) {
+					removedValues[i] = values[valueIndex + i];
+					values[valueIndex + i] = null;
+				}
+				head = (head + 1) % events.length;
+				--size;
+				return event;
+			}
+
+			/** Returns the value with the given index of the last removed event. */
+			public Object getValue(int index) {
+				return removedValues[index];
+			}
+
+			public boolean isEmpty() {
+				return size == 0;
+			}
+
+			public int size() {
+				return size;
+			}
+
+			public void clear() {
+				Arrays.fill(values, null);
+				Arrays.fill(removedValues, null);
+				head = 0;
+				size = 0;
+			}
+
+			private int reserve() {
+				if (size == events.length) {
+					grow();
+				}
+				int index = (head + size) % events.length;
+				++size;
+				return index;
+			}
+
+			private void grow() {
+				int capacity = events.length;
+				int[] newEvents = new int[capacity * 2];
+				Object[] newValues = new Object[capacity * 2 * valueCount];
+				for (int i = 0; i < size; i++) {
+					int index = (head + i) % capacity;
+					newEvents[i] = events[index];
+					System.arraycopy(values, index * valueCount, newValues, i * valueCount, valueCount);
+				}
+				events = newEvents;
+				values = newValues;
+				head = 0;
+			}
+
+		}
+	'''
+
+	def getClassName() {
+		return CLASS_NAME
+	}
+
+}
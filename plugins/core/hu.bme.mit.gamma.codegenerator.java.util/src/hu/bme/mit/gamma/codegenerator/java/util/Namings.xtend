@@ -10,6 +10,8 @@
  ********************************************************************************/
 package hu.bme.mit.gamma.codegenerator.java.util
 
+import hu.bme.mit.gamma.statechart.interface_.Clock
+import hu.bme.mit.gamma.statechart.interface_.Event
 import hu.bme.mit.gamma.statechart.interface_.Port
 import hu.bme.mit.gamma.statechart.interface_.Package
 import hu.bme.mit.gamma.statechart.interface_.Component
@@ -21,6 +23,7 @@ import static extension hu.bme.mit.gamma.statechart.derivedfeatures.StatechartMo
 class Namings {
 	
 	public static final String GAMMA_EVENT_CLASS = "Event"
+	public static final String GAMMA_EVENT_QUEUE_CLASS = "EventQueue"
 	
 	public static final String YAKINDU_TIMER_INTERFACE = "ITimer"
 	public static final String GAMMA_TIMER_INTERFACE = "TimerInterface"
@@ -31,6 +34,8 @@ class Namings {
 	public static final String YAKINDU_TIMER_CLASS = "TimerService"
 	public static final String GAMMA_TIMER_CLASS = "OneThreadedTimer"
 	public static final String UNIFIED_TIMER_CLASS = "UnifiedTimer"
+	public static final String TIMING_WHEEL_CLASS = "TimingWheel"
+	public static final String ADAPTER_EXECUTOR_CLASS = "AdapterExecutor"
 	
 	public static final String INTERFACE_PACKAGE_POSTFIX = "interfaces"
 	public static final String CHANNEL_PACKAGE_POSTFIX = "channels"
@@ -74,4 +79,24 @@ class Namings {
 	 */
 	static def String getWrappedComponentName(AsynchronousAdapter component) '''«component.wrappedComponent.name»'''
 	
+	/**
+	 * Returns the name of the integer constant identifying the given event of the given port, e.g., CONTROL_TOGGLE_ID.
+	 */
+	static def String getEventIdName(Port port, Event event) '''«port.name.toUpperCase»_«event.name.toUpperCase»_ID'''
+	
+	/**
+	 * Returns the name of the integer constant identifying the event of the given clock, e.g., CLOCK_ID.
+	 */
+	static def String getEventIdName(Clock clock) '''«clock.name.toUpperCase»_ID'''
+	
+	/**
+	 * Returns the name of the preallocated event object of the given parameterless event of the given port.
+	 */
+	static def String getEventInstanceName(Port port, Event event) '''«port.name.toUpperCase»_«event.name.toUpperCase»_EVENT'''
+	
+	/**
+	 * Returns the name of the preallocated event object of the given clock.
+	 */
+	static def String getEventInstanceName(Clock clock) '''«clock.name.toUpperCase»_EVENT'''
+	
 }
@@ -20,6 +20,8 @@ import hu.bme.mit.gamma.statechart.composite.AsynchronousAdapter
 import hu.bme.mit.gamma.statechart.interface_.Component
 import hu.bme.mit.gamma.statechart.composite.CompositeComponent
 import hu.bme.mit.gamma.statechart.composite.SynchronousComponent
+import hu.bme.mit.gamma.statechart.statechart.Region
+import java.util.List
 
 import static extension hu.bme.mit.gamma.codegenerator.java.util.Namings.*
 import static extension hu.bme.mit.gamma.statechart.derivedfeatures.StatechartModelDerivedFeatures.*
@@ -27,13 +29,22 @@ import static extension hu.bme.mit.gamma.statechart.derivedfeatures.StatechartMo
 class ReflectiveComponentCodeGenerator {
 	
 	protected final String BASE_PACKAGE_NAME
+	protected final boolean BITSET_STATES
 	protected Component component
 	// 
 	protected final extension TimingDeterminer timingDeterminer = TimingDeterminer.INSTANCE
 	protected final extension TypeSerializer typeSerializer = TypeSerializer.INSTANCE
 
 	new(String BASE_PACKAGE_NAME, Component component) {
+		this(BASE_PACKAGE_NAME, component, false)
+	}
+	
+	/**
+	 * If bitsetStates is true, the state queries of the statechart wrapper based on state handles are also exposed.
+	 */
+	new(String BASE_PACKAGE_NAME, Component component, boolean bitsetStates) {
 		this.BASE_PACKAGE_NAME = BASE_PACKAGE_NAME
+		this.BITSET_STATES = bitsetStates
 		this.component = component
 	}
 	
@@ -47,6 +58,8 @@ class ReflectiveComponentCodeGenerator {
 		
 		public class «component.getReflectiveClassName» implements «Namings.REFLECTIVE_INTERFACE» {
 			
+			«component.generateMetadata»
+			
 			private «component.getComponentClassName» «Namings.REFLECTIVE_WRAPPED_COMPONENT»;
 			// Wrapped contained components
 			«IF component instanceof CompositeComponent»
@@ -81,14 +94,14 @@ class ReflectiveComponentCodeGenerator {
 			}
 			
 			public String[] getPorts() {
-				return new String[] { «FOR port : component.allPorts SEPARATOR ", "»"«port.name»"«ENDFOR» };
+				return PORTS;
 			}
 			
 			public String[] getEvents(String port) {
 				switch (port) {
-					«FOR port : component.allPorts»
-						case "«port.name»":
-							return new String[] { «FOR event : port.interfaceRealization.interface.events SEPARATOR ", "»"«event.event.name»"«ENDFOR» };
+					«FOR i : 0 ..< component.allPorts.size»
+						case "«component.allPorts.get(i).name»":
+							return EVENTS[«i»];
 					«ENDFOR»
 					default:
 						throw new IllegalArgumentException("Not known port: " + port);
@@ -174,6 +187,34 @@ class ReflectiveComponentCodeGenerator {
 		}
 	'''
 	
+	/**
+	 * The names are returned by the getters without copying, so they are not allocated on every call.
+	 */
+	protected def generateMetadata(Component component) '''
+		// Metadata shared by the instances, the returned arrays must not be modified
+		private static final String[] PORTS = { «FOR port : component.allPorts SEPARATOR ", "»"«port.name»"«ENDFOR» };
+		private static final String[][] EVENTS = {
+			«FOR port : component.allPorts SEPARATOR ","»
+				{ «FOR event : port.interfaceRealization.interface.events SEPARATOR ", "»"«event.event.name»"«ENDFOR» }
+			«ENDFOR»
+		};
+		private static final String[] REGIONS = { «FOR region : component.statechartRegions SEPARATOR ", "»"«region.name»"«ENDFOR» };
+		private static final String[][] STATES = {
+			«FOR region : component.statechartRegions SEPARATOR ","»
+				{ «FOR state : region.states SEPARATOR ", "»"«state.name»"«ENDFOR» }
+			«ENDFOR»
+		};
+		private static final String[] VARIABLES = { «IF component instanceof StatechartDefinition»«FOR variable : component.variableDeclarations SEPARATOR ", "»"«variable.name»"«ENDFOR»«ENDIF» };
+		private static final String[] COMPONENTS = { «IF component instanceof CompositeComponent»«FOR containedComponent : component.derivedComponents SEPARATOR ", "»"«containedComponent.name»"«ENDFOR»«ELSEIF component instanceof AsynchronousAdapter»"«component.getWrappedComponentName»"«ENDIF» };
+	'''
+	
+	protected def List<Region> getStatechartRegions(Component component) {
+		if (component instanceof StatechartDefinition) {
+			return component.allRegions
+		}
+		return #[]
+	}
+	
 	protected def generateIsActiveState(Component component) '''
 		public boolean isStateActive(String region, String state) {
 			«IF component instanceof StatechartDefinition»
@@ -182,23 +223,32 @@ class ReflectiveComponentCodeGenerator {
 				return false;
 			«ENDIF»
 		}
+		«IF BITSET_STATES && component instanceof StatechartDefinition»
+			
+			/** Returns the handle of the state to be used in the state queries, it should be retrieved only once. */
+			public int getStateHandle(String region, String state) {
+				return «component.getComponentClassName».getStateHandle(region, state);
+			}
+			
+			public boolean isStateActive(int stateHandle) {
+				return «Namings.REFLECTIVE_WRAPPED_COMPONENT».isStateActive(stateHandle);
+			}
+		«ENDIF»
 	'''
 	
 	protected def generateRegionGetter(Component component) '''
 		public String[] getRegions() {
-			return new String[] { «IF component instanceof StatechartDefinition»«FOR region : component.allRegions SEPARATOR ", "»"«region.name»"«ENDFOR»«ENDIF» };
+			return REGIONS;
 		}
 	'''
 	
 	protected def generateStateGetter(Component component) '''
 		public String[] getStates(String region) {
 			switch (region) {
-				«IF component instanceof StatechartDefinition»
-					«FOR region : component.allRegions»
-						case "«region.name»":
-							return new String[] { «FOR state : region.states SEPARATOR ", "»"«state.name»"«ENDFOR» };
-					«ENDFOR»
-				«ENDIF»
+				«FOR i : 0 ..< component.statechartRegions.size»
+					case "«component.statechartRegions.get(i).name»":
+						return STATES[«i»];
+				«ENDFOR»
 			}
 			throw new IllegalArgumentException("Not known region: " + region);
 		}
@@ -206,7 +256,7 @@ class ReflectiveComponentCodeGenerator {
 	
 	protected def generateVariableGetters(Component component) '''
 		public String[] getVariables() {
-			return new String[] { «IF component instanceof StatechartDefinition»«FOR variable : component.variableDeclarations SEPARATOR ", "»"«variable.name»"«ENDFOR»«ENDIF» };
+			return VARIABLES;
 		}
 	'''
 	
@@ -226,7 +276,7 @@ class ReflectiveComponentCodeGenerator {
 	
 	protected def generateComponentGetters(Component component) '''
 		public String[] getComponents() {
-			return new String[] { «IF component instanceof CompositeComponent»«FOR containedComponent : component.derivedComponents SEPARATOR ", "»"«containedComponent.name»"«ENDFOR»«ELSEIF component instanceof AsynchronousAdapter»"«component.getWrappedComponentName»"«ENDIF»};
+			return COMPONENTS;
 		}
 	'''
 	
@@ -18,12 +18,27 @@ class TimerServiceCodeGenerator {
 	protected final String YAKINDU_CLASS_NAME = Namings.YAKINDU_TIMER_CLASS
 	protected final String GAMMA_CLASS_NAME = Namings.GAMMA_TIMER_CLASS
 	protected final String UNIFIED_TIMER_CLASS_NAME = Namings.UNIFIED_TIMER_CLASS
+	protected final String TIMING_WHEEL_CLASS_NAME = Namings.TIMING_WHEEL_CLASS
+	// Timer services share a single timing wheel thread instead of having a Timer thread each
+	protected final boolean TIMING_WHEEL
 	
 	new(String packageName) {
+		this(packageName, false)
+	}
+	
+	new(String packageName, boolean timingWheel) {
 		this.PACKAGE_NAME = packageName
+		this.TIMING_WHEEL = timingWheel
+	}
+	
+	def createTimerServiceClassCode() {
+		if (TIMING_WHEEL) {
+			return createTimingWheelTimerServiceClassCode
+		}
+		return createThreadedTimerServiceClassCode
 	}
 	
-	def createTimerServiceClassCode() '''
+	protected def createThreadedTimerServiceClassCode() '''
 		package «PACKAGE_NAME»;
 		
 		import java.util.ArrayList;
@@ -133,6 +148,328 @@ class TimerServiceCodeGenerator {
 		}
 	'''
 
+	protected def createTimingWheelTimerServiceClassCode() '''
+		package «PACKAGE_NAME»;
+		
+		import java.util.HashMap;
+		import java.util.Map;
+		
+		public class «YAKINDU_CLASS_NAME» implements «Namings.YAKINDU_TIMER_INTERFACE» {
+		
+			private final «TIMING_WHEEL_CLASS_NAME» wheel = «TIMING_WHEEL_CLASS_NAME».getInstance();
+			private final Map<TimeEventKey, «TIMING_WHEEL_CLASS_NAME».Timeout> timeouts = new HashMap<TimeEventKey, «TIMING_WHEEL_CLASS_NAME».Timeout>();
+			
+			/**
+			 * Identifies a time event of a callback.
+			 */
+			private static class TimeEventKey {
+				
+				private final «Namings.TIMER_CALLBACK_INTERFACE» callback;
+				private final int eventID;
+				
+				public TimeEventKey(«Namings.TIMER_CALLBACK_INTERFACE» callback, int eventID) {
+					this.callback = callback;
+					this.eventID = eventID;
+				}
+				
+				@Override
+				public boolean equals(Object obj) {
+					if (obj instanceof TimeEventKey) {
+						return ((TimeEventKey) obj).callback.equals(callback)
+								&& ((TimeEventKey) obj).eventID == eventID;
+					}
+					return false;
+				}
+				
+				@Override
+				public int hashCode() {
+					return 37 * eventID + callback.hashCode();
+				}
+				
+			}
+			
+			/**
+			 * Schedules the time event on the shared timing wheel; an earlier setting of the same
+			 * time event of the callback is cancelled.
+			 */
+			public synchronized void setTimer(final «Namings.TIMER_CALLBACK_INTERFACE» callback, final int eventID,
+					long time, boolean isPeriodic) {
+				Runnable task = new Runnable() {
+					@Override
+					public void run() {
+						callback.timeElapsed(eventID);
+					}
+				};
+				«TIMING_WHEEL_CLASS_NAME».Timeout timeout = wheel.schedule(task, time, isPeriodic);
+				«TIMING_WHEEL_CLASS_NAME».Timeout oldTimeout = timeouts.put(new TimeEventKey(callback, eventID), timeout);
+				if (oldTimeout != null) {
+					oldTimeout.cancel();
+				}
+			}
+			
+			public synchronized void unsetTimer(«Namings.TIMER_CALLBACK_INTERFACE» callback, int eventID) {
+				«TIMING_WHEEL_CLASS_NAME».Timeout timeout = timeouts.remove(new TimeEventKey(callback, eventID));
+				if (timeout != null) {
+					timeout.cancel();
+				}
+			}
+			
+			/**
+			 * Cancels the time events of this timer service. The shared timing wheel is not stopped.
+			 */
+			public synchronized void cancel() {
+				for («TIMING_WHEEL_CLASS_NAME».Timeout timeout : timeouts.values()) {
+					timeout.cancel();
+				}
+				timeouts.clear();
+			}
+			
+			public synchronized void reset() {
+				timeouts.clear();
+			}
+			
+		}
+	'''
+	
+	/**
+	 * Creates a hashed timing wheel driven by a single daemon thread. Timeouts can be scheduled
+	 * and cancelled in constant time from any thread; expired ones are executed on the wheel thread,
+	 * the ones due in the same tick in the order of their scheduling (like the timers of a list).
+	 */
+	def createTimingWheelClassCode() '''
+		package «PACKAGE_NAME»;
+		
+		import java.util.ArrayList;
+		import java.util.List;
+		import java.util.Queue;
+		import java.util.concurrent.ConcurrentLinkedQueue;
+		import java.util.concurrent.TimeUnit;
+		import java.util.concurrent.locks.LockSupport;
+		import java.util.logging.Level;
+		import java.util.logging.Logger;
+		
+		public class «TIMING_WHEEL_CLASS_NAME» {
+			
+			private static final Logger logger = Logger.getLogger("GammaLogger");
+			private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+			private static final int WHEEL_SIZE = 512; // Power of two
+			
+			private static final «TIMING_WHEEL_CLASS_NAME» INSTANCE = new «TIMING_WHEEL_CLASS_NAME»();
+			
+			private final Bucket[] wheel = new Bucket[WHEEL_SIZE];
+			private final Queue<Timeout> addedTimeouts = new ConcurrentLinkedQueue<Timeout>();
+			private final Queue<Timeout> cancelledTimeouts = new ConcurrentLinkedQueue<Timeout>();
+			private final long startTime = System.nanoTime();
+			// Accessed only by the worker thread
+			private final List<Timeout> rescheduledTimeouts = new ArrayList<Timeout>();
+			private long tick = 0;
+			private long sequence = 0;
+			private int timeoutCount = 0;
+			private final Thread worker;
+			
+			public static «TIMING_WHEEL_CLASS_NAME» getInstance() {
+				return INSTANCE;
+			}
+			
+			private «TIMING_WHEEL_CLASS_NAME»() {
+				for (int i = 0; i < WHEEL_SIZE; i++) {
+					wheel[i] = new Bucket();
+				}
+				worker = new Thread(this::work, "«TIMING_WHEEL_CLASS_NAME»");
+				worker.setDaemon(true);
+				worker.start();
+			}
+			
+			/**
+			 * Schedules the task to be executed after the given milliseconds (periodically if needed).
+			 */
+			public Timeout schedule(Runnable task, long time, boolean isPeriodic) {
+				long delay = TimeUnit.MILLISECONDS.toNanos(time);
+				Timeout timeout = new Timeout(task, System.nanoTime() - startTime + delay, isPeriodic ? delay : 0);
+				addedTimeouts.add(timeout);
+				LockSupport.unpark(worker);
+				return timeout;
+			}
+			
+			private void work() {
+				while (true) {
+					long deadline = waitForNextTick();
+					transferCancelledTimeouts();
+					transferAddedTimeouts();
+					Bucket bucket = wheel[(int) (tick & (WHEEL_SIZE - 1))];
+					bucket.expireTimeouts(deadline);
+					++tick;
+					transferRescheduledTimeouts();
+				}
+			}
+			
+			private long waitForNextTick() {
+				while (true) {
+					long currentTime = System.nanoTime() - startTime;
+					if (timeoutCount == 0 && addedTimeouts.isEmpty()) {
+						// Idle: parking until a timeout is scheduled, then continuing from the actual tick
+						LockSupport.park(this);
+						tick = Math.max(tick, (System.nanoTime() - startTime) / TICK_NANOS);
+						continue;
+					}
+					long deadline = TICK_NANOS * (tick + 1);
+					if (deadline <= currentTime) {
+						return currentTime;
+					}
+					LockSupport.parkNanos(this, deadline - currentTime);
+				}
+			}
+			
+			private void transferAddedTimeouts() {
+				Timeout timeout;
+				while ((timeout = addedTimeouts.poll()) != null) {
+					if (!timeout.cancelled) {
+						timeout.sequence = sequence++;
+						add(timeout);
+					}
+				}
+			}
+			
+			private void transferRescheduledTimeouts() {
+				// Added after the tick, so a period of whole rounds does not wrap into the current round
+				for (Timeout timeout : rescheduledTimeouts) {
+					if (!timeout.cancelled) {
+						add(timeout);
+					}
+				}
+				rescheduledTimeouts.clear();
+			}
+			
+			private void transferCancelledTimeouts() {
+				Timeout timeout;
+				while ((timeout = cancelledTimeouts.poll()) != null) {
+					if (timeout.bucket != null) {
+						timeout.bucket.remove(timeout);
+					}
+				}
+			}
+			
+			private void add(Timeout timeout) {
+				long ticks = Math.max(timeout.deadline / TICK_NANOS, tick);
+				timeout.remainingRounds = (ticks - tick) / WHEEL_SIZE;
+				wheel[(int) (ticks & (WHEEL_SIZE - 1))].add(timeout);
+			}
+			
+			public final class Timeout {
+				
+				private final Runnable task;
+				private final long period;
+				private long deadline;
+				private long remainingRounds;
+				private volatile boolean cancelled = false;
+				// Accessed only by the worker thread
+				private long sequence;
+				private Bucket bucket;
+				private Timeout next;
+				private Timeout previous;
+				
+				private Timeout(Runnable task, long deadline, long period) {
+					this.task = task;
+					this.deadline = deadline;
+					this.period = period;
+				}
+				
+				public void cancel() {
+					if (!cancelled) {
+						cancelled = true;
+						cancelledTimeouts.add(this);
+					}
+				}
+				
+				public boolean isCancelled() {
+					return cancelled;
+				}
+				
+			}
+			
+			private final class Bucket {
+				
+				private Timeout head;
+				private Timeout tail;
+				
+				/**
+				 * Keeps the timeouts ordered by their scheduling; new timeouts are appended in constant time,
+				 * only the rescheduled periodic ones are inserted before the later scheduled ones.
+				 */
+				private void add(Timeout timeout) {
+					timeout.bucket = this;
+					Timeout previous = tail;
+					while (previous != null && previous.sequence > timeout.sequence) {
+						previous = previous.previous;
+					}
+					Timeout next = (previous == null) ? head : previous.next;
+					timeout.previous = previous;
+					timeout.next = next;
+					if (previous == null) {
+						head = timeout;
+					}
+					else {
+						previous.next = timeout;
+					}
+					if (next == null) {
+						tail = timeout;
+					}
+					else {
+						next.previous = timeout;
+					}
+					++timeoutCount;
+				}
+				
+				private void remove(Timeout timeout) {
+					if (timeout.previous != null) {
+						timeout.previous.next = timeout.next;
+					}
+					if (timeout.next != null) {
+						timeout.next.previous = timeout.previous;
+					}
+					if (timeout == head) {
+						head = timeout.next;
+					}
+					if (timeout == tail) {
+						tail = timeout.previous;
+					}
+					timeout.bucket = null;
+					timeout.next = null;
+					timeout.previous = null;
+					--timeoutCount;
+				}
+				
+				private void expireTimeouts(long currentTime) {
+					Timeout timeout = head;
+					while (timeout != null) {
+						Timeout next = timeout.next;
+						if (timeout.remainingRounds <= 0 && timeout.deadline <= currentTime) {
+							remove(timeout);
+							if (!timeout.cancelled) {
+								try {
+									timeout.task.run();
+								} catch (RuntimeException e) {
+									// The other timeouts have to be served nevertheless
+									logger.log(Level.SEVERE, "Exception in a time event task", e);
+								}
+								if (timeout.period > 0 && !timeout.cancelled) {
+									timeout.deadline += timeout.period;
+									rescheduledTimeouts.add(timeout);
+								}
+							}
+						}
+						else if (timeout.remainingRounds > 0) {
+							--timeout.remainingRounds;
+						}
+						timeout = next;
+					}
+				}
+				
+			}
+			
+		}
+	'''
+	
 	def createGammaTimerClassCode() '''
 		package «PACKAGE_NAME»;
 		
@@ -209,4 +546,12 @@ class TimerServiceCodeGenerator {
 		return UNIFIED_TIMER_CLASS_NAME
 	}
 	
+	def getTimingWheelClassName() {
+		return TIMING_WHEEL_CLASS_NAME
+	}
+	
+	def isTimingWheel() {
+		return TIMING_WHEEL
+	}
+	
 }
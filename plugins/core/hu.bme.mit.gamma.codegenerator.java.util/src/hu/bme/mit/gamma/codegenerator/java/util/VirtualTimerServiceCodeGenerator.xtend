@@ -16,15 +16,29 @@ class VirtualTimerServiceCodeGenerator {
 	protected final String CLASS_NAME = "VirtualTimerService"
 	protected final String UNIFIED_TIMER_INTERFACE_NAME = Namings.UNIFIED_TIMER_INTERFACE
 	protected final String ITIMER_CALLBACK_INTERFACE_NAME = Namings.TIMER_CALLBACK_INTERFACE
+	// Time events are stored in a priority queue ordered by their deadlines instead of a list
+	protected final boolean TIMING_WHEEL
 	
 	new(String packageName) {
+		this(packageName, false)
+	}
+	
+	new(String packageName, boolean timingWheel) {
 		this.PACKAGE_NAME = packageName
+		this.TIMING_WHEEL = timingWheel
 	}
 	
 	/**
 	 * Creates the virtual timer class for the timings in the generated test cases.
 	 */
-	def createVirtualTimerClassCode() '''
+	def createVirtualTimerClassCode() {
+		if (TIMING_WHEEL) {
+			return createDeadlineOrderedVirtualTimerClassCode
+		}
+		return createListBasedVirtualTimerClassCode
+	}
+	
+	protected def createListBasedVirtualTimerClassCode() '''
 		package «PACKAGE_NAME»;
 		
 		import java.util.List;
@@ -139,6 +153,184 @@ class VirtualTimerServiceCodeGenerator {
 		}
 	'''
 	
+	/**
+	 * Creates a virtual timer that advances a virtual clock and executes only the due time events
+	 * (each at most once per elapse, in the order they were set, like the list-based virtual timer).
+	 * Setting a time event again does not cancel its pending settings, like in the list-based virtual
+	 * timer; unsetting cancels all of them.
+	 */
+	protected def createDeadlineOrderedVirtualTimerClassCode() '''
+		package «PACKAGE_NAME»;
+		
+		import java.util.ArrayList;
+		import java.util.Collections;
+		import java.util.Comparator;
+		import java.util.HashMap;
+		import java.util.List;
+		import java.util.Map;
+		import java.util.PriorityQueue;
+		
+		/**
+		 * Virtual timer service implementation.
+		 */
+		public class «CLASS_NAME» implements «UNIFIED_TIMER_INTERFACE_NAME» {
+			// Virtual time
+			private long currentTime = 0;
+			private long sequence = 0;
+			// Yakindu timer
+			private final PriorityQueue<TimeEventTask> timerTaskQueue = new PriorityQueue<TimeEventTask>();
+			private final Map<TimeEventKey, List<TimeEventTask>> timerTasks = new HashMap<TimeEventKey, List<TimeEventTask>>();
+			// Gamma timer
+			private final Map<Object, Long> savedTime = new HashMap<Object, Long>();
+			
+			/**
+			 * Identifies a time event of a callback.
+			 */
+			private static class TimeEventKey {
+				
+				private final «ITIMER_CALLBACK_INTERFACE_NAME» callback;
+				private final int eventID;
+				
+				public TimeEventKey(«ITIMER_CALLBACK_INTERFACE_NAME» callback, int eventID) {
+					this.callback = callback;
+					this.eventID = eventID;
+				}
+				
+				@Override
+				public boolean equals(Object obj) {
+					if (obj instanceof TimeEventKey) {
+						return ((TimeEventKey) obj).callback.equals(callback)
+								&& ((TimeEventKey) obj).eventID == eventID;
+					}
+					return false;
+				}
+				
+				@Override
+				public int hashCode() {
+					return 37 * eventID + callback.hashCode();
+				}
+				
+			}
+			
+			/**
+			 * Timer task that reflects a time event; ordered by deadline, then by creation.
+			 */
+			private class TimeEventTask implements Comparable<TimeEventTask> {
+				
+				private final «ITIMER_CALLBACK_INTERFACE_NAME» callback;
+				private final int eventID;
+				private final long time;
+				private final boolean periodic;
+				private final long order;
+				private long deadline;
+				private boolean cancelled = false;
+				
+				public TimeEventTask(«ITIMER_CALLBACK_INTERFACE_NAME» callback, int eventID, long time, boolean isPeriodic) {
+					this.callback = callback;
+					this.eventID = eventID;
+					this.time = time;
+					this.periodic = isPeriodic;
+					this.deadline = currentTime + time;
+					this.order = sequence++;
+				}
+				
+				public void run() {
+					callback.timeElapsed(eventID);
+				}
+				
+				@Override
+				public int compareTo(TimeEventTask other) {
+					int deadlineCompare = Long.compare(deadline, other.deadline);
+					if (deadlineCompare != 0) {
+						return deadlineCompare;
+					}
+					return Long.compare(order, other.order);
+				}
+				
+			}
+			
+			public void setTimer(«ITIMER_CALLBACK_INTERFACE_NAME» callback, int eventID, long time, boolean isPeriodic) {
+				TimeEventTask timerTask = new TimeEventTask(callback, eventID, time, isPeriodic);
+				TimeEventKey key = new TimeEventKey(callback, eventID);
+				List<TimeEventTask> keyTimerTasks = timerTasks.get(key);
+				if (keyTimerTasks == null) {
+					keyTimerTasks = new ArrayList<TimeEventTask>();
+					timerTasks.put(key, keyTimerTasks);
+				}
+				// The pending settings of the same time event remain, like in the list-based virtual timer
+				keyTimerTasks.add(timerTask);
+				timerTaskQueue.add(timerTask);
+			}
+			
+			public void unsetTimer(«ITIMER_CALLBACK_INTERFACE_NAME» callback, int eventID) {
+				List<TimeEventTask> keyTimerTasks = timerTasks.remove(new TimeEventKey(callback, eventID));
+				if (keyTimerTasks != null) {
+					for (TimeEventTask timerTask : keyTimerTasks) {
+						timerTask.cancelled = true; // Removed from the queue lazily
+					}
+				}
+			}
+			
+			public void elapse(long amount) {
+				currentTime += amount;
+				List<TimeEventTask> dueTasks = new ArrayList<TimeEventTask>();
+				while (!timerTaskQueue.isEmpty() && timerTaskQueue.peek().deadline <= currentTime) {
+					TimeEventTask timerTask = timerTaskQueue.poll();
+					if (!timerTask.cancelled) {
+						dueTasks.add(timerTask);
+					}
+				}
+				// Executed in the order they were set, like the list-based virtual timer
+				Collections.sort(dueTasks, new Comparator<TimeEventTask>() {
+					@Override
+					public int compare(TimeEventTask first, TimeEventTask second) {
+						return Long.compare(first.order, second.order);
+					}
+				});
+				for (TimeEventTask timerTask : dueTasks) {
+					timerTask.run();
+					if (timerTask.periodic) {
+						// At most once in an elapse, like the list-based virtual timer
+						timerTask.deadline += timerTask.time;
+						timerTaskQueue.add(timerTask);
+					}
+					else {
+						TimeEventKey key = new TimeEventKey(timerTask.callback, timerTask.eventID);
+						List<TimeEventTask> keyTimerTasks = timerTasks.get(key);
+						// The callback might have unset the time event
+						if (keyTimerTasks != null) {
+							keyTimerTasks.remove(timerTask);
+							if (keyTimerTasks.isEmpty()) {
+								timerTasks.remove(key);
+							}
+						}
+					}
+				}
+			}
+			
+			public void saveTime(Object object) {
+				savedTime.put(object, currentTime);
+			}
+			
+			public long getElapsedTime(Object object, TimeUnit timeUnit) {
+				long elapsedTime = currentTime - savedTime.get(object);
+				switch (timeUnit) {
+					case MILLISECOND:
+						return elapsedTime;
+					default:
+						throw new IllegalArgumentException("Not supported time unit: " + timeUnit);
+				}
+			}
+		
+			public void reset() {
+				timerTaskQueue.clear();
+				timerTasks.clear();
+				savedTime.clear();
+			}
+		
+		}
+	'''
+	
 	def getClassName() {
 		return CLASS_NAME
 	}
@@ -0,0 +1,65 @@
+/********************************************************************************
+ * Copyright (c) 2018-2021 Contributors to the Gamma project
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ ********************************************************************************/
+package hu.bme.mit.gamma.codegenerator.java
+
+import hu.bme.mit.gamma.codegenerator.java.util.Namings
+
+class AdapterExecutorCodeGenerator {
+
+	protected final String PACKAGE_NAME
+	protected final String CLASS_NAME = Namings.ADAPTER_EXECUTOR_CLASS
+
+	new(String packageName) {
+		this.PACKAGE_NAME = packageName
+	}
+
+	/**
+	 * Returns the Java code of the work-stealing executor shared by the asynchronous adapters.
+	 */
+	def createAdapterExecutorClass() '''
+		package «PACKAGE_NAME»;
+
+		import java.util.concurrent.Executor;
+		import java.util.concurrent.ForkJoinPool;
+
+		public class «CLASS_NAME» {
+
+			// Maximum number of events an adapter processes before yielding its worker thread
+			public static final int BATCH_SIZE = 64;
+
+			private static volatile Executor executor;
+
+			/** Returns the executor of the adapters, by default an asynchronous (FIFO) work-stealing pool with daemon threads. */
+			public static Executor getExecutor() {
+				if (executor == null) {
+					synchronized («CLASS_NAME».class) {
+						if (executor == null) {
+							executor = new ForkJoinPool(Runtime.getRuntime().availableProcessors(),
+								ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+						}
+					}
+				}
+				return executor;
+			}
+
+			/** Sets the executor of the adapters; must be called before starting them. */
+			public static void setExecutor(Executor executor) {
+				«CLASS_NAME».executor = executor;
+			}
+
+		}
+	'''
+
+	def getClassName() {
+		return CLASS_NAME
+	}
+
+}
@@ -16,12 +16,15 @@ import hu.bme.mit.gamma.codegenerator.java.queries.PortEventTriggersOfWrappers
 import hu.bme.mit.gamma.codegenerator.java.queries.QueuesOfClocks
 import hu.bme.mit.gamma.codegenerator.java.queries.QueuesOfEvents
 import hu.bme.mit.gamma.codegenerator.java.util.TimingDeterminer
+import hu.bme.mit.gamma.genmodel.model.CodeGenerationOption
 import hu.bme.mit.gamma.statechart.interface_.AnyTrigger
+import hu.bme.mit.gamma.statechart.interface_.Event
 import hu.bme.mit.gamma.statechart.interface_.Port
 import hu.bme.mit.gamma.statechart.interface_.TimeSpecification
 import hu.bme.mit.gamma.statechart.interface_.TimeUnit
 import hu.bme.mit.gamma.statechart.composite.AsynchronousAdapter
 import hu.bme.mit.gamma.statechart.composite.ControlFunction
+import java.util.Collection
 
 import static extension hu.bme.mit.gamma.codegenerator.java.util.Namings.*
 import static extension hu.bme.mit.gamma.statechart.derivedfeatures.StatechartModelDerivedFeatures.*
@@ -41,9 +44,22 @@ class AsynchronousAdapterCodeGenerator {
 	protected final extension ComponentCodeGenerator componentCodeGenerator
 	//
 	protected final String EVENT_INSTANCE_NAME = "event"
+	// Integer event ids and preallocated parameterless events instead of string event names
+	protected final boolean INTEGER_EVENTS
+	// Adapters are run as tasks of a shared executor when they have events instead of on own threads
+	protected final boolean SHARED_EXECUTOR
+	// Message queues are lock-free ring buffers instead of the linked blocking multi queue
+	protected final boolean LOCK_FREE_QUEUE
 
 	new(String packageName, Trace trace) {
+		this(packageName, trace, #[])
+	}
+	
+	new(String packageName, Trace trace, Collection<CodeGenerationOption> options) {
 		this.PACKAGE_NAME = packageName
+		this.INTEGER_EVENTS = options.contains(CodeGenerationOption.INTEGER_EVENTS)
+		this.SHARED_EXECUTOR = options.contains(CodeGenerationOption.SHARED_EXECUTOR)
+		this.LOCK_FREE_QUEUE = options.contains(CodeGenerationOption.LOCK_FREE_QUEUE)
 		this.trace = trace
 		this.nameGenerator = new NameGenerator(this.PACKAGE_NAME)
 		this.typeTransformer = new TypeTransformer(trace)
@@ -62,8 +78,14 @@ class AsynchronousAdapterCodeGenerator {
 		«component.generateWrapperImports»
 		
 		public class «component.generateComponentClassName» implements Runnable, «component.generatePortOwnerInterfaceName» {			
-			// Thread running this wrapper instance
-			private Thread thread;
+			«IF SHARED_EXECUTOR»
+				// Whether this wrapper instance is submitted to the shared executor
+				private final AtomicBoolean scheduled = new AtomicBoolean(false);
+				private volatile boolean running = false;
+			«ELSE»
+				// Thread running this wrapper instance
+				private Thread thread;
+			«ENDIF»
 			// Wrapped synchronous instance
 			private «component.wrappedComponent.type.generateComponentClassName» «component.generateWrappedComponentName»;
 			// Control port instances
@@ -81,11 +103,15 @@ class AsynchronousAdapterCodeGenerator {
 			«FOR clock : component.clocks»
 				private final int «clock.name» = «clockId++»;
 			«ENDFOR»
+			«IF INTEGER_EVENTS»
+				// Event ids and preallocated parameterless events
+				«component.generateEventIds»
+			«ENDIF»
 			// Main queue
-			private LinkedBlockingMultiQueue<String, Event> __asyncQueue = new LinkedBlockingMultiQueue<String, Event>();
+			private «queueClassName»<String, Event> __asyncQueue = new «queueClassName»<String, Event>();
 			// Subqueues
 			«FOR queue : component.messageQueues»
-				private LinkedBlockingMultiQueue<String, Event>.SubQueue «queue.name»;
+				private «queueClassName»<String, Event>.SubQueue «queue.name»;
 			«ENDFOR»
 			«component.generateParameterDeclarationFields»
 			
@@ -122,7 +148,7 @@ class AsynchronousAdapterCodeGenerator {
 				«FOR match : QueuesOfClocks.Matcher.on(engine).getAllMatches(component, null, null)»
 					 timerService.setTimer(createTimerCallback(), «match.clock.name», «match.clock.timeSpecification.valueInMs», true);
 				«ENDFOR»
-				// The thread has to be started manually
+				// The «IF SHARED_EXECUTOR»processing«ELSE»thread«ENDIF» has to be started manually
 			}
 			
 			«IF !component.clocks.empty»
@@ -133,7 +159,10 @@ class AsynchronousAdapterCodeGenerator {
 							switch (eventId) {
 								«FOR match : QueuesOfClocks.Matcher.on(engine).getAllMatches(component, null, null)»
 									case «match.clock.name»:
-										«match.queue.name».offer(new Event("«match.clock.name»"));
+										«match.queue.name».offer(«IF INTEGER_EVENTS»«match.clock.eventInstanceName»«ELSE»new Event("«match.clock.name»")«ENDIF»);
+										«IF SHARED_EXECUTOR»
+											scheduleProcessing();
+										«ENDIF»
 									break;
 								«ENDFOR»
 								default:
@@ -207,18 +236,44 @@ class AsynchronousAdapterCodeGenerator {
 				processEvent(«EVENT_INSTANCE_NAME»);
 			}
 			
-			/** Operation. */
-			@Override
-			public void run() {
-				while (!Thread.currentThread().isInterrupted()) {
-					try {
-						«GAMMA_EVENT_CLASS» «EVENT_INSTANCE_NAME» = __asyncQueue.take();		
+			«IF SHARED_EXECUTOR»
+				/** Operation: processes a batch of the queued events on a thread of the shared executor. */
+				@Override
+				public void run() {
+					for (int i = 0; i < «ADAPTER_EXECUTOR_CLASS».BATCH_SIZE && running; i++) {
+						«GAMMA_EVENT_CLASS» «EVENT_INSTANCE_NAME» = __asyncQueue.poll();
+						if («EVENT_INSTANCE_NAME» == null) {
+							break;
+						}
 						processEvent(«EVENT_INSTANCE_NAME»);
-					} catch (InterruptedException e) {
-						thread.interrupt();
+					}
+					scheduled.set(false);
+					// Events offered after the last poll could not resubmit this instance
+					if (!__asyncQueue.isEmpty()) {
+						scheduleProcessing();
 					}
 				}
-			}
+				
+				/** Submits this instance to the shared executor if it is not submitted yet. */
+				private void scheduleProcessing() {
+					if (running && scheduled.compareAndSet(false, true)) {
+						«ADAPTER_EXECUTOR_CLASS».getExecutor().execute(this);
+					}
+				}
+			«ELSE»
+				/** Operation. */
+				@Override
+				public void run() {
+					while (!Thread.currentThread().isInterrupted()) {
+						try {
+							«GAMMA_EVENT_CLASS» «EVENT_INSTANCE_NAME» = __asyncQueue.take();		
+							processEvent(«EVENT_INSTANCE_NAME»);
+						} catch (InterruptedException e) {
+							thread.interrupt();
+						}
+					}
+				}
+			«ENDIF»
 			
 			private void processEvent(«GAMMA_EVENT_CLASS» «EVENT_INSTANCE_NAME») {
 				if (!isControlEvent(«EVENT_INSTANCE_NAME»)) {
@@ -231,6 +286,20 @@ class AsynchronousAdapterCodeGenerator {
 			private boolean isControlEvent(«GAMMA_EVENT_CLASS» «EVENT_INSTANCE_NAME») {
 				«IF component.ports.empty && component.clocks.empty»
 					return false;
+				«ELSEIF INTEGER_EVENTS»
+					switch («EVENT_INSTANCE_NAME».getId()) {
+						«FOR port : component.ports»
+							«FOR event : port.inputEvents»
+								case «port.getEventIdName(event)»:
+							«ENDFOR»
+						«ENDFOR»
+						«FOR clock : component.clocks»
+							case «clock.eventIdName»:
+						«ENDFOR»
+							return true;
+						default:
+							return false;
+					}
 				«ELSE»
 					String portName = «EVENT_INSTANCE_NAME».getEvent().split("\\.")[0];
 					return «FOR port : component.ports SEPARATOR " || "»portName.equals("«port.name»")«ENDFOR»«IF !component.ports.empty && !component.clocks.empty» || «ENDIF»«FOR clock : component.clocks SEPARATOR " || "»portName.equals("«clock.name»")«ENDFOR»;
@@ -238,7 +307,7 @@ class AsynchronousAdapterCodeGenerator {
 			}
 			
 			private void forwardEvent(«GAMMA_EVENT_CLASS» «EVENT_INSTANCE_NAME») {
-				switch («EVENT_INSTANCE_NAME».getEvent()) {
+				switch («EVENT_INSTANCE_NAME».«IF INTEGER_EVENTS»getId«ELSE»getEvent«ENDIF»()) {
 					«component.generateWrapperEventHandlers()»
 					default:
 						throw new IllegalArgumentException("No such event!");
@@ -246,53 +315,46 @@ class AsynchronousAdapterCodeGenerator {
 			}
 			
 			private void performControlActions(«GAMMA_EVENT_CLASS» «EVENT_INSTANCE_NAME») {
-				String[] eventName = «EVENT_INSTANCE_NAME».getEvent().split("\\.");
-				«FOR controlSpecification : component.controlSpecifications»
-					«IF controlSpecification.trigger instanceof AnyTrigger»
-						// Any trigger
-						«controlSpecification.controlFunction.generateRunCycle(component.generateWrappedComponentName)»
-						return;
-					«ELSE»
-						«FOR match : AnyPortTriggersOfWrappers.Matcher.on(engine).getAllMatches(component, controlSpecification, null, null)»
-							// Port trigger
-							if (eventName.length == 2 && eventName[0].equals("«match.port.name»")) {
-								«match.controlFunction.generateRunCycle(component.generateWrappedComponentName)»
-								return;
-							}
-						«ENDFOR»
-						«FOR match : PortEventTriggersOfWrappers.Matcher.on(engine).getAllMatches(component, controlSpecification, null, null, null)»
-							// Port event trigger
-							if (eventName.length == 2 && eventName[0].equals("«match.port.name»") && eventName[1].equals("«match.event.name»")) {
-								«match.controlFunction.generateRunCycle(component.generateWrappedComponentName)»
-								return;
-							}
-						«ENDFOR»
-						«FOR match : ClockTriggersOfWrappers.Matcher.on(engine).getAllMatches(component, controlSpecification, null, null)»
-							// Clock trigger
-							if (eventName.length == 1 && eventName[0].equals("«match.clock.name»")) {
-								«match.controlFunction.generateRunCycle(component.generateWrappedComponentName)»
-								return;
-							}
-						«ENDFOR»
-					«ENDIF»
-				«ENDFOR»
-			}
-			
-			/** Starts this wrapper instance on a thread. */
-			@Override
-			public void start() {
-				thread = new Thread(this);
-				thread.start();
-			}
-			
-			public boolean isWaiting() {
-				return thread.getState() == Thread.State.WAITING;
+				«IF INTEGER_EVENTS»
+					«component.generateIntegerControlActions»
+				«ELSE»
+					«component.generateControlActions»
+				«ENDIF»
 			}
 			
-			/** Stops the thread running this wrapper instance. */
-			public void interrupt() {
-				thread.interrupt();
-			}
+			«IF SHARED_EXECUTOR»
+				/** Starts the processing of the events of this wrapper instance on the shared executor. */
+				@Override
+				public void start() {
+					running = true;
+					scheduleProcessing();
+				}
+				
+				public boolean isWaiting() {
+					return !scheduled.get() && __asyncQueue.isEmpty();
+				}
+				
+				/** Stops the processing of the events of this wrapper instance. */
+				public void interrupt() {
+					running = false;
+				}
+			«ELSE»
+				/** Starts this wrapper instance on a thread. */
+				@Override
+				public void start() {
+					thread = new Thread(this);
+					thread.start();
+				}
+				
+				public boolean isWaiting() {
+					return thread.getState() == Thread.State.WAITING;
+				}
+				
+				/** Stops the thread running this wrapper instance. */
+				public void interrupt() {
+					thread.interrupt();
+				}
+			«ENDIF»
 			
 			public «component.wrappedComponent.type.generateComponentClassName» get«component.generateWrappedComponentName.toFirstUpper»() {
 				return «component.generateWrappedComponentName»;
@@ -310,12 +372,126 @@ class AsynchronousAdapterCodeGenerator {
 		'''
 	}
 	
+	/**
+	 * Generates the control actions of the adapter based on the string name of the event.
+	 */
+	protected def generateControlActions(AsynchronousAdapter component) '''
+		String[] eventName = «EVENT_INSTANCE_NAME».getEvent().split("\\.");
+		«FOR controlSpecification : component.controlSpecifications»
+			«IF controlSpecification.trigger instanceof AnyTrigger»
+				// Any trigger
+				«controlSpecification.controlFunction.generateRunCycle(component.generateWrappedComponentName)»
+				return;
+			«ELSE»
+				«FOR match : AnyPortTriggersOfWrappers.Matcher.on(engine).getAllMatches(component, controlSpecification, null, null)»
+					// Port trigger
+					if (eventName.length == 2 && eventName[0].equals("«match.port.name»")) {
+						«match.controlFunction.generateRunCycle(component.generateWrappedComponentName)»
+						return;
+					}
+				«ENDFOR»
+				«FOR match : PortEventTriggersOfWrappers.Matcher.on(engine).getAllMatches(component, controlSpecification, null, null, null)»
+					// Port event trigger
+					if (eventName.length == 2 && eventName[0].equals("«match.port.name»") && eventName[1].equals("«match.event.name»")) {
+						«match.controlFunction.generateRunCycle(component.generateWrappedComponentName)»
+						return;
+					}
+				«ENDFOR»
+				«FOR match : ClockTriggersOfWrappers.Matcher.on(engine).getAllMatches(component, controlSpecification, null, null)»
+					// Clock trigger
+					if (eventName.length == 1 && eventName[0].equals("«match.clock.name»")) {
+						«match.controlFunction.generateRunCycle(component.generateWrappedComponentName)»
+						return;
+					}
+				«ENDFOR»
+			«ENDIF»
+		«ENDFOR»
+	'''
+	
+	/**
+	 * Generates the control actions of the adapter based on the integer id of the event.
+	 */
+	protected def generateIntegerControlActions(AsynchronousAdapter component) '''
+		int eventId = «EVENT_INSTANCE_NAME».getId();
+		«FOR controlSpecification : component.controlSpecifications»
+			«IF controlSpecification.trigger instanceof AnyTrigger»
+				// Any trigger
+				«controlSpecification.controlFunction.generateRunCycle(component.generateWrappedComponentName)»
+				return;
+			«ELSE»
+				«FOR match : AnyPortTriggersOfWrappers.Matcher.on(engine).getAllMatches(component, controlSpecification, null, null)»
+					// Port trigger
+					if («FOR event : match.port.inputEvents SEPARATOR " || "»eventId == «match.port.getEventIdName(event)»«ENDFOR»«IF match.port.inputEvents.empty»false«ENDIF») {
+						«match.controlFunction.generateRunCycle(component.generateWrappedComponentName)»
+						return;
+					}
+				«ENDFOR»
+				«FOR match : PortEventTriggersOfWrappers.Matcher.on(engine).getAllMatches(component, controlSpecification, null, null, null)»
+					// Port event trigger
+					if (eventId == «match.port.getEventIdName(match.event)») {
+						«match.controlFunction.generateRunCycle(component.generateWrappedComponentName)»
+						return;
+					}
+				«ENDFOR»
+				«FOR match : ClockTriggersOfWrappers.Matcher.on(engine).getAllMatches(component, controlSpecification, null, null)»
+					// Clock trigger
+					if (eventId == «match.clock.eventIdName») {
+						«match.controlFunction.generateRunCycle(component.generateWrappedComponentName)»
+						return;
+					}
+				«ENDFOR»
+			«ENDIF»
+		«ENDFOR»
+	'''
+	
+	/**
+	 * Generates the integer constants identifying the events of the given adapter and
+	 * the preallocated (immutable) event objects of its parameterless events and clocks.
+	 */
+	protected def generateEventIds(AsynchronousAdapter component) {
+		// Events are identified by the names of their ports, so the events of the adapter ports
+		// and the wrapped component ports with the same name get the same id
+		val eventIdNames = newHashMap
+		val portEvents = newArrayList
+		for (port : component.ports + component.wrappedComponent.type.ports) {
+			for (event : port.inputEvents) {
+				if (eventIdNames.registerEventIdName(port.getEventIdName(event), port.name + "." + event.name)) {
+					portEvents += port -> event
+				}
+			}
+		}
+		for (clock : component.clocks) {
+			eventIdNames.registerEventIdName(clock.eventIdName, clock.name)
+		}
+		var id = 0
+		return '''
+			«FOR portEvent : portEvents»
+				private static final int «portEvent.key.getEventIdName(portEvent.value)» = «id++»;
+				«IF portEvent.value.parameterDeclarations.empty»
+					private static final Event «portEvent.key.getEventInstanceName(portEvent.value)» = new Event(«portEvent.key.getEventIdName(portEvent.value)», "«portEvent.key.name».«portEvent.value.name»");
+				«ENDIF»
+			«ENDFOR»
+			«FOR clock : component.clocks»
+				private static final int «clock.eventIdName» = «id++»;
+				private static final Event «clock.eventInstanceName» = new Event(«clock.eventIdName», "«clock.name»");
+			«ENDFOR»
+		'''
+	}
+	
+	/**
+	 * Generates the expression creating the event object of the given event of the given port.
+	 */
+	protected def createEvent(Port port, Event event) '''«IF INTEGER_EVENTS && event.parameterDeclarations.empty»«port.getEventInstanceName(event)»«ELSEIF INTEGER_EVENTS»new Event(«port.getEventIdName(event)», "«port.name».«event.name»", «event.generateArguments»)«ELSE»new Event("«port.name».«event.name»"«IF event.generateArguments.length != 0», «ENDIF»«event.generateArguments»)«ENDIF»'''
+	
 	/**
 	 * Generates the needed Java imports in case of the given composite component.
 	 */
 	protected def generateWrapperImports(AsynchronousAdapter component) '''
 		import java.util.Collections;
 		import java.util.List;
+		«IF SHARED_EXECUTOR»
+			import java.util.concurrent.atomic.AtomicBoolean;
+		«ENDIF»
 		
 		import lbmq.*; 
 		import «PACKAGE_NAME».*;
@@ -350,12 +526,22 @@ class AsynchronousAdapterCodeGenerator {
 			@Override
 			public void raise«event.name.toFirstUpper»(«event.generateParameters») {
 				«FOR queue : QueuesOfEvents.Matcher.on(engine).getAllValuesOfqueue(port, event) SEPARATOR "\n"»
-					«queue.name».«queue.additionMethodName»(new Event("«port.name».«event.name»"«IF event.generateArguments.length != 0», «ENDIF»«event.generateArguments»));
+					«queue.name».«queue.additionMethodName»(«port.createEvent(event)»);
 				«ENDFOR»
+				«IF SHARED_EXECUTOR»
+					scheduleProcessing();
+				«ENDIF»
 			}
 		«ENDFOR»
 	'''
 	
+	protected def getQueueClassName() {
+		if (LOCK_FREE_QUEUE) {
+			return LockFreeMultiQueueSource.CLASS_NAME
+		}
+		return "LinkedBlockingMultiQueue"
+	}
+	
 	protected def getAdditionMethodName(MessageQueue queue) {
 		val eventDiscardStrategy = queue.eventDiscardStrategy
 		switch (eventDiscardStrategy) {
@@ -416,7 +602,7 @@ class AsynchronousAdapterCodeGenerator {
 	protected def generateWrapperEventHandlers(AsynchronousAdapter component) '''
 		«FOR port : component.wrappedComponent.type.ports»
 			«FOR event : port.inputEvents»
-				case "«port.name».«event.name»":
+				case «IF INTEGER_EVENTS»«port.getEventIdName(event)»«ELSE»"«port.name».«event.name»"«ENDIF»:
 					«component.generateWrappedComponentName».get«port.name.toFirstUpper»().raise«event.name.toFirstUpper»(«FOR parameter : event.parameterDeclarations SEPARATOR ", "» («parameter.type.transformType») event.getValue()[«event.parameterDeclarations.indexOf(parameter)»]«ENDFOR»);
 				break;
 			«ENDFOR»
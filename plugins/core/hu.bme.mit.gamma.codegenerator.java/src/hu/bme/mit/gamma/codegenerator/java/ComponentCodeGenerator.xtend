@@ -11,6 +11,7 @@
 package hu.bme.mit.gamma.codegenerator.java
 
 import hu.bme.mit.gamma.statechart.interface_.Component
+import java.util.Map
 
 class ComponentCodeGenerator {
 	
@@ -32,4 +33,22 @@ class ComponentCodeGenerator {
 		«ENDFOR»
 	'''
 	
+	/**
+	 * Registers the name of the integer constant identifying the event with the given qualified name (e.g., port.event),
+	 * returning false if it has already been registered for the same event. The constant names are upper-cased,
+	 * so names differing only in their case or underscores (e.g., a_b.c and a.b_c) would lead to duplicate fields.
+	 */
+	def boolean registerEventIdName(Map<String, String> eventIdNames, String eventIdName, String qualifiedEventName) {
+		val registeredEventName = eventIdNames.get(eventIdName)
+		if (registeredEventName === null) {
+			eventIdNames.put(eventIdName, qualifiedEventName)
+			return true
+		}
+		if (registeredEventName == qualifiedEventName) {
+			return false
+		}
+		throw new IllegalArgumentException("Same event id names for " + registeredEventName + " and " + qualifiedEventName +
+			": " + eventIdName + "! Port, event and clock names must differ in more than just their case and underscores!")
+	}
+	
 }
\ No newline at end of file
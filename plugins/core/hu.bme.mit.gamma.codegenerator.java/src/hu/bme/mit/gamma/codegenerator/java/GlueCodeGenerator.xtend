@@ -13,11 +13,13 @@ package hu.bme.mit.gamma.codegenerator.java
 import hu.bme.mit.gamma.codegenerator.java.queries.AbstractSynchronousCompositeComponents
 import hu.bme.mit.gamma.codegenerator.java.queries.AsynchronousCompositeComponents
 import hu.bme.mit.gamma.codegenerator.java.queries.Interfaces
+import hu.bme.mit.gamma.codegenerator.java.queries.Patterns
 import hu.bme.mit.gamma.codegenerator.java.queries.SimpleGammaComponents
 import hu.bme.mit.gamma.codegenerator.java.queries.SimpleYakinduComponents
 import hu.bme.mit.gamma.codegenerator.java.queries.SynchronousComponentWrappers
 import hu.bme.mit.gamma.codegenerator.java.queries.TypeDeclarations
 import hu.bme.mit.gamma.codegenerator.java.util.EventCodeGenerator
+import hu.bme.mit.gamma.codegenerator.java.util.EventQueueCodeGenerator
 import hu.bme.mit.gamma.codegenerator.java.util.Namings
 import hu.bme.mit.gamma.codegenerator.java.util.TimerCallbackInterfaceGenerator
 import hu.bme.mit.gamma.codegenerator.java.util.TimerInterfaceGenerator
@@ -25,17 +27,20 @@ import hu.bme.mit.gamma.codegenerator.java.util.TimerServiceCodeGenerator
 import hu.bme.mit.gamma.codegenerator.java.util.TimingDeterminer
 import hu.bme.mit.gamma.codegenerator.java.util.TypeDeclarationGenerator
 import hu.bme.mit.gamma.codegenerator.java.util.VirtualTimerServiceCodeGenerator
+import hu.bme.mit.gamma.genmodel.model.CodeGenerationOption
 import hu.bme.mit.gamma.statechart.interface_.Package
 import hu.bme.mit.gamma.statechart.statechart.StatechartDefinition
 import hu.bme.mit.gamma.statechart.interface_.Component
+import hu.bme.mit.gamma.transformation.util.QueryEngineRegistry
 import java.io.File
 import java.io.FileWriter
+import java.util.Collection
 import java.util.HashSet
+import java.util.Set
 import org.eclipse.emf.ecore.resource.ResourceSet
 import org.eclipse.viatra.query.runtime.api.IPatternMatch
 import org.eclipse.viatra.query.runtime.api.ViatraQueryEngine
 import org.eclipse.viatra.query.runtime.api.ViatraQueryMatcher
-import org.eclipse.viatra.query.runtime.emf.EMFScope
 import org.eclipse.viatra.transformation.runtime.emf.rules.batch.BatchTransformationRule
 import org.eclipse.viatra.transformation.runtime.emf.rules.batch.BatchTransformationRuleFactory
 import org.eclipse.viatra.transformation.runtime.emf.transformation.batch.BatchTransformation
@@ -61,11 +66,14 @@ class GlueCodeGenerator {
 	protected final String BASE_PACKAGE_NAME
 	// The base of the package name of the generated Yakindu components, not org.yakindu.scr anymore
 	protected final String YAKINDU_PACKAGE_NAME
+	// Optional (performance-related) variants of the generated code
+	protected final Set<CodeGenerationOption> options
 	// Auxiliary transformer objects
 	protected final extension TimingDeterminer timingDeterminer = TimingDeterminer.INSTANCE
 	protected final extension TypeDeclarationGenerator typeDeclarationGenerator
 	protected final extension NameGenerator nameGenerator
 	protected final extension EventCodeGenerator eventCodeGenerator
+	protected final EventQueueCodeGenerator eventQueueCodeGenerator
 	protected final extension VirtualTimerServiceCodeGenerator virtualTimerServiceCodeGenerator
 	protected final extension TimerInterfaceGenerator timerInterfaceGenerator
 	protected final extension TimerCallbackInterfaceGenerator timerCallbackInterfaceGenerator
@@ -76,6 +84,7 @@ class GlueCodeGenerator {
 	protected final extension StatechartWrapperCodeGenerator statechartWrapperCodeGenerator
 	protected final extension SynchronousCompositeComponentCodeGenerator synchronousCompositeComponentCodeGenerator
 	protected final extension AsynchronousAdapterCodeGenerator synchronousComponentWrapperCodeGenerator
+	protected final AdapterExecutorCodeGenerator adapterExecutorCodeGenerator
 	protected final extension ChannelInterfaceGenerator channelInterfaceGenerator
 	protected final extension ChannelCodeGenerator channelCodeGenerator
 	protected final extension AsynchronousCompositeComponentCodeGenerator asynchronousCompositeComponentCodeGenerator
@@ -91,10 +100,16 @@ class GlueCodeGenerator {
 	protected BatchTransformationRule<? extends IPatternMatch, ? extends ViatraQueryMatcher<?>> asynchronousCompositeComponentsRule
 	
 	new(ResourceSet resourceSet, String basePackageName, String srcGenFolderUri) {
+		this(resourceSet, basePackageName, srcGenFolderUri, #[])
+	}
+	
+	new(ResourceSet resourceSet, String basePackageName, String srcGenFolderUri,
+			Collection<CodeGenerationOption> options) {
 		this.BASE_PACKAGE_NAME = basePackageName
 		this.YAKINDU_PACKAGE_NAME = basePackageName
+		this.options = options.toSet
 		resourceSet.loadModels
-		this.engine = ViatraQueryEngine.on(new EMFScope(resourceSet))
+		this.engine = QueryEngineRegistry.getEngine(resourceSet, "Java code generation", Patterns.instance)
 		this.BASE_PACKAGE_URI = srcGenFolderUri + File.separator + basePackageName.replaceAll("\\.", "/");
 		this.CHANNEL_URI = this.BASE_PACKAGE_URI + File.separator + Namings.CHANNEL_PACKAGE_POSTFIX
 		this.INTERFACE_URI = this.BASE_PACKAGE_URI + File.separator + Namings.INTERFACE_PACKAGE_POSTFIX
@@ -103,16 +118,19 @@ class GlueCodeGenerator {
 		this.nameGenerator = new NameGenerator(this.BASE_PACKAGE_NAME)
 		this.typeDeclarationGenerator = new TypeDeclarationGenerator(this.BASE_PACKAGE_NAME)
 		this.eventCodeGenerator = new EventCodeGenerator(this.BASE_PACKAGE_NAME)
-		this.virtualTimerServiceCodeGenerator = new VirtualTimerServiceCodeGenerator(this.BASE_PACKAGE_NAME)
+		this.eventQueueCodeGenerator = new EventQueueCodeGenerator(this.BASE_PACKAGE_NAME)
+		val timingWheel = this.options.contains(CodeGenerationOption.TIMING_WHEEL)
+		this.virtualTimerServiceCodeGenerator = new VirtualTimerServiceCodeGenerator(this.BASE_PACKAGE_NAME, timingWheel)
 		this.timerInterfaceGenerator = new TimerInterfaceGenerator(this.BASE_PACKAGE_NAME)
 		this.timerCallbackInterfaceGenerator = new TimerCallbackInterfaceGenerator(this.BASE_PACKAGE_NAME)
-		this.timerServiceCodeGenerator = new TimerServiceCodeGenerator(this.BASE_PACKAGE_NAME)
+		this.timerServiceCodeGenerator = new TimerServiceCodeGenerator(this.BASE_PACKAGE_NAME, timingWheel)
 		this.portInterfaceGenerator  = new PortInterfaceGenerator(this.BASE_PACKAGE_NAME, trace) // Needed, as there is back-annotation here from integers to strings
 		this.componentInterfaceGenerator = new ComponentInterfaceGenerator(this.BASE_PACKAGE_NAME)
 		this.reflectiveComponentCodeGenerator = new ReflectiveComponentCodeGenerator(this.BASE_PACKAGE_NAME, trace)
-		this.statechartWrapperCodeGenerator = new StatechartWrapperCodeGenerator(this.BASE_PACKAGE_NAME, this.YAKINDU_PACKAGE_NAME, trace)
-		this.synchronousCompositeComponentCodeGenerator = new SynchronousCompositeComponentCodeGenerator(this.BASE_PACKAGE_NAME, this.YAKINDU_PACKAGE_NAME, trace)
-		this.synchronousComponentWrapperCodeGenerator = new AsynchronousAdapterCodeGenerator(this.BASE_PACKAGE_NAME, trace)
+		this.statechartWrapperCodeGenerator = new StatechartWrapperCodeGenerator(this.BASE_PACKAGE_NAME, this.YAKINDU_PACKAGE_NAME, trace, this.options)
+		this.synchronousCompositeComponentCodeGenerator = new SynchronousCompositeComponentCodeGenerator(this.BASE_PACKAGE_NAME, this.YAKINDU_PACKAGE_NAME, trace, this.options)
+		this.synchronousComponentWrapperCodeGenerator = new AsynchronousAdapterCodeGenerator(this.BASE_PACKAGE_NAME, trace, this.options)
+		this.adapterExecutorCodeGenerator = new AdapterExecutorCodeGenerator(this.BASE_PACKAGE_NAME)
 		this.channelInterfaceGenerator = new ChannelInterfaceGenerator(this.BASE_PACKAGE_NAME)
 		this.channelCodeGenerator = new ChannelCodeGenerator(this.BASE_PACKAGE_NAME)
 		this.asynchronousCompositeComponentCodeGenerator = new AsynchronousCompositeComponentCodeGenerator(this.BASE_PACKAGE_NAME, trace)
@@ -154,6 +172,9 @@ class GlueCodeGenerator {
 	def execute() {
 		checkUniqueInterfaceNames
 		generateEventClass
+		if (options.contains(CodeGenerationOption.INTEGER_EVENTS)) {
+			generateEventQueueClass
+		}
 		if (topComponent.needTimer) {				
 			// Virtual timer is generated only if there are timing specifications (triggers) in the model
 			generateTimerClasses	
@@ -166,6 +187,9 @@ class GlueCodeGenerator {
 		getSynchronousCompositeComponentsRule.fireAllCurrent
 		if (hasSynchronousWrapper) {
 			generateLinkedBlockingMultiQueueClasses
+			if (options.contains(CodeGenerationOption.SHARED_EXECUTOR)) {
+				generateAdapterExecutorClass
+			}
 		}
 		getAsynchronousAdapterRule.fireAllCurrent
 		if (hasAsynchronousComposite) {
@@ -212,6 +236,15 @@ class GlueCodeGenerator {
 		code.saveCode(componentUri)
 	}
 	
+	/**
+	 * Creates and saves the ring buffer class that stores integer event ids (and values) in the wrappers of statecharts.
+	 */
+	protected def generateEventQueueClass() {
+		val componentUri = BASE_PACKAGE_URI + File.separator + eventQueueCodeGenerator.className + ".java"
+		val code = eventQueueCodeGenerator.createEventQueueClass
+		code.saveCode(componentUri)
+	}
+	
 	/**
 	 * Creates and saves the message class that is responsible for informing the statecharts about the event that has to be raised (with the given value).
 	 */
@@ -224,6 +257,10 @@ class GlueCodeGenerator {
 		timerCallbackInterface.saveCode(BASE_PACKAGE_URI + File.separator + timerCallbackInterfaceGenerator.interfaceName + ".java")
 		val timerServiceClass = createTimerServiceClassCode
 		timerServiceClass.saveCode(BASE_PACKAGE_URI + File.separator + timerServiceCodeGenerator.yakinduClassName + ".java")
+		if (timerServiceCodeGenerator.timingWheel) {
+			val timingWheelClass = createTimingWheelClassCode
+			timingWheelClass.saveCode(BASE_PACKAGE_URI + File.separator + timerServiceCodeGenerator.timingWheelClassName + ".java")
+		}
 		val gammaTimerInterface = createGammaTimerInterfaceCode
 		gammaTimerInterface.saveCode(BASE_PACKAGE_URI + File.separator + timerInterfaceGenerator.gammaInterfaceName + ".java")
 		val gammaTimerClass = createGammaTimerClassCode
@@ -316,6 +353,10 @@ class GlueCodeGenerator {
 	
 	protected def void generateLinkedBlockingMultiQueueClasses() {
 		val compositeSystemUri = BASE_PACKAGE_URI.substring(0, BASE_PACKAGE_URI.length - BASE_PACKAGE_NAME.length) + File.separator + "lbmq"
+		if (options.contains(CodeGenerationOption.LOCK_FREE_QUEUE)) {
+			LockFreeMultiQueueSource.LockFreeMultiQueue.saveCode(compositeSystemUri + File.separator + LockFreeMultiQueueSource.CLASS_NAME + ".java")
+			return
+		}
 		LinkedBlockingQueueSource.AbstractOfferable.saveCode(compositeSystemUri + File.separator + "AbstractOfferable.java")
 		LinkedBlockingQueueSource.AbstractPollable.saveCode(compositeSystemUri + File.separator + "AbstractPollable.java")
 		LinkedBlockingQueueSource.LinkedBlockingMultiQueue.saveCode(compositeSystemUri + File.separator + "LinkedBlockingMultiQueue.java")
@@ -323,6 +364,11 @@ class GlueCodeGenerator {
 		LinkedBlockingQueueSource.Pollable.saveCode(compositeSystemUri + File.separator + "Pollable.java")
 	}
 	
+	protected def generateAdapterExecutorClass() {
+		val code = adapterExecutorCodeGenerator.createAdapterExecutorClass
+		code.saveCode(BASE_PACKAGE_URI + File.separator + adapterExecutorCodeGenerator.className + ".java")
+	}
+	
 	protected def getAsynchronousAdapterRule() {
 		if (synchronousComponentWrapperRule === null) {
 			 synchronousComponentWrapperRule = createRule(SynchronousComponentWrappers.instance).action [
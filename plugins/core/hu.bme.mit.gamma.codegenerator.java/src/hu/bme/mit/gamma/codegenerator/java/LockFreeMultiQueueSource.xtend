@@ -0,0 +1,314 @@
+/********************************************************************************
+ * Copyright (c) 2018-2021 Contributors to the Gamma project
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ ********************************************************************************/
+package hu.bme.mit.gamma.codegenerator.java
+
+/**
+ * Alternative of the LinkedBlockingMultiQueue for message queues with static priorities and capacities.
+ */
+class LockFreeMultiQueueSource {
+
+	public static final String CLASS_NAME = "LockFreeMultiQueue"
+
+	public static val LockFreeMultiQueue = '''
+		package lbmq;
+
+		import java.util.Arrays;
+		import java.util.HashMap;
+		import java.util.Map;
+		import java.util.concurrent.atomic.AtomicLong;
+		import java.util.concurrent.atomic.AtomicLongArray;
+		import java.util.concurrent.atomic.AtomicReferenceArray;
+		import java.util.concurrent.locks.LockSupport;
+
+		/**
+		 * A multi-priority queue whose sub-queues are bounded lock-free ring buffers (cells with sequence numbers),
+		 * so producers do not block each other or the consumer. A lower priority number means higher priority,
+		 * sub-queues with the same priority are served round robin. Sub-queues have to be added before
+		 * the queue is shared between threads. Elements are removed by a single consumer at a time
+		 * (the thread of the adapter), which is parked in take while the queue is empty.
+		 */
+		public class «CLASS_NAME»<K, E> {
+
+			// Number of polls before parking the consumer in take
+			private static final int SPIN_COUNT = 64;
+
+			private final Map<K, SubQueue> subQueues = new HashMap<K, SubQueue>();
+			// Ordered by priority, replaced when a sub-queue is added
+			@SuppressWarnings("unchecked")
+			private volatile PriorityGroup[] priorityGroups = new «CLASS_NAME».PriorityGroup[0];
+			// Consumer parked in take
+			private volatile Thread waiter;
+
+			/**
+			 * Adds a new sub-queue with the given priority (a lower number means higher priority) and capacity.
+			 */
+			@SuppressWarnings("unchecked")
+			public synchronized SubQueue addSubQueue(K key, int priority, int capacity) {
+				if (capacity <= 0) {
+					throw new IllegalArgumentException("The capacity must be positive: " + capacity);
+				}
+				if (subQueues.containsKey(key)) {
+					throw new IllegalArgumentException("Key " + key + " already present");
+				}
+				SubQueue subQueue = new SubQueue(capacity);
+				subQueues.put(key, subQueue);
+				PriorityGroup[] groups = priorityGroups;
+				int i = 0;
+				while (i < groups.length && groups[i].priority < priority) {
+					++i;
+				}
+				if (i < groups.length && groups[i].priority == priority) {
+					PriorityGroup[] newGroups = groups.clone();
+					newGroups[i] = groups[i].extend(subQueue);
+					priorityGroups = newGroups;
+				}
+				else {
+					PriorityGroup[] newGroups = new «CLASS_NAME».PriorityGroup[groups.length + 1];
+					System.arraycopy(groups, 0, newGroups, 0, i);
+					newGroups[i] = new PriorityGroup(priority, new «CLASS_NAME».SubQueue[] { subQueue });
+					System.arraycopy(groups, i, newGroups, i + 1, groups.length - i);
+					priorityGroups = newGroups;
+				}
+				return subQueue;
+			}
+
+			public synchronized SubQueue getSubQueue(K key) {
+				return subQueues.get(key);
+			}
+
+			/**
+			 * Retrieves and removes the head of the highest priority non-empty sub-queue, or returns null if all are empty.
+			 */
+			public E poll() {
+				for (PriorityGroup group : priorityGroups) {
+					E element = group.poll();
+					if (element != null) {
+						return element;
+					}
+				}
+				return null;
+			}
+
+			/**
+			 * Retrieves and removes the head of the highest priority non-empty sub-queue,
+			 * waiting (parking the thread) if necessary until an element becomes available.
+			 */
+			public E take() throws InterruptedException {
+				E element = poll();
+				for (int i = 0; i < SPIN_COUNT && element == null; ++i) {
+					element = poll();
+				}
+				while (element == null) {
+					waiter = Thread.currentThread();
+					// Checking again after publishing the waiter, so a concurrent offer cannot be missed
+					element = poll();
+					if (element == null) {
+						LockSupport.park(this);
+						if (Thread.interrupted()) {
+							waiter = null;
+							throw new InterruptedException();
+						}
+						element = poll();
+					}
+				}
+				waiter = null;
+				return element;
+			}
+
+			public int totalSize() {
+				int size = 0;
+				for (PriorityGroup group : priorityGroups) {
+					for (SubQueue subQueue : group.subQueues) {
+						size += subQueue.size();
+					}
+				}
+				return size;
+			}
+
+			public boolean isEmpty() {
+				for (PriorityGroup group : priorityGroups) {
+					for (SubQueue subQueue : group.subQueues) {
+						if (!subQueue.isEmpty()) {
+							return false;
+						}
+					}
+				}
+				return true;
+			}
+
+			private void signal() {
+				Thread waiter = this.waiter;
+				if (waiter != null) {
+					LockSupport.unpark(waiter);
+				}
+			}
+
+			/**
+			 * Sub-queues with the same priority.
+			 */
+			private class PriorityGroup {
+
+				final int priority;
+				final SubQueue[] subQueues;
+				// Sub-queue to be polled first, accessed only by the consumer
+				int next = 0;
+
+				PriorityGroup(int priority, SubQueue[] subQueues) {
+					this.priority = priority;
+					this.subQueues = subQueues;
+				}
+
+				PriorityGroup extend(SubQueue subQueue) {
+					SubQueue[] newSubQueues = Arrays.copyOf(subQueues, subQueues.length + 1);
+					newSubQueues[subQueues.length] = subQueue;
+					return new PriorityGroup(priority, newSubQueues);
+				}
+
+				E poll() {
+					int count = subQueues.length;
+					for (int i = 0; i < count; ++i) {
+						int index = (next + i) % count;
+						E element = subQueues[index].poll();
+						if (element != null) {
+							next = (index + 1) % count;
+							return element;
+						}
+					}
+					return null;
+				}
+
+			}
+
+			/**
+			 * A bounded ring buffer: the sequence number of a cell tells if it can be written (equals the position)
+			 * or read (equals the position + 1) in the actual round, so positions are claimed with a single CAS.
+			 */
+			public class SubQueue {
+
+				private final int capacity;
+				private final AtomicReferenceArray<E> elements;
+				private final AtomicLongArray sequences;
+				// Next position to read
+				private final AtomicLong head = new AtomicLong();
+				// Next position to write
+				private final AtomicLong tail = new AtomicLong();
+
+				SubQueue(int capacity) {
+					this.capacity = capacity;
+					this.elements = new AtomicReferenceArray<E>(capacity);
+					this.sequences = new AtomicLongArray(capacity);
+					for (int i = 0; i < capacity; ++i) {
+						sequences.set(i, i);
+					}
+				}
+
+				/**
+				 * Inserts the element if the sub-queue is not full, otherwise the element is dropped and false is returned.
+				 */
+				public boolean offer(E element) {
+					if (element == null) {
+						throw new NullPointerException();
+					}
+					if (!enqueue(element)) {
+						return false;
+					}
+					signal();
+					return true;
+				}
+
+				/**
+				 * Inserts the element, discarding the oldest elements of the sub-queue if it is full.
+				 */
+				public void push(E element) {
+					if (element == null) {
+						throw new NullPointerException();
+					}
+					while (!enqueue(element)) {
+						dequeue();
+					}
+					signal();
+				}
+
+				public E poll() {
+					return dequeue();
+				}
+
+				public int size() {
+					long size = tail.get() - head.get();
+					return (int) Math.max(0, Math.min(size, capacity));
+				}
+
+				public boolean isEmpty() {
+					return size() == 0;
+				}
+
+				public boolean isFull() {
+					return size() == capacity;
+				}
+
+				public int remainingCapacity() {
+					return capacity - size();
+				}
+
+				public void clear() {
+					while (dequeue() != null) {
+						// Removing the elements one by one
+					}
+				}
+
+				private boolean enqueue(E element) {
+					while (true) {
+						long position = tail.get();
+						int index = (int) (position % capacity);
+						long sequence = sequences.get(index);
+						if (sequence == position) {
+							if (tail.compareAndSet(position, position + 1)) {
+								elements.set(index, element);
+								// Volatile write, ordered before the read of the waiter in signal
+								sequences.set(index, position + 1);
+								return true;
+							}
+						}
+						else if (sequence < position) {
+							// The cell has not been read since the previous round: full
+							return false;
+						}
+						// Otherwise the position has been claimed by another producer
+					}
+				}
+
+				private E dequeue() {
+					// The head is also claimed with CAS, as push removes elements on the producer side
+					while (true) {
+						long position = head.get();
+						int index = (int) (position % capacity);
+						long sequence = sequences.get(index);
+						if (sequence == position + 1) {
+							if (head.compareAndSet(position, position + 1)) {
+								E element = elements.get(index);
+								elements.set(index, null);
+								sequences.set(index, position + capacity);
+								return element;
+							}
+						}
+						else if (sequence < position + 1) {
+							// Empty, or the producer of the position has not written it yet (and will signal)
+							return null;
+						}
+					}
+				}
+
+			}
+
+		}
+	'''
+
+}
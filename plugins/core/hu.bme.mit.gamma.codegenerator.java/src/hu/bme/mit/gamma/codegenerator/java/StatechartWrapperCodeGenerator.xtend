@@ -13,10 +13,12 @@ package hu.bme.mit.gamma.codegenerator.java
 import hu.bme.mit.gamma.codegenerator.java.util.Namings
 import hu.bme.mit.gamma.codegenerator.java.util.TimingDeterminer
 import hu.bme.mit.gamma.expression.model.VariableDeclaration
+import hu.bme.mit.gamma.genmodel.model.CodeGenerationOption
 import hu.bme.mit.gamma.statechart.interface_.Port
 import hu.bme.mit.gamma.statechart.statechart.StatechartDefinition
 import hu.bme.mit.gamma.statechart.interface_.Component
 import hu.bme.mit.gamma.statechart.interface_.Persistency
+import java.util.Collection
 import org.yakindu.base.types.Direction
 import org.yakindu.base.types.Event
 import org.yakindu.sct.model.sgraph.Statechart
@@ -44,10 +46,17 @@ class StatechartWrapperCodeGenerator {
 	protected final String PROCESS_QUEUE = "processQueue"
 	protected final String EVENT_QUEUE = "eventQueue"
 	protected final String EVENT_INSTANCE_NAME = "event"
+	// Integer event ids and ring buffers instead of event objects and linked lists
+	protected final boolean INTEGER_EVENTS
 
 	new(String packageName, String yakinduPackageName, Trace trace) {
+		this(packageName, yakinduPackageName, trace, #[])
+	}
+	
+	new(String packageName, String yakinduPackageName, Trace trace, Collection<CodeGenerationOption> options) {
 		this.PACKAGE_NAME = packageName
 		this.YAKINDU_PACKAGE_NAME = yakinduPackageName
+		this.INTEGER_EVENTS = options.contains(CodeGenerationOption.INTEGER_EVENTS)
 		this.trace = trace
 		this.nameGenerator = new NameGenerator(this.PACKAGE_NAME)
 		this.typeTransformer = new TypeTransformer(trace)
@@ -74,8 +83,12 @@ class StatechartWrapperCodeGenerator {
 			private boolean «INSERT_QUEUE» = true;
 			private boolean «PROCESS_QUEUE» = false;
 			// Event queues for the synchronization of statecharts
-			private Queue<«Namings.GAMMA_EVENT_CLASS»> «EVENT_QUEUE»1 = new LinkedList<«Namings.GAMMA_EVENT_CLASS»>();
-			private Queue<«Namings.GAMMA_EVENT_CLASS»> «EVENT_QUEUE»2 = new LinkedList<«Namings.GAMMA_EVENT_CLASS»>();
+			private «eventQueueType» «EVENT_QUEUE»1 = «component.createEventQueue»;
+			private «eventQueueType» «EVENT_QUEUE»2 = «component.createEventQueue»;
+			«IF INTEGER_EVENTS»
+				// Event ids
+				«component.generateEventIds»
+			«ENDIF»
 			«component.generateParameterDeclarationFields»
 			
 			public «component.generateComponentClassName»(«FOR parameter : component.parameterDeclarations SEPARATOR ", "»«parameter.type.transformType» «parameter.name»«ENDFOR») {
@@ -120,7 +133,7 @@ class StatechartWrapperCodeGenerator {
 			}
 			
 			/** Returns the event queue into which events should be put in the particular cycle. */
-			private Queue<«Namings.GAMMA_EVENT_CLASS»> getInsertQueue() {
+			private «eventQueueType» getInsertQueue() {
 				if («INSERT_QUEUE») {
 					return «EVENT_QUEUE»1;
 				}
@@ -128,7 +141,7 @@ class StatechartWrapperCodeGenerator {
 			}
 			
 			/** Returns the event queue from which events should be inspected in the particular cycle. */
-			private Queue<«Namings.GAMMA_EVENT_CLASS»> getProcessQueue() {
+			private «eventQueueType» getProcessQueue() {
 				if («PROCESS_QUEUE») {
 					return «EVENT_QUEUE»1;
 				}
@@ -152,14 +165,22 @@ class StatechartWrapperCodeGenerator {
 			/** Initiates a cycle run without changing the event queues. It is needed if this component is contained (wrapped) by another component.
 			Should be used only be the container (composite system) class. */
 			public void runComponent() {
-				Queue<«Namings.GAMMA_EVENT_CLASS»> «EVENT_QUEUE» = getProcessQueue();
+				«eventQueueType» «EVENT_QUEUE» = getProcessQueue();
 				while (!«EVENT_QUEUE».isEmpty()) {
+					«IF INTEGER_EVENTS»
+						switch («EVENT_QUEUE».remove()) {
+							«component.generateEventHandlers()»
+							default:
+								throw new IllegalArgumentException("No such event!");
+						}
+					«ELSE»
 						«Namings.GAMMA_EVENT_CLASS» «EVENT_INSTANCE_NAME» = «EVENT_QUEUE».remove();
 						switch («EVENT_INSTANCE_NAME».getEvent()) {
 							«component.generateEventHandlers()»
 							default:
 								throw new IllegalArgumentException("No such event!");
 						}
+					«ENDIF»
 				}
 				«component.generateStatemachineInstanceName».runCycle();
 				notifyListeners();
@@ -278,9 +299,14 @@ class StatechartWrapperCodeGenerator {
 	 * Returns the imports needed for the simple component classes.
 	 */
 	protected def generateSimpleComponentImports(Component component) '''
-		import java.util.Queue;
+		«IF !INTEGER_EVENTS»
+			import java.util.Queue;
+		«ENDIF»
 		import java.util.List;
-		import java.util.LinkedList;
+		«IF !INTEGER_EVENTS || !component.ports.empty»
+			«««			The integer event queues are not linked lists, but the listeners of the ports are
+			import java.util.LinkedList;
+		«ENDIF»
 		«IF component.ports.map[it.outputEvents].flatten.exists[it.persistency == Persistency.PERSISTENT]»
 			import java.lang.reflect.Field;
 		«ENDIF»
@@ -299,13 +325,49 @@ class StatechartWrapperCodeGenerator {
 ««« It is done this way, so all Yakindu interfaces mapped to the same Gamma interface can process the same event
 		«FOR port : component.ports»
 			«FOR event : port.inputEvents»
-				case "«port.name.toFirstUpper».«event.name.toFirstUpper»": 
+				case «IF INTEGER_EVENTS»«port.getEventIdName(event)»«ELSE»"«port.name.toFirstUpper».«event.name.toFirstUpper»"«ENDIF»: 
 					«event.toYakinduEvent(port).delegateCall(component, port)»
 				break;
 			«ENDFOR»
 		«ENDFOR»
 	'''
 	
+	/**
+	 * Generates the integer constants identifying the in events of the given component.
+	 */
+	protected def generateEventIds(Component component) {
+		val eventIdNames = newHashMap
+		for (port : component.ports) {
+			for (event : port.inputEvents) {
+				eventIdNames.registerEventIdName(port.getEventIdName(event), port.name + "." + event.name)
+			}
+		}
+		var id = 0
+		return '''
+			«FOR port : component.ports»
+				«FOR event : port.inputEvents»
+					private static final int «port.getEventIdName(event)» = «id++»;
+				«ENDFOR»
+			«ENDFOR»
+		'''
+	}
+	
+	protected def getEventQueueType() {
+		if (INTEGER_EVENTS) {
+			return Namings.GAMMA_EVENT_QUEUE_CLASS
+		}
+		return '''Queue<«Namings.GAMMA_EVENT_CLASS»>'''
+	}
+	
+	protected def createEventQueue(Component component) {
+		if (INTEGER_EVENTS) {
+			val valueCount = component.ports.map[it.inputEvents].flatten
+				.fold(0)[count, event | Math.max(count, event.parameterDeclarations.size)]
+			return '''new «Namings.GAMMA_EVENT_QUEUE_CLASS»(«valueCount»)'''
+		}
+		return '''new LinkedList<«Namings.GAMMA_EVENT_CLASS»>()'''
+	}
+	
 	/**
 	 * Generates code raising the Yakindu statechart event "connected" to the given port and component.
 	 */
@@ -318,7 +380,7 @@ class StatechartWrapperCodeGenerator {
 	*/
 	protected def castArgument(Event event) '''
 		«IF event.type !== null»
-			(«event.type.eventParameterType.toFirstUpper») «EVENT_INSTANCE_NAME».getValue()[0]«ENDIF»'''
+			(«event.type.eventParameterType.toFirstUpper») «IF INTEGER_EVENTS»«EVENT_QUEUE».getValue(0)«ELSE»«EVENT_INSTANCE_NAME».getValue()[0]«ENDIF»«ENDIF»'''
 	
 	/**
 	 * Generates methods that for in-event raisings in case of simple components.
@@ -327,7 +389,11 @@ class StatechartWrapperCodeGenerator {
 		«FOR event : port.inputEvents SEPARATOR "\n"»
 			@Override
 			public void raise«event.name.toFirstUpper»(«event.generateParameters») {
-				getInsertQueue().add(new «Namings.GAMMA_EVENT_CLASS»("«port.name.toFirstUpper».«event.name.toFirstUpper»"«IF event.generateArguments.length != 0», «ENDIF»«event.generateArguments»));
+				«IF INTEGER_EVENTS»
+					getInsertQueue().add(«port.getEventIdName(event)»«IF event.generateArguments.length != 0», «ENDIF»«event.generateArguments»);
+				«ELSE»
+					getInsertQueue().add(new «Namings.GAMMA_EVENT_CLASS»("«port.name.toFirstUpper».«event.name.toFirstUpper»"«IF event.generateArguments.length != 0», «ENDIF»«event.generateArguments»));
+				«ENDIF»
 			}
 		«ENDFOR»
 	'''
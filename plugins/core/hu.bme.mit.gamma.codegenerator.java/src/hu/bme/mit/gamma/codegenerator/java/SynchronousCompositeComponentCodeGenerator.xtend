@@ -14,10 +14,18 @@ import hu.bme.mit.gamma.codegenerator.java.queries.BroadcastChannels
 import hu.bme.mit.gamma.codegenerator.java.queries.SimpleChannels
 import hu.bme.mit.gamma.codegenerator.java.util.Namings
 import hu.bme.mit.gamma.codegenerator.java.util.TimingDeterminer
+import hu.bme.mit.gamma.genmodel.model.CodeGenerationOption
+import hu.bme.mit.gamma.statechart.interface_.Port
 import hu.bme.mit.gamma.statechart.statechart.StatechartDefinition
 import hu.bme.mit.gamma.statechart.composite.AbstractSynchronousCompositeComponent
 import hu.bme.mit.gamma.statechart.composite.CascadeCompositeComponent
+import hu.bme.mit.gamma.statechart.composite.ComponentInstance
+import hu.bme.mit.gamma.statechart.composite.InstancePortReference
 import hu.bme.mit.gamma.statechart.composite.SynchronousCompositeComponent
+import java.util.Collection
+import java.util.LinkedHashMap
+import java.util.List
+import java.util.Map
 
 import static extension hu.bme.mit.gamma.codegenerator.java.util.Namings.*
 import static extension hu.bme.mit.gamma.statechart.derivedfeatures.StatechartModelDerivedFeatures.*
@@ -36,9 +44,16 @@ class SynchronousCompositeComponentCodeGenerator {
 	//
 	protected final String INSERT_QUEUE = "insertQueue"
 	protected final String EVENT_QUEUE = "eventQueue"
+	// Out-events are forwarded to the connected ports through final references instead of listeners
+	protected final boolean DIRECT_WIRING
 
 	new(String packageName, String yakinduPackageName, Trace trace) {
+		this(packageName, yakinduPackageName, trace, #[])
+	}
+	
+	new(String packageName, String yakinduPackageName, Trace trace, Collection<CodeGenerationOption> options) {
 		this.PACKAGE_NAME = packageName
+		this.DIRECT_WIRING = options.contains(CodeGenerationOption.DIRECT_WIRING)
 		this.trace = trace
 		this.nameGenerator = new NameGenerator(this.PACKAGE_NAME)
 		this.typeTransformer = new TypeTransformer(trace)
@@ -58,25 +73,40 @@ class SynchronousCompositeComponentCodeGenerator {
 		public class «component.generateComponentClassName» implements «component.generatePortOwnerInterfaceName» {
 			// Component instances
 			«FOR instance : component.components»
-				private «instance.type.generateComponentClassName» «instance.name»;
+				private «IF DIRECT_WIRING»final «ENDIF»«instance.type.generateComponentClassName» «instance.name»;
 			«ENDFOR»
 			// Port instances
 			«FOR port : component.ports»
-				private «port.name.toFirstUpper» «port.name.toFirstLower»;
+				private «IF DIRECT_WIRING && port.portBindings.size == 1»final «ENDIF»«port.name.toFirstUpper» «port.name.toFirstLower»;
 			«ENDFOR»
+			«IF DIRECT_WIRING»
+				// Ports of the component instances connected at generation time
+				«FOR reference : component.wiredPortReferences»
+					private final «reference.instance.derivedType.generateComponentClassName».«reference.port.name.toFirstUpper» «reference.wiredPortName»;
+				«ENDFOR»
+			«ENDIF»
 			«component.generateParameterDeclarationFields»
 			
 			«IF component.needTimer»
 				public «component.generateComponentClassName»(«FOR parameter : component.parameterDeclarations SEPARATOR ", " AFTER ", "»«parameter.type.transformType» «parameter.name»«ENDFOR»«Namings.UNIFIED_TIMER_INTERFACE» timer) {
 					«component.createInstances»
+					«IF DIRECT_WIRING»
+						«component.createWiredPortReferences»
+					«ENDIF»
 					setTimer(timer);
-					init();
+					«IF !DIRECT_WIRING»
+						init();
+					«ENDIF»
 				}
 			«ENDIF»
 			
 			public «component.generateComponentClassName»(«FOR parameter : component.parameterDeclarations SEPARATOR ", "»«parameter.type.transformType» «parameter.name»«ENDFOR») {
 				«component.createInstances»
-				init();
+				«IF DIRECT_WIRING»
+					«component.createWiredPortReferences»
+				«ELSE»
+					init();
+				«ENDIF»
 			}
 			
 			/** Resets the contained statemachines recursively. Must be called to initialize the component. */
@@ -96,18 +126,24 @@ class SynchronousCompositeComponentCodeGenerator {
 				notifyAllListeners();
 			}
 			
-			/** Creates the channel mappings and enters the wrapped statemachines. */
-			private void init() {
-				// Registration of simple channels
-				«FOR channelMatch : SimpleChannels.Matcher.on(engine).getAllMatches(component, null, null, null)»
-					«channelMatch.providedPort.instance.name».get«channelMatch.providedPort.port.name.toFirstUpper»().registerListener(«channelMatch.requiredPort.instance.name».get«channelMatch.requiredPort.port.name.toFirstUpper»());
-					«channelMatch.requiredPort.instance.name».get«channelMatch.requiredPort.port.name.toFirstUpper»().registerListener(«channelMatch.providedPort.instance.name».get«channelMatch.providedPort.port.name.toFirstUpper»());
-				«ENDFOR»
-				// Registration of broadcast channels
-				«FOR channelMatch : BroadcastChannels.Matcher.on(engine).getAllMatches(component, null, null, null)»
-					«channelMatch.providedPort.instance.name».get«channelMatch.providedPort.port.name.toFirstUpper»().registerListener(«channelMatch.requiredPort.instance.name».get«channelMatch.requiredPort.port.name.toFirstUpper»());
+			«IF DIRECT_WIRING»
+				«FOR instance : component.components.filter[component.isWired(it)] SEPARATOR "\n"»
+					«component.generateEventForwarding(instance)»
 				«ENDFOR»
-			}
+			«ELSE»
+				/** Creates the channel mappings and enters the wrapped statemachines. */
+				private void init() {
+					// Registration of simple channels
+					«FOR channelMatch : SimpleChannels.Matcher.on(engine).getAllMatches(component, null, null, null)»
+						«channelMatch.providedPort.instance.name».get«channelMatch.providedPort.port.name.toFirstUpper»().registerListener(«channelMatch.requiredPort.instance.name».get«channelMatch.requiredPort.port.name.toFirstUpper»());
+						«channelMatch.requiredPort.instance.name».get«channelMatch.requiredPort.port.name.toFirstUpper»().registerListener(«channelMatch.providedPort.instance.name».get«channelMatch.providedPort.port.name.toFirstUpper»());
+					«ENDFOR»
+					// Registration of broadcast channels
+					«FOR channelMatch : BroadcastChannels.Matcher.on(engine).getAllMatches(component, null, null, null)»
+						«channelMatch.providedPort.instance.name».get«channelMatch.providedPort.port.name.toFirstUpper»().registerListener(«channelMatch.requiredPort.instance.name».get«channelMatch.requiredPort.port.name.toFirstUpper»());
+					«ENDFOR»
+				}
+			«ENDIF»
 			
 			// Inner classes representing Ports
 			«FOR systemPort : component.ports SEPARATOR "\n"»
@@ -121,29 +157,34 @@ class SynchronousCompositeComponentCodeGenerator {
 						«ENDFOR»
 					«ENDFOR»
 					
-					public «systemPort.name.toFirstUpper»() {
-						// Registering the listener to the contained component
-						«FOR portBinding : systemPort.portBindings»
-							«portBinding.instancePortReference.instance.name».get«portBinding.instancePortReference.port.name.toFirstUpper»().registerListener(new «portBinding.compositeSystemPort.name.toFirstUpper»Util());
-						«ENDFOR»
-					}
-					
+					«IF !DIRECT_WIRING»
+						public «systemPort.name.toFirstUpper»() {
+							// Registering the listener to the contained component
+							«FOR portBinding : systemPort.portBindings»
+								«portBinding.instancePortReference.instance.name».get«portBinding.instancePortReference.port.name.toFirstUpper»().registerListener(new «portBinding.compositeSystemPort.name.toFirstUpper»Util());
+							«ENDFOR»
+						}
+						
+					«ENDIF»
 					«systemPort.delegateRaisingMethods» 
 					
 					«systemPort.implementOutMethods»
 					
-					// Class for the setting of the boolean fields (events)
-					private class «systemPort.name.toFirstUpper»Util implements «systemPort.interfaceRealization.interface.implementationName».Listener.«systemPort.interfaceRealization.realizationMode.toString.toLowerCase.toFirstUpper» {
-						«FOR event : systemPort.outputEvents SEPARATOR "\n"»
-							@Override
-							public void raise«event.name.toFirstUpper»(«event.generateParameters») {
-								isRaised«event.name.toFirstUpper» = true;
-								«FOR parameter : event.parameterDeclarations»
-									«systemPort.name.toFirstUpper».this.«parameter.generateName» = «parameter.generateName»;
-								«ENDFOR»
-							}
-						«ENDFOR»
-					}
+					«IF !DIRECT_WIRING»
+						// Class for the setting of the boolean fields (events)
+						private class «systemPort.name.toFirstUpper»Util implements «systemPort.interfaceRealization.interface.implementationName».Listener.«systemPort.interfaceRealization.realizationMode.toString.toLowerCase.toFirstUpper» {
+							«FOR event : systemPort.outputEvents SEPARATOR "\n"»
+								@Override
+								public void raise«event.name.toFirstUpper»(«event.generateParameters») {
+									isRaised«event.name.toFirstUpper» = true;
+									«FOR parameter : event.parameterDeclarations»
+										«systemPort.name.toFirstUpper».this.«parameter.generateName» = «parameter.generateName»;
+									«ENDFOR»
+								}
+							«ENDFOR»
+						}
+						
+					«ENDIF»
 					
 					@Override
 					public void registerListener(«systemPort.interfaceRealization.interface.implementationName».Listener.«systemPort.interfaceRealization.realizationMode.toString.toLowerCase.toFirstUpper» listener) {
@@ -164,6 +205,12 @@ class SynchronousCompositeComponentCodeGenerator {
 					
 					/** Notifying the registered listeners. */
 					public void notifyListeners() {
+						«IF DIRECT_WIRING»
+							// Only the environment registers listeners to the ports
+							if (listeners.isEmpty()) {
+								return;
+							}
+						«ENDIF»
 						«FOR event : systemPort.outputEvents»
 							if (isRaised«event.name.toFirstUpper») {
 								for («systemPort.interfaceRealization.interface.implementationName».Listener.«systemPort.interfaceRealization.realizationMode.toString.toLowerCase.toFirstUpper» listener : listeners) {
@@ -194,6 +241,12 @@ class SynchronousCompositeComponentCodeGenerator {
 				«FOR subcomponent : component.components»
 					«subcomponent.name».notifyAllListeners();
 				«ENDFOR»
+				«IF DIRECT_WIRING»
+					// Forwarding the out-events of the subcomponents
+					«FOR subcomponent : component.components.filter[component.isWired(it)]»
+						forward«subcomponent.name.toFirstUpper»Events();
+					«ENDFOR»
+				«ENDIF»
 				notifyListeners();
 			}
 			
@@ -251,6 +304,9 @@ class SynchronousCompositeComponentCodeGenerator {
 					«ELSE»
 						«instance.name».runComponent();
 					«ENDIF»
+					«IF DIRECT_WIRING && component.isWired(instance)»
+						forward«instance.name.toFirstUpper»Events();
+					«ENDIF»
 				«ENDFOR»
 				// Notifying registered listeners
 				notifyListeners();
@@ -278,4 +334,103 @@ class SynchronousCompositeComponentCodeGenerator {
 		}
 	'''
 	
+	/**
+	 * Generates the method that forwards the raised out-events of the given instance to the ports
+	 * connected to it, i.e., the ports on the other side of its channels and the bound system ports.
+	 */
+	protected def generateEventForwarding(AbstractSynchronousCompositeComponent component, ComponentInstance instance) '''
+		/** Forwards the raised out-events of «instance.name» to the connected ports. */
+		private void forward«instance.name.toFirstUpper»Events() {
+			«FOR source : component.getForwardedPortReferences(instance)»
+				«FOR event : source.port.outputEvents»
+					if («source.wiredPortName».isRaised«event.name.toFirstUpper»()) {
+						«FOR target : component.getChannelTargets(source)»
+							«target.wiredPortName».raise«event.name.toFirstUpper»(«FOR parameter : event.parameterDeclarations SEPARATOR ", "»«source.wiredPortName».get«parameter.name.toFirstUpper»()«ENDFOR»);
+						«ENDFOR»
+						«FOR target : component.getBindingTargets(source)»
+							«target.name.toFirstLower».isRaised«event.name.toFirstUpper» = true;
+							«FOR parameter : event.parameterDeclarations»
+								«target.name.toFirstLower».«parameter.generateName» = «source.wiredPortName».get«parameter.name.toFirstUpper»();
+							«ENDFOR»
+						«ENDFOR»
+					}
+				«ENDFOR»
+			«ENDFOR»
+		}
+	'''
+	
+	/** Sets the references of the ports connected by channels and port bindings. */
+	protected def createWiredPortReferences(AbstractSynchronousCompositeComponent component) '''
+		«FOR reference : component.wiredPortReferences»
+			«reference.wiredPortName» = «reference.instance.name».get«reference.port.name.toFirstUpper»();
+		«ENDFOR»
+	'''
+	
+	/**
+	 * Returns the instance ports of the channels and port bindings of the component without duplicates.
+	 */
+	protected def getWiredPortReferences(AbstractSynchronousCompositeComponent component) {
+		val Map<String, InstancePortReference> references = new LinkedHashMap
+		for (channelMatch : SimpleChannels.Matcher.on(engine).getAllMatches(component, null, null, null)) {
+			references.putIfAbsent(channelMatch.providedPort.wiredPortName, channelMatch.providedPort)
+			references.putIfAbsent(channelMatch.requiredPort.wiredPortName, channelMatch.requiredPort)
+		}
+		for (channelMatch : BroadcastChannels.Matcher.on(engine).getAllMatches(component, null, null, null)) {
+			references.putIfAbsent(channelMatch.providedPort.wiredPortName, channelMatch.providedPort)
+			references.putIfAbsent(channelMatch.requiredPort.wiredPortName, channelMatch.requiredPort)
+		}
+		for (portBinding : component.portBindings) {
+			val reference = portBinding.instancePortReference
+			references.putIfAbsent(reference.wiredPortName, reference)
+		}
+		return references.values
+	}
+	
+	protected def getWiredPortName(InstancePortReference reference) {
+		return reference.instance.name + reference.port.name.toFirstUpper
+	}
+	
+	/**
+	 * Returns the ports of the given instance whose out-events have to be forwarded.
+	 */
+	protected def getForwardedPortReferences(AbstractSynchronousCompositeComponent component, ComponentInstance instance) {
+		return component.wiredPortReferences.filter[it.instance == instance && !it.port.outputEvents.empty &&
+			!(component.getChannelTargets(it).empty && component.getBindingTargets(it).empty)]
+	}
+	
+	protected def isWired(AbstractSynchronousCompositeComponent component, ComponentInstance instance) {
+		return !component.getForwardedPortReferences(instance).empty
+	}
+	
+	/**
+	 * Returns the ports on the other side of the channels of the given port: in case of simple channels
+	 * events flow in both directions, in case of broadcast channels only from the provided port.
+	 */
+	protected def getChannelTargets(AbstractSynchronousCompositeComponent component, InstancePortReference source) {
+		val List<InstancePortReference> targets = newArrayList
+		val sourceName = source.wiredPortName
+		for (channelMatch : SimpleChannels.Matcher.on(engine).getAllMatches(component, null, null, null)) {
+			if (channelMatch.providedPort.wiredPortName == sourceName) {
+				targets += channelMatch.requiredPort
+			}
+			else if (channelMatch.requiredPort.wiredPortName == sourceName) {
+				targets += channelMatch.providedPort
+			}
+		}
+		for (channelMatch : BroadcastChannels.Matcher.on(engine).getAllMatches(component, null, null, null)) {
+			if (channelMatch.providedPort.wiredPortName == sourceName) {
+				targets += channelMatch.requiredPort
+			}
+		}
+		return targets
+	}
+	
+	/**
+	 * Returns the system ports the given port is bound to.
+	 */
+	protected def Iterable<Port> getBindingTargets(AbstractSynchronousCompositeComponent component, InstancePortReference source) {
+		return component.portBindings.filter[it.instancePortReference.wiredPortName == source.wiredPortName]
+			.map[it.compositeSystemPort]
+	}
+	
 }
\ No newline at end of file
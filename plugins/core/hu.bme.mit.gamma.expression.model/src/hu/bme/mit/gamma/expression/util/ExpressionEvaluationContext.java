@@ -0,0 +1,204 @@
+/********************************************************************************
+ * Copyright (c) 2018-2021 Contributors to the Gamma project
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ ********************************************************************************/
+package hu.bme.mit.gamma.expression.util;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.emf.common.notify.Adapter;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EStructuralFeature.Setting;
+import org.eclipse.emf.ecore.util.ECrossReferenceAdapter;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+import hu.bme.mit.gamma.expression.derivedfeatures.ExpressionModelDerivedFeatures;
+import hu.bme.mit.gamma.expression.model.ArgumentedElement;
+import hu.bme.mit.gamma.expression.model.ConstantDeclaration;
+import hu.bme.mit.gamma.expression.model.Expression;
+import hu.bme.mit.gamma.expression.model.ParameterDeclaration;
+
+/**
+ * Evaluation context of the expressions contained by a root, e.g., a package. The arguments of
+ * the parameters are retrieved through the inverse references of the components, so the root
+ * is not traversed for every parameter. The arguments and the values of the constants are memoized;
+ * the memos are cleared after every change of the root, as the context adapts all of its contents.
+ * <p>
+ * Contexts are attached only in evaluation scopes opened explicitly, e.g., by transformations, and they
+ * are detached when the last scope using them is closed, so ad-hoc evaluations (e.g., of validators)
+ * do not leave adapters on editor-owned resources.
+ */
+public class ExpressionEvaluationContext extends ECrossReferenceAdapter {
+
+	protected final Map<ParameterDeclaration, Expression> arguments = new HashMap<ParameterDeclaration, Expression>();
+	protected final Map<ConstantDeclaration, Integer> integerValues = new HashMap<ConstantDeclaration, Integer>();
+	protected final Map<ConstantDeclaration, Boolean> booleanValues = new HashMap<ConstantDeclaration, Boolean>();
+	// Whether the value of a constant depends only on the declarations of this root
+	protected final Map<ConstantDeclaration, Boolean> memoizables = new HashMap<ConstantDeclaration, Boolean>();
+
+	protected final EObject root;
+	// The number of open scopes using this context, guarded by the root
+	protected int scopeCount = 0;
+
+	// The evaluation scope opened by the current thread
+	private static final ThreadLocal<Scope> scopes = new ThreadLocal<Scope>();
+
+	/**
+	 * Opens an evaluation scope for the current thread, in which the contexts of the roots are attached
+	 * and reused until the scope is closed. Scopes can be nested, only the outermost one detaches the contexts.
+	 */
+	public static Scope openScope() {
+		Scope scope = scopes.get();
+		if (scope == null) {
+			scope = new Scope();
+			scopes.set(scope);
+		}
+		scope.depth++;
+		return scope;
+	}
+
+	/**
+	 * Returns the context of the root of the given object, attaching a new one to the root if necessary,
+	 * or null if no evaluation scope is open in the current thread.
+	 */
+	public static ExpressionEvaluationContext getContext(EObject object) {
+		Scope scope = scopes.get();
+		if (scope == null) {
+			return null;
+		}
+		EObject root = EcoreUtil.getRootContainer(object);
+		synchronized (root) {
+			ExpressionEvaluationContext context = null;
+			for (Adapter adapter : root.eAdapters()) {
+				if (adapter instanceof ExpressionEvaluationContext) {
+					context = (ExpressionEvaluationContext) adapter;
+				}
+			}
+			if (context == null) {
+				context = new ExpressionEvaluationContext(root);
+				root.eAdapters().add(context);
+			}
+			if (scope.contexts.add(context)) {
+				context.scopeCount++;
+			}
+			return context;
+		}
+	}
+
+	protected ExpressionEvaluationContext(EObject root) {
+		this.root = root;
+	}
+
+	/**
+	 * Returns the argument bound to the parameter by the (first) element referring to its component.
+	 */
+	public synchronized Expression getArgument(ParameterDeclaration parameter) {
+		Expression argument = arguments.get(parameter);
+		if (argument != null) {
+			return argument;
+		}
+		EObject component = parameter.eContainer();
+		for (Setting setting : getInverseReferences(component, false)) {
+			EObject referrer = setting.getEObject();
+			if (referrer instanceof ArgumentedElement) { // If the component is referenced
+				ArgumentedElement element = (ArgumentedElement) referrer;
+				int index = ExpressionModelDerivedFeatures.getIndex(parameter);
+				argument = element.getArguments().get(index);
+				arguments.put(parameter, argument);
+				return argument;
+			}
+		}
+		throw new IllegalArgumentException("Not found expression for parameter: " + parameter);
+	}
+
+	public synchronized Integer getIntegerValue(ConstantDeclaration constant) {
+		return integerValues.get(constant);
+	}
+
+	public synchronized void putIntegerValue(ConstantDeclaration constant, int value) {
+		integerValues.put(constant, value);
+	}
+
+	public synchronized Boolean getBooleanValue(ConstantDeclaration constant) {
+		return booleanValues.get(constant);
+	}
+
+	public synchronized void putBooleanValue(ConstantDeclaration constant, boolean value) {
+		booleanValues.put(constant, value);
+	}
+
+	public synchronized Boolean getMemoizable(ConstantDeclaration constant) {
+		return memoizables.get(constant);
+	}
+
+	public synchronized void putMemoizable(ConstantDeclaration constant, boolean memoizable) {
+		memoizables.put(constant, memoizable);
+	}
+
+	@Override
+	public void notifyChanged(Notification notification) {
+		super.notifyChanged(notification); // Keeping the inverse references in sync
+		if (!notification.isTouch()) {
+			clear();
+		}
+	}
+
+	protected void release() {
+		synchronized (root) {
+			scopeCount--;
+			if (scopeCount == 0) {
+				root.eAdapters().remove(this); // Removes the adapter from the contents too
+			}
+		}
+	}
+
+	protected synchronized void clear() {
+		if (!arguments.isEmpty()) {
+			arguments.clear();
+		}
+		if (!integerValues.isEmpty()) {
+			integerValues.clear();
+		}
+		if (!booleanValues.isEmpty()) {
+			booleanValues.clear();
+		}
+		if (!memoizables.isEmpty()) {
+			memoizables.clear();
+		}
+	}
+
+	/**
+	 * Evaluation scope of a thread, which releases the contexts it has used when closed.
+	 */
+	public static class Scope implements AutoCloseable {
+
+		protected final Set<ExpressionEvaluationContext> contexts = new LinkedHashSet<ExpressionEvaluationContext>();
+		protected int depth = 0;
+
+		protected Scope() {}
+
+		@Override
+		public void close() {
+			depth--;
+			if (depth == 0) {
+				scopes.remove();
+				for (ExpressionEvaluationContext context : contexts) {
+					context.release();
+				}
+				contexts.clear();
+			}
+		}
+
+	}
+
+}
@@ -55,11 +55,37 @@ public class ExpressionEvaluator {
 	private static final ExpressionModelFactory factory = ExpressionModelFactory.eINSTANCE;
 	
 	public int evaluate(Expression expression) {
-		try {
-			return evaluateInteger(expression);
-		} catch (IllegalArgumentException e) {
+		if (isBooleanExpression(expression)) {
 			return evaluateBoolean(expression) ? 1 : 0;
 		}
+		return evaluateInteger(expression);
+	}
+	
+	/**
+	 * Returns whether the expression is evaluated by evaluateBoolean, so evaluate
+	 * does not need to try the integer evaluation first.
+	 */
+	public boolean isBooleanExpression(Expression expression) {
+		if (expression instanceof TrueExpression || expression instanceof FalseExpression ||
+				expression instanceof AndExpression || expression instanceof OrExpression ||
+				expression instanceof XorExpression || expression instanceof ImplyExpression ||
+				expression instanceof NotExpression || expression instanceof EqualityExpression ||
+				expression instanceof InequalityExpression) {
+			return true;
+		}
+		if (expression instanceof DirectReferenceExpression) {
+			final DirectReferenceExpression referenceExpression = (DirectReferenceExpression) expression;
+			Declaration declaration = referenceExpression.getDeclaration();
+			if (declaration instanceof ConstantDeclaration) {
+				final ConstantDeclaration constantDeclaration = (ConstantDeclaration) declaration;
+				return isBooleanExpression(constantDeclaration.getExpression());
+			}
+			if (declaration instanceof ParameterDeclaration) {
+				final ParameterDeclaration parameterDeclaration = (ParameterDeclaration) declaration;
+				return isBooleanExpression(evaluateParameter(parameterDeclaration));
+			}
+		}
+		return false;
 	}
 
 	// Integers (and enums)
@@ -69,7 +95,16 @@ public class ExpressionEvaluator {
 			Declaration declaration = referenceExpression.getDeclaration();
 			if (declaration instanceof ConstantDeclaration) {
 				final ConstantDeclaration constantDeclaration = (ConstantDeclaration) declaration;
-				return evaluateInteger(constantDeclaration.getExpression());
+				if (!isMemoizable(constantDeclaration)) {
+					return evaluateInteger(constantDeclaration.getExpression());
+				}
+				ExpressionEvaluationContext context = ExpressionEvaluationContext.getContext(constantDeclaration);
+				Integer value = context.getIntegerValue(constantDeclaration);
+				if (value == null) {
+					value = evaluateInteger(constantDeclaration.getExpression());
+					context.putIntegerValue(constantDeclaration, value);
+				}
+				return value;
 			}
 			if (declaration instanceof ParameterDeclaration) {
 				final ParameterDeclaration parameterDeclaration = (ParameterDeclaration) declaration;
@@ -112,6 +147,12 @@ public class ExpressionEvaluator {
 	}
 
 	public Expression evaluateParameter(ParameterDeclaration parameter) {
+		// The context of the root (package) indexes the elements referring to the component
+		ExpressionEvaluationContext context = ExpressionEvaluationContext.getContext(parameter);
+		if (context != null) {
+			return context.getArgument(parameter);
+		}
+		// No evaluation scope is open, the root is traversed
 		EObject component = parameter.eContainer(); // Component
 		EObject root = EcoreUtil.getRootContainer(parameter); // Package
 		TreeIterator<Object> contents = EcoreUtil.getAllContents(root, true);
@@ -129,6 +170,56 @@ public class ExpressionEvaluator {
 		throw new IllegalArgumentException("Not found expression for parameter: " + parameter);
 	}
 	
+	/**
+	 * The value of a constant can be memoized in the context of its root only if every declaration
+	 * it (transitively) depends on is in the same root, as only the changes of this root invalidate the context.
+	 * Nothing is memoized if no evaluation scope is open.
+	 */
+	protected boolean isMemoizable(ConstantDeclaration constant) {
+		ExpressionEvaluationContext context = ExpressionEvaluationContext.getContext(constant);
+		if (context == null) {
+			return false;
+		}
+		Boolean memoizable = context.getMemoizable(constant);
+		if (memoizable == null) {
+			memoizable = isMemoizable(constant.getExpression(), EcoreUtil.getRootContainer(constant));
+			context.putMemoizable(constant, memoizable);
+		}
+		return memoizable;
+	}
+	
+	private boolean isMemoizable(Expression expression, EObject root) {
+		if (expression == null) {
+			return false;
+		}
+		TreeIterator<EObject> contents = expression.eAllContents();
+		EObject content = expression;
+		while (content != null) {
+			if (content instanceof DirectReferenceExpression) {
+				Declaration declaration = ((DirectReferenceExpression) content).getDeclaration();
+				if (declaration == null || EcoreUtil.getRootContainer(declaration) != root) {
+					return false;
+				}
+				if (declaration instanceof ConstantDeclaration &&
+						!isMemoizable((ConstantDeclaration) declaration)) {
+					return false;
+				}
+				if (declaration instanceof ParameterDeclaration) {
+					try {
+						Expression argument = evaluateParameter((ParameterDeclaration) declaration);
+						if (!isMemoizable(argument, root)) {
+							return false;
+						}
+					} catch (IllegalArgumentException e) {
+						return false; // Not bound parameter, the evaluation will fail anyway
+					}
+				}
+			}
+			content = contents.hasNext() ? contents.next() : null;
+		}
+		return true;
+	}
+	
 	// Booleans
 	public boolean evaluateBoolean(Expression expression) {
 		if (expression instanceof TrueExpression) {
@@ -189,7 +280,16 @@ public class ExpressionEvaluator {
 			Declaration declaration = referenceExpression.getDeclaration();
 			if (declaration instanceof ConstantDeclaration) {
 				final ConstantDeclaration constantDeclaration = (ConstantDeclaration) declaration;
-				return evaluateBoolean(constantDeclaration.getExpression());
+				if (!isMemoizable(constantDeclaration)) {
+					return evaluateBoolean(constantDeclaration.getExpression());
+				}
+				ExpressionEvaluationContext context = ExpressionEvaluationContext.getContext(constantDeclaration);
+				Boolean value = context.getBooleanValue(constantDeclaration);
+				if (value == null) {
+					value = evaluateBoolean(constantDeclaration.getExpression());
+					context.putBooleanValue(constantDeclaration, value);
+				}
+				return value;
 			}
 			if (declaration instanceof ParameterDeclaration) {
 				final ParameterDeclaration parameterDeclaration = (ParameterDeclaration) declaration;
@@ -130,25 +130,27 @@ public class ExpressionUtil {
 		Set<Boolean> booleanValues = new HashSet<Boolean>();
 		Set<Expression> evaluatedExpressions = new HashSet<Expression>();
 		for (Expression expression : expressions) {
+			// Excluding branches: the type of the expression decides the evaluation
 			try {
-				// Integers and enums
-				int value = evaluator.evaluateInteger(expression);
-				if (!integerValues.contains(value)) {
-					integerValues.add(value);
-					IntegerLiteralExpression integerLiteralExpression = factory.createIntegerLiteralExpression();
-					integerLiteralExpression.setValue(BigInteger.valueOf(value));
-					evaluatedExpressions.add(integerLiteralExpression);
+				if (evaluator.isBooleanExpression(expression)) {
+					// Boolean
+					boolean bool = evaluator.evaluateBoolean(expression);
+					if (!booleanValues.contains(bool)) {
+						booleanValues.add(bool);
+						evaluatedExpressions.add(bool ? factory.createTrueExpression() : factory.createFalseExpression());
+					}
 				}
-			} catch (Exception e) {}
-			// Excluding branches
-			try {
-				// Boolean
-				boolean bool = evaluator.evaluateBoolean(expression);
-				if (!booleanValues.contains(bool)) {
-					booleanValues.add(bool);
-					evaluatedExpressions.add(bool ? factory.createTrueExpression() : factory.createFalseExpression());
+				else {
+					// Integers and enums
+					int value = evaluator.evaluateInteger(expression);
+					if (!integerValues.contains(value)) {
+						integerValues.add(value);
+						IntegerLiteralExpression integerLiteralExpression = factory.createIntegerLiteralExpression();
+						integerLiteralExpression.setValue(BigInteger.valueOf(value));
+						evaluatedExpressions.add(integerLiteralExpression);
+					}
 				}
-			} catch (Exception e) {}
+			} catch (Exception e) {} // Not evaluable expressions are left out
 		}
 		return evaluatedExpressions;
 	}
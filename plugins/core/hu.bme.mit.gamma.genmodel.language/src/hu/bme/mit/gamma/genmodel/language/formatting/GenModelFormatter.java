@@ -49,6 +49,7 @@ public class GenModelFormatter extends AbstractDeclarativeFormatter {
         c.setLinewrap(1).after(f.getCodeGenerationAccess().getTargetFolderAssignment_5_0_2());
         c.setLinewrap(1).after(f.getCodeGenerationAccess().getPackageNameAssignment_5_1_2());
         c.setLinewrap(1).after(f.getCodeGenerationAccess().getLanguageAssignment_5_2_2());
+        c.setLinewrap(1).after(f.getCodeGenerationAccess().getGroup_5_3());
         // Analysis model transformation
         c.setLinewrap(1).after(f.getAnalysisModelTransformationAccess().getModelAssignment_2());
         c.setLinewrap(1).after(f.getAnalysisModelTransformationAccess().getGroup_3_5());
@@ -60,6 +61,7 @@ public class GenModelFormatter extends AbstractDeclarativeFormatter {
         c.setLinewrap(1).after(f.getAnalysisModelTransformationAccess().getConstraintAssignment_3_6_2());
         c.setLinewrap(1).after(f.getAnalysisModelTransformationAccess().getCoveragesAssignment_3_7());
         c.setLinewrap(1).after(f.getAnalysisModelTransformationAccess().getSchedulerAssignment_3_5_2());
+        c.setLinewrap(1).after(f.getAnalysisModelTransformationAccess().getGroup_3_8());
         // Constraints
         c.setLinewrap(1).after(f.getOrchestratingConstraintAccess().getMinimumPeriodAssignment_2());
         c.setLinewrap(1).after(f.getOrchestratingConstraintAccess().getMaximumPeriodAssignment_5());
@@ -117,6 +119,8 @@ public class GenModelFormatter extends AbstractDeclarativeFormatter {
         c.setLinewrap(1).after(f.getVerificationAccess().getLanguagesAssignment_3_3_2());
         c.setLinewrap(1).after(f.getVerificationAccess().getOptimizeAssignment_3_8_2_1());
         c.setLinewrap(1).after(f.getVerificationAccess().getPackageNameAssignment_3_6_2());
+        c.setLinewrap(1).after(f.getVerificationAccess().getWorkerCountAssignment_3_10_2());
+        c.setLinewrap(1).after(f.getVerificationAccess().getCacheAssignment_3_11_2_1());
         // Interface mapping
         c.setLinewrap(1).after(f.getInterfaceMappingRule());
 		for (Keyword comma: f.findKeywords(",")) {
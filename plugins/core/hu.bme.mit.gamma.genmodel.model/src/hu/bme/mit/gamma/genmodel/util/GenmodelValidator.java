@@ -1,6 +1,7 @@
 package hu.bme.mit.gamma.genmodel.util;
 
 import java.io.File;
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -211,6 +212,12 @@ public class GenmodelValidator extends ExpressionModelValidator {
 					"At most one test folder can be specified.",
 					new ReferenceInfo(GenmodelModelPackage.Literals.VERIFICATION__TEST_FOLDER, null)));
 		}
+		BigInteger workerCount = verification.getWorkerCount();
+		if (workerCount != null && workerCount.signum() <= 0) {
+			validationResultMessages.add(new ValidationResultMessage(ValidationResult.ERROR, 
+					"The number of workers must be positive.",
+					new ReferenceInfo(GenmodelModelPackage.Literals.VERIFICATION__WORKER_COUNT, null)));
+		}
 		return validationResultMessages;
 	}
 	
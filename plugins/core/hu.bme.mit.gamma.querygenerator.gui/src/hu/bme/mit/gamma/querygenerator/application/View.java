@@ -138,6 +138,8 @@ public class View extends JFrame {
 	private JRadioButtonMenuItem conservativeSpaceStateReduction;
 	private JRadioButtonMenuItem aggressiveSpaceStateReduction;
 	
+	private JRadioButtonMenuItem useCachedResultsItem;
+	
 	private JMenu testGenerationTimeoutMenu;
 
 	private JRadioButtonMenuItem reuseStateSpaceItem;
@@ -373,6 +375,12 @@ public class View extends JFrame {
 	 		
 	 	modelCheckingOptionsMenu.add(spaceStateReductionMenu);
 	 	
+	 	// Reusing the results of earlier verifications of the same model, query and settings
+	 	useCachedResultsItem = new JRadioButtonMenuItem("Use Cached Results");
+	 	useCachedResultsItem.setSelected(true);
+	 	
+	 	modelCheckingOptionsMenu.add(useCachedResultsItem);
+	 	
 		// Setting the temporal logical operators using JComboBox		
 		String[] items = {MIGHT_EVENTUALLY, MUST_EVENTUALLY, MIGHT_ALWAYS, MUST_ALWAYS, LEADS_TO};
 		howToList = new JComboBox<String>(items);
@@ -819,6 +827,10 @@ public class View extends JFrame {
 		return optimizeTestSetItem.isSelected();
 	}
 	
+	public boolean isUseCachedResults() {
+		return useCachedResultsItem.isSelected();
+	}
+	
 	public int getHashTableSize() {
 		if (size64M.isSelected()) {
 			return HASHTABLE_SIZE_64;
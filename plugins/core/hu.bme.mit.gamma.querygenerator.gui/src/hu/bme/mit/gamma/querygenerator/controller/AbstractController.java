@@ -173,11 +173,16 @@ public abstract class AbstractController {
 		return getLocation(file.getProject()) + File.separator + TRACE_FOLDER_NAME;
 	}
     
+    public String getProjectFolder() {
+		return getLocation(file.getProject());
+	}
+    
 	public abstract AbstractVerifier createVerifier();
 	
 	public abstract String getParameters();
 	public abstract String getModelFile();
 	public abstract String getGeneratedQueryFile();
+	public abstract String getTraceabilityFile();
 	public abstract Object getTraceability();
 	
 }
@@ -50,6 +50,11 @@ public class ThetaController extends AbstractController {
 		return getParentFolder() + File.separator + getCompositeSystemName() + ".prop";
 	}
 
+	@Override
+	public String getTraceabilityFile() {
+		return getUnwrappedFile();
+	}
+
 	@Override
 	public Object getTraceability() {
 		return gammaPackage;
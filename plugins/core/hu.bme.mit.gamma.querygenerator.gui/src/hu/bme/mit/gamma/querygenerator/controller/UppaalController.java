@@ -31,7 +31,8 @@ public class UppaalController extends AbstractController {
 		this.queryGenerator = new UppaalQueryGenerator((G2UTrace) getTraceability()); // For state-location
 	}
 
-	private String getTraceabilityFile() {
+	@Override
+	public String getTraceabilityFile() {
 		return getParentFolder() + File.separator + "." + getCompositeSystemName() + ".g2u";
 	}
 
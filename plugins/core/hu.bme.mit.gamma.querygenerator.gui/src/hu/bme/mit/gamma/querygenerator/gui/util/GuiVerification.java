@@ -0,0 +1,60 @@
+/********************************************************************************
+ * Copyright (c) 2018-2021 Contributors to the Gamma project
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ ********************************************************************************/
+package hu.bme.mit.gamma.querygenerator.gui.util;
+
+import java.io.File;
+
+import hu.bme.mit.gamma.verification.util.AbstractVerification;
+import hu.bme.mit.gamma.verification.util.AbstractVerifier;
+import hu.bme.mit.gamma.verification.util.AbstractVerifier.Result;
+
+/**
+ * Verification with the verifier and parameters set in the GUI, so its results can be cached
+ * in the same way as the ones of the verification tasks.
+ */
+public class GuiVerification extends AbstractVerification {
+
+	private final AbstractVerifier verifier;
+	private final Object traceability;
+	private final String parameters;
+	private final File traceabilityFile;
+
+	public GuiVerification(AbstractVerifier verifier, Object traceability, String parameters,
+			File traceabilityFile) {
+		this.verifier = verifier;
+		this.traceability = traceability;
+		this.parameters = parameters;
+		this.traceabilityFile = traceabilityFile;
+	}
+
+	@Override
+	public Result execute(File modelFile, File queryFile, String workerId) {
+		// The original queries are passed, so the verifier can adapt them
+		String queries = fileUtil.loadString(queryFile);
+		Result result = verifier.verifyQuery(traceability, parameters, modelFile, queries, true, false);
+		// The result of the verifier is the one adapted to the queries
+		return new Result(verifier.getResult(), result.getTrace());
+	}
+
+	@Override
+	public File getTraceabilityFile(File modelFile) {
+		return traceabilityFile;
+	}
+
+	/**
+	 * Built like the descriptors of the verification tasks, so the same configuration has the same entries.
+	 */
+	@Override
+	public String getBackendDescriptor() {
+		return verifier.getToolVersion() + " " + parameters;
+	}
+
+}
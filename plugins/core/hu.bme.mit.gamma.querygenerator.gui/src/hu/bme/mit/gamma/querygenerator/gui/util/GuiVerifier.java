@@ -32,9 +32,13 @@ import hu.bme.mit.gamma.trace.language.ui.serializer.TraceLanguageSerializer;
 import hu.bme.mit.gamma.trace.model.ExecutionTrace;
 import hu.bme.mit.gamma.trace.testgeneration.java.TestGenerator;
 import hu.bme.mit.gamma.trace.util.TraceUtil;
+import hu.bme.mit.gamma.util.FileUtil;
 import hu.bme.mit.gamma.verification.result.ThreeStateBoolean;
+import hu.bme.mit.gamma.verification.util.AbstractVerification;
 import hu.bme.mit.gamma.verification.util.AbstractVerifier;
 import hu.bme.mit.gamma.verification.util.AbstractVerifier.Result;
+import hu.bme.mit.gamma.verification.util.CachingVerification;
+import hu.bme.mit.gamma.verification.util.VerificationResultCache;
 
 /** Runnable class responsible for the execution of formal verification. */
 public class GuiVerifier extends SwingWorker<ThreeStateBoolean, Boolean> {
@@ -50,6 +54,7 @@ public class GuiVerifier extends SwingWorker<ThreeStateBoolean, Boolean> {
 	private final View view;
 	
 	protected final TraceUtil traceUtil = TraceUtil.INSTANCE;	
+	protected final FileUtil fileUtil = FileUtil.INSTANCE;
 	protected final Logger logger = Logger.getLogger("GammaLogger");
 	
 	public GuiVerifier(String query, boolean contributeToView, View view) {
@@ -72,8 +77,21 @@ public class GuiVerifier extends SwingWorker<ThreeStateBoolean, Boolean> {
 			ExecutionTrace traceModel = null;
 			// Verification starts
 			verifier = getController().createVerifier();
-			Result result = verifier.verifyQuery(traceability, getController().getParameters(),
-					new File(getController().getModelFile()), originalQueries, true, false);
+			String parameters = getController().getParameters();
+			File modelFile = new File(getController().getModelFile());
+			AbstractVerification verification = new GuiVerification(verifier, traceability, parameters,
+					new File(getController().getTraceabilityFile()));
+			if (view.isUseCachedResults()) {
+				VerificationResultCache cache = new VerificationResultCache(
+						new File(getController().getProjectFolder()), (trace, parentFolder, fileName) -> 
+							new TraceLanguageSerializer().serialize(trace, parentFolder, fileName));
+				verification = new CachingVerification(verification, cache);
+			}
+			File queryFile = new File(modelFile.getParent() + File.separator + "." + modelFile.getName() + ".query");
+			fileUtil.saveString(queryFile, originalQueries);
+			queryFile.deleteOnExit();
+			Result result = verification.execute(modelFile, queryFile);
+			ThreeStateBoolean verificationResult = result.getResult();
 			traceModel = result.getTrace();
 			if (traceModel != null) {
 				// No trace
@@ -83,7 +101,7 @@ public class GuiVerifier extends SwingWorker<ThreeStateBoolean, Boolean> {
 				}
 				serializeTestCode(traceModel);
 			}
-			return verifier.getResult();
+			return verificationResult;
 		} catch (NullPointerException e) {
 			e.printStackTrace();
 			throw new IllegalArgumentException("Error! The generated model file cannot be found.");
@@ -0,0 +1,143 @@
+/********************************************************************************
+ * Copyright (c) 2018-2021 Contributors to the Gamma project
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ ********************************************************************************/
+package hu.bme.mit.gamma.querygenerator
+
+import hu.bme.mit.gamma.expression.model.VariableDeclaration
+import hu.bme.mit.gamma.statechart.composite.SynchronousComponentInstance
+import hu.bme.mit.gamma.statechart.statechart.State
+import java.util.Collections
+import java.util.List
+import java.util.Map
+import org.eclipse.emf.ecore.EObject
+
+/**
+ * Immutable mapping of the target (analysis model) identifiers to the source (Gamma) elements
+ * for back-annotation. A symbol table is built once per query generator, i.e., per back-annotation,
+ * so it reflects the Gamma models at the time of the back-annotation.
+ */
+class BackAnnotationSymbolTable {
+
+	protected final Map<String, Pair<State, SynchronousComponentInstance>> states
+	protected final Map<String, Pair<VariableDeclaration, SynchronousComponentInstance>> variables
+	protected final Map<String, List<EObject>> outEvents
+	protected final Map<String, List<EObject>> outEventParameters
+	protected final Map<String, List<EObject>> inEvents
+	protected final Map<String, List<EObject>> inEventParameters
+
+	new(ThetaQueryGenerator queryGenerator) {
+		// If different elements have the same target identifier, the first one is kept
+		val Map<String, Pair<State, SynchronousComponentInstance>> states = newHashMap
+		for (match : queryGenerator.instanceStates) {
+			val name = queryGenerator.getSymbolStateName(match.state, match.parentRegion, match.instance)
+			states.putIfAbsent(name, new Pair(match.state, match.instance))
+		}
+		this.states = Collections.unmodifiableMap(states)
+		val Map<String, Pair<VariableDeclaration, SynchronousComponentInstance>> variables = newHashMap
+		for (match : queryGenerator.instanceVariables) {
+			for (name : queryGenerator.getTargetVariableName(match.variable, match.instance)) {
+				variables.putIfAbsent(name, new Pair(match.variable, match.instance))
+			}
+		}
+		this.variables = Collections.unmodifiableMap(variables)
+		val Map<String, List<EObject>> outEvents = newHashMap
+		val Map<String, List<EObject>> outEventParameters = newHashMap
+		for (match : queryGenerator.systemOutEvents) {
+			val event = match.event
+			val port = match.port
+			val instance = match.instance
+			val name = queryGenerator.getTargetOutEventName(event, port, instance)
+			outEvents.putIfAbsent(name, #[event, port, instance])
+			for (parameter : event.parameterDeclarations) {
+				for (parameterName : queryGenerator.getTargetOutEventParameterName(event, port, parameter, instance)) {
+					outEventParameters.putIfAbsent(parameterName, #[event, port, parameter, instance])
+				}
+			}
+		}
+		this.outEvents = Collections.unmodifiableMap(outEvents)
+		this.outEventParameters = Collections.unmodifiableMap(outEventParameters)
+		val Map<String, List<EObject>> inEvents = newHashMap
+		val Map<String, List<EObject>> inEventParameters = newHashMap
+		for (match : queryGenerator.systemInEvents) {
+			val event = match.event
+			val port = match.port
+			val instance = match.instance
+			val name = queryGenerator.getTargetInEventName(event, port, instance)
+			inEvents.putIfAbsent(name, #[event, port, instance])
+			for (parameter : event.parameterDeclarations) {
+				for (parameterName : queryGenerator.getTargetInEventParameterName(event, port, parameter, instance)) {
+					inEventParameters.putIfAbsent(parameterName, #[event, port, parameter, instance])
+				}
+			}
+		}
+		this.inEvents = Collections.unmodifiableMap(inEvents)
+		this.inEventParameters = Collections.unmodifiableMap(inEventParameters)
+	}
+
+	// Checkers
+
+	def isSourceState(String targetStateName) {
+		return states.containsKey(targetStateName)
+	}
+
+	def isSourceVariable(String targetVariableName) {
+		return variables.containsKey(targetVariableName)
+	}
+
+	def isSourceOutEvent(String targetOutEventName) {
+		return outEvents.containsKey(targetOutEventName)
+	}
+
+	def isSourceOutEventParamater(String targetOutEventParameterName) {
+		return outEventParameters.containsKey(targetOutEventParameterName)
+	}
+
+	def isSourceInEvent(String targetInEventName) {
+		return inEvents.containsKey(targetInEventName)
+	}
+
+	def isSourceInEventParamater(String targetInEventParameterName) {
+		return inEventParameters.containsKey(targetInEventParameterName)
+	}
+
+	// Getters
+
+	def getSourceState(String targetStateName) {
+		return states.get(targetStateName).checkKnown
+	}
+
+	def getSourceVariable(String targetVariableName) {
+		return variables.get(targetVariableName).checkKnown
+	}
+
+	def getSourceOutEvent(String targetOutEventName) {
+		return outEvents.get(targetOutEventName).checkKnown
+	}
+
+	def getSourceOutEventParamater(String targetOutEventParameterName) {
+		return outEventParameters.get(targetOutEventParameterName).checkKnown
+	}
+
+	def getSourceInEvent(String targetInEventName) {
+		return inEvents.get(targetInEventName).checkKnown
+	}
+
+	def getSourceInEventParamater(String targetInEventParameterName) {
+		return inEventParameters.get(targetInEventParameterName).checkKnown
+	}
+
+	protected def <T> T checkKnown(T sourceElement) {
+		if (sourceElement === null) {
+			throw new IllegalArgumentException("Not known id")
+		}
+		return sourceElement
+	}
+
+}
@@ -28,6 +28,9 @@ import static extension hu.bme.mit.gamma.xsts.transformation.util.Namings.*
 
 class ThetaQueryGenerator extends AbstractQueryGenerator {
 	
+	// Built lazily, once for the back-annotation using this generator
+	protected BackAnnotationSymbolTable backAnnotationSymbolTable
+	
 	new(Package gammaPackage) {
 		this(gammaPackage, false)
 	}
@@ -97,129 +100,73 @@ class ThetaQueryGenerator extends AbstractQueryGenerator {
 	
 	// Auxiliary methods for back-annotation
 	
+	/**
+	 * Returns the symbol table of this query generator, building it at the first call.
+	 */
+	def getSymbolTable() {
+		if (backAnnotationSymbolTable === null) {
+			backAnnotationSymbolTable = new BackAnnotationSymbolTable(this)
+		}
+		return backAnnotationSymbolTable
+	}
+	
+	/**
+	 * Returns the target identifier of the state in back-annotated traces.
+	 */
+	def protected getSymbolStateName(State state, Region parentRegion, SynchronousComponentInstance instance) {
+		return getSingleTargetStateName(state, parentRegion, instance)
+	}
+	
 	// Checkers
 	
 	def isSourceState(String targetStateName) {
-		try {
-			targetStateName.getSourceState
-			return true
-		} catch (IllegalArgumentException e) {
-			return false
-		}
+		return symbolTable.isSourceState(targetStateName)
 	}
 	
 	def isSourceVariable(String targetVariableName) {
-		try {
-			targetVariableName.getSourceVariable
-			return true
-		} catch (IllegalArgumentException e) {
-			return false
-		}
+		return symbolTable.isSourceVariable(targetVariableName)
 	}
 	
 	def isSourceOutEvent(String targetOutEventName) {
-		try {
-			targetOutEventName.getSourceOutEvent
-			return true
-		} catch (IllegalArgumentException e) {
-			return false
-		}
+		return symbolTable.isSourceOutEvent(targetOutEventName)
 	}
 	
 	def isSourceOutEventParamater(String targetOutEventParameterName) {
-		try {
-			targetOutEventParameterName.getSourceOutEventParamater
-			return true
-		} catch (IllegalArgumentException e) {
-			return false
-		}
+		return symbolTable.isSourceOutEventParamater(targetOutEventParameterName)
 	}
 	
 	def isSourceInEvent(String targetInEventName) {
-		try {
-			targetInEventName.getSourceInEvent
-			return true
-		} catch (IllegalArgumentException e) {
-			return false
-		}
+		return symbolTable.isSourceInEvent(targetInEventName)
 	}
 	
 	def isSourceInEventParamater(String targetInEventParameterName) {
-		try {
-			targetInEventParameterName.getSourceInEventParamater
-			return true
-		} catch (IllegalArgumentException e) {
-			return false
-		}
+		return symbolTable.isSourceInEventParamater(targetInEventParameterName)
 	}
 	
 	// Getters
 	
 	def getSourceState(String targetStateName) {
-		for (match : instanceStates) {
-			val name = getSingleTargetStateName(match.state, match.parentRegion, match.instance)
-			if (name.equals(targetStateName)) {
-				return new Pair(match.state, match.instance)
-			}
-		}
-		throw new IllegalArgumentException("Not known id")
+		return symbolTable.getSourceState(targetStateName)
 	}
 	
 	def getSourceVariable(String targetVariableName) {
-		for (match : instanceVariables) {
-			// TODO Maybe an allFields method could be used here?
-			val names = getTargetVariableName(match.variable, match.instance)
-			if (names.contains(targetVariableName)) {
-				return new Pair(match.variable, match.instance)
-			}
-		}
-		throw new IllegalArgumentException("Not known id")
+		return symbolTable.getSourceVariable(targetVariableName)
 	}
 	
 	def getSourceOutEvent(String targetOutEventName) {
-		for (match : systemOutEvents) {
-			val name = getTargetOutEventName(match.event, match.port, match.instance)
-			if (name.equals(targetOutEventName)) {
-				return #[match.event, match.port, match.instance]
-			}
-		}
-		throw new IllegalArgumentException("Not known id")
+		return symbolTable.getSourceOutEvent(targetOutEventName)
 	}
 	
 	def getSourceOutEventParamater(String targetOutEventParameterName) {
-		for (match : systemOutEvents) {
-			val event = match.event
-			for (parameter : event.parameterDeclarations) {
-				val names = getTargetOutEventParameterName(event, match.port, parameter, match.instance)
-				if (names.contains(targetOutEventParameterName)) {
-					return #[event, match.port, parameter, match.instance]
-				}
-			}
-		}
-		throw new IllegalArgumentException("Not known id")
+		return symbolTable.getSourceOutEventParamater(targetOutEventParameterName)
 	}
 	
 	def getSourceInEvent(String targetInEventName) {
-		for (match : systemInEvents) {
-			val name = getTargetInEventName(match.event, match.port, match.instance)
-			if (name.equals(targetInEventName)) {
-				return #[match.event, match.port, match.instance]
-			}
-		}
-		throw new IllegalArgumentException("Not known id")
+		return symbolTable.getSourceInEvent(targetInEventName)
 	}
 	
 	def getSourceInEventParamater(String targetInEventParameterName) {
-		for (match : systemInEvents) {
-			val event = match.event
-			for (parameter : event.parameterDeclarations) {
-				val names = getTargetInEventParameterName(event, match.port, parameter, match.instance)
-				if (names.contains(targetInEventParameterName)) {
-					return #[event, match.port, parameter, match.instance]
-				}
-			}
-		}
-		throw new IllegalArgumentException("Not known id")
+		return symbolTable.getSourceInEventParamater(targetInEventParameterName)
 	}
 	
 }
\ No newline at end of file
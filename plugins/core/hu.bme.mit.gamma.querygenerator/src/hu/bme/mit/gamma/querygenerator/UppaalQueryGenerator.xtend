@@ -13,15 +13,16 @@ package hu.bme.mit.gamma.querygenerator
 import hu.bme.mit.gamma.expression.model.ParameterDeclaration
 import hu.bme.mit.gamma.expression.model.VariableDeclaration
 import hu.bme.mit.gamma.querygenerator.operators.TemporalOperator
+import hu.bme.mit.gamma.querygenerator.patterns.Patterns
 import hu.bme.mit.gamma.querygenerator.patterns.StatesToLocations
+import hu.bme.mit.gamma.querygenerator.patterns.TracePatterns
 import hu.bme.mit.gamma.statechart.interface_.Port
 import hu.bme.mit.gamma.statechart.statechart.Region
 import hu.bme.mit.gamma.statechart.statechart.State
 import hu.bme.mit.gamma.statechart.composite.SynchronousComponentInstance
 import hu.bme.mit.gamma.statechart.interface_.Event
+import hu.bme.mit.gamma.transformation.util.QueryEngineRegistry
 import hu.bme.mit.gamma.uppaal.transformation.traceability.G2UTrace
-import org.eclipse.viatra.query.runtime.api.ViatraQueryEngine
-import org.eclipse.viatra.query.runtime.emf.EMFScope
 
 import static com.google.common.base.Preconditions.checkArgument
 
@@ -33,7 +34,8 @@ class UppaalQueryGenerator extends AbstractQueryGenerator {
 	new(G2UTrace trace) {
 		val traceabilitySet = trace.eResource.resourceSet
 		checkArgument(traceabilitySet !== null)
-		this.engine = ViatraQueryEngine.on(new EMFScope(traceabilitySet))
+		this.engine = QueryEngineRegistry.getEngine(traceabilitySet, "Query generation", Patterns.instance,
+			TracePatterns.instance, hu.bme.mit.gamma.transformation.util.queries.Patterns.instance)
 	}
 	
 	override String parseRegularQuery(String text, TemporalOperator operator) {
@@ -13,6 +13,7 @@ package hu.bme.mit.gamma.querygenerator
 import hu.bme.mit.gamma.statechart.composite.SynchronousComponentInstance
 import hu.bme.mit.gamma.statechart.interface_.Package
 import hu.bme.mit.gamma.statechart.statechart.Region
+import hu.bme.mit.gamma.statechart.statechart.State
 
 import static extension hu.bme.mit.gamma.statechart.derivedfeatures.StatechartModelDerivedFeatures.*
 import static extension hu.bme.mit.gamma.xsts.transformation.util.Namings.*
@@ -27,18 +28,9 @@ class XstsUppaalQueryGenerator extends ThetaQueryGenerator {
 		return '''«parentRegion.customizeName(instance)» == «index»'''
 	}
 	
-	override getSourceState(String targetStateName) {
-		for (match : instanceStates) {
-			val parentRegion = match.parentRegion
-			val instance = match.instance
-			val state = match.state
-			val stateIndex = state.literalIndex
-			val name = getSingleTargetStateName(stateIndex, parentRegion, instance)
-			if (name.equals(targetStateName)) {
-				return new Pair(match.state, match.instance)
-			}
-		}
-		throw new IllegalArgumentException("Not known id")
+	override protected getSymbolStateName(State state, Region parentRegion, SynchronousComponentInstance instance) {
+		val stateIndex = state.literalIndex
+		return getSingleTargetStateName(stateIndex, parentRegion, instance)
 	}
 	
 }
\ No newline at end of file
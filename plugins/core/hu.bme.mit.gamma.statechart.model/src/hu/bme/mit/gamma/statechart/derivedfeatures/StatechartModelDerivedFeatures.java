@@ -611,12 +611,12 @@ public class StatechartModelDerivedFeatures extends ActionModelDerivedFeatures {
 	
 	public static List<Transition> getOutgoingTransitions(StateNode node) {
 		StatechartDefinition statechart = getContainingStatechart(node);
-		return statechart.getTransitions().stream().filter(it -> it.getSourceState() == node).collect(Collectors.toList());
+		return StatechartTransitionIndex.getIndex(statechart).getOutgoingTransitions(node);
 	}
 	
 	public static List<Transition> getIncomingTransitions(StateNode node) {
 		StatechartDefinition statechart = getContainingStatechart(node);
-		return statechart.getTransitions().stream().filter(it -> it.getTargetState() == node).collect(Collectors.toList());
+		return StatechartTransitionIndex.getIndex(statechart).getIncomingTransitions(node);
 	}
 	
 	public static Collection<StateNode> getAllStateNodes(CompositeElement compositeElement) {
@@ -926,9 +926,9 @@ public class StatechartModelDerivedFeatures extends ActionModelDerivedFeatures {
 		if (transitionPriority != TransitionPriority.OFF) {
 			StateNode source = gammaTransition.getSourceState();
 			List<Transition> gammaOutgoingTransitions = getOutgoingTransitions(source);
+			long priority = calculatePriority(gammaTransition).longValue();
 			for (Transition gammaOutgoingTransition : gammaOutgoingTransitions) {
-				if (calculatePriority(gammaTransition).longValue() <
-						calculatePriority(gammaOutgoingTransition).longValue()) {
+				if (priority < calculatePriority(gammaOutgoingTransition).longValue()) {
 					prioritizedTransitions.add(gammaOutgoingTransition);
 				}
 			}
@@ -941,12 +941,7 @@ public class StatechartModelDerivedFeatures extends ActionModelDerivedFeatures {
 		TransitionPriority transitionPriority = statechart.getTransitionPriority();
 		switch (transitionPriority) {
 			case ORDER_BASED : {
-				StateNode source = transition.getSourceState();
-				List<Transition> outgoingTransitions = getOutgoingTransitions(source);
-				int size = outgoingTransitions.size();
-				int index = outgoingTransitions.indexOf(transition);
-				int priority = size - index;
-				return BigInteger.valueOf(priority);
+				return StatechartTransitionIndex.getIndex(statechart).getOrderBasedPriority(transition);
 			}
 			case VALUE_BASED : {
 				return transition.getPriority();
@@ -0,0 +1,165 @@
+/********************************************************************************
+ * Copyright (c) 2018-2021 Contributors to the Gamma project
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ ********************************************************************************/
+package hu.bme.mit.gamma.statechart.derivedfeatures;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+import hu.bme.mit.gamma.statechart.statechart.StateNode;
+import hu.bme.mit.gamma.statechart.statechart.StatechartDefinition;
+import hu.bme.mit.gamma.statechart.statechart.StatechartModelPackage;
+import hu.bme.mit.gamma.statechart.statechart.Transition;
+
+/**
+ * Incoming and outgoing transitions of the state nodes and order-based transition priorities
+ * of a statechart. The index is attached to the statechart and its transitions as an adapter,
+ * and it is rebuilt lazily after a transition is added, removed, moved or retargeted.
+ */
+public class StatechartTransitionIndex extends AdapterImpl {
+
+	protected final StatechartDefinition statechart;
+	// Null if the index has to be rebuilt
+	protected Map<StateNode, List<Transition>> outgoingTransitions;
+	protected Map<StateNode, List<Transition>> incomingTransitions;
+	protected Map<Transition, BigInteger> orderBasedPriorities;
+
+	public static StatechartTransitionIndex getIndex(StatechartDefinition statechart) {
+		synchronized (statechart) {
+			StatechartTransitionIndex index = (StatechartTransitionIndex)
+					EcoreUtil.getExistingAdapter(statechart, StatechartTransitionIndex.class);
+			if (index == null) {
+				index = new StatechartTransitionIndex(statechart);
+				statechart.eAdapters().add(index);
+				for (Transition transition : statechart.getTransitions()) {
+					transition.eAdapters().add(index);
+				}
+			}
+			return index;
+		}
+	}
+
+	protected StatechartTransitionIndex(StatechartDefinition statechart) {
+		this.statechart = statechart;
+	}
+
+	public synchronized List<Transition> getOutgoingTransitions(StateNode node) {
+		build();
+		return new ArrayList<Transition>(
+			outgoingTransitions.getOrDefault(node, Collections.emptyList()));
+	}
+
+	public synchronized List<Transition> getIncomingTransitions(StateNode node) {
+		build();
+		return new ArrayList<Transition>(
+			incomingTransitions.getOrDefault(node, Collections.emptyList()));
+	}
+
+	/**
+	 * Returns the priority of the transition based on its position among the outgoing transitions
+	 * of its source: the first one has the highest priority. A transition not contained by the
+	 * statechart gets a priority one higher than the outgoing transitions of its source.
+	 */
+	public synchronized BigInteger getOrderBasedPriority(Transition transition) {
+		build();
+		BigInteger priority = orderBasedPriorities.get(transition);
+		if (priority == null) {
+			int size = outgoingTransitions.getOrDefault(transition.getSourceState(),
+				Collections.emptyList()).size();
+			return BigInteger.valueOf(size + 1);
+		}
+		return priority;
+	}
+
+	protected void build() {
+		if (outgoingTransitions != null) {
+			return;
+		}
+		outgoingTransitions = new HashMap<StateNode, List<Transition>>();
+		incomingTransitions = new HashMap<StateNode, List<Transition>>();
+		orderBasedPriorities = new HashMap<Transition, BigInteger>();
+		for (Transition transition : statechart.getTransitions()) {
+			outgoingTransitions.computeIfAbsent(transition.getSourceState(),
+				it -> new ArrayList<Transition>()).add(transition);
+			incomingTransitions.computeIfAbsent(transition.getTargetState(),
+				it -> new ArrayList<Transition>()).add(transition);
+		}
+		for (List<Transition> transitions : outgoingTransitions.values()) {
+			int size = transitions.size();
+			for (int i = 0; i < size; i++) {
+				orderBasedPriorities.put(transitions.get(i), BigInteger.valueOf(size - i));
+			}
+		}
+	}
+
+	protected synchronized void invalidate() {
+		outgoingTransitions = null;
+		incomingTransitions = null;
+		orderBasedPriorities = null;
+	}
+
+	@Override
+	public void notifyChanged(Notification notification) {
+		if (notification.isTouch()) {
+			return;
+		}
+		Object feature = notification.getFeature();
+		Notifier notifier = (Notifier) notification.getNotifier();
+		if (notifier == statechart) {
+			if (feature == StatechartModelPackage.Literals.STATECHART_DEFINITION__TRANSITIONS) {
+				invalidate();
+				// The index has to be notified about the changes of the contained transitions only
+				for (Transition transition : getTransitions(notification.getOldValue())) {
+					transition.eAdapters().remove(this);
+				}
+				for (Transition transition : getTransitions(notification.getNewValue())) {
+					if (!transition.eAdapters().contains(this)) {
+						transition.eAdapters().add(this);
+					}
+				}
+			}
+		}
+		else if (feature == StatechartModelPackage.Literals.TRANSITION__SOURCE_STATE ||
+				feature == StatechartModelPackage.Literals.TRANSITION__TARGET_STATE) {
+			invalidate();
+		}
+	}
+
+	protected Collection<Transition> getTransitions(Object value) {
+		List<Transition> transitions = new ArrayList<Transition>();
+		if (value instanceof Transition) {
+			transitions.add((Transition) value);
+		}
+		else if (value instanceof Collection<?>) {
+			for (Object element : (Collection<?>) value) {
+				if (element instanceof Transition) {
+					transitions.add((Transition) element);
+				}
+			}
+		}
+		return transitions;
+	}
+
+	@Override
+	public boolean isAdapterForType(Object type) {
+		return type == StatechartTransitionIndex.class;
+	}
+
+}
@@ -0,0 +1,117 @@
+/********************************************************************************
+ * Copyright (c) 2018-2021 Contributors to the Gamma project
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ ********************************************************************************/
+package hu.bme.mit.gamma.trace.util;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import hu.bme.mit.gamma.trace.model.ExecutionTrace;
+import hu.bme.mit.gamma.trace.model.Step;
+
+/**
+ * Prefix tree over the coverage keys (input actions) of steps. A step list is covered
+ * if it is the prefix of an added step list, which is decided in linear time.
+ * Execution traces are added as their segments separated by resets.
+ */
+public class TraceCoverageIndex {
+
+	protected final Node root = new Node();
+	protected final TraceUtil traceUtil = TraceUtil.INSTANCE;
+
+	public TraceCoverageIndex() {}
+
+	public TraceCoverageIndex(Collection<ExecutionTrace> traces) {
+		for (ExecutionTrace trace : traces) {
+			add(trace);
+		}
+	}
+
+	public void add(ExecutionTrace trace) {
+		for (List<Step> steps : traceUtil.identifySeparateTracesByReset(trace)) {
+			add(steps, trace);
+		}
+	}
+
+	public void add(List<Step> steps) {
+		add(steps, steps);
+	}
+
+	protected void add(List<Step> steps, Object owner) {
+		Node node = root;
+		node.addOwner(owner);
+		for (Step step : steps) {
+			Object key = traceUtil.getCoverageKey(step);
+			node = node.children.computeIfAbsent(key, it -> new Node());
+			node.addOwner(owner);
+		}
+	}
+
+	public boolean isCovered(ExecutionTrace trace) {
+		return isCovered(trace.getSteps());
+	}
+
+	public boolean isCovered(List<Step> steps) {
+		Node node = find(steps);
+		return node != null && node.owner != null;
+	}
+
+	/**
+	 * Returns whether the trace is covered by a trace that is different from the given one.
+	 */
+	public boolean isCoveredByOther(ExecutionTrace trace) {
+		return isCoveredByOther(trace.getSteps(), trace);
+	}
+
+	/**
+	 * Returns whether the steps are covered by an added step list (with a different identity).
+	 */
+	public boolean isCoveredByOther(List<Step> steps) {
+		return isCoveredByOther(steps, steps);
+	}
+
+	protected boolean isCoveredByOther(List<Step> steps, Object owner) {
+		Node node = find(steps);
+		if (node == null || node.owner == null) {
+			return false;
+		}
+		return node.isShared || node.owner != owner;
+	}
+
+	protected Node find(List<Step> steps) {
+		Node node = root;
+		for (int i = 0; i < steps.size() && node != null; i++) {
+			Object key = traceUtil.getCoverageKey(steps.get(i));
+			node = node.children.get(key);
+		}
+		return node;
+	}
+
+	protected static class Node {
+
+		protected final Map<Object, Node> children = new HashMap<Object, Node>();
+		// The first step list passing through this node and whether there are others too
+		protected Object owner;
+		protected boolean isShared;
+
+		protected void addOwner(Object newOwner) {
+			if (owner == null) {
+				owner = newOwner;
+			}
+			else if (owner != newOwner) {
+				isShared = true;
+			}
+		}
+
+	}
+
+}
@@ -12,10 +12,17 @@ package hu.bme.mit.gamma.trace.util;
 
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EStructuralFeature;
 import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.eclipse.emf.ecore.util.EcoreUtil.EqualityHelper;
 
@@ -124,23 +131,12 @@ public class TraceUtil {
 	// Trace coverage
 	
 	public void removeCoveredExecutionTraces(List<ExecutionTrace> traces) {
-		for (int i = 0; i < traces.size() - 1; ++i) {
-			ExecutionTrace lhs = traces.get(i);
-			boolean isLhsDeleted = false;
-			for (int j = i + 1; j < traces.size() && !isLhsDeleted; ++j) {
-				ExecutionTrace rhs = traces.get(j);
-				if (isCovered(rhs, lhs)) {
-					traces.remove(j);
-					--j;
-				}
-				else if (isCovered(lhs, rhs)) {
-					// Else is important, as it is possible that both cover the other one
-					isLhsDeleted = true;
-					traces.remove(i);
-					--i;
-				}
-			}
-		}
+		// Equal traces cover each other, only the first one is kept
+		Set<List<Object>> keys = new HashSet<List<Object>>();
+		traces.removeIf(it -> !keys.add(getCoverageKeys(it.getSteps())));
+		// Coverage is transitive, so a trace covered by a deleted one is covered by a kept one too
+		TraceCoverageIndex index = new TraceCoverageIndex(traces);
+		traces.removeIf(it -> index.isCoveredByOther(it));
 	}
 	
 	public void removeCoveredSteps(ExecutionTrace trace) {
@@ -152,11 +148,10 @@ public class TraceUtil {
 		List<List<Step>> stepsList = new ArrayList<List<Step>>();
 		List<Step> actualSteps = null;
 		for (Step step : trace.getSteps()) {
-			if (step.getActions().stream().anyMatch(it -> it instanceof Reset)) {
-				if (actualSteps != null) {
-					stepsList.add(actualSteps);
-				}
+			if (actualSteps == null ||
+					step.getActions().stream().anyMatch(it -> it instanceof Reset)) {
 				actualSteps = new ArrayList<Step>();
+				stepsList.add(actualSteps);
 			}
 			actualSteps.add(step);
 		}
@@ -164,34 +159,31 @@ public class TraceUtil {
 	}
 	
 	public void removeCoveredStepLists(List<List<Step>> traces) {
-		for (int i = 0; i < traces.size() - 1; ++i) {
-			List<Step> lhs = traces.get(i);
-			boolean isLhsDeleted = false;
-			for (int j = i + 1; j < traces.size() && !isLhsDeleted; ++j) {
-				List<Step> rhs = traces.get(j);
-				if (isCovered(rhs, lhs)) {
-					traces.remove(j);
-					EcoreUtil.removeAll(rhs);
-					--j;
-				}
-				else if (isCovered(lhs, rhs)) {
-					// Else is important, as it is possible that both cover the other one
-					isLhsDeleted = true;
-					traces.remove(i);
-					EcoreUtil.removeAll(lhs);
-					--i;
-				}
+		// Equal step lists cover each other, only the first one is kept
+		Set<List<Object>> keys = new HashSet<List<Object>>();
+		List<List<Step>> coveredTraces = new ArrayList<List<Step>>();
+		for (List<Step> trace : traces) {
+			if (!keys.add(getCoverageKeys(trace))) {
+				coveredTraces.add(trace);
+			}
+		}
+		traces.removeAll(coveredTraces);
+		TraceCoverageIndex index = new TraceCoverageIndex();
+		traces.forEach(it -> index.add(it));
+		for (List<Step> trace : traces) {
+			if (index.isCoveredByOther(trace)) {
+				coveredTraces.add(trace);
 			}
 		}
+		traces.removeAll(coveredTraces);
+		for (List<Step> coveredTrace : coveredTraces) {
+			EcoreUtil.removeAll(coveredTrace);
+		}
 	}
 	
 	public boolean isCovered(ExecutionTrace covered, List<ExecutionTrace> covering) {
-		for (ExecutionTrace coveringTrace : covering) {
-			if (isCovered(covered, coveringTrace)) {
-				return true;
-			}
-		}
-		return false;
+		TraceCoverageIndex index = new TraceCoverageIndex(covering);
+		return index.isCovered(covered);
 	}
 	
 	public boolean isCovered(ExecutionTrace covered, ExecutionTrace covering) {
@@ -238,4 +230,81 @@ public class TraceUtil {
 		return helper.equals(lhs, rhs);
 	}
 	
+	// Coverage keys
+	
+	public List<Object> getCoverageKeys(List<Step> steps) {
+		List<Object> keys = new ArrayList<Object>();
+		for (Step step : steps) {
+			keys.add(getCoverageKey(step));
+		}
+		return keys;
+	}
+	
+	/**
+	 * Returns a key of the input actions of the step. Two keys are equal if the steps contain
+	 * structurally equal actions (independently of their order).
+	 */
+	public Map<Object, Integer> getCoverageKey(Step step) {
+		Map<Object, Integer> key = new HashMap<Object, Integer>();
+		for (Act act : step.getActions()) {
+			key.merge(getStructuralKey(act), 1, Integer::sum);
+		}
+		return key;
+	}
+	
+	/**
+	 * Returns a key that is equal for structurally equal objects: contained objects are
+	 * compared recursively, referenced ones based on their URIs. This way, traces loaded
+	 * into different resource sets (e.g., back-annotated traces of different queries) can be compared.
+	 */
+	public List<Object> getStructuralKey(EObject object) {
+		List<Object> key = new ArrayList<Object>();
+		EClass eClass = object.eClass();
+		key.add(eClass);
+		for (EStructuralFeature feature : eClass.getEAllStructuralFeatures()) {
+			if (!feature.isDerived()) {
+				Object value = object.eGet(feature);
+				if (feature instanceof EReference && ((EReference) feature).isContainment()) {
+					if (feature.isMany()) {
+						List<Object> values = new ArrayList<Object>();
+						for (Object element : (List<?>) value) {
+							values.add(getStructuralKey((EObject) element));
+						}
+						key.add(values);
+					}
+					else {
+						key.add(value == null ? null : getStructuralKey((EObject) value));
+					}
+				}
+				else if (feature instanceof EReference) {
+					if (feature.isMany()) {
+						List<Object> values = new ArrayList<Object>();
+						for (Object element : (List<?>) value) {
+							values.add(getReferenceKey((EObject) element));
+						}
+						key.add(values);
+					}
+					else {
+						key.add(value == null ? null : getReferenceKey((EObject) value));
+					}
+				}
+				else if (feature.isMany()) {
+					key.add(new ArrayList<Object>((List<?>) value));
+				}
+				else {
+					key.add(value);
+				}
+			}
+		}
+		return key;
+	}
+	
+	/**
+	 * Returns the URI of the referenced object, which is the same for the copies of the
+	 * object loaded into different resource sets.
+	 */
+	protected String getReferenceKey(EObject object) {
+		return EcoreUtil.getURI(object).toString();
+	}
+	
 }
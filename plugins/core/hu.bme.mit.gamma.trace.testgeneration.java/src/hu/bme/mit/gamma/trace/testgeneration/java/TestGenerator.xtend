@@ -34,14 +34,15 @@ import hu.bme.mit.gamma.trace.model.Reset
 import hu.bme.mit.gamma.trace.model.Step
 import hu.bme.mit.gamma.trace.model.TimeElapse
 import hu.bme.mit.gamma.trace.model.XorAssert
+import hu.bme.mit.gamma.transformation.util.QueryEngineRegistry
 import hu.bme.mit.gamma.transformation.util.annotations.AnnotationNamings
 import hu.bme.mit.gamma.uppaal.verification.patterns.InstanceContainer
+import hu.bme.mit.gamma.uppaal.verification.patterns.Patterns
 import hu.bme.mit.gamma.uppaal.verification.patterns.WrapperInstanceContainer
 import java.util.Collections
 import java.util.List
 import org.eclipse.emf.ecore.resource.ResourceSet
 import org.eclipse.viatra.query.runtime.api.ViatraQueryEngine
-import org.eclipse.viatra.query.runtime.emf.EMFScope
 
 import static com.google.common.base.Preconditions.checkArgument
 
@@ -92,7 +93,7 @@ class TestGenerator {
 		this.gammaPackage = component.eContainer as Package
 		this.BASE_PACKAGE = basePackage // For some reason, package platform URI does not work
 		this.traces = traces
-		this.engine = ViatraQueryEngine.on(new EMFScope(this.resourceSet))
+		this.engine = QueryEngineRegistry.getEngine(this.resourceSet, "Test generation", Patterns.instance)
 		// Initializing the string variables
 		this.PACKAGE_NAME = getPackageName
     	this.CLASS_NAME = className
@@ -0,0 +1,89 @@
+/********************************************************************************
+ * Copyright (c) 2018-2021 Contributors to the Gamma project
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ ********************************************************************************/
+package hu.bme.mit.gamma.transformation.util
+
+import java.util.Map
+import org.eclipse.xtext.xbase.lib.Functions.Function0
+import org.eclipse.xtext.xbase.lib.Procedures.Procedure0
+
+import static com.google.common.base.Preconditions.checkState
+
+/**
+ * Collects the execution times of the phases (e.g., preprocessing, slicing, transformation
+ * and serialization) of the transformations executed on the actual thread. Phases can be nested,
+ * e.g., the indexing of a model is part of the enclosing transformation phase.
+ * If no timer is started on the thread, the phases are executed without measurement.
+ */
+class PhaseTimer implements AutoCloseable {
+
+	protected static final ThreadLocal<PhaseTimer> activeTimer = new ThreadLocal
+
+	// Phase -> execution time in nanoseconds, in the order of the first execution
+	protected final Map<String, Long> times = newLinkedHashMap
+
+	/**
+	 * Starts a timer on the actual thread.
+	 */
+	static def PhaseTimer start() {
+		checkState(activeTimer.get === null, "A phase timer is already started")
+		val timer = new PhaseTimer
+		activeTimer.set(timer)
+		return timer
+	}
+
+	/**
+	 * Executes the given phase and adds its execution time to the active timer (if there is one).
+	 */
+	static def <T> T measure(String phase, Function0<T> execution) {
+		val timer = activeTimer.get
+		if (timer === null) {
+			return execution.apply
+		}
+		val start = System.nanoTime
+		try {
+			return execution.apply
+		} finally {
+			timer.add(phase, System.nanoTime - start)
+		}
+	}
+
+	/**
+	 * Executes the given phase without a result, see {@link #measure(String, Function0)}.
+	 */
+	static def void execute(String phase, Procedure0 execution) {
+		measure(phase, [execution.apply; return null])
+	}
+
+	/**
+	 * Adds an externally measured time to the active timer (if there is one).
+	 */
+	static def void record(String phase, long nanos) {
+		activeTimer.get?.add(phase, nanos)
+	}
+
+	protected new() {}
+
+	protected def void add(String phase, long nanos) {
+		times.merge(phase, nanos, [lhs, rhs | lhs + rhs])
+	}
+
+	/**
+	 * Returns the execution times of the phases in nanoseconds.
+	 */
+	def Map<String, Long> getTimes() {
+		return times.unmodifiableView
+	}
+
+	override close() {
+		activeTimer.remove
+	}
+
+}
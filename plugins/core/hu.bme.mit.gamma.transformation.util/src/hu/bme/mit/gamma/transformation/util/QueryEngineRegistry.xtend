@@ -0,0 +1,130 @@
+/********************************************************************************
+ * Copyright (c) 2018-2021 Contributors to the Gamma project
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ ********************************************************************************/
+package hu.bme.mit.gamma.transformation.util
+
+import java.util.List
+import java.util.Map
+import java.util.Set
+import java.util.concurrent.TimeUnit
+import java.util.logging.Level
+import java.util.logging.Logger
+import org.eclipse.emf.common.notify.Notifier
+import org.eclipse.viatra.query.runtime.api.AdvancedViatraQueryEngine
+import org.eclipse.viatra.query.runtime.api.GenericQueryGroup
+import org.eclipse.viatra.query.runtime.api.IQueryGroup
+import org.eclipse.viatra.query.runtime.api.IQuerySpecification
+import org.eclipse.viatra.query.runtime.api.ViatraQueryEngine
+import org.eclipse.viatra.query.runtime.emf.EMFScope
+
+import static com.google.common.base.Preconditions.checkState
+
+/**
+ * Registry of the VIATRA query engines of a single run, e.g., the execution of a GenModel.
+ * An engine is created once per shared scope root (e.g., the resource set of the GenModel) and every
+ * phase working on the same root shares it, so the model is indexed only once. The query groups registered
+ * for the run and the ones requested by the phase are prepared together, in a single traversal of the model.
+ * The engines are disposed when the registry is closed.
+ * Other roots (e.g., the transient resource sets of back-annotations) get managed engines, which can be
+ * garbage collected together with their models. The same holds if no registry is open on the thread.
+ */
+class QueryEngineRegistry implements AutoCloseable {
+
+	protected static final ThreadLocal<QueryEngineRegistry> activeRegistry = new ThreadLocal
+
+	protected final Set<Notifier> sharedRoots
+	protected final List<IQueryGroup> preloadedQueryGroups
+	// Scope root -> engine and the queries prepared on it
+	protected final Map<Notifier, AdvancedViatraQueryEngine> engines = newLinkedHashMap
+	protected final Map<AdvancedViatraQueryEngine, Set<IQuerySpecification<?>>> preparedQueries = newHashMap
+	// Phase -> indexing time in nanoseconds
+	protected final Map<String, Long> indexingTimes = newLinkedHashMap
+
+	protected final Logger logger = Logger.getLogger("GammaLogger")
+
+	/**
+	 * Opens a registry on the actual thread for the given shared root; the given query groups
+	 * are prepared on its engine.
+	 */
+	static def QueryEngineRegistry open(Notifier sharedRoot, IQueryGroup... preloadedQueryGroups) {
+		checkState(activeRegistry.get === null, "A query engine registry is already open")
+		val registry = new QueryEngineRegistry(#{sharedRoot}, preloadedQueryGroups)
+		activeRegistry.set(registry)
+		return registry
+	}
+
+	/**
+	 * Returns the engine of the root in which the given query groups are prepared.
+	 */
+	static def ViatraQueryEngine getEngine(Notifier root, String phase, IQueryGroup... queryGroups) {
+		val registry = activeRegistry.get
+		if (registry === null) {
+			return ViatraQueryEngine.on(new EMFScope(root))
+		}
+		return registry.getOrCreateEngine(root, phase, queryGroups)
+	}
+
+	protected new(Set<Notifier> sharedRoots, List<IQueryGroup> preloadedQueryGroups) {
+		this.sharedRoots = sharedRoots
+		this.preloadedQueryGroups = preloadedQueryGroups
+	}
+
+	protected def ViatraQueryEngine getOrCreateEngine(Notifier root, String phase,
+			List<IQueryGroup> queryGroups) {
+		if (!sharedRoots.contains(root)) {
+			// Not retained by the registry, so the model is not kept in memory until the end of the run
+			val engine = ViatraQueryEngine.on(new EMFScope(root))
+			engine.prepare(phase, queryGroups.map[it.specifications].flatten.toSet)
+			return engine
+		}
+		var engine = engines.get(root)
+		val List<IQueryGroup> neededQueryGroups = newArrayList
+		neededQueryGroups += queryGroups
+		if (engine === null) {
+			engine = AdvancedViatraQueryEngine.createUnmanagedEngine(new EMFScope(root))
+			engines.put(root, engine)
+			preparedQueries.put(engine, newHashSet)
+			neededQueryGroups += preloadedQueryGroups
+		}
+		val prepared = preparedQueries.get(engine)
+		val unpreparedQueries = neededQueryGroups.map[it.specifications].flatten
+			.filter[!prepared.contains(it)].toSet
+		engine.prepare(phase, unpreparedQueries)
+		prepared += unpreparedQueries
+		return engine
+	}
+
+	protected def void prepare(ViatraQueryEngine engine, String phase, Set<IQuerySpecification<?>> queries) {
+		if (queries.empty) {
+			return
+		}
+		val start = System.nanoTime
+		// The indexes of every query are built in a single (coalesced) traversal
+		GenericQueryGroup.of(queries).prepare(engine)
+		val time = System.nanoTime - start
+		indexingTimes.merge(phase, time, [lhs, rhs | lhs + rhs])
+		PhaseTimer.record("Indexing (" + phase + ")", time)
+	}
+
+	override close() {
+		for (engine : engines.values) {
+			engine.dispose
+		}
+		for (phase : indexingTimes.keySet) {
+			val time = TimeUnit.NANOSECONDS.toMillis(indexingTimes.get(phase))
+			logger.log(Level.INFO, "Indexing time of " + phase + ": " + time + " ms")
+		}
+		logger.log(Level.INFO, "Number of indexed models: " + engines.size)
+		engines.clear
+		preparedQueries.clear
+		activeRegistry.remove
+	}
+
+}
@@ -20,6 +20,8 @@ import hu.bme.mit.gamma.statechart.statechart.State
 import hu.bme.mit.gamma.statechart.statechart.StatechartDefinition
 import hu.bme.mit.gamma.statechart.statechart.Transition
 import hu.bme.mit.gamma.statechart.util.StatechartUtil
+import hu.bme.mit.gamma.transformation.util.QueryEngineRegistry
+import hu.bme.mit.gamma.transformation.util.queries.Patterns
 import hu.bme.mit.gamma.transformation.util.queries.RaiseInstanceEvents
 import hu.bme.mit.gamma.transformation.util.queries.VariableCUses
 import hu.bme.mit.gamma.transformation.util.queries.VariableDefs
@@ -33,7 +35,6 @@ import java.util.Map
 import java.util.Map.Entry
 import java.util.Set
 import org.eclipse.viatra.query.runtime.api.ViatraQueryEngine
-import org.eclipse.viatra.query.runtime.emf.EMFScope
 import org.eclipse.xtend.lib.annotations.Data
 
 import static extension hu.bme.mit.gamma.statechart.derivedfeatures.StatechartModelDerivedFeatures.*
@@ -110,7 +111,8 @@ class GammaStatechartAnnotator {
 			InteractionCoverageCriterion senderInteractionTuple, InteractionCoverageCriterion receiverInteractionTuple,
 			Collection<VariableDeclaration> dataflowCoverableVariables, DataflowCoverageCriterion dataflowCoverageCriterion) {
 		this.gammaPackage = gammaPackage
-		this.engine = ViatraQueryEngine.on(new EMFScope(gammaPackage.eResource.resourceSet))
+		this.engine = QueryEngineRegistry.getEngine(gammaPackage.eResource.resourceSet,
+			"Statechart annotation", Patterns.instance)
 		if (!transitionCoverableComponents.empty) {
 			this.TRANSITION_COVERAGE = true
 			this.transitionCoverableComponents += transitionCoverableComponents
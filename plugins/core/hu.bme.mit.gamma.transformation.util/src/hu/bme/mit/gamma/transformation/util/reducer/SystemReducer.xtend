@@ -22,6 +22,8 @@ import hu.bme.mit.gamma.statechart.statechart.StateReferenceExpression
 import hu.bme.mit.gamma.statechart.statechart.StatechartDefinition
 import hu.bme.mit.gamma.statechart.statechart.Transition
 import hu.bme.mit.gamma.statechart.util.StatechartUtil
+import hu.bme.mit.gamma.transformation.util.QueryEngineRegistry
+import hu.bme.mit.gamma.transformation.util.queries.Patterns
 import hu.bme.mit.gamma.transformation.util.queries.Regions
 import hu.bme.mit.gamma.transformation.util.queries.RemovableTransitions
 import hu.bme.mit.gamma.transformation.util.queries.SimpleInstances
@@ -33,7 +35,6 @@ import java.util.logging.Logger
 import org.eclipse.emf.ecore.resource.ResourceSet
 import org.eclipse.emf.ecore.util.EcoreUtil
 import org.eclipse.viatra.query.runtime.api.ViatraQueryEngine
-import org.eclipse.viatra.query.runtime.emf.EMFScope
 
 import static extension hu.bme.mit.gamma.statechart.derivedfeatures.StatechartModelDerivedFeatures.*
 
@@ -49,7 +50,7 @@ class SystemReducer implements Reducer {
 	protected final extension Logger logger = Logger.getLogger("GammaLogger")
 
 	new(ResourceSet resourceSet) {
-		this.engine = ViatraQueryEngine.on(new EMFScope(resourceSet))
+		this.engine = QueryEngineRegistry.getEngine(resourceSet, "System reduction", Patterns.instance)
 	}
 	
 	override execute() {
@@ -0,0 +1,130 @@
+/********************************************************************************
+ * Copyright (c) 2018-2021 Contributors to the Gamma project
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ ********************************************************************************/
+package hu.bme.mit.gamma.ui;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import hu.bme.mit.gamma.verification.util.VerificationResultCache;
+
+/**
+ * The state of the last build of a GenModel: the fingerprints of the executed tasks (the hash of their
+ * parameters and input models) and the files they generated. A task is up-to-date if its fingerprint
+ * has not changed and its generated files still exist. The state is stored next to the verification
+ * result cache of the project.
+ */
+public class BuildState {
+
+	protected static final String FILE_EXTENSION = "buildstate";
+	protected static final String FINGERPRINT_POSTFIX = ".fingerprint";
+	protected static final String OUTPUTS_POSTFIX = ".outputs";
+
+	protected final File file;
+	protected final Properties properties = new Properties();
+
+	protected final Logger logger = Logger.getLogger("GammaLogger");
+
+	public BuildState(File projectFolder, String genmodelFileName) {
+		this.file = new File(projectFolder + File.separator + VerificationResultCache.CACHE_FOLDER_NAME +
+				File.separator + genmodelFileName + "." + FILE_EXTENSION);
+		if (file.exists()) {
+			try (Reader reader = new FileReader(file)) {
+				properties.load(reader);
+			} catch (IOException | IllegalArgumentException e) {
+				// Corrupted state, every task is executed
+				logger.log(Level.WARNING, "Cannot load build state " + file + ": " + e.getMessage());
+				properties.clear();
+			}
+		}
+	}
+
+	public synchronized boolean isUpToDate(String taskKey, String fingerprint) {
+		String lastFingerprint = properties.getProperty(taskKey + FINGERPRINT_POSTFIX);
+		if (!fingerprint.equals(lastFingerprint)) {
+			return false;
+		}
+		for (File output : getOutputs(taskKey)) {
+			if (!output.exists()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public synchronized void update(String taskKey, String fingerprint, Collection<File> outputs) {
+		properties.setProperty(taskKey + FINGERPRINT_POSTFIX, fingerprint);
+		List<String> paths = new ArrayList<String>();
+		for (File output : outputs) {
+			paths.add(output.toString());
+		}
+		properties.setProperty(taskKey + OUTPUTS_POSTFIX, String.join(File.pathSeparator, paths));
+	}
+
+	/**
+	 * Has to be called if the execution of the task fails, as its outputs may be partial.
+	 */
+	public synchronized void remove(String taskKey) {
+		properties.remove(taskKey + FINGERPRINT_POSTFIX);
+		properties.remove(taskKey + OUTPUTS_POSTFIX);
+	}
+
+	protected List<File> getOutputs(String taskKey) {
+		List<File> outputs = new ArrayList<File>();
+		String paths = properties.getProperty(taskKey + OUTPUTS_POSTFIX, "");
+		for (String path : paths.split(File.pathSeparator)) {
+			if (!path.isEmpty()) {
+				outputs.add(new File(path));
+			}
+		}
+		return outputs;
+	}
+
+	public synchronized void save() {
+		file.getParentFile().mkdirs();
+		try (Writer writer = new FileWriter(file)) {
+			properties.store(writer, "Gamma build state");
+		} catch (IOException e) {
+			logger.log(Level.WARNING, "Cannot save build state " + file + ": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Returns a new digest for computing fingerprints.
+	 */
+	public static MessageDigest createDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	public static String toFingerprint(MessageDigest digest) {
+		StringBuilder fingerprint = new StringBuilder();
+		for (byte hashByte : digest.digest()) {
+			fingerprint.append(String.format("%02x", hashByte));
+		}
+		return fingerprint.toString();
+	}
+
+}
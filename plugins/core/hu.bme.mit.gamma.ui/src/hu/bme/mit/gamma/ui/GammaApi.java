@@ -10,11 +10,11 @@
  ********************************************************************************/
 package hu.bme.mit.gamma.ui;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 import java.io.IOException;
-import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
@@ -23,16 +23,12 @@ import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.emf.common.util.URI;
-import org.eclipse.emf.ecore.EObject;
-import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.resource.ResourceSet;
 
-import hu.bme.mit.gamma.genmodel.derivedfeatures.GenmodelDerivedFeatures;
 import hu.bme.mit.gamma.genmodel.model.AdaptiveContractTestGeneration;
 import hu.bme.mit.gamma.genmodel.model.AnalysisModelTransformation;
 import hu.bme.mit.gamma.genmodel.model.CodeGeneration;
 import hu.bme.mit.gamma.genmodel.model.EventPriorityTransformation;
-import hu.bme.mit.gamma.genmodel.model.GenModel;
 import hu.bme.mit.gamma.genmodel.model.InterfaceCompilation;
 import hu.bme.mit.gamma.genmodel.model.PhaseStatechartGeneration;
 import hu.bme.mit.gamma.genmodel.model.Slicing;
@@ -57,6 +53,8 @@ import hu.bme.mit.gamma.ui.taskhandler.VerificationHandler;
 public class GammaApi {
 	
 	protected Logger logger = Logger.getLogger("GammaLogger");
+	// Only the analysis model transformations are known to be thread-safe, so tasks are executed sequentially by default
+	protected int workerCount = 1;
 
 	/**
 	 * Executes the Gamma tasks based on the ggen model specified by the fullPath parameter,
@@ -68,159 +66,162 @@ public class GammaApi {
 
 	public void run(String fileWorkspaceRelativePath,
 			ResourceSetCreator resourceSetCreator) throws Exception {
+		run(fileWorkspaceRelativePath, resourceSetCreator, false, true);
+	}
+	
+	/**
+	 * Executes the Gamma tasks like {@link #run(String, ResourceSetCreator)}, but skips the tasks whose parameters
+	 * and input models have not changed since the last incremental build and whose generated files still exist.
+	 * @param force if true, every task is executed (and the build state is updated)
+	 */
+	public void runIncrementally(String fileWorkspaceRelativePath,
+			ResourceSetCreator resourceSetCreator, boolean force) throws Exception {
+		run(fileWorkspaceRelativePath, resourceSetCreator, true, force);
+	}
+	
+	private void run(String fileWorkspaceRelativePath, ResourceSetCreator resourceSetCreator,
+			boolean incremental, boolean force) throws Exception {
 		URI fileURI = URI.createPlatformResourceURI(fileWorkspaceRelativePath, true);
 		// Eclipse magic: URI -> IFile
 		IWorkspaceRoot workspaceRoot = ResourcesPlugin.getWorkspace().getRoot();
 		IFile file = workspaceRoot.getFile(new Path(fileURI.toPlatformString(true)));
 		IProject project = file.getProject();
-		// Multiple compilations due to the dependencies between models
-		final int MAX_ITERATION_COUNT = 6;
-		for (int i = 0; i < MAX_ITERATION_COUNT; ++i) {
-
-			ResourceSet resourceSet = resourceSetCreator.createResourceSet(); // To support different implementations
-
-			Resource resource = resourceSet.getResource(fileURI, true);
-			// Assume that the resource has a single object as content
-			EObject content = resource.getContents().get(0);
-			if (content instanceof GenModel) {
-				GenModel genmodel = (GenModel) content;
-				// WARNING: workspace location and imported project locations are not to be confused
-				// Sorting: InterfaceCompilation < StatechartCompilation < else does not work as the generated models are not reloaded
-				List<Task> tasks = orderTasks(genmodel, i);
-				for (Task task : tasks) {
-					if (task instanceof YakinduCompilation) {
-						if (task instanceof InterfaceCompilation) {
-							logger.log(Level.INFO, "Resource set content for Yakindu to Gamma interface generation: " + resourceSet);
-							InterfaceCompilation interfaceCompilation = (InterfaceCompilation) task;
-							InterfaceCompilationHandler handler = new InterfaceCompilationHandler(file);
-							handler.setTargetFolder(interfaceCompilation);
-							handler.execute(interfaceCompilation);
-							logger.log(Level.INFO, "The Yakindu-Gamma interface transformation has been finished.");
-						}
-						else if (task instanceof StatechartCompilation) {
-							logger.log(Level.INFO, "Resource set content Yakindu to Gamma statechart generation: " + resourceSet);
-							StatechartCompilation statechartCompilation = (StatechartCompilation) task;
-							StatechartCompilationHandler handler = new StatechartCompilationHandler(file);
-							handler.setTargetFolder(statechartCompilation);
-							handler.execute(statechartCompilation);
-							logger.log(Level.INFO, "The Yakindu-Gamma transformation has been finished.");
-						}
-					} else {
-						final String projectName = project.getName().toLowerCase();
-						if (task instanceof CodeGeneration) {
-							CodeGeneration codeGeneration = (CodeGeneration) task;
-							logger.log(Level.INFO, "Resource set content for Java code generation: " + resourceSet);
-							CodeGenerationHandler handler = new CodeGenerationHandler(file);
-							handler.setTargetFolder(codeGeneration);
-							handler.execute(codeGeneration, projectName);
-							logger.log(Level.INFO, "The Java code generation has been finished.");
-						}
-						else if (task instanceof AnalysisModelTransformation) {
-							AnalysisModelTransformation analysisModelTransformation = (AnalysisModelTransformation) task;
-							AnalysisModelTransformationHandler handler = new AnalysisModelTransformationHandler(file);
-							handler.setTargetFolder(analysisModelTransformation);
-							handler.execute(analysisModelTransformation);
-							logger.log(Level.INFO, "The composite system transformation has been finished.");
-						}
-						else if (task instanceof TestGeneration) {
-							TestGeneration testGeneration = (TestGeneration) task;
-							TestGenerationHandler handler = new TestGenerationHandler(file);
-							handler.setTargetFolder(testGeneration);
-							handler.execute(testGeneration, projectName);
-							logger.log(Level.INFO, "The test generation has been finished.");
-						}
-						else if (task instanceof Verification) {
-							Verification verification = (Verification) task;
-							VerificationHandler handler = new VerificationHandler(file);
-							handler.setTargetFolder(verification);
-							handler.execute(verification);
-							logger.log(Level.INFO, "The verification has been finished.");
-						}
-						else if (task instanceof Slicing) {
-							Slicing slicing = (Slicing) task;
-							SlicingHandler handler = new SlicingHandler(file);
-							// No target folder setting, that is done inside
-							handler.execute(slicing);
-							logger.log(Level.INFO, "The slicing has been finished.");
-						}
-						else if (task instanceof TestReplayModelGeneration) {
-							TestReplayModelGeneration testReplayModelGeneration = (TestReplayModelGeneration) task;
-							TestReplayModelGenerationHandler handler = new TestReplayModelGenerationHandler(file);
-							handler.setTargetFolder(testReplayModelGeneration);
-							handler.execute(testReplayModelGeneration);
-							logger.log(Level.INFO, "The test replay model generation has been finished.");
-						}
-						else if (task instanceof AdaptiveContractTestGeneration) {
-							AdaptiveContractTestGeneration testGeneration = (AdaptiveContractTestGeneration) task;
-							AdaptiveContractTestGenerationHandler handler = new AdaptiveContractTestGenerationHandler(file);
-							handler.setTargetFolder(testGeneration);
-							handler.execute(testGeneration, file.getLocation().toString(), projectName);
-							logger.log(Level.INFO, "The adaptive contract test generation has been finished.");
-						}
-						else if (task instanceof EventPriorityTransformation) {
-							EventPriorityTransformation eventPriorityTransformation = (EventPriorityTransformation) task;
-							EventPriorityTransformationHandler handler = new EventPriorityTransformationHandler(file);
-							handler.setTargetFolder(eventPriorityTransformation);
-							handler.execute(eventPriorityTransformation);
-							logger.log(Level.INFO, "The event priority transformation has been finished.");
-						}
-						else if (task instanceof PhaseStatechartGeneration) {
-							PhaseStatechartGeneration phaseStatechartGeneration = (PhaseStatechartGeneration) task;
-							PhaseGenerationHandler handler = new PhaseGenerationHandler(file);
-							handler.setTargetFolder(phaseStatechartGeneration);
-							handler.execute(phaseStatechartGeneration);
-							logger.log(Level.INFO, "The phase statechart transformation has been finished.");
-						}
-					}
-				}
+		BuildState buildState = incremental ?
+				new BuildState(project.getLocation().toFile(), file.getName()) : null;
+		// The tasks are executed according to the models they read and write, independent ones in parallel if there are multiple workers
+		TaskScheduler scheduler = new TaskScheduler(fileURI, project, resourceSetCreator, this::getPhase,
+				(task, resourceSet) -> execute(task, resourceSet, file), buildState, force, getWorkerCount());
+		scheduler.execute();
+	}
+	
+	/**
+	 * Returns the maximum number of tasks executed in parallel.
+	 */
+	protected int getWorkerCount() {
+		return workerCount;
+	}
+	
+	/**
+	 * Sets the maximum number of independent tasks executed in parallel. Experimental: apart from the
+	 * analysis model transformations, the task handlers have not been audited for thread-safety.
+	 */
+	public void setWorkerCount(int workerCount) {
+		checkArgument(workerCount > 0, "The number of workers must be positive: " + workerCount);
+		this.workerCount = workerCount;
+	}
+	
+	protected void execute(Task task, ResourceSet resourceSet, IFile file) throws Exception {
+		IProject project = file.getProject();
+		// WARNING: workspace location and imported project locations are not to be confused
+		if (task instanceof YakinduCompilation) {
+			if (task instanceof InterfaceCompilation) {
+				logger.log(Level.INFO, "Resource set content for Yakindu to Gamma interface generation: " + resourceSet);
+				InterfaceCompilation interfaceCompilation = (InterfaceCompilation) task;
+				InterfaceCompilationHandler handler = new InterfaceCompilationHandler(file);
+				handler.setTargetFolder(interfaceCompilation);
+				handler.execute(interfaceCompilation);
+				logger.log(Level.INFO, "The Yakindu-Gamma interface transformation has been finished.");
+			}
+			else if (task instanceof StatechartCompilation) {
+				logger.log(Level.INFO, "Resource set content Yakindu to Gamma statechart generation: " + resourceSet);
+				StatechartCompilation statechartCompilation = (StatechartCompilation) task;
+				StatechartCompilationHandler handler = new StatechartCompilationHandler(file);
+				handler.setTargetFolder(statechartCompilation);
+				handler.execute(statechartCompilation);
+				logger.log(Level.INFO, "The Yakindu-Gamma transformation has been finished.");
+			}
+		} else {
+			final String projectName = project.getName().toLowerCase();
+			if (task instanceof CodeGeneration) {
+				CodeGeneration codeGeneration = (CodeGeneration) task;
+				logger.log(Level.INFO, "Resource set content for Java code generation: " + resourceSet);
+				CodeGenerationHandler handler = new CodeGenerationHandler(file);
+				handler.setTargetFolder(codeGeneration);
+				handler.execute(codeGeneration, projectName);
+				logger.log(Level.INFO, "The Java code generation has been finished.");
+			}
+			else if (task instanceof AnalysisModelTransformation) {
+				AnalysisModelTransformation analysisModelTransformation = (AnalysisModelTransformation) task;
+				AnalysisModelTransformationHandler handler = new AnalysisModelTransformationHandler(file);
+				handler.setTargetFolder(analysisModelTransformation);
+				handler.execute(analysisModelTransformation);
+				logger.log(Level.INFO, "The composite system transformation has been finished.");
+			}
+			else if (task instanceof TestGeneration) {
+				TestGeneration testGeneration = (TestGeneration) task;
+				TestGenerationHandler handler = new TestGenerationHandler(file);
+				handler.setTargetFolder(testGeneration);
+				handler.execute(testGeneration, projectName);
+				logger.log(Level.INFO, "The test generation has been finished.");
+			}
+			else if (task instanceof Verification) {
+				Verification verification = (Verification) task;
+				VerificationHandler handler = new VerificationHandler(file);
+				handler.setTargetFolder(verification);
+				handler.execute(verification);
+				logger.log(Level.INFO, "The verification has been finished.");
+			}
+			else if (task instanceof Slicing) {
+				Slicing slicing = (Slicing) task;
+				SlicingHandler handler = new SlicingHandler(file);
+				// No target folder setting, that is done inside
+				handler.execute(slicing);
+				logger.log(Level.INFO, "The slicing has been finished.");
+			}
+			else if (task instanceof TestReplayModelGeneration) {
+				TestReplayModelGeneration testReplayModelGeneration = (TestReplayModelGeneration) task;
+				TestReplayModelGenerationHandler handler = new TestReplayModelGenerationHandler(file);
+				handler.setTargetFolder(testReplayModelGeneration);
+				handler.execute(testReplayModelGeneration);
+				logger.log(Level.INFO, "The test replay model generation has been finished.");
 			}
-			else {
-				logger.log(Level.WARNING, "The given resource does not contain a GenModel: " + resource);
+			else if (task instanceof AdaptiveContractTestGeneration) {
+				AdaptiveContractTestGeneration testGeneration = (AdaptiveContractTestGeneration) task;
+				AdaptiveContractTestGenerationHandler handler = new AdaptiveContractTestGenerationHandler(file);
+				handler.setTargetFolder(testGeneration);
+				handler.execute(testGeneration, file.getLocation().toString(), projectName);
+				logger.log(Level.INFO, "The adaptive contract test generation has been finished.");
+			}
+			else if (task instanceof EventPriorityTransformation) {
+				EventPriorityTransformation eventPriorityTransformation = (EventPriorityTransformation) task;
+				EventPriorityTransformationHandler handler = new EventPriorityTransformationHandler(file);
+				handler.setTargetFolder(eventPriorityTransformation);
+				handler.execute(eventPriorityTransformation);
+				logger.log(Level.INFO, "The event priority transformation has been finished.");
+			}
+			else if (task instanceof PhaseStatechartGeneration) {
+				PhaseStatechartGeneration phaseStatechartGeneration = (PhaseStatechartGeneration) task;
+				PhaseGenerationHandler handler = new PhaseGenerationHandler(file);
+				handler.setTargetFolder(phaseStatechartGeneration);
+				handler.execute(phaseStatechartGeneration);
+				logger.log(Level.INFO, "The phase statechart transformation has been finished.");
 			}
 		}
 	}
 	
-	
-
 	/** 
 	 * Compilation order: interfaces <- statecharts <- event priority <- analysis model, code <- test.
 	 * As everything depends on statecharts and statecharts depend on interfaces.
 	 * This way the user does not have to compile two or three times.
+	 * Tasks of later phases are executed after the tasks of earlier phases they depend on.
 	 */
-	private List<Task> orderTasks(GenModel genmodel, int iteration) {
-		List<Task> allTasks = GenmodelDerivedFeatures.getAllTasks(genmodel);
-		switch (iteration) {
-			case 0: 
-				return allTasks.stream()
-						.filter(it -> it instanceof InterfaceCompilation)
-						.collect(Collectors.toList());
-			case 1: 
-				return allTasks.stream()
-						.filter(it -> it instanceof StatechartCompilation)
-						.collect(Collectors.toList());
-			case 2: 
-				return allTasks.stream()
-						.filter(it -> it instanceof EventPriorityTransformation ||
-								it instanceof PhaseStatechartGeneration)
-						.collect(Collectors.toList());
-			case 3: 
-				return allTasks.stream()
-						.filter(it -> it instanceof AnalysisModelTransformation ||
-								it instanceof CodeGeneration)
-						.collect(Collectors.toList());
-			case 4: 
-				return allTasks.stream()
-						.filter(it -> it instanceof Slicing)
-						.collect(Collectors.toList());
-			case 5: 
-				return allTasks.stream()
-						.filter(it -> it instanceof TestGeneration || it instanceof Verification ||
-								it instanceof AdaptiveContractTestGeneration ||
-								it instanceof TestReplayModelGeneration)
-						.collect(Collectors.toList());
-			default: 
-				throw new IllegalArgumentException("Not known iteration variable: " + iteration);
+	private int getPhase(Task task) {
+		if (task instanceof InterfaceCompilation) {
+			return 0;
+		}
+		if (task instanceof StatechartCompilation) {
+			return 1;
+		}
+		if (task instanceof EventPriorityTransformation || task instanceof PhaseStatechartGeneration) {
+			return 2;
+		}
+		if (task instanceof AnalysisModelTransformation || task instanceof CodeGeneration) {
+			return 3;
+		}
+		if (task instanceof Slicing) {
+			return 4;
 		}
+		return 5; // TestGeneration, Verification, AdaptiveContractTestGeneration, TestReplayModelGeneration
 	}
 	
 	public static interface ResourceSetCreator {
@@ -0,0 +1,695 @@
+/********************************************************************************
+ * Copyright (c) 2018-2021 Contributors to the Gamma project
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ ********************************************************************************/
+package hu.bme.mit.gamma.ui;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.ToIntFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.URIConverter;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+import hu.bme.mit.gamma.expression.util.ExpressionEvaluationContext;
+import hu.bme.mit.gamma.genmodel.derivedfeatures.GenmodelDerivedFeatures;
+import hu.bme.mit.gamma.genmodel.model.AbstractCodeGeneration;
+import hu.bme.mit.gamma.genmodel.model.AnalysisModelTransformation;
+import hu.bme.mit.gamma.genmodel.model.CodeGeneration;
+import hu.bme.mit.gamma.genmodel.model.CodeGenerationOption;
+import hu.bme.mit.gamma.genmodel.model.EventPriorityTransformation;
+import hu.bme.mit.gamma.genmodel.model.GenModel;
+import hu.bme.mit.gamma.genmodel.model.PhaseStatechartGeneration;
+import hu.bme.mit.gamma.genmodel.model.Slicing;
+import hu.bme.mit.gamma.genmodel.model.Task;
+import hu.bme.mit.gamma.genmodel.model.TestReplayModelGeneration;
+import hu.bme.mit.gamma.genmodel.model.Verification;
+import hu.bme.mit.gamma.statechart.composite.AbstractSynchronousCompositeComponent;
+import hu.bme.mit.gamma.statechart.interface_.Component;
+import hu.bme.mit.gamma.statechart.statechart.StatechartDefinition;
+import hu.bme.mit.gamma.trace.model.ExecutionTrace;
+import hu.bme.mit.gamma.transformation.util.QueryEngineRegistry;
+import hu.bme.mit.gamma.transformation.util.queries.Patterns;
+import hu.bme.mit.gamma.ui.GammaApi.ResourceSetCreator;
+import hu.bme.mit.gamma.ui.taskhandler.TaskHandler;
+
+/**
+ * Executes the tasks of a GenModel according to the dependencies between them. A task depends on the
+ * earlier tasks (in the order of the compilation phases) that write a model it reads, read a model it writes
+ * or write the same model. Models are identified by their folder and file name without extensions, as the tasks
+ * generate several files (e.g., hidden traces) for a single model. If a task refers to a model that cannot be
+ * loaded yet, its read models are unknown, so it depends on every earlier task and every later task depends on it.
+ * Independent tasks are executed in parallel by workers (a single one by default), each of which has its own resource set; the loaded
+ * resources of a worker are reused by its next tasks unless they are written or modified in the meantime.
+ * In incremental builds, tasks are skipped if their fingerprints (computed right before their execution)
+ * and generated files are the same as in the last build.
+ */
+public class TaskScheduler {
+
+	protected static final String WILDCARD_SEGMENT = "*";
+	protected static final TaskNode END = new TaskNode(null);
+
+	protected final URI genmodelUri;
+	protected final IProject project;
+	protected final ResourceSetCreator resourceSetCreator;
+	protected final ToIntFunction<Task> phaseProvider;
+	protected final TaskExecutor taskExecutor;
+	protected final int workerCount;
+	// Null if the build is not incremental
+	protected final BuildState buildState;
+	protected final boolean force;
+
+	protected final List<TaskNode> nodes = new ArrayList<TaskNode>();
+	protected final BlockingQueue<TaskNode> readyNodes = new LinkedBlockingQueue<TaskNode>();
+	// Models written by the finished tasks in the order of finishing
+	protected final List<URI> writtenModels = new ArrayList<URI>();
+	protected int finishedNodeCount = 0;
+	protected int startedWorkerCount = 0;
+	protected Exception exception = null;
+
+	protected final Logger logger = Logger.getLogger("GammaLogger");
+
+	public TaskScheduler(URI genmodelUri, IProject project, ResourceSetCreator resourceSetCreator,
+			ToIntFunction<Task> phaseProvider, TaskExecutor taskExecutor) {
+		this(genmodelUri, project, resourceSetCreator, phaseProvider, taskExecutor, null, true);
+	}
+
+	/**
+	 * If a build state is given, the tasks whose fingerprints have not changed since the last build
+	 * are skipped, unless the build is forced.
+	 */
+	public TaskScheduler(URI genmodelUri, IProject project, ResourceSetCreator resourceSetCreator,
+			ToIntFunction<Task> phaseProvider, TaskExecutor taskExecutor, BuildState buildState, boolean force) {
+		this(genmodelUri, project, resourceSetCreator, phaseProvider, taskExecutor, buildState, force, 1);
+	}
+
+	public TaskScheduler(URI genmodelUri, IProject project, ResourceSetCreator resourceSetCreator,
+			ToIntFunction<Task> phaseProvider, TaskExecutor taskExecutor, BuildState buildState, boolean force,
+			int workerCount) {
+		this.genmodelUri = genmodelUri;
+		this.project = project;
+		this.resourceSetCreator = resourceSetCreator;
+		this.phaseProvider = phaseProvider;
+		this.taskExecutor = taskExecutor;
+		this.buildState = buildState;
+		this.force = force;
+		checkArgument(workerCount > 0, "The number of workers must be positive: " + workerCount);
+		this.workerCount = workerCount;
+	}
+
+	public void execute() throws Exception {
+		ResourceSet resourceSet = resourceSetCreator.createResourceSet(); // To support different implementations
+		Resource resource = resourceSet.getResource(genmodelUri, true);
+		// Assume that the resource has a single object as content
+		EObject content = resource.getContents().get(0);
+		if (!(content instanceof GenModel)) {
+			logger.log(Level.WARNING, "The given resource does not contain a GenModel: " + resource);
+			return;
+		}
+		GenModel genmodel = (GenModel) content;
+		createNodes(GenmodelDerivedFeatures.getAllTasks(genmodel));
+		if (nodes.isEmpty()) {
+			return;
+		}
+		for (TaskNode node : nodes) {
+			if (node.predecessors.isEmpty()) {
+				readyNodes.add(node);
+			}
+		}
+		int workerCount = Math.min(this.workerCount, nodes.size());
+		startedWorkerCount = workerCount;
+		logger.log(Level.INFO, "Executing " + nodes.size() + " tasks with " + workerCount + " workers");
+		List<Thread> workers = new ArrayList<Thread>();
+		for (int i = 0; i < workerCount; ++i) {
+			// The first worker reuses the models loaded during the dependency analysis
+			Worker worker = new Worker((i == 0) ? resourceSet : null);
+			Thread thread = new Thread(worker, "Gamma task worker " + i);
+			workers.add(thread);
+			thread.start();
+		}
+		for (Thread worker : workers) {
+			worker.join();
+		}
+		if (buildState != null) {
+			buildState.save();
+		}
+		if (exception != null) {
+			throw exception;
+		}
+	}
+
+	// Dependency analysis
+
+	protected void createNodes(List<Task> tasks) {
+		List<Task> orderedTasks = new ArrayList<Task>(tasks);
+		orderedTasks.sort(Comparator.comparingInt(phaseProvider)); // Stable, keeps the order inside phases
+		for (Task task : orderedTasks) {
+			TaskNode node = new TaskNode(EcoreUtil.getURI(task));
+			Set<URI> readResources = new HashSet<URI>();
+			node.opaque = !collectReadResources(task, readResources);
+			for (URI readResource : readResources) {
+				node.readModels.add(getModelKey(readResource));
+			}
+			node.writtenModels.addAll(getWrittenModels(task));
+			addDependencies(node);
+			nodes.add(node);
+		}
+	}
+
+	/**
+	 * Dependencies are searched until a fixpoint, as a task also reads the models its predecessors read:
+	 * the models they generate may refer to them. Opaque tasks (whose read models are unknown) are ordered
+	 * with respect to every other task, regardless of the phases.
+	 */
+	protected void addDependencies(TaskNode node) {
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (TaskNode predecessor : nodes) {
+				if (!node.predecessors.contains(predecessor) &&
+						(node.opaque || predecessor.opaque || isConflicting(predecessor, node))) {
+					node.predecessors.add(predecessor);
+					predecessor.successors.add(node);
+					node.readModels.addAll(predecessor.readModels);
+					changed = true;
+				}
+			}
+		}
+		node.unfinishedPredecessorCount = node.predecessors.size();
+	}
+
+	protected boolean isConflicting(TaskNode lhs, TaskNode rhs) {
+		return overlaps(lhs.writtenModels, rhs.readModels) || overlaps(lhs.readModels, rhs.writtenModels) ||
+			overlaps(lhs.writtenModels, rhs.writtenModels);
+	}
+
+	/**
+	 * Collects the models referred by the task and (transitively) by the roots of these models, e.g., imports.
+	 * Only the references of the roots are followed, so the models are not linked completely.
+	 * Returns false if a referred model cannot be loaded.
+	 */
+	protected boolean collectReadResources(Task task, Set<URI> readResources) {
+		boolean resolved = true;
+		Set<Resource> visitedResources = new HashSet<Resource>();
+		Queue<EObject> referredObjects = new LinkedList<EObject>();
+		for (EObject content : getAllContents(task)) {
+			referredObjects.addAll(getReferredObjects(content));
+		}
+		while (!referredObjects.isEmpty()) {
+			EObject referredObject = referredObjects.poll();
+			Resource resource = referredObject.eResource();
+			if (referredObject.eIsProxy() || resource == null) {
+				resolved = false;
+			}
+			else if (!(EcoreUtil.getRootContainer(referredObject) instanceof GenModel) &&
+					visitedResources.add(resource)) {
+				readResources.add(resource.getURI());
+				for (EObject root : resource.getContents()) {
+					referredObjects.addAll(getReferredObjects(root));
+				}
+			}
+		}
+		if (task instanceof Verification) {
+			// Analysis models and queries are referred by relative paths
+			Verification verification = (Verification) task;
+			URI folder = task.eResource().getURI().trimSegments(1);
+			List<String> paths = new ArrayList<String>(verification.getFileName());
+			paths.addAll(verification.getQueryFiles());
+			for (String path : paths) {
+				readResources.add(folder.appendSegments(path.split("/")));
+			}
+		}
+		return resolved;
+	}
+
+	protected List<EObject> getReferredObjects(EObject object) {
+		List<EObject> referredObjects = new ArrayList<EObject>();
+		for (EReference reference : object.eClass().getEAllReferences()) {
+			if (!reference.isContainment() && !reference.isContainer() && !reference.isDerived()) {
+				Object value = object.eGet(reference, true);
+				if (reference.isMany()) {
+					for (Object element : (List<?>) value) {
+						referredObjects.add((EObject) element);
+					}
+				}
+				else if (value != null) {
+					referredObjects.add((EObject) value);
+				}
+			}
+		}
+		return referredObjects;
+	}
+
+	protected List<EObject> getAllContents(EObject object) {
+		List<EObject> contents = new ArrayList<EObject>();
+		contents.add(object);
+		object.eAllContents().forEachRemaining(contents::add);
+		return contents;
+	}
+
+	protected Set<URI> getWrittenModels(Task task) {
+		Set<URI> writtenModels = new HashSet<URI>();
+		URI targetFolder = getTargetFolder(task);
+		if (task instanceof Verification) {
+			Verification verification = (Verification) task;
+			writtenModels.add(getWildcardKey(targetFolder));
+			String testFolder = verification.getTestFolder().isEmpty() ? "test-gen" :
+				verification.getTestFolder().get(0);
+			writtenModels.add(getWildcardKey(getProjectFolder(testFolder)));
+		}
+		else if (task instanceof AbstractCodeGeneration) {
+			AbstractCodeGeneration codeGeneration = (AbstractCodeGeneration) task;
+			String packageName = codeGeneration.getPackageName().isEmpty() ?
+				project.getName().toLowerCase() : codeGeneration.getPackageName().get(0);
+			writtenModels.add(getWildcardKey(targetFolder.appendSegments(packageName.split("\\."))));
+			if (codeGeneration instanceof CodeGeneration) {
+				writtenModels.addAll(getIntermediateModels((CodeGeneration) codeGeneration));
+			}
+		}
+		else if (task instanceof Slicing) {
+			// The sliced component is saved into its own file by default
+			Slicing slicing = (Slicing) task;
+			Resource resource = slicing.getPropertyPackage().getComponent().eResource();
+			if (resource == null) {
+				writtenModels.add(getWildcardKey(targetFolder));
+			}
+			else {
+				URI folder = task.getTargetFolder().isEmpty() ? resource.getURI().trimSegments(1) : targetFolder;
+				String fileName = task.getFileName().isEmpty() ? resource.getURI().lastSegment() :
+					URI.encodeSegment(task.getFileName().get(0), false);
+				writtenModels.add(getModelKey(folder.appendSegment(fileName)));
+			}
+		}
+		else {
+			String fileName = getFileName(task);
+			if (fileName == null) {
+				writtenModels.add(getWildcardKey(targetFolder));
+			}
+			else {
+				writtenModels.add(getModelKey(targetFolder.appendSegment(URI.encodeSegment(fileName, false))));
+			}
+			if (task instanceof TestReplayModelGeneration) {
+				// The environment model is named after the trace
+				TestReplayModelGeneration modelGeneration = (TestReplayModelGeneration) task;
+				ExecutionTrace executionTrace = modelGeneration.getExecutionTrace();
+				String traceName = (executionTrace == null) ? null : executionTrace.getName();
+				if (traceName == null) {
+					writtenModels.add(getWildcardKey(targetFolder));
+				}
+				else {
+					writtenModels.add(getModelKey(targetFolder.appendSegment(URI.encodeSegment(traceName, false))));
+				}
+			}
+		}
+		return writtenModels;
+	}
+
+	/**
+	 * Returns the models that are saved next to the GenModel by the XSTS based code generations, e.g.,
+	 * the unfolded composite and its XSTS, which are named after the component like analysis models.
+	 */
+	protected Set<URI> getIntermediateModels(CodeGeneration codeGeneration) {
+		Set<URI> intermediateModels = new HashSet<URI>();
+		Component component = codeGeneration.getComponent();
+		if (component instanceof StatechartDefinition ||
+				component instanceof AbstractSynchronousCompositeComponent &&
+				codeGeneration.getOptions().contains(CodeGenerationOption.FLAT_COMPOSITE)) {
+			URI modelFolder = codeGeneration.eResource().getURI().trimSegments(1);
+			String componentName = component.getName();
+			if (componentName == null) {
+				intermediateModels.add(getWildcardKey(modelFolder));
+			}
+			else {
+				intermediateModels.add(getModelKey(modelFolder.appendSegment(URI.encodeSegment(componentName, false))));
+			}
+		}
+		return intermediateModels;
+	}
+
+	/**
+	 * Returns the name of the generated model in accordance with the task handlers or null if it is unknown.
+	 */
+	protected String getFileName(Task task) {
+		if (!task.getFileName().isEmpty()) {
+			return task.getFileName().get(0);
+		}
+		if (task instanceof EventPriorityTransformation) {
+			return getFileNameStem(((EventPriorityTransformation) task).getStatechart());
+		}
+		if (task instanceof PhaseStatechartGeneration) {
+			String fileName = getFileNameStem(((PhaseStatechartGeneration) task).getStatechart());
+			return (fileName == null) ? null : "Phase" + fileName;
+		}
+		if (task instanceof AnalysisModelTransformation) {
+			return getFileNameStem(GenmodelDerivedFeatures.getModel((AnalysisModelTransformation) task));
+		}
+		return null;
+	}
+
+	protected String getFileNameStem(EObject object) {
+		if (object == null || object.eResource() == null) {
+			return null;
+		}
+		return URI.decode(getStem(object.eResource().getURI().lastSegment()));
+	}
+
+	protected URI getTargetFolder(Task task) {
+		String targetFolder = task.getTargetFolder().isEmpty() ?
+			TaskHandler.getDefaultTargetFolder(task, project) : task.getTargetFolder().get(0);
+		return getProjectFolder(targetFolder);
+	}
+
+	protected URI getProjectFolder(String path) {
+		return URI.createPlatformResourceURI(project.getName() + "/" + path, true);
+	}
+
+	// Model keys: folder + file name without leading dot and extensions, or folder + wildcard
+
+	protected URI getModelKey(URI uri) {
+		return uri.trimSegments(1).appendSegment(getStem(uri.lastSegment()));
+	}
+
+	protected URI getWildcardKey(URI folder) {
+		return folder.appendSegment(WILDCARD_SEGMENT);
+	}
+
+	protected String getStem(String fileName) {
+		String name = fileName.startsWith(".") ? fileName.substring(1) : fileName;
+		int index = name.indexOf(".");
+		if (index < 0) {
+			return name;
+		}
+		return name.substring(0, index);
+	}
+
+	protected boolean overlaps(Set<URI> lhs, Set<URI> rhs) {
+		for (URI lhsKey : lhs) {
+			for (URI rhsKey : rhs) {
+				if (overlaps(lhsKey, rhsKey)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	protected boolean overlaps(URI lhs, URI rhs) {
+		if (WILDCARD_SEGMENT.equals(lhs.lastSegment())) {
+			return rhs.toString().startsWith(lhs.trimSegments(1).toString() + "/");
+		}
+		if (WILDCARD_SEGMENT.equals(rhs.lastSegment())) {
+			return lhs.toString().startsWith(rhs.trimSegments(1).toString() + "/");
+		}
+		return lhs.equals(rhs);
+	}
+
+	// Incremental builds
+
+	/**
+	 * Returns the hash of the parameters of the task and the contents of the models it reads
+	 * or null if a referred model cannot be loaded.
+	 */
+	protected String getFingerprint(Task task, ResourceSet resourceSet) throws IOException {
+		Set<URI> readResources = new HashSet<URI>();
+		if (!collectReadResources(task, readResources)) {
+			return null;
+		}
+		MessageDigest digest = BuildState.createDigest();
+		digest.update(getParameters(task).getBytes(StandardCharsets.UTF_8));
+		digest.update((byte) 0); // Separator
+		List<URI> orderedReadResources = new ArrayList<URI>(readResources);
+		orderedReadResources.sort(Comparator.comparing(URI::toString));
+		URIConverter uriConverter = resourceSet.getURIConverter();
+		for (URI readResource : orderedReadResources) {
+			if (!uriConverter.exists(readResource, null)) {
+				return null; // E.g., a file referred by a relative path that is not located next to the GenModel
+			}
+			digest.update(readResource.toString().getBytes(StandardCharsets.UTF_8));
+			try (InputStream inputStream = uriConverter.createInputStream(readResource)) {
+				digest.update(inputStream.readAllBytes());
+			}
+			digest.update((byte) 0);
+		}
+		return BuildState.toFingerprint(digest);
+	}
+
+	protected String getParameters(Task task) {
+		StringBuilder parameters = new StringBuilder();
+		for (EObject object : getAllContents(task)) {
+			parameters.append(object.eClass().getName() + "(");
+			for (EAttribute attribute : object.eClass().getEAllAttributes()) {
+				if (!attribute.isDerived()) {
+					parameters.append(attribute.getName() + "=" + object.eGet(attribute) + ";");
+				}
+			}
+			for (EObject referredObject : getReferredObjects(object)) {
+				parameters.append(EcoreUtil.getURI(referredObject) + ";");
+			}
+			parameters.append(")");
+		}
+		return parameters.toString();
+	}
+
+	/**
+	 * Returns the files generated by the task, i.e., the files of its written models modified since its start.
+	 */
+	protected List<File> getOutputs(TaskNode node, long startTime) {
+		// File systems may store the modification time in seconds
+		long time = startTime - startTime % 1000;
+		List<File> outputs = new ArrayList<File>();
+		for (URI writtenModel : node.writtenModels) {
+			File folder = toFile(writtenModel.trimSegments(1));
+			if (folder != null) {
+				String stem = WILDCARD_SEGMENT.equals(writtenModel.lastSegment()) ?
+					null : URI.decode(writtenModel.lastSegment());
+				collectOutputs(folder, stem, time, outputs);
+			}
+		}
+		return outputs;
+	}
+
+	protected void collectOutputs(File folder, String stem, long time, List<File> outputs) {
+		File[] files = folder.listFiles();
+		if (files == null) {
+			return;
+		}
+		for (File file : files) {
+			if (file.isDirectory()) {
+				if (stem == null) {
+					collectOutputs(file, stem, time, outputs);
+				}
+			}
+			else if ((stem == null || stem.equals(getStem(file.getName()))) && file.lastModified() >= time) {
+				outputs.add(file);
+			}
+		}
+	}
+
+	protected File toFile(URI folder) {
+		if (folder.isFile()) {
+			return new File(folder.toFileString());
+		}
+		if (!folder.isPlatformResource()) {
+			return null;
+		}
+		IPath path = new Path(folder.toPlatformString(true));
+		IProject containingProject = ResourcesPlugin.getWorkspace().getRoot().getProject(path.segment(0));
+		IPath projectLocation = containingProject.getLocation();
+		if (projectLocation == null) {
+			return null;
+		}
+		return projectLocation.append(path.removeFirstSegments(1)).toFile();
+	}
+
+	// Execution
+
+	protected synchronized List<URI> getWrittenModels(int fromIndex) {
+		return new ArrayList<URI>(writtenModels.subList(fromIndex, writtenModels.size()));
+	}
+
+	protected synchronized boolean isFailed() {
+		return exception != null;
+	}
+
+	protected synchronized void finish(TaskNode node, boolean executed, Exception exception) {
+		++finishedNodeCount;
+		if (exception != null) {
+			if (this.exception == null) {
+				this.exception = exception;
+				stopWorkers(); // Tasks already in the queue are skipped
+			}
+			return;
+		}
+		if (executed) {
+			writtenModels.addAll(node.writtenModels);
+		}
+		if (this.exception != null) {
+			return;
+		}
+		for (TaskNode successor : node.successors) {
+			--successor.unfinishedPredecessorCount;
+			if (successor.unfinishedPredecessorCount == 0) {
+				readyNodes.add(successor);
+			}
+		}
+		if (finishedNodeCount == nodes.size()) {
+			stopWorkers();
+		}
+	}
+
+	protected void stopWorkers() {
+		for (int i = 0; i < startedWorkerCount; ++i) {
+			readyNodes.add(END);
+		}
+	}
+
+	protected class Worker implements Runnable {
+
+		protected ResourceSet resourceSet;
+		protected int seenWrittenModelCount = 0;
+		protected QueryEngineRegistry queryEngineRegistry;
+
+		public Worker(ResourceSet resourceSet) {
+			this.resourceSet = resourceSet;
+		}
+
+		@Override
+		public void run() {
+			if (resourceSet == null) {
+				resourceSet = resourceSetCreator.createResourceSet();
+			}
+			queryEngineRegistry = QueryEngineRegistry.open(resourceSet, Patterns.instance());
+			try {
+				TaskNode node = readyNodes.take();
+				while (node != END) {
+					if (!isFailed()) {
+						execute(node);
+					}
+					node = readyNodes.take();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				queryEngineRegistry.close();
+			}
+		}
+
+		protected void execute(TaskNode node) {
+			String taskKey = node.taskUri.toString();
+			boolean executed = true;
+			Exception exception = null;
+			try {
+				refresh();
+				Task task = (Task) resourceSet.getEObject(node.taskUri, true);
+				String fingerprint = (buildState == null) ? null : getFingerprint(task, resourceSet);
+				if (!force && fingerprint != null && buildState.isUpToDate(taskKey, fingerprint)) {
+					logger.log(Level.INFO, "Skipping up-to-date task " + taskKey);
+					executed = false;
+				}
+				else {
+					long startTime = System.currentTimeMillis();
+					// The evaluation contexts attached to the models are detached after the task
+					try (ExpressionEvaluationContext.Scope scope = ExpressionEvaluationContext.openScope()) {
+						taskExecutor.execute(task, resourceSet);
+					}
+					if (fingerprint != null) {
+						buildState.update(taskKey, fingerprint, getOutputs(node, startTime));
+					}
+				}
+			} catch (Exception e) {
+				exception = e;
+			} catch (Throwable e) {
+				exception = new ExecutionException(e);
+			}
+			if (exception != null && buildState != null) {
+				buildState.remove(taskKey);
+			}
+			finish(node, executed, exception);
+		}
+
+		/**
+		 * Unloads the resources written by the finished tasks or modified by the previous task of the worker.
+		 */
+		protected void refresh() {
+			List<URI> newWrittenModels = getWrittenModels(seenWrittenModelCount);
+			seenWrittenModelCount += newWrittenModels.size();
+			boolean unloaded = false;
+			for (Resource resource : new ArrayList<Resource>(resourceSet.getResources())) {
+				URI key = getModelKey(resource.getURI());
+				boolean isGenmodel = !resource.getContents().isEmpty() &&
+					resource.getContents().get(0) instanceof GenModel; // Tasks are modified by the handlers
+				if (!isGenmodel && resource.isModified() ||
+						newWrittenModels.stream().anyMatch(it -> overlaps(it, key))) {
+					resource.unload();
+					resourceSet.getResources().remove(resource);
+					unloaded = true;
+				}
+				else if (!resource.isTrackingModification()) {
+					resource.setTrackingModification(true);
+				}
+			}
+			if (unloaded) {
+				// The indexes of the engines are not reused
+				queryEngineRegistry.close();
+				queryEngineRegistry = QueryEngineRegistry.open(resourceSet, Patterns.instance());
+			}
+		}
+
+	}
+
+	protected static class TaskNode {
+
+		protected final URI taskUri;
+		protected boolean opaque;
+		protected final Set<URI> readModels = new HashSet<URI>();
+		protected final Set<URI> writtenModels = new HashSet<URI>();
+		protected final List<TaskNode> predecessors = new ArrayList<TaskNode>();
+		protected final List<TaskNode> successors = new ArrayList<TaskNode>();
+		protected int unfinishedPredecessorCount;
+
+		public TaskNode(URI taskUri) {
+			this.taskUri = taskUri;
+		}
+
+	}
+
+	public static interface TaskExecutor {
+
+		void execute(Task task, ResourceSet resourceSet) throws Exception;
+
+	}
+
+}
@@ -438,7 +438,7 @@ public class AnalysisModelTransformationHandler extends TaskHandler {
 					testedComponentsForStates, testedComponentsForTransitions,
 					testedComponentsForTransitionPairs, testedComponentsForOutEvents,
 					testedInteractions, senderCoverageCriterion, receiverCoverageCriterion,
-					dataflowTestedVariables, dataflowCoverageCriterion);
+					dataflowTestedVariables, dataflowCoverageCriterion, transformation.isParallel());
 			transformer.execute();
 			// Property serialization
 			serializeProperties(fileName);
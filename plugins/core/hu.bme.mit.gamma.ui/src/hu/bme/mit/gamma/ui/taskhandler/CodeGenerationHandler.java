@@ -22,7 +22,9 @@ import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
 
 import hu.bme.mit.gamma.codegenerator.java.GlueCodeGenerator;
 import hu.bme.mit.gamma.genmodel.model.CodeGeneration;
+import hu.bme.mit.gamma.genmodel.model.CodeGenerationOption;
 import hu.bme.mit.gamma.genmodel.model.ProgrammingLanguage;
+import hu.bme.mit.gamma.statechart.composite.AbstractSynchronousCompositeComponent;
 import hu.bme.mit.gamma.statechart.composite.ComponentInstance;
 import hu.bme.mit.gamma.statechart.composite.CompositeComponent;
 import hu.bme.mit.gamma.statechart.derivedfeatures.StatechartModelDerivedFeatures;
@@ -49,6 +51,15 @@ public class CodeGenerationHandler extends TaskHandler {
 			logger.log(Level.INFO, "Starting single statechart code generation...");
 			CommandHandler singleStatechartCommandHandler = new CommandHandler();
 			singleStatechartCommandHandler.run(statechart, ecoreUtil.getFile(codeGeneration.eResource()).getParent(),
+					targetFolderUri, codeGeneration.getPackageName().get(0),
+					codeGeneration.getOptions().contains(CodeGenerationOption.BITSET_STATES));
+		}
+		else if (component instanceof AbstractSynchronousCompositeComponent &&
+				codeGeneration.getOptions().contains(CodeGenerationOption.FLAT_COMPOSITE)) {
+			AbstractSynchronousCompositeComponent composite = (AbstractSynchronousCompositeComponent) component;
+			logger.log(Level.INFO, "Starting flat synchronous composite component code generation...");
+			CommandHandler flatCompositeCommandHandler = new CommandHandler();
+			flatCompositeCommandHandler.run(composite, ecoreUtil.getFile(codeGeneration.eResource()).getParent(),
 					targetFolderUri, codeGeneration.getPackageName().get(0));
 		}
 		else {
@@ -59,7 +70,7 @@ public class CodeGenerationHandler extends TaskHandler {
 			// The presence of the top level component and statechart traces are sufficient in the resource set
 			// Contained composite components are automatically resolved by VIATRA
 			GlueCodeGenerator generator = new GlueCodeGenerator(codeGenerationResourceSet,
-					codeGeneration.getPackageName().get(0), targetFolderUri);
+					codeGeneration.getPackageName().get(0), targetFolderUri, codeGeneration.getOptions());
 			generator.execute();
 			generator.dispose();
 		}
@@ -17,6 +17,7 @@ import java.io.IOException;
 import java.util.logging.Logger;
 
 import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.EObject;
 
@@ -54,29 +55,35 @@ public abstract class TaskHandler {
 	public void setTargetFolder(Task task) {
 		checkArgument(task.getTargetFolder().size() <= 1);
 		if (task.getTargetFolder().isEmpty()) {
-			String targetFolder = null;
-			if (task instanceof Verification) {
-				targetFolder = "trace";
-			}
-			else if (task instanceof CodeGeneration) {
-				targetFolder = "src-gen";
-			}
-			else if (task instanceof TestGeneration || task instanceof AdaptiveContractTestGeneration) {
-				targetFolder = "test-gen";
-			}
-			else {
-				URI relativeUri = task.eResource().getURI();
-				URI parentUri = relativeUri.trimSegments(1);
-				String platformUri = parentUri.toPlatformString(true);
-				targetFolder = platformUri.substring(
-					(File.separator + file.getProject().getName() + File.separator).length());
-			}
+			String targetFolder = getDefaultTargetFolder(task, file.getProject());
 			task.getTargetFolder().add(targetFolder);
 		}
 		// Setting the attribute, the target folder is a RELATIVE path now from the project
 		targetFolderUri = URI.decode(projectLocation + File.separator + task.getTargetFolder().get(0));
 	}
 	
+	/**
+	 * Returns the target folder (relative to the project) of the task if it does not specify one.
+	 */
+	public static String getDefaultTargetFolder(Task task, IProject project) {
+		if (task instanceof Verification) {
+			return "trace";
+		}
+		else if (task instanceof CodeGeneration) {
+			return "src-gen";
+		}
+		else if (task instanceof TestGeneration || task instanceof AdaptiveContractTestGeneration) {
+			return "test-gen";
+		}
+		else {
+			URI relativeUri = task.eResource().getURI();
+			URI parentUri = relativeUri.trimSegments(1);
+			String platformUri = parentUri.toPlatformString(true);
+			return platformUri.substring(
+				(File.separator + project.getName() + File.separator).length());
+		}
+	}
+	
 	protected String getNameWithoutExtension(String fileName) {
 		return fileName.substring(0, fileName.lastIndexOf("."));
 	}
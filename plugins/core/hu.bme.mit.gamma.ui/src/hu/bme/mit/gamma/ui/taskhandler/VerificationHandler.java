@@ -16,10 +16,8 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map.Entry;
-import java.util.Queue;
 import java.util.Set;
 import java.util.logging.Level;
 
@@ -38,14 +36,20 @@ import hu.bme.mit.gamma.querygenerator.serializer.ThetaPropertySerializer;
 import hu.bme.mit.gamma.querygenerator.serializer.UppaalPropertySerializer;
 import hu.bme.mit.gamma.querygenerator.serializer.XstsUppaalPropertySerializer;
 import hu.bme.mit.gamma.theta.verification.ThetaVerification;
+import hu.bme.mit.gamma.trace.language.ui.serializer.TraceLanguageSerializer;
 import hu.bme.mit.gamma.trace.model.ExecutionTrace;
 import hu.bme.mit.gamma.trace.testgeneration.java.TestGenerator;
+import hu.bme.mit.gamma.trace.util.TraceCoverageIndex;
 import hu.bme.mit.gamma.trace.util.TraceUtil;
 import hu.bme.mit.gamma.transformation.util.reducer.CoveredPropertyReducer;
 import hu.bme.mit.gamma.uppaal.verification.UppaalVerification;
 import hu.bme.mit.gamma.uppaal.verification.XstsUppaalVerification;
 import hu.bme.mit.gamma.verification.util.AbstractVerification;
 import hu.bme.mit.gamma.verification.util.AbstractVerifier.Result;
+import hu.bme.mit.gamma.verification.util.CachingVerification;
+import hu.bme.mit.gamma.verification.util.VerificationResultCache;
+import hu.bme.mit.gamma.verification.util.VerificationWorkerPool;
+import hu.bme.mit.gamma.verification.util.VerificationWorkerPool.VerificationJobHandler;
 
 public class VerificationHandler extends TaskHandler {
 
@@ -55,6 +59,8 @@ public class VerificationHandler extends TaskHandler {
 	protected final String traceFileName = "ExecutionTrace";
 	protected final String testFileName = traceFileName + "Simulation";
 	protected TraceUtil traceUtil = TraceUtil.INSTANCE;
+	// Index of the retrieved traces, extended incrementally as the traces arrive
+	protected TraceCoverageIndex coverageIndex = new TraceCoverageIndex();
 	
 	public VerificationHandler(IFile file) {
 		super(file);
@@ -84,56 +90,88 @@ public class VerificationHandler extends TaskHandler {
 					throw new IllegalArgumentException("Currently only UPPAAL and Theta are supported.");
 			}
 		}
+		verificationTask = decorate(verificationTask, verification);
 		String filePath = verification.getFileName().get(0);
 		File modelFile = new File(filePath);
 		boolean isOptimize = verification.isOptimize();
 		String packageName = verification.getPackageName().get(0);
+		int workerCount = getWorkerCount(verification);
 		
 		List<String> queryFileLocations = new ArrayList<String>();
 		// String locations
 		queryFileLocations.addAll(verification.getQueryFiles());
 		// Retrieved traces
 		List<ExecutionTrace> retrievedTraces = new ArrayList<ExecutionTrace>();
+		coverageIndex = new TraceCoverageIndex();
 		
 		// Execution based on property models
-		Queue<StateFormula> stateFormulas = new LinkedList<StateFormula>();
+		List<StateFormula> stateFormulas = new ArrayList<StateFormula>();
 		for (PropertyPackage propertyPackage : verification.getPropertyPackages()) {
 			for (CommentableStateFormula formula : propertyPackage.getFormulas()) {
 				stateFormulas.add(formula.getFormula());
 			}
 		}
-		while (!stateFormulas.isEmpty()) {
-			StateFormula formula = stateFormulas.poll();
-			String serializedFormula = propertySerializer.serialize(formula);
-			// Saving the string
-			File file = modelFile;
-			String fileName = fileUtil.toHiddenFileName(fileUtil.changeExtension(file.getName(), "pd"));
-			File queryFile = new File(file.getParentFile().toString() + File.separator + fileName);
-			fileUtil.saveString(queryFile, serializedFormula);
-			queryFile.deleteOnExit();
-			
-			ExecutionTrace trace = execute(verificationTask, modelFile, queryFile, retrievedTraces, isOptimize);
-			
-			// Checking if some of the unchecked properties are already covered
-			if (trace != null && isOptimize) {
-				CoveredPropertyReducer reducer = new CoveredPropertyReducer(stateFormulas, trace);
-				List<StateFormula> coveredProperties = reducer.execute();
-				if (coveredProperties.size() > 0) {
-					StringBuilder covered = new StringBuilder();
-					for (StateFormula coveredProperty : coveredProperties) {
-						covered.append(propertySerializer.serialize(coveredProperty) + System.lineSeparator());
-					}
-					logger.log(Level.INFO, "Some properties are already covered: " + covered);
-					stateFormulas.removeAll(coveredProperties);
+		final PropertySerializer serializer = propertySerializer;
+		// Traces (even the ones without steps) that can cover unchecked properties
+		List<ExecutionTrace> coveringTraces = new ArrayList<ExecutionTrace>();
+		VerificationWorkerPool<StateFormula> formulaPool =
+				new VerificationWorkerPool<StateFormula>(verificationTask, workerCount);
+		formulaPool.execute(modelFile, stateFormulas, new VerificationJobHandler<StateFormula>() {
+			@Override
+			public File createQueryFile(StateFormula formula, String workerId) {
+				String serializedFormula = serializer.serialize(formula);
+				// Saving the string
+				File file = modelFile;
+				String fileName = fileUtil.toHiddenFileName(fileUtil.changeExtension(
+						fileUtil.getExtensionlessName(file) + workerId, "pd"));
+				File queryFile = new File(file.getParentFile().toString() + File.separator + fileName);
+				fileUtil.saveString(queryFile, serializedFormula);
+				queryFile.deleteOnExit();
+				return queryFile;
+			}
+			@Override
+			public boolean isSkippable(StateFormula formula) {
+				// Checking if the unchecked property is already covered
+				if (!isOptimize || coveringTraces.isEmpty()) {
+					return false;
 				}
+				CoveredPropertyReducer reducer = new CoveredPropertyReducer(List.of(formula), coveringTraces);
+				if (reducer.execute().isEmpty()) {
+					return false;
+				}
+				logger.log(Level.INFO, "Property is already covered: " + serializer.serialize(formula));
+				return true;
 			}
-		}
+			@Override
+			public void commit(StateFormula formula, Result result) {
+				if (isSkippable(formula)) {
+					// Would not have been checked in a sequential execution
+					return;
+				}
+				ExecutionTrace trace = handle(result, retrievedTraces, isOptimize);
+				if (trace != null) {
+					coveringTraces.add(trace);
+				}
+			}
+		});
 		// Execution based on string queries
-		for (String queryFileLocation : queryFileLocations) {
-			logger.log(Level.INFO, "Checking " + queryFileLocation + "...");
-			File queryFile = new File(queryFileLocation);
-			execute(verificationTask, modelFile, queryFile,	retrievedTraces, isOptimize);
-		}
+		VerificationWorkerPool<String> queryFilePool =
+				new VerificationWorkerPool<String>(verificationTask, workerCount);
+		queryFilePool.execute(modelFile, queryFileLocations, new VerificationJobHandler<String>() {
+			@Override
+			public File createQueryFile(String queryFileLocation, String workerId) {
+				logger.log(Level.INFO, "Checking " + queryFileLocation + "...");
+				return new File(queryFileLocation);
+			}
+			@Override
+			public boolean isSkippable(String queryFileLocation) {
+				return false;
+			}
+			@Override
+			public void commit(String queryFileLocation, Result result) {
+				handle(result, retrievedTraces, isOptimize);
+			}
+		});
 		// Optimization again on the retrieved tests
 		if (isOptimize) {
 			traceUtil.removeCoveredExecutionTraces(retrievedTraces);
@@ -144,16 +182,33 @@ public class VerificationHandler extends TaskHandler {
 		}
 	}
 
-	protected ExecutionTrace execute(AbstractVerification verificationTask, File modelFile,
-			File queryFile, List<ExecutionTrace> retrievedTraces, boolean isOptimize) {
-		Result result = verificationTask.execute(modelFile, queryFile);
+	/**
+	 * Wraps the back-end specific verification task, e.g., with a result cache.
+	 */
+	protected AbstractVerification decorate(AbstractVerification verificationTask, Verification verification) {
+		if (verification.isCache()) {
+			VerificationResultCache cache = new VerificationResultCache(new File(projectLocation),
+					(trace, parentFolder, fileName) -> new TraceLanguageSerializer().serialize(trace, parentFolder, fileName));
+			return new CachingVerification(verificationTask, cache);
+		}
+		return verificationTask;
+	}
+
+	/**
+	 * Returns the number of threads the queries are verified on.
+	 */
+	protected int getWorkerCount(Verification verification) {
+		return verification.getWorkerCount().intValue();
+	}
+
+	protected ExecutionTrace handle(Result result, List<ExecutionTrace> retrievedTraces, boolean isOptimize) {
 		ExecutionTrace trace = result.getTrace();
 		// Maybe there is no trace
 		if (trace != null) {
 			if (isOptimize) {
 				logger.log(Level.INFO, "Optimizing trace...");
 				if (!retrievedTraces.isEmpty()) {
-					if (traceUtil.isCovered(trace, retrievedTraces)) {
+					if (coverageIndex.isCovered(trace)) {
 						return null; // We do not return a trace, as it is already covered
 					}
 				}
@@ -162,6 +217,7 @@ public class VerificationHandler extends TaskHandler {
 			}
 			if (!trace.getSteps().isEmpty()) {
 				retrievedTraces.add(trace);
+				coverageIndex.add(trace);
 			}
 		}
 		return trace;
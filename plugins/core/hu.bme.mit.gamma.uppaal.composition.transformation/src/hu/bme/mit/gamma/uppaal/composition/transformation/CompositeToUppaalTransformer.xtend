@@ -30,6 +30,7 @@ import hu.bme.mit.gamma.statechart.statechart.StateNode
 import hu.bme.mit.gamma.statechart.statechart.TimeoutDeclaration
 import hu.bme.mit.gamma.statechart.statechart.Transition
 import hu.bme.mit.gamma.statechart.statechart.TransitionPriority
+import hu.bme.mit.gamma.transformation.util.QueryEngineRegistry
 import hu.bme.mit.gamma.transformation.util.queries.InputInstanceEvents
 import hu.bme.mit.gamma.transformation.util.queries.InstanceRegions
 import hu.bme.mit.gamma.transformation.util.queries.InstanceTimeouts
@@ -47,6 +48,7 @@ import hu.bme.mit.gamma.transformation.util.queries.ToLowerInstanceTransitions
 import hu.bme.mit.gamma.transformation.util.queries.TopSyncSystemOutEvents
 import hu.bme.mit.gamma.uppaal.composition.transformation.AsynchronousSchedulerTemplateCreator.Scheduler
 import hu.bme.mit.gamma.uppaal.composition.transformation.queries.EdgesWithClock
+import hu.bme.mit.gamma.uppaal.composition.transformation.queries.UppaalPatterns
 import hu.bme.mit.gamma.uppaal.transformation.queries.AllSubregionsOfCompositeStates
 import hu.bme.mit.gamma.uppaal.transformation.queries.AssignedVariables
 import hu.bme.mit.gamma.uppaal.transformation.queries.ChoicesAndMerges
@@ -89,7 +91,6 @@ import java.util.logging.Level
 import java.util.logging.Logger
 import org.eclipse.emf.ecore.EObject
 import org.eclipse.viatra.query.runtime.api.ViatraQueryEngine
-import org.eclipse.viatra.query.runtime.emf.EMFScope
 import org.eclipse.viatra.transformation.runtime.emf.modelmanipulation.IModelManipulations
 import org.eclipse.viatra.transformation.runtime.emf.modelmanipulation.SimpleModelManipulations
 import org.eclipse.viatra.transformation.runtime.emf.rules.batch.BatchTransformationRuleFactory
@@ -185,6 +186,10 @@ class CompositeToUppaalTransformer {
 	protected boolean isMinimalElementSet = false
 	// For the generation of pseudo locations
 	protected int id = 0
+	// For the generation of the synchronizations and exit locations of composite states
+	protected int entrySyncId = 0
+	protected int exitSyncId = 0
+	protected int exitLocationId = 0
 	// Trace
 	protected extension Trace traceModel
 	// Auxiliary objects
@@ -235,7 +240,9 @@ class CompositeToUppaalTransformer {
 			it.nta = this.target
 		]
 		// Create VIATRA engine based on the Gamma resource
-		this.engine = ViatraQueryEngine.on(new EMFScope(resourceSet));	  
+		this.engine = QueryEngineRegistry.getEngine(resourceSet, "UPPAAL transformation",
+			hu.bme.mit.gamma.transformation.util.queries.Patterns.instance,
+			hu.bme.mit.gamma.uppaal.transformation.queries.Patterns.instance, UppaalPatterns.instance)
 		// Create VIATRA auxiliary objects
 		this.manipulation = new SimpleModelManipulations(engine)
 		this.transformation = BatchTransformation.forEngine(engine).build
@@ -1016,7 +1023,7 @@ class CompositeToUppaalTransformer {
 		for (entryEdge : it.compositeState.allValuesOfTo.filter(Edge)) {
 			val owner = entryEdge.owner as SynchronousComponentInstance
 			// Creating the synchronization variable
-			val syncVar = target.globalDeclarations.createSynchronization(true, false, it.compositeState.entrySyncNameOfCompositeState)			
+			val syncVar = target.globalDeclarations.createSynchronization(true, false, it.compositeState.getEntrySyncNameOfCompositeState(entrySyncId++))			
 			addToTrace(owner, #{syncVar}, instanceTrace)	
 			// Placing it on the synchronization entry edge
 			entryEdge.setSynchronization(syncVar.variable.head, SynchronizationKind.SEND)
@@ -1152,7 +1159,7 @@ class CompositeToUppaalTransformer {
 			// A state may be mapped to more NORMAL locations thanks to timing (timer_id locations), so a set of owners is needed
 			for (owner : compositeState.allValuesOfTo.filter(Location).filter[it.locationTimeKind == LocationKind.NORMAL].map[it.owner].toSet) {
 				// Creating the synchronization variable
-				val syncVar = target.globalDeclarations.createSynchronization(true, false, compositeState.exitSyncNameOfCompositeState) 
+				val syncVar = target.globalDeclarations.createSynchronization(true, false, compositeState.getExitSyncNameOfCompositeState(exitSyncId++)) 
 				// Synchronizing each template equivalent of the regions of the composite state
 				for (subregion : AllSubregionsOfCompositeStates.Matcher.on(engine).getAllValuesOfregion(compositeState)) {
 					val template = subregion.getAllValuesOfTo.filter(Template).filter[it.owner == owner].head
@@ -1168,7 +1175,7 @@ class CompositeToUppaalTransformer {
 					// Only same region transitions are handled this way
 					val originalTarget = originalExitEdge.target
 					// Creating a new sync edge with the syncVar above
-					val newSyncEdge = originalTarget.createCommittedSyncTarget(syncVar.variable.head, compositeState.exitLocationNameOfCompositeState)
+					val newSyncEdge = originalTarget.createCommittedSyncTarget(syncVar.variable.head, compositeState.getExitLocationNameOfCompositeState(exitLocationId++))
 					// Setting the target of the original edge to the recently created committed location
 					originalExitEdge.target = newSyncEdge.source
 					// Resetting the exit events so these events are executed after the exit events of child states
@@ -46,11 +46,37 @@ class ExpressionEvaluator {
 	}
 	
 	def evaluateToInt(Expression exp) {
-		try {
-			return exp.evaluate
-		} catch (IllegalArgumentException e) {
+		if (exp.booleanExpression) {
 			return exp.evaluateBoolean
 		}
+		return exp.evaluate
+	}
+	
+	protected def boolean isBooleanExpression(Expression exp) {
+		switch (exp) {
+			TrueExpression,
+			FalseExpression,
+			AndExpression,
+			OrExpression,
+			XorExpression,
+			ImplyExpression,
+			NotExpression,
+			EqualityExpression,
+			InequalityExpression:
+				return true
+			DirectReferenceExpression: {
+				val declaration = exp.declaration
+				if (declaration instanceof ConstantDeclaration) {
+					return declaration.expression.booleanExpression
+				}
+				else if (declaration instanceof ParameterDeclaration) {
+					return declaration.parameterValue.booleanExpression
+				}
+				return false
+			}
+			default:
+				return false
+		}
 	}
 	
 	def dispatch int evaluate(Expression exp) {
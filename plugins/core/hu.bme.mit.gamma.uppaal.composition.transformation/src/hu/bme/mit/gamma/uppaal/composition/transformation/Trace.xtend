@@ -22,27 +22,19 @@ import hu.bme.mit.gamma.statechart.interface_.Port
 import hu.bme.mit.gamma.statechart.statechart.EntryState
 import hu.bme.mit.gamma.statechart.statechart.State
 import hu.bme.mit.gamma.statechart.statechart.StateNode
-import hu.bme.mit.gamma.uppaal.transformation.queries.ClockRepresentations
-import hu.bme.mit.gamma.uppaal.transformation.queries.EventRepresentations
-import hu.bme.mit.gamma.uppaal.transformation.queries.ExpressionTraces
-import hu.bme.mit.gamma.uppaal.transformation.queries.InstanceTraces
-import hu.bme.mit.gamma.uppaal.transformation.queries.MessageQueueTraces
-import hu.bme.mit.gamma.uppaal.transformation.queries.PortTraces
-import hu.bme.mit.gamma.uppaal.transformation.queries.Traces
 import hu.bme.mit.gamma.uppaal.transformation.traceability.AbstractTrace
+import hu.bme.mit.gamma.uppaal.transformation.traceability.EventRepresentation
 import hu.bme.mit.gamma.uppaal.transformation.traceability.ExpressionTrace
 import hu.bme.mit.gamma.uppaal.transformation.traceability.G2UTrace
 import hu.bme.mit.gamma.uppaal.transformation.traceability.InstanceTrace
 import hu.bme.mit.gamma.uppaal.transformation.traceability.MessageQueueTrace
 import hu.bme.mit.gamma.uppaal.transformation.traceability.TraceabilityPackage
-import java.util.HashSet
+import hu.bme.mit.gamma.util.ReferenceIndex
 import java.util.List
 import java.util.Map
 import java.util.Set
 import org.eclipse.emf.ecore.EClass
 import org.eclipse.emf.ecore.EObject
-import org.eclipse.viatra.query.runtime.api.ViatraQueryEngine
-import org.eclipse.viatra.query.runtime.emf.EMFScope
 import org.eclipse.viatra.transformation.runtime.emf.modelmanipulation.IModelManipulations
 import uppaal.declarations.ChannelVariableDeclaration
 import uppaal.declarations.ClockVariableDeclaration
@@ -67,8 +59,8 @@ import static extension hu.bme.mit.gamma.statechart.derivedfeatures.StatechartMo
 import static extension hu.bme.mit.gamma.uppaal.util.Namings.*
 
 class Trace {
-	// EMF Trace model and engine
-	protected final ViatraQueryEngine traceEngine
+	// EMF Trace model and its index, kept in sync with it, instead of pattern matching for every lookup
+	protected final ReferenceIndex traceIndex
 	protected final G2UTrace traceRoot
 	// Model manipulation
 	final extension IModelManipulations manipulation	
@@ -80,37 +72,38 @@ class Trace {
 	new(IModelManipulations manipulation, G2UTrace traceRoot) {
 		this.manipulation = manipulation
 		this.traceRoot = traceRoot 
-		this.traceEngine = ViatraQueryEngine.on(new EMFScope(traceRoot))
+		this.traceIndex = ReferenceIndex.getIndex(traceRoot)
 	}
 	
 	/**
 	 * Returns a Set of EObjects that are created of the given "from" object.
 	 */
 	def getAllValuesOfTo(EObject from) {
-		return Traces.Matcher.on(traceEngine).getAllValuesOfto(null, from)
+		return traceIndex.getValues(trace_From, from, trace_To)
 	}
 	
 	def getAllExpressionValuesOfTo(EObject from) {
-		return ExpressionTraces.Matcher.on(traceEngine).getAllValuesOfto(null, from)
+		return traceIndex.getValues(expressionTrace_From, from, expressionTrace_To)
 	}
 	
 	/**
 	 * Returns a Set of EObjects that the given "to" object is created of.
 	 */
 	def getAllValuesOfFrom(EObject to) {
-		return Traces.Matcher.on(traceEngine).getAllValuesOffrom(null, to)
+		return traceIndex.getValues(trace_To, to, trace_From)
 	}
 	
 	def isTraced(EObject object) {
 		return !object.allValuesOfTo.empty || 
-			!ExpressionTraces.Matcher.on(traceEngine).getAllValuesOfto(null, object).empty
+			!object.allExpressionValuesOfTo.empty
 	}
 	
 	/** 
 	 * Returns the ComponentInstance the given object is element of.
 	 */
 	def ComponentInstance getOwner(EObject object) {
-		val traces = InstanceTraces.Matcher.on(traceEngine).getAllValuesOfinstance(null, object)
+		val traces = traceIndex.getValues(instanceTrace_Element, object, instanceTrace_Owner)
+			.filter(ComponentInstance).toSet
 		if (traces.size != 1) {
 			throw new IllegalArgumentException("The number of owners of this object is not one! Object: " + object + " Size: " + traces.size + " Owners: " + traces.map[it.owner])
 		}
@@ -118,7 +111,8 @@ class Trace {
 	}
 	
 	def getPort(uppaal.declarations.VariableDeclaration variable) {
-		val traces = PortTraces.Matcher.on(traceEngine).getAllValuesOfport(null, variable)
+		val traces = traceIndex.getValues(portTrace_Declarations, variable, portTrace_Port)
+			.filter(Port).toSet
 		if (traces.size != 1) {
 			throw new IllegalArgumentException("The number of owners of this object is not one! Object: " + variable + " Size: " + traces.size + " Owners: " + traces.map[it.owner])
 		}
@@ -144,7 +138,8 @@ class Trace {
 	 * Returns the MessageQueueTrace the given queue is saved in.
 	 */
 	def MessageQueueTrace getTrace(MessageQueue queue, ComponentInstance owner) {
-		var traces = MessageQueueTraces.Matcher.on(traceEngine).getAllValuesOftrace(queue)
+		var traces = traceIndex.getReferrers(messageQueueTrace_Queue, queue)
+			.filter(MessageQueueTrace).toSet
 		if (owner !== null) {
 			traces = traces.filter[it.queue.owner === owner].toSet
 		}
@@ -182,16 +177,20 @@ class Trace {
 		switch (traceClass) {
 			case instanceTrace: {
 				val instance = from as ComponentInstance
-				aTrace = InstanceTraces.Matcher.on(traceEngine).getAllValuesOftrace(instance, null).head
+				aTrace = traceIndex.getReferrers(instanceTrace_Owner, instance, instanceTrace_Element)
+					.head as AbstractTrace
 			}
 			case portTrace: {
 				val port = from as Port
-				aTrace = PortTraces.Matcher.on(traceEngine).getAllValuesOftrace(port, null).head
+				aTrace = traceIndex.getReferrers(portTrace_Port, port, portTrace_Declarations)
+					.head as AbstractTrace
 			}
 			case expressionTrace: 
-				aTrace = ExpressionTraces.Matcher.on(traceEngine).getAllValuesOftrace(from, null).head
+				aTrace = traceIndex.getReferrers(expressionTrace_From, from, expressionTrace_To)
+					.head as AbstractTrace
 			case trace: 
-				aTrace = Traces.Matcher.on(traceEngine).getAllValuesOftrace(from, null).head 
+				aTrace = traceIndex.getReferrers(trace_From, from, trace_To)
+					.head as AbstractTrace
 		}
 		// Otherwise a new trace object is created
 		if (aTrace === null) {
@@ -276,7 +275,9 @@ class Trace {
 	 * Returns the Uppaal const representing the given signal.
 	 */
 	def getConstRepresentation(Event event, Port port) {
-		var variables = EventRepresentations.Matcher.on(traceEngine).getAllValuesOfrepresentation(port, event)
+		val variables = traceIndex.getReferrers(eventRepresentation_Event, event)
+			.filter(EventRepresentation).filter[it.port === port]
+			.map[it.constantRepresentation].filterNull.toSet
 		// If the size is 0, it may be because it is a statechart level event and must be transferred to system level: see old code
 		if (variables.size != 1) {
 			throw new IllegalArgumentException("This event has not one const representations: " + event.name + " Port: " + port.name + " " + variables)
@@ -285,7 +286,8 @@ class Trace {
 	}
 	
 	def getConstRepresentation(Clock clock) {
-		val variables = ClockRepresentations.Matcher.on(traceEngine).getAllValuesOfrepresentation(clock)
+		val variables = traceIndex.getValues(clockRepresentation_Clock, clock,
+			abstractEventRepresentation_ConstantRepresentation).filter(DataVariableDeclaration).toSet
 		if (variables.size > 1) {
 			throw new IllegalArgumentException("This clock has more than one const representations: " + clock + " " + variables)
 		}
@@ -424,7 +426,8 @@ class Trace {
 	// Add to a certain reference
 	
 	def addToTraceTo(EObject oldRef, EObject newRef) {
-		for	(oldTrace : Traces.Matcher.on(traceEngine).getAllValuesOftrace(null, oldRef)) { // Always one trace
+		for	(oldTrace : traceIndex.getReferrers(trace_To, oldRef, trace_From)
+				.filter(hu.bme.mit.gamma.uppaal.transformation.traceability.Trace)) { // Always one trace
 			if (oldTrace.from.size > 1) {
 				throw new Exception("The OldTrace contains more than one reference.")
 			}
@@ -434,7 +437,8 @@ class Trace {
 	}
 	
 	def addToExpressionTraceTo(EObject oldRef, EObject newRef) {
-		for	(oldTrace : ExpressionTraces.Matcher.on(traceEngine).getAllValuesOftrace(null, oldRef)) { // Always one trace
+		for	(oldTrace : traceIndex.getReferrers(expressionTrace_To, oldRef, expressionTrace_From)
+				.filter(ExpressionTrace)) { // Always one trace
 			if (oldTrace.from.size > 1) {
 				throw new Exception("The OldTrace contains more than one reference.")
 			}
@@ -447,7 +451,7 @@ class Trace {
 	
 	def removeFromTraces(EObject object) {
 		val traces = newHashSet
-		traces += Traces.Matcher.on(traceEngine).getAllValuesOftrace(null, object)
+		traces += traceIndex.getReferrers(trace_To, object, trace_From).filter(hu.bme.mit.gamma.uppaal.transformation.traceability.Trace)
 		for	(oldTrace : traces) { // Always one trace
 			val traceRoot = oldTrace.eContainer as G2UTrace
 			if (oldTrace.to.size > 1) {
@@ -458,7 +462,7 @@ class Trace {
 			}		
 		}
 		val fromTraces = newHashSet
-		fromTraces += Traces.Matcher.on(traceEngine).getAllValuesOftrace(object, null)
+		fromTraces += traceIndex.getReferrers(trace_From, object, trace_To).filter(hu.bme.mit.gamma.uppaal.transformation.traceability.Trace)
 		for	(oldTrace : fromTraces) { // Always one trace
 			val traceRoot = oldTrace.eContainer as G2UTrace
 			if (oldTrace.from.size > 1) {
@@ -469,7 +473,8 @@ class Trace {
 			}		
 		}
 		// Expression
-		val expTraces = new HashSet<ExpressionTrace>(ExpressionTraces.Matcher.on(traceEngine).getAllValuesOftrace(null, object).toSet)
+		val expTraces = traceIndex.getReferrers(expressionTrace_To, object, expressionTrace_From)
+			.filter(ExpressionTrace).toSet
 		for	(oldTrace : expTraces) { // Always one trace
 			val traceRoot = oldTrace.eContainer as G2UTrace
 			if (oldTrace.to.size > 1) {
@@ -479,7 +484,8 @@ class Trace {
 				traceRoot.traces.remove(oldTrace)
 			}		
 		}
-		val fromExpTraces = new HashSet<ExpressionTrace>(ExpressionTraces.Matcher.on(traceEngine).getAllValuesOftrace(object, null).toSet)
+		val fromExpTraces = traceIndex.getReferrers(expressionTrace_From, object, expressionTrace_To)
+			.filter(ExpressionTrace).toSet
 		for	(oldTrace : fromExpTraces) { // Always one trace
 			val traceRoot = oldTrace.eContainer as G2UTrace
 			if (oldTrace.from.size > 1) {
@@ -490,7 +496,8 @@ class Trace {
 			}		
 		}
 		// Instances
-		val instanceTraces = new HashSet<InstanceTrace>(InstanceTraces.Matcher.on(traceEngine).getAllValuesOftrace(null, object).toSet)
+		val instanceTraces = traceIndex.getReferrers(instanceTrace_Element, object, instanceTrace_Owner)
+			.filter(InstanceTrace).toSet
 		for	(oldTrace : instanceTraces) { // Always one trace
 			val traceRoot = oldTrace.eContainer as G2UTrace
 			if (oldTrace.element.size > 1) {
@@ -6,6 +6,7 @@ import hu.bme.mit.gamma.statechart.derivedfeatures.StatechartModelDerivedFeature
 import hu.bme.mit.gamma.statechart.interface_.Component
 import hu.bme.mit.gamma.transformation.util.GammaFileNamer
 import hu.bme.mit.gamma.transformation.util.ModelSlicerModelAnnotatorPropertyGenerator
+import hu.bme.mit.gamma.transformation.util.PhaseTimer
 import hu.bme.mit.gamma.transformation.util.annotations.DataflowCoverageCriterion
 import hu.bme.mit.gamma.transformation.util.annotations.InteractionCoverageCriterion
 import hu.bme.mit.gamma.transformation.util.annotations.ModelAnnotatorPropertyGenerator.ComponentInstancePortReferences
@@ -104,8 +105,9 @@ class Gamma2UppaalTransformerSerializer {
 	def void execute() {
 		val gammaPackage = StatechartModelDerivedFeatures.getContainingPackage(component)
 		
-		val newTopComponent = preprocessor.preprocess(gammaPackage, arguments,
-			targetFolderUri, fileName)
+		val newTopComponent = PhaseTimer.measure("Preprocessing") [
+			preprocessor.preprocess(gammaPackage, arguments, targetFolderUri, fileName)
+		]
 		// Top component arguments are now be contained by the Package (preprocess)
 		// Checking the model whether it contains forbidden elements
 		val validator = new ModelValidator(newTopComponent, false)
@@ -119,21 +121,27 @@ class Gamma2UppaalTransformerSerializer {
 				testedInteractions, senderCoverageCriterion, receiverCoverageCriterion,
 				dataflowTestedVariables, dataflowCoverageCriterion,
 				targetFolderUri, fileName);
-		slicerAnnotatorAndPropertyGenerator.execute
+		PhaseTimer.execute("Slicing and annotation") [
+			slicerAnnotatorAndPropertyGenerator.execute
+		]
 		// Normal transformation
 		val transformer = new CompositeToUppaalTransformer(
 			newTopComponent,
 			scheduler,
 			constraint,
 			isMinimalElementSet) 
-		val resultModels = transformer.execute
+		val resultModels = PhaseTimer.measure("UPPAAL transformation") [
+			transformer.execute
+		]
 		val nta = resultModels.getKey
 		val trace = resultModels.value
-		// Saving the generated models
-		nta.normalSave(targetFolderUri, fileName.emfUppaalFileName)
-		trace.normalSave(targetFolderUri, fileName.gammaUppaalTraceabilityFileName)
-		// Serializing the NTA model to XML
-		UppaalModelSerializer.saveToXML(nta, targetFolderUri, fileName.getXmlUppaalFileName)
+		PhaseTimer.execute("Serialization") [
+			// Saving the generated models
+			nta.normalSave(targetFolderUri, fileName.emfUppaalFileName)
+			trace.normalSave(targetFolderUri, fileName.gammaUppaalTraceabilityFileName)
+			// Serializing the NTA model to XML
+			UppaalModelSerializer.saveToXML(nta, targetFolderUri, fileName.getXmlUppaalFileName)
+		]
 	}
 	
 }
\ No newline at end of file
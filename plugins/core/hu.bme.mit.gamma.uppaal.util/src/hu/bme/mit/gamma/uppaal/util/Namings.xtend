@@ -29,10 +29,6 @@ import static extension hu.bme.mit.gamma.transformation.util.Namings.*
 
 class Namings {
 	
-	static var entrySyncId = 0
-	static var exitSyncId = 0
-	static var exitLocationId = 0
-	
 	public static var entrySyncNamePrefix = "entryChanOf"
 	public static var exitSyncNamePrefix = "exitChanOf"
 	public static var acrossRegionSyncNamePrefix = "AcrReg"
@@ -180,7 +176,9 @@ class Namings {
 	def static String getLocationName(StateNode state) {
 		val name = state.name
 		if (name.nullOrEmpty) {
-			return state.class.name + exitLocationId++
+			// The index is unique in the region, i.e., the template, and the same at every call
+			val region = state.eContainer as Region
+			return state.class.name + region.stateNodes.indexOf(state)
 		}
  		return state.name.replaceAll(" ","").toFirstUpper
 	}
@@ -193,33 +191,36 @@ class Namings {
 	}
 	
 	/**
-	 * Returns the name of the committed exit location of the given composite state.
+	 * Returns the name of the committed exit location of the given composite state
+	 * with the given id, which has to be unique in the transformation.
 	 */
-	def static getExitLocationNameOfCompositeState(State state) {
+	def static getExitLocationNameOfCompositeState(State state, int id) {
 		if (state.regions.empty) {
 			throw new IllegalAccessException("State is not composite: " + state)
 		}
-		return ("exitOf" + state.name + exitLocationId++).replaceAll(" ", "")
+		return ("exitOf" + state.name + id).replaceAll(" ", "")
 	}
 	
 	/**
-	 * Returns the name of the committed entry location of the given composite state.
+	 * Returns the name of the entry synchronization of the given composite state
+	 * with the given id, which has to be unique in the transformation.
 	 */
-	def static String getEntrySyncNameOfCompositeState(State state) {
+	def static String getEntrySyncNameOfCompositeState(State state, int id) {
 		if (state.regions.empty) {
 			throw new IllegalAccessException("State is not composite: " + state)
 		}
-		return (entrySyncNamePrefix + state.name + entrySyncId++).replaceAll(" ", "")
+		return (entrySyncNamePrefix + state.name + id).replaceAll(" ", "")
 	}
 	
 	/**
-	 * Returns the name of the committed entry location of the given composite state.
+	 * Returns the name of the exit synchronization of the given composite state
+	 * with the given id, which has to be unique in the transformation.
 	 */
-	def static String getExitSyncNameOfCompositeState(State state) {
+	def static String getExitSyncNameOfCompositeState(State state, int id) {
 		if (state.regions.empty) {
 			throw new IllegalAccessException("State is not composite: " + state)
 		}
-		return (exitSyncNamePrefix + state.name + exitSyncId++).replaceAll(" ", "")
+		return (exitSyncNamePrefix + state.name + id).replaceAll(" ", "")
 	}
 	
 	def static getConstRepresentationName(Event event, Port port) {
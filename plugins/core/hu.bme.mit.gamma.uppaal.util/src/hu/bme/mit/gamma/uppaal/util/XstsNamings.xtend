@@ -14,10 +14,7 @@ import hu.bme.mit.gamma.expression.model.NamedElement
 
 class XstsNamings {
 	
-	static int locationId = 0
-	
-	def static void resetCommittedLocationName() {locationId = 0}
-	def static String getNextCommittedLocationName() '''_«locationId++»_'''
+	def static String getCommittedLocationName(int id) '''_«id»_'''
 	
 	def static String getUppaalId(NamedElement element) '''«element.name»'''
 	
@@ -17,7 +17,6 @@ import hu.bme.mit.gamma.trace.model.TraceModelFactory
 import hu.bme.mit.gamma.trace.util.TraceUtil
 import hu.bme.mit.gamma.util.GammaEcoreUtil
 import hu.bme.mit.gamma.verification.util.TraceBuilder
-import java.util.Scanner
 import java.util.logging.Level
 import java.util.logging.Logger
 
@@ -35,7 +34,7 @@ abstract class AbstractUppaalBackAnnotator {
 	protected final String TRANSITIONS_CONST = "Transitions:"
 	protected final String DELAY_CONST = "Delay:"
 	
-	protected final Scanner traceScanner
+	protected final UppaalTraceReader traceReader
 	
 	protected Package gammaPackage
 	protected Component component
@@ -50,8 +49,8 @@ abstract class AbstractUppaalBackAnnotator {
 	
 	protected final Logger logger = Logger.getLogger("GammaLogger")
 	
-	new(Scanner traceScanner, boolean sortTrace) {
-		this.traceScanner = traceScanner
+	new(UppaalTraceReader traceReader, boolean sortTrace) {
+		this.traceReader = traceReader
 		this.sortTrace = sortTrace
 	}
 	
@@ -20,6 +20,7 @@ import hu.bme.mit.gamma.statechart.composite.SynchronousComponentInstance
 import hu.bme.mit.gamma.statechart.interface_.Event
 import hu.bme.mit.gamma.statechart.interface_.Port
 import hu.bme.mit.gamma.trace.model.Step
+import hu.bme.mit.gamma.transformation.util.QueryEngineRegistry
 import hu.bme.mit.gamma.uppaal.transformation.traceability.G2UTrace
 import hu.bme.mit.gamma.uppaal.verification.patterns.EventRepresentations
 import hu.bme.mit.gamma.uppaal.verification.patterns.ExpressionTraces
@@ -27,12 +28,14 @@ import hu.bme.mit.gamma.uppaal.verification.patterns.Functions
 import hu.bme.mit.gamma.uppaal.verification.patterns.InstanceTraces
 import hu.bme.mit.gamma.uppaal.verification.patterns.IsActiveVariables
 import hu.bme.mit.gamma.uppaal.verification.patterns.LocationToState
+import hu.bme.mit.gamma.uppaal.verification.patterns.Patterns
 import hu.bme.mit.gamma.uppaal.verification.patterns.Locations
 import hu.bme.mit.gamma.uppaal.verification.patterns.PortTraces
 import hu.bme.mit.gamma.uppaal.verification.patterns.TopAsyncSystemInEvents
 import hu.bme.mit.gamma.uppaal.verification.patterns.TopAsyncSystemOutEvents
 import hu.bme.mit.gamma.uppaal.verification.patterns.TopSyncSystemInEvents
 import hu.bme.mit.gamma.uppaal.verification.patterns.TopSyncSystemOutEvents
+import hu.bme.mit.gamma.uppaal.verification.patterns.TracePatterns
 import hu.bme.mit.gamma.uppaal.verification.patterns.Traces
 import hu.bme.mit.gamma.uppaal.verification.patterns.VariableDelcarations
 import hu.bme.mit.gamma.uppaal.verification.patterns.VariableToEvent
@@ -40,15 +43,12 @@ import java.util.AbstractMap.SimpleEntry
 import java.util.ArrayList
 import java.util.Collection
 import java.util.HashSet
-import java.util.LinkedList
 import java.util.Map
 import java.util.Map.Entry
-import java.util.Scanner
 import java.util.regex.Pattern
 import org.eclipse.emf.ecore.EObject
 import org.eclipse.emf.ecore.resource.ResourceSet
 import org.eclipse.viatra.query.runtime.api.ViatraQueryEngine
-import org.eclipse.viatra.query.runtime.emf.EMFScope
 import uppaal.declarations.DataVariableDeclaration
 import uppaal.declarations.Variable
 import uppaal.declarations.VariableDeclaration
@@ -59,25 +59,43 @@ import static com.google.common.base.Preconditions.checkState
 
 class UppaalBackAnnotator extends AbstractUppaalBackAnnotator {
 	
+	protected static final Pattern SCHEDULER_TRANSITION_PATTERN =
+		Pattern.compile("(.*)Scheduler(.*)\\.(.*)->(.*)Scheduler(.*)\\.(.*)")
+	protected static final Pattern ENVIRONMENT_TRANSITION_PATTERN =
+		Pattern.compile("(.*)Environment(.*)\\.InitLoc->(.*)Environment(.*)\\.InitLoc(.*)")
+	protected static final Pattern CONNECTOR_TRANSITION_PATTERN =
+		Pattern.compile("(.*)Connector(.*)\\.InitLoc->(.*)")
+	protected static final Pattern STEP_STARTED_PATTERN =
+		Pattern.compile("(.*)Orchestrator(.*)\\.InitLoc->(.*)Orchestrator(.*)")
+	protected static final Pattern STEP_ENDED_PATTERN =
+		Pattern.compile("(.*)Orchestrator(.*)\\.final->(.*)Orchestrator(.*)\\.InitLoc(.*)")
+	protected static final Pattern PUSH_ACTION_PATTERN =
+		Pattern.compile(".*push(.)*\\((?<event>\\w+), (?<value>\\d+)\\).*")
+	protected static final Pattern PUSH_PATTERN =
+		Pattern.compile("(?<push>push.*)\\((?<event>\\w+), (?<value>\\d+)\\).*")
+	protected static final Pattern PEEK_PATTERN =
+		Pattern.compile("(.)*(?<peek>peek.*)\\(\\)\\.event == (?<event>\\w+).*")
+	protected static final Pattern ACTION_SEPARATOR_PATTERN = Pattern.compile(", ")
+	protected static final String ASSIGNMENT_OPERATOR = " := "
+	
 	protected final ResourceSet resourceSet
 	protected final ViatraQueryEngine engine
 	
-	new(G2UTrace trace, Scanner traceScanner) {
-		this(trace, traceScanner, true)
+	// The same locations and variables appear in every state of the trace, so they are resolved only once
+	protected final Map<String, Location> locations = newHashMap
+	protected final Map<String, Variable> variables = newHashMap
+	
+	new(G2UTrace trace, UppaalTraceReader traceReader) {
+		this(trace, traceReader, true)
 	}
 	
-	new(G2UTrace trace, Scanner traceScanner, boolean sortTrace) {
-//		val fileWriter = new FileWriter("C:\\Users\\B\\eclipse_ws\\gamma_2.2_os_ws\\runtime-EclipseXtext\\hu.bme.mit.gamma.prolan.orion\\trace1.txt")
-//		while (traceScanner.hasNext) {
-//			fileWriter.write(traceScanner.nextLine + System.lineSeparator)
-//			fileWriter.flush
-//		}
-//		fileWriter.close
-		super(traceScanner, sortTrace)
+	new(G2UTrace trace, UppaalTraceReader traceReader, boolean sortTrace) {
+		super(traceReader, sortTrace)
 		this.resourceSet = trace.eResource.resourceSet
 		checkState(this.resourceSet !== null)
 		this.resourceSet.loadModels
-		this.engine = ViatraQueryEngine.on(new EMFScope(this.resourceSet))
+		this.engine = QueryEngineRegistry.getEngine(this.resourceSet, "Back-annotation",
+			Patterns.instance, TracePatterns.instance)
 	}
 
 	/**
@@ -99,8 +117,8 @@ class UppaalBackAnnotator extends AbstractUppaalBackAnnotator {
 		
 		var String line = null
 		var state = BackAnnotatorState.INITIAL
-		while (traceScanner.hasNext) {
-			line = traceScanner.nextLine
+		while (traceReader.hasNext) {
+			line = traceReader.nextLine
 			// Variable line contains a single line from the trace
 			switch (line) {
 				case line.contains(ERROR_CONST):
@@ -218,59 +236,69 @@ class UppaalBackAnnotator extends AbstractUppaalBackAnnotator {
 	
 	/** ( P_ControlTemplate.InitLoc P_main_regionOfStatechartOftest.S P_innerOfSOftest.EntryLocation0 P_SchedulerTemplate.InitLoc ) */
 	protected def Collection<Location> parseLocations(String line) {
-		val locations = new HashSet<Location>
-		val locationNames = new LinkedList<String>(line.split(" "))
-		// Dropping the first " (" and last " )" elements
-		locationNames.removeIf[it == "(" || it == ")"]
-		for (locationName : locationNames) {
-			val fullName = locationName.split("\\.")
-			val templateName = fullName.head.substring(2) // Removing P_ from the template name: ControlTemplate
-			val shortLocationName = fullName.last // Getting InitLoc
-			val location = Locations.Matcher.on(engine).getAllValuesOflocation(null, templateName, shortLocationName)
-			if (location.size != 1) {
-				throw new IllegalArgumentException("No location retrieved: " + locationName)
+		val activeLocations = new HashSet<Location>
+		for (locationName : UppaalTraceReader.tokenize(line, ' ')) {
+			// Dropping the first " (" and last " )" elements
+			if (locationName != "(" && locationName != ")") {
+				var location = locations.get(locationName)
+				if (location === null) {
+					location = locationName.resolveLocation
+					locations.put(traceReader.intern(locationName), location)
+				}
+				activeLocations.add(location)
 			}
-			locations.add(location.head)
 		}
-		return locations
+		return activeLocations
+	}
+	
+	protected def Location resolveLocation(String locationName) {
+		val templateName = locationName.substring(2, locationName.indexOf(".")) // Removing P_ from the template name: ControlTemplate
+		val shortLocationName = locationName.substring(locationName.lastIndexOf(".") + 1) // Getting InitLoc
+		val location = Locations.Matcher.on(engine).getAllValuesOflocation(null, templateName, shortLocationName)
+		if (location.size != 1) {
+			throw new IllegalArgumentException("No location retrieved: " + locationName)
+		}
+		return location.head
 	}
 	
 	protected def parseVariables(String line) {
 		val Collection<Entry<Variable, Integer>> variableList = new ArrayList<Entry<Variable, Integer>>
 		// isStable=1 countOftest=3 toRaise_TestRequired_cOftest=0 isRaised_TestRequired_cOftest=0
-		val allVariableValues = line.split(" ")
-		for (variableValue : allVariableValues.filter[!it.empty]) {
-			val splittedName = variableValue.split("=") // [P_inner2OfSOftest.timer9, 0]
-			val fullName = splittedName.head
-			val name = if (fullName.contains(".")) {
-				fullName.substring(splittedName.head.lastIndexOf(".") + 1)
-			}
-			else {
-				fullName
-			}
+		for (variableValue : UppaalTraceReader.tokenize(line, ' ')) {
+			val separatorIndex = variableValue.indexOf("=") // P_inner2OfSOftest.timer9=0
+			val fullName = if (separatorIndex < 0) variableValue else variableValue.substring(0, separatorIndex)
+			val name = fullName.substring(fullName.lastIndexOf(".") + 1)
 			// Not parsing timers, as they are not needed and their parsing is complicated
 			// P_inner2OfSOftest.timer7<=0, P_inner2OfSOftest.timer7-P_inner2OfSOftest.timer9<=0,
 			if (!name.startsWith("timer") && !name.startsWith("#depth") && !name.startsWith("#tau")) { // #depth is given in cases of A<>, maybe cycle?
-				var Collection<VariableDeclaration> variableDeclarations
-				// Parsing isActive variables uniquely as their names do not differ
-				if (name == "isActive") {
-					val templateName = fullName.substring(2, splittedName.head.lastIndexOf("."))
-					variableDeclarations = IsActiveVariables.Matcher.on(engine).getAllValuesOfisActiveVariableDeclaration(templateName)
-				}
-				else {
-					variableDeclarations = VariableDelcarations.Matcher.on(engine).getAllValuesOfvariableDeclaration(name)
+				var variable = variables.get(fullName)
+				if (variable === null) {
+					variable = fullName.resolveVariable(name)
+					variables.put(traceReader.intern(fullName), variable)
 				}
-				if (variableDeclarations.size != 1) {
-					throw new IllegalArgumentException("Not one variable retrieved for " + variableValue + ": " + variableDeclarations.map[it.variable.head])
-				}
-				val value = splittedName.last
-				val variable = variableDeclarations.head.variable.head
-				variableList.add(new SimpleEntry<Variable, Integer>(variable, Integer.parseInt(value)))			
-			}		
+				val value = variableValue.substring(variableValue.lastIndexOf("=") + 1)
+				variableList.add(new SimpleEntry<Variable, Integer>(variable, Integer.parseInt(value)))
+			}
 		}
 		return variableList
 	}
 	
+	protected def Variable resolveVariable(String fullName, String name) {
+		var Collection<VariableDeclaration> variableDeclarations
+		// Parsing isActive variables uniquely as their names do not differ
+		if (name == "isActive") {
+			val templateName = fullName.substring(2, fullName.lastIndexOf("."))
+			variableDeclarations = IsActiveVariables.Matcher.on(engine).getAllValuesOfisActiveVariableDeclaration(templateName)
+		}
+		else {
+			variableDeclarations = VariableDelcarations.Matcher.on(engine).getAllValuesOfvariableDeclaration(name)
+		}
+		if (variableDeclarations.size != 1) {
+			throw new IllegalArgumentException("Not one variable retrieved for " + fullName + ": " + variableDeclarations.map[it.variable.head])
+		}
+		return variableDeclarations.head.variable.head
+	}
+	
 	protected def backAnnotateLocations(Step step, Collection<Location> locations, Collection<Entry<Variable, Integer>> variableList) {
 		for (location: locations) {
 			val template = location.parentTemplate
@@ -380,7 +408,7 @@ class UppaalBackAnnotator extends AbstractUppaalBackAnnotator {
 	
 	protected def parseAsyncInstances(Step step, String line) {
 		if (!(component instanceof AsynchronousComponent) || /*Only for async composites*/
-			!line.matches("(.*)Scheduler(.*)\\.(.*)->(.*)Scheduler(.*)\\.(.*)") /*Parsing scheduler template*/){
+			!SCHEDULER_TRANSITION_PATTERN.matcher(line).matches /*Parsing scheduler template*/) {
 			// The line is not of scheduler template
 			return
 		}
@@ -389,7 +417,7 @@ class UppaalBackAnnotator extends AbstractUppaalBackAnnotator {
 		}
 		else {
 			// Parsing scheduling synchronizations of asynchronous composite components
-			val actionStrings = line.substring(line.indexOf("{") + 2, line.indexOf("}") - 1).split(", ")  // { 1, crossroads1!, 1 } -> 1, crossroads1!, 1
+			val actionStrings = ACTION_SEPARATOR_PATTERN.split(line.substring(line.indexOf("{") + 2, line.indexOf("}") - 1))  // { 1, crossroads1!, 1 } -> 1, crossroads1!, 1
 			val sync = actionStrings.findFirst[it.endsWith("!")]
 			val syncVariableName = sync.substring(0, sync.length - 1)
 			val syncVariable = syncVariableName.variableDeclaration
@@ -399,18 +427,18 @@ class UppaalBackAnnotator extends AbstractUppaalBackAnnotator {
 	}
 	
 	protected def containsEnvironmentEvents(String line) {
-		line.matches("(.*)Environment(.*)\\.InitLoc->(.*)Environment(.*)\\.InitLoc(.*)") || // Sync component
-		line.matches("(.*)Connector(.*)\\.InitLoc->(.*)") // Wrapper component
+		ENVIRONMENT_TRANSITION_PATTERN.matcher(line).matches || // Sync component
+		CONNECTOR_TRANSITION_PATTERN.matcher(line).matches // Wrapper component
 	}
 	
 	protected def isWrapperEnvironment(String line) {
 		return component instanceof AsynchronousComponent && 
-			line.matches("(.*)Environment(.*)\\.InitLoc->(.*)Environment(.*)\\.InitLoc(.*)")
+			ENVIRONMENT_TRANSITION_PATTERN.matcher(line).matches
 	}
 	
 	protected def isWrapperConnector(String line) {
 		return component instanceof AsynchronousComponent && 
-			line.matches("(.*)Connector(.*)\\.InitLoc->(.*)") // Wrapper component
+			CONNECTOR_TRANSITION_PATTERN.matcher(line).matches // Wrapper component
 	}
 	
 	protected def parseTransition(Step step, String line) {
@@ -421,10 +449,11 @@ class UppaalBackAnnotator extends AbstractUppaalBackAnnotator {
 		val actionString = line.substring(line.indexOf("{") + 2, line.indexOf("}") - 1) // { 1, tau, isStable := 1 } -> 1, tau, isStable := 1
 		val actions = actionString.splitLine // [pushcrossroadsMessages(PoliceInterrupt_police, 0)] -> [pushcrossroadsMessages(PoliceInterrupt_police, 0)]
 		// Checking in events and parameters
+		val isWrapperEnvironment = line.isWrapperEnvironment
 		val eventRaiseActions = actions.filter[it.startsWith("toRaise_") /* Synchronous components */ 
 			|| it.startsWith("isRaised_") /* Cascade components (only a single event queue) */
 			/* Value of variables start with toRaise_ or isRaised_ */
-			|| (line.isWrapperEnvironment && it.matches(".*push(.)*\\((?<event>\\w+), (?<value>\\d+)\\).*")) /* Async in events*/
+			|| (isWrapperEnvironment && PUSH_ACTION_PATTERN.matcher(it).matches) /* Async in events*/
 		].toList
 		// Getting the variable declaration objects
 		for (eventRaiseAction : eventRaiseActions) {
@@ -519,7 +548,7 @@ class UppaalBackAnnotator extends AbstractUppaalBackAnnotator {
 	 * Used to merge splitted function calls.
 	 */
 	protected def String[] splitLine(String line) {
-		val actions = line.split(", ")
+		val actions = ACTION_SEPARATOR_PATTERN.split(line)
 		val newActions = new ArrayList<String>
 		for (var i = 0; i < actions.size; i++) {
 			var actual = actions.get(i)
@@ -536,13 +565,15 @@ class UppaalBackAnnotator extends AbstractUppaalBackAnnotator {
 	}
 	
 	protected def Map<String, String> parseEventRaise(String eventRaise) {
-		if (eventRaise.contains(" := ")) {
+		val assignmentIndex = eventRaise.indexOf(ASSIGNMENT_OPERATOR)
+		if (assignmentIndex >= 0) {
 			// Synchronous components
-			val eventRaiseSplit = eventRaise.split(" := ")
-			return #{"name" -> eventRaiseSplit.head , "value" -> eventRaiseSplit.last}
+			val name = eventRaise.substring(0, assignmentIndex)
+			val value = eventRaise.substring(eventRaise.lastIndexOf(ASSIGNMENT_OPERATOR) + ASSIGNMENT_OPERATOR.length)
+			return #{"name" -> name , "value" -> value}
 		}
 		// Wrapper components: pushcrossroadsMessages(testPort_testIn, 5)
-		val matcher = Pattern.compile("(?<push>push.*)\\((?<event>\\w+), (?<value>\\d+)\\).*").matcher(eventRaise)
+		val matcher = PUSH_PATTERN.matcher(eventRaise)
 		if (matcher.find) {
 			val eventName = matcher.group("event")
 			val value = matcher.group("value")
@@ -550,7 +581,7 @@ class UppaalBackAnnotator extends AbstractUppaalBackAnnotator {
 			return #{"name" -> eventName , "value" -> value, "function" -> pushFunctionName}
 		}
 		// Wrapper components: peekexecutionMessages().event == execution_execute
-		val peekMatcher = Pattern.compile("(.)*(?<peek>peek.*)\\(\\)\\.event == (?<event>\\w+).*").matcher(eventRaise)
+		val peekMatcher = PEEK_PATTERN.matcher(eventRaise)
 		if (peekMatcher.find) {
 			val eventName = peekMatcher.group("event")
 			val peekFunctionName = peekMatcher.group("peek")
@@ -647,11 +678,11 @@ class UppaalBackAnnotator extends AbstractUppaalBackAnnotator {
     }
     
 	protected def isStepStarted(String line) {
-		return line.matches("(.*)Orchestrator(.*)\\.InitLoc->(.*)Orchestrator(.*)")
+		return STEP_STARTED_PATTERN.matcher(line).matches
 	}
 	
 	protected def isStepEnded(String line) {
-		return line.matches("(.*)Orchestrator(.*)\\.final->(.*)Orchestrator(.*)\\.InitLoc(.*)")
+		return STEP_ENDED_PATTERN.matcher(line).matches
 	}
 	
 	/**
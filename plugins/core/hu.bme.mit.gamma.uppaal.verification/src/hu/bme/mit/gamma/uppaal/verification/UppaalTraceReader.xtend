@@ -0,0 +1,187 @@
+/********************************************************************************
+ * Copyright (c) 2018-2021 Contributors to the Gamma project
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ ********************************************************************************/
+package hu.bme.mit.gamma.uppaal.verification
+
+import java.io.Closeable
+import java.io.InputStream
+import java.nio.ByteBuffer
+import java.nio.CharBuffer
+import java.nio.channels.Channels
+import java.nio.channels.ReadableByteChannel
+import java.nio.charset.Charset
+import java.nio.charset.CharsetDecoder
+import java.nio.charset.CodingErrorAction
+import java.util.List
+import java.util.Map
+import java.util.NoSuchElementException
+
+/**
+ * Streaming line reader of the (possibly multi-megabyte) diagnostic traces of verifyta.
+ * The bytes are decoded into a reused CharBuffer and a line is copied only once, when it is returned,
+ * so the trace is never held in memory as a whole. Blank lines are skipped, as they carry no information.
+ */
+class UppaalTraceReader implements Closeable {
+
+	protected static final int BUFFER_SIZE = 1 << 16
+	protected static final char LINE_FEED = '\n'
+	protected static final char CARRIAGE_RETURN = '\r'
+
+	protected final ReadableByteChannel channel
+	protected final CharsetDecoder decoder
+	protected final ByteBuffer byteBuffer = ByteBuffer.allocate(BUFFER_SIZE)
+	protected final CharBuffer charBuffer = CharBuffer.allocate(BUFFER_SIZE)
+	// Beginning of the actual line if it spans more than one buffer
+	protected final StringBuilder lineBuilder = new StringBuilder
+	protected boolean endOfInput = false
+	protected boolean drained = false
+	// Lookahead line read by hasNext
+	protected String nextLine = null
+
+	// Template, location and variable names are interned, so they can be used as cheap cache keys
+	protected final Map<String, String> namePool = newHashMap
+
+	new(InputStream stream) {
+		this(Channels.newChannel(stream))
+	}
+
+	new(ReadableByteChannel channel) {
+		this(channel, Charset.defaultCharset)
+	}
+
+	new(ReadableByteChannel channel, Charset charset) {
+		this.channel = channel
+		this.decoder = charset.newDecoder
+			.onMalformedInput(CodingErrorAction.REPLACE)
+			.onUnmappableCharacter(CodingErrorAction.REPLACE)
+		this.charBuffer.flip // Empty buffer
+	}
+
+	def boolean hasNext() {
+		if (nextLine === null) {
+			nextLine = readNonBlankLine
+		}
+		return nextLine !== null
+	}
+
+	def String nextLine() {
+		if (!hasNext) {
+			throw new NoSuchElementException("No line found")
+		}
+		val line = nextLine
+		nextLine = null
+		return line
+	}
+
+	/**
+	 * Returns the pooled instance of the given name.
+	 */
+	def String intern(String name) {
+		val pooledName = namePool.putIfAbsent(name, name)
+		return pooledName ?: name
+	}
+
+	override close() {
+		channel.close
+	}
+
+	protected def String readNonBlankLine() {
+		var line = readLine
+		while (line !== null && line.blank) {
+			line = readLine
+		}
+		return line
+	}
+
+	protected def String readLine() {
+		while (true) {
+			val start = charBuffer.position
+			val limit = charBuffer.limit
+			for (var i = start; i < limit; i++) {
+				if (charBuffer.get(i) == LINE_FEED) {
+					charBuffer.position(i + 1)
+					return createLine(start, i)
+				}
+			}
+			// No line end in the buffer, saving the beginning of the line
+			lineBuilder.append(charBuffer.array, charBuffer.arrayOffset + start, limit - start)
+			charBuffer.position(limit)
+			if (!fill) {
+				if (lineBuilder.length == 0) {
+					return null
+				}
+				return createLine(0, 0)
+			}
+		}
+	}
+
+	protected def String createLine(int start, int end) {
+		val array = charBuffer.array
+		val offset = charBuffer.arrayOffset
+		if (lineBuilder.length == 0) {
+			var length = end - start
+			if (length > 0 && array.get(offset + end - 1) == CARRIAGE_RETURN) {
+				length--
+			}
+			return new String(array, offset + start, length)
+		}
+		lineBuilder.append(array, offset + start, end - start)
+		var length = lineBuilder.length
+		if (lineBuilder.charAt(length - 1) == CARRIAGE_RETURN) {
+			length--
+		}
+		val line = lineBuilder.substring(0, length)
+		lineBuilder.length = 0
+		return line
+	}
+
+	/**
+	 * Decodes the next chunk of the input into the (already consumed) char buffer.
+	 */
+	protected def boolean fill() {
+		charBuffer.clear
+		while (charBuffer.position == 0 && !drained) {
+			if (channel.read(byteBuffer) < 0) {
+				endOfInput = true
+			}
+			byteBuffer.flip
+			// The char buffer cannot overflow, as a byte is decoded into at most one char
+			decoder.decode(byteBuffer, charBuffer, endOfInput)
+			byteBuffer.compact
+			if (endOfInput) {
+				decoder.flush(charBuffer)
+				drained = true
+			}
+		}
+		charBuffer.flip
+		return charBuffer.hasRemaining
+	}
+
+	/**
+	 * Splits the line at the given separator without regular expressions, dropping the empty tokens.
+	 */
+	static def List<String> tokenize(String line, char separator) {
+		val List<String> tokens = newArrayList
+		val length = line.length
+		var start = 0
+		while (start < length) {
+			var end = line.indexOf(separator, start)
+			if (end < 0) {
+				end = length
+			}
+			if (end > start) {
+				tokens += line.substring(start, end)
+			}
+			start = end + 1
+		}
+		return tokens
+	}
+
+}
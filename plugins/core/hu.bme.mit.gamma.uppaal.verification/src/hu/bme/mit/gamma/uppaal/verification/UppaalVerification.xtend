@@ -10,12 +10,23 @@ class UppaalVerification extends AbstractVerification {
 	protected new() {}
 	//
 	
-	override Result execute(File modelFile, File queryFile) {
+	protected static final String PARAMETERS = "-C -T -t0"
+	
+	override Result execute(File modelFile, File queryFile, String workerId) {
+		val gammaTrace = ecoreUtil.normalLoad(modelFile.traceabilityFile)
+		val verifier = new UppaalVerifier
+		verifier.workerId = workerId
+		return verifier.verifyQuery(gammaTrace, PARAMETERS, modelFile, queryFile, true, true)
+	}
+	
+	override getTraceabilityFile(File modelFile) {
 		val fileName = modelFile.name
 		val packageFileName = fileName.gammaUppaalTraceabilityFileName
-		val gammaTrace = ecoreUtil.normalLoad(modelFile.parent, packageFileName)
-		val verifier = new UppaalVerifier
-		return verifier.verifyQuery(gammaTrace, "-C -T -t0", modelFile, queryFile, true, true)
+		return new File(modelFile.parent + File.separator + packageFileName)
+	}
+	
+	override getBackendDescriptor() {
+		return new UppaalVerifier().toolVersion + " " + PARAMETERS
 	}
 
 }
@@ -21,11 +21,12 @@ import java.util.logging.Level
 class UppaalVerifier extends AbstractVerifier {
 	
 	VerificationResultReader verificationResultReader = null // Created one for each execution
+	static String cachedVerifytaVersion = null // Queried only once
 	
 	override Result verifyQuery(Object traceability, String parameters, File uppaalFile,
 			File uppaalQueryFile, boolean log, boolean storeOutput) {
 		var Scanner resultReader = null
-		var Scanner traceReader = null
+		var UppaalTraceReader traceReader = null
 		val actualUppaalQuery = uppaalQueryFile.loadString
 		try {
 			// verifyta -t0 -T TestOneComponent.xml asd.q 
@@ -39,7 +40,7 @@ class UppaalVerifier extends AbstractVerifier {
 			resultReader = new Scanner(outputStream)
 			verificationResultReader = new VerificationResultReader(resultReader, log, storeOutput)
 			new Thread(verificationResultReader).start
-			traceReader = new Scanner(errorStream)
+			traceReader = new UppaalTraceReader(errorStream)
 			if (isCancelled) {
 				// If the process is killed, this is where it can be checked
 				throw new NotBackannotatedException(ThreeStateBoolean.UNDEF)
@@ -78,6 +79,29 @@ class UppaalVerifier extends AbstractVerifier {
 		}
 	}
 	
+	override getToolVersion() {
+		return queryVerifytaVersion
+	}
+	
+	protected static synchronized def String queryVerifytaVersion() {
+		if (cachedVerifytaVersion === null) {
+			var Scanner versionReader = null
+			try {
+				val versionProcess = Runtime.getRuntime().exec("verifyta -v")
+				versionReader = new Scanner(versionProcess.inputStream)
+				cachedVerifytaVersion = if (versionReader.hasNextLine) versionReader.nextLine else "verifyta"
+			} catch (Exception e) {
+				// Not installed, the verification itself will fail
+				return "verifyta"
+			} finally {
+				if (versionReader !== null) {
+					versionReader.close
+				}
+			}
+		}
+		return cachedVerifytaVersion
+	}
+	
 	/**
 	 * Returns the correct verification answer when there is no generated trace by the UPPAAL.
 	 */
@@ -12,6 +12,7 @@ package hu.bme.mit.gamma.uppaal.verification
 
 import hu.bme.mit.gamma.expression.model.Expression
 import hu.bme.mit.gamma.expression.model.ParameterDeclaration
+import hu.bme.mit.gamma.querygenerator.BackAnnotationSymbolTable
 import hu.bme.mit.gamma.querygenerator.XstsUppaalQueryGenerator
 import hu.bme.mit.gamma.statechart.interface_.Event
 import hu.bme.mit.gamma.statechart.interface_.Package
@@ -23,7 +24,6 @@ import hu.bme.mit.gamma.trace.model.RaiseEventAct
 import hu.bme.mit.gamma.trace.model.Step
 import hu.bme.mit.gamma.trace.model.TimeElapse
 import hu.bme.mit.gamma.uppaal.util.XstsNamings
-import java.util.Scanner
 import java.util.Set
 import org.eclipse.emf.ecore.util.EcoreUtil
 
@@ -35,17 +35,19 @@ import static extension hu.bme.mit.gamma.trace.derivedfeatures.TraceModelDerived
 class XstsUppaalBackAnnotator extends AbstractUppaalBackAnnotator {
 	
 	protected final XstsUppaalQueryGenerator xStsUppaalQueryGenerator
+	protected final BackAnnotationSymbolTable symbolTable
 	protected final Expression schedulingConstraint
 	
-	new(Package gammaPackage, Scanner traceScanner) {
-		this(gammaPackage, traceScanner, true)
+	new(Package gammaPackage, UppaalTraceReader traceReader) {
+		this(gammaPackage, traceReader, true)
 	}
 	
-	new(Package gammaPackage, Scanner traceScanner, boolean sortTrace) {
-		super(traceScanner, sortTrace)
+	new(Package gammaPackage, UppaalTraceReader traceReader, boolean sortTrace) {
+		super(traceReader, sortTrace)
 		this.gammaPackage = gammaPackage
 		this.component = gammaPackage.components.head
 		this.xStsUppaalQueryGenerator = new XstsUppaalQueryGenerator(gammaPackage)
+		this.symbolTable = xStsUppaalQueryGenerator.symbolTable
 		val schedulingConstraintAnnotation = gammaPackage.annotations
 			.filter(SchedulingConstraintAnnotation).head
 		if (schedulingConstraintAnnotation !== null) {
@@ -68,8 +70,8 @@ class XstsUppaalBackAnnotator extends AbstractUppaalBackAnnotator {
 		var String line = null
 		var state = BackAnnotatorState.INITIAL
 		var localState = StableEnvironmentState.INITIAL
-		while (traceScanner.hasNext) {
-			line = traceScanner.nextLine
+		while (traceReader.hasNext) {
+			line = traceReader.nextLine
 			// Variable line contains a single line from the trace
 			switch (line) {
 				case line.empty: {
@@ -101,14 +103,12 @@ class XstsUppaalBackAnnotator extends AbstractUppaalBackAnnotator {
 							step.addReset
 						}
 						case BackAnnotatorState.STATE_LOCATIONS: {
-							val processLocationNames = newArrayList
-							processLocationNames += line.split(" ").toList
+							val processLocationNames = UppaalTraceReader.tokenize(line, ' ')
 							// Dropping the first " (" and last " )" elements
 							processLocationNames.removeIf[it == "(" || it == ")"]
 							checkState(processLocationNames.size == 1)
 							val processLocationName = processLocationNames.head
-							val split = processLocationName.split("\\.")
-							val locationName = split.last
+							val locationName = processLocationName.substring(processLocationName.lastIndexOf(".") + 1)
 							if (locationName.equals(XstsNamings.stableLocationName)) {
 								state = BackAnnotatorState.STATE_VARIABLES
 								localState = StableEnvironmentState.STABLE
@@ -129,18 +129,17 @@ class XstsUppaalBackAnnotator extends AbstractUppaalBackAnnotator {
 						}
 						case BackAnnotatorState.STATE_VARIABLES: {
 							if (localState != StableEnvironmentState.OTHER) {
-								val variableValues = line.split(" ")
-								for (variableValue : variableValues) {
-									val split = variableValue.split("=")
-									val variable = split.head
-									val value = split.last
+								for (variableValue : UppaalTraceReader.tokenize(line, ' ')) {
+									val separatorIndex = variableValue.indexOf("=")
+									val variable = if (separatorIndex < 0) variableValue else variableValue.substring(0, separatorIndex)
+									val value = variableValue.substring(variableValue.lastIndexOf("=") + 1)
 									
 									switch (localState) {
 										case STABLE: {
 											val index = Integer.parseInt(value)
 											val potentialStateString = '''«variable» == «index»'''
-											if (xStsUppaalQueryGenerator.isSourceState(potentialStateString)) {
-												val instanceState = xStsUppaalQueryGenerator.getSourceState(potentialStateString)
+											if (symbolTable.isSourceState(potentialStateString)) {
+												val instanceState = symbolTable.getSourceState(potentialStateString)
 												val controlState = instanceState.key
 												val instance = instanceState.value
 												if (index > 0) {
@@ -148,12 +147,12 @@ class XstsUppaalBackAnnotator extends AbstractUppaalBackAnnotator {
 													activatedStates += controlState
 												}
 											}
-											else if (xStsUppaalQueryGenerator.isSourceVariable(variable)) {
-												val instanceVariable = xStsUppaalQueryGenerator.getSourceVariable(variable)
+											else if (symbolTable.isSourceVariable(variable)) {
+												val instanceVariable = symbolTable.getSourceVariable(variable)
 												step.addInstanceVariableState(instanceVariable.value, instanceVariable.key, value)
 											}
-											else if (xStsUppaalQueryGenerator.isSourceOutEvent(variable)) {
-												val systemOutEvent = xStsUppaalQueryGenerator.getSourceOutEvent(variable)
+											else if (symbolTable.isSourceOutEvent(variable)) {
+												val systemOutEvent = symbolTable.getSourceOutEvent(variable)
 												if (value.equals("1")) {
 													val event = systemOutEvent.get(0) as Event
 													val port = systemOutEvent.get(1) as Port
@@ -163,8 +162,8 @@ class XstsUppaalBackAnnotator extends AbstractUppaalBackAnnotator {
 													raisedOutEvents += new Pair(systemPort, event)
 												}
 											}
-											else if (xStsUppaalQueryGenerator.isSourceOutEventParamater(variable)) {
-												val systemOutEvent = xStsUppaalQueryGenerator.getSourceOutEventParamater(variable)
+											else if (symbolTable.isSourceOutEventParamater(variable)) {
+												val systemOutEvent = symbolTable.getSourceOutEventParamater(variable)
 												val event = systemOutEvent.get(0) as Event
 												val port = systemOutEvent.get(1) as Port
 												val systemPort = port.connectedTopComponentPort // Back-tracking to the system port
@@ -174,8 +173,8 @@ class XstsUppaalBackAnnotator extends AbstractUppaalBackAnnotator {
 											}
 										}
 										case ENVIRONMENT: {
-											if (xStsUppaalQueryGenerator.isSourceInEvent(variable)) {
-												val systemInEvent = xStsUppaalQueryGenerator.getSourceInEvent(variable)
+											if (symbolTable.isSourceInEvent(variable)) {
+												val systemInEvent = symbolTable.getSourceInEvent(variable)
 												if (value.equals("1")) {
 													val event = systemInEvent.get(0) as Event
 													val port = systemInEvent.get(1) as Port
@@ -185,8 +184,8 @@ class XstsUppaalBackAnnotator extends AbstractUppaalBackAnnotator {
 													raisedInEvents += new Pair(systemPort, event)
 												}
 											}
-											else if (xStsUppaalQueryGenerator.isSourceInEventParamater(variable)) {
-												val systemInEvent = xStsUppaalQueryGenerator.getSourceInEventParamater(variable)
+											else if (symbolTable.isSourceInEventParamater(variable)) {
+												val systemInEvent = symbolTable.getSourceInEventParamater(variable)
 												val event = systemInEvent.get(0) as Event
 												val port = systemInEvent.get(1) as Port
 												val systemPort = port.connectedTopComponentPort // Back-tracking to the system port
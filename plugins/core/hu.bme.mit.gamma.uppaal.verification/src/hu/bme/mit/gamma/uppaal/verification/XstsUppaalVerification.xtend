@@ -10,12 +10,23 @@ class XstsUppaalVerification extends AbstractVerification {
 	protected new() {}
 	//
 	
-	override Result execute(File modelFile, File queryFile) {
+	protected static final String PARAMETERS = "-C -T -t0"
+	
+	override Result execute(File modelFile, File queryFile, String workerId) {
+		val gammaPackage = ecoreUtil.normalLoad(modelFile.traceabilityFile)
+		val verifier = new UppaalVerifier
+		verifier.workerId = workerId
+		return verifier.verifyQuery(gammaPackage, PARAMETERS, modelFile, queryFile, true, true)
+	}
+	
+	override getTraceabilityFile(File modelFile) {
 		val fileName = modelFile.name
 		val packageFileName = fileName.unfoldedPackageFileName
-		val gammaPackage = ecoreUtil.normalLoad(modelFile.parent, packageFileName)
-		val verifier = new UppaalVerifier
-		return verifier.verifyQuery(gammaPackage, "-C -T -t0", modelFile, queryFile, true, true)
+		return new File(modelFile.parent + File.separator + packageFileName)
+	}
+	
+	override getBackendDescriptor() {
+		return new UppaalVerifier().toolVersion + " " + PARAMETERS
 	}
 
 }
\ No newline at end of file
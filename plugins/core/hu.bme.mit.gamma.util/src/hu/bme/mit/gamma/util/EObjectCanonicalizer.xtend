@@ -0,0 +1,164 @@
+/********************************************************************************
+ * Copyright (c) 2018-2021 Contributors to the Gamma project
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ ********************************************************************************/
+package hu.bme.mit.gamma.util
+
+import java.util.Collection
+import java.util.List
+import java.util.Map
+import java.util.Objects
+import org.eclipse.emf.common.util.EList
+import org.eclipse.emf.ecore.EObject
+import org.eclipse.emf.ecore.EReference
+import org.eclipse.emf.ecore.util.EcoreUtil
+
+/**
+ * Hash-consing of structurally equal model elements, e.g., type declarations coming from the clones
+ * of the same package. Elements are bucketed by a structural hash and only the elements in the same bucket
+ * are compared with the EMF equality helper. The references to the duplicates are redirected to the
+ * canonical (first) elements in a single sweep of the model.
+ */
+class EObjectCanonicalizer {
+	// Singleton
+	public static final EObjectCanonicalizer INSTANCE = new EObjectCanonicalizer
+	protected new() {}
+	//
+
+	protected final extension GammaEcoreUtil ecoreUtil = GammaEcoreUtil.INSTANCE
+
+	/**
+	 * Returns a hash that is equal for elements that are equal according to helperEquals.
+	 * Cross-references contribute only the class of the referred elements, as these elements are
+	 * compared structurally (and not by identity) by the equality helper.
+	 */
+	def int getStructuralHash(EObject object) {
+		val eClass = object.eClass
+		var hash = eClass.hashCode
+		for (attribute : eClass.EAllAttributes.filter[!it.derived]) {
+			hash = 31 * hash + Objects.hashCode(object.eGet(attribute))
+		}
+		for (reference : eClass.EAllReferences.filter[!it.derived && !it.container]) {
+			for (referredObject : object.getReferredObjects(reference)) {
+				val referredHash = if (reference.containment) {
+					referredObject.structuralHash
+				}
+				else {
+					referredObject.eClass.hashCode
+				}
+				hash = 31 * hash + referredHash
+			}
+		}
+		return hash
+	}
+
+	/**
+	 * Returns the duplicates among the given elements mapped to their canonical (first) equal element.
+	 */
+	def <T extends EObject> Map<T, T> getDuplicates(Collection<? extends T> objects) {
+		val Map<T, T> duplicates = newLinkedHashMap
+		val Map<Integer, List<T>> canonicalObjects = newHashMap
+		for (object : objects) {
+			val bucket = canonicalObjects.computeIfAbsent(object.structuralHash, [newArrayList])
+			val canonicalObject = bucket.findFirst[it.helperEquals(object)]
+			if (canonicalObject === null) {
+				bucket += object
+			}
+			else {
+				duplicates.put(object, canonicalObject)
+			}
+		}
+		return duplicates
+	}
+
+	/**
+	 * Removes the structurally equal duplicates from the given list and redirects every reference
+	 * (contained by the root) pointing to them or their contents to the canonical elements.
+	 */
+	def <T extends EObject> void removeDuplicates(List<T> objects, EObject root) {
+		val duplicates = objects.getDuplicates
+		if (duplicates.empty) {
+			return
+		}
+		root.redirectReferences(duplicates.createReplacements)
+		for (duplicate : duplicates.keySet) {
+			EcoreUtil.remove(duplicate) // No references point to it anymore
+		}
+	}
+
+	/**
+	 * Extends the duplicate-canonical pairs with the pairs of their (structurally equal) contents.
+	 */
+	def Map<EObject, EObject> createReplacements(Map<? extends EObject, ? extends EObject> duplicates) {
+		val Map<EObject, EObject> replacements = newHashMap
+		for (duplicate : duplicates.keySet) {
+			val canonicalObject = duplicates.get(duplicate)
+			replacements.put(duplicate, canonicalObject)
+			val duplicateContents = duplicate.eAllContents
+			val canonicalContents = canonicalObject.eAllContents
+			while (duplicateContents.hasNext) {
+				replacements.put(duplicateContents.next, canonicalContents.next)
+			}
+		}
+		return replacements
+	}
+
+	/**
+	 * Redirects the cross-references of the root and its contents in a single sweep.
+	 */
+	@SuppressWarnings("unchecked")
+	def void redirectReferences(EObject root, Map<? extends EObject, ? extends EObject> replacements) {
+		val objects = newArrayList(root)
+		objects += root.eAllContents.toIterable
+		for (object : objects) {
+			for (reference : object.eClass.EAllReferences.filter[it.redirectable]) {
+				if (reference.many) {
+					val list = object.eGet(reference) as EList<EObject>
+					for (var i = 0; i < list.size; i++) {
+						val newObject = replacements.get(list.get(i))
+						if (newObject !== null) {
+							if (list.contains(newObject)) {
+								// To avoid 'no duplicates' constraint violation
+								list.remove(i)
+								i--
+							}
+							else {
+								list.set(i, newObject)
+							}
+						}
+					}
+				}
+				else {
+					val newObject = replacements.get(object.eGet(reference))
+					if (newObject !== null) {
+						object.eSet(reference, newObject)
+					}
+				}
+			}
+		}
+	}
+
+	protected def isRedirectable(EReference reference) {
+		return !reference.containment && !reference.container &&
+			!reference.derived && reference.changeable
+	}
+
+	@SuppressWarnings("unchecked")
+	protected def Collection<EObject> getReferredObjects(EObject object, EReference reference) {
+		val value = object.eGet(reference)
+		if (reference.many) {
+			return value as Collection<EObject>
+		}
+		if (value === null) {
+			return #[]
+		}
+		return #[value as EObject]
+	}
+
+}
@@ -0,0 +1,189 @@
+/********************************************************************************
+ * Copyright (c) 2018-2021 Contributors to the Gamma project
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ ********************************************************************************/
+package hu.bme.mit.gamma.util
+
+import java.util.Collection
+import java.util.Collections
+import java.util.Map
+import java.util.Set
+import org.eclipse.emf.common.notify.Notification
+import org.eclipse.emf.ecore.EObject
+import org.eclipse.emf.ecore.EReference
+import org.eclipse.emf.ecore.util.EContentAdapter
+import org.eclipse.emf.ecore.util.EcoreUtil
+
+/**
+ * In-memory index of the cross-references of the elements contained by a root, e.g., a trace model,
+ * that returns the elements referring to an object via a reference without traversing the model.
+ * Together with the references themselves, it can be navigated in both directions.
+ * The index is a content adapter of the root, so it is kept in sync with every change of the model.
+ */
+class ReferenceIndex extends EContentAdapter {
+
+	// Reference -> referred object -> referring elements
+	protected final Map<EReference, Map<EObject, Set<EObject>>> index = newHashMap
+
+	/**
+	 * Returns the index of the given root, attaching a new one to it if necessary.
+	 */
+	static def ReferenceIndex getIndex(EObject root) {
+		synchronized (root) {
+			var index = EcoreUtil.getExistingAdapter(root, ReferenceIndex) as ReferenceIndex
+			if (index === null) {
+				index = new ReferenceIndex
+				root.eAdapters += index
+			}
+			return index
+		}
+	}
+
+	protected new() {}
+
+	/**
+	 * Returns the elements that refer to the given object via the given reference.
+	 */
+	def Set<EObject> getReferrers(EReference reference, EObject object) {
+		val referrers = index.get(reference)?.get(object)
+		if (referrers === null) {
+			return newLinkedHashSet
+		}
+		return newLinkedHashSet(referrers)
+	}
+
+	/**
+	 * Returns the elements that refer to the given object via the given reference and that refer
+	 * to at least one element via the required reference.
+	 */
+	def Set<EObject> getReferrers(EReference reference, EObject object, EReference requiredReference) {
+		val referrers = reference.getReferrers(object)
+		referrers.removeIf[it.getReferredObjects(requiredReference).empty]
+		return referrers
+	}
+
+	/**
+	 * Returns the objects referred via the value reference by the elements that refer
+	 * to the given key via the key reference.
+	 */
+	def Set<EObject> getValues(EReference keyReference, EObject key, EReference valueReference) {
+		val Set<EObject> values = newLinkedHashSet
+		val referrers = index.get(keyReference)?.get(key)
+		if (referrers !== null) {
+			for (referrer : referrers) {
+				values += referrer.getReferredObjects(valueReference)
+			}
+		}
+		return values
+	}
+
+	// Keeping the index in sync
+
+	protected override setTarget(EObject target) {
+		super.setTarget(target)
+		target.indexReferences
+	}
+
+	protected override unsetTarget(EObject target) {
+		target.unindexReferences
+		super.unsetTarget(target)
+	}
+
+	override notifyChanged(Notification notification) {
+		super.notifyChanged(notification) // Containment changes
+		val feature = notification.feature
+		if (notification.touch || !(feature instanceof EReference) ||
+				!(notification.notifier instanceof EObject)) {
+			return
+		}
+		val reference = feature as EReference
+		if (!reference.isIndexed) {
+			return
+		}
+		val element = notification.notifier as EObject
+		switch (notification.eventType) {
+			case Notification.SET,
+			case Notification.UNSET: {
+				reference.remove(notification.oldValue, element)
+				reference.put(notification.newValue, element)
+			}
+			case Notification.ADD:
+				reference.put(notification.newValue, element)
+			case Notification.ADD_MANY:
+				for (value : notification.newValue as Collection<?>) {
+					reference.put(value, element)
+				}
+			case Notification.REMOVE:
+				reference.remove(notification.oldValue, element)
+			case Notification.REMOVE_MANY:
+				for (value : notification.oldValue as Collection<?>) {
+					reference.remove(value, element)
+				}
+		}
+	}
+
+	protected def void indexReferences(EObject element) {
+		for (reference : element.eClass.EAllReferences.filter[it.isIndexed]) {
+			for (object : element.getReferredObjects(reference)) {
+				reference.put(object, element)
+			}
+		}
+	}
+
+	protected def void unindexReferences(EObject element) {
+		for (reference : element.eClass.EAllReferences.filter[it.isIndexed]) {
+			for (object : element.getReferredObjects(reference)) {
+				reference.remove(object, element)
+			}
+		}
+	}
+
+	protected def isIndexed(EReference reference) {
+		return !reference.containment && !reference.container && !reference.derived
+	}
+
+	protected def Collection<EObject> getReferredObjects(EObject element, EReference reference) {
+		if (!reference.EContainingClass.isSuperTypeOf(element.eClass)) {
+			return Collections.emptyList
+		}
+		val value = element.eGet(reference)
+		if (reference.many) {
+			return value as Collection<EObject>
+		}
+		if (value === null) {
+			return Collections.emptyList
+		}
+		return Collections.singletonList(value as EObject)
+	}
+
+	protected def void put(EReference reference, Object object, EObject element) {
+		if (object instanceof EObject) {
+			index.computeIfAbsent(reference, [newHashMap])
+				.computeIfAbsent(object, [newLinkedHashSet]) += element
+		}
+	}
+
+	protected def void remove(EReference reference, Object object, EObject element) {
+		if (object instanceof EObject) {
+			val referrers = index.get(reference)
+			val objectReferrers = referrers?.get(object)
+			if (objectReferrers !== null) {
+				objectReferrers -= element
+				if (objectReferrers.empty) {
+					referrers.remove(object)
+				}
+			}
+		}
+	}
+
+	override isAdapterForType(Object type) {
+		return type == ReferenceIndex
+	}
+
+}
@@ -15,6 +15,24 @@ abstract class AbstractVerification {
 
 	protected final Logger logger = Logger.getLogger("GammaLogger")
 	
-	abstract def Result execute(File modelFile, File queryFile)
+	def Result execute(File modelFile, File queryFile) {
+		return execute(modelFile, queryFile, "")
+	}
+	
+	/**
+	 * The worker id is appended to the names of the temporary files (e.g., queries and counterexamples)
+	 * created by the verifier, so verifications can be executed on the same model in parallel.
+	 */
+	abstract def Result execute(File modelFile, File queryFile, String workerId)
+	
+	/**
+	 * Returns the file (next to the model file) used for the back-annotation of the results.
+	 */
+	abstract def File getTraceabilityFile(File modelFile)
+	
+	/**
+	 * Identifies the back-end (tool version and parameters), e.g., in the keys of cached results.
+	 */
+	abstract def String getBackendDescriptor()
 
 }
\ No newline at end of file
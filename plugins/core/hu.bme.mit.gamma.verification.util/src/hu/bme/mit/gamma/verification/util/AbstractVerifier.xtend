@@ -25,6 +25,8 @@ abstract class AbstractVerifier {
 	protected Process process
 	protected ThreeStateBoolean result
 	protected String output
+	// Distinguishes the temporary files of verifiers running in parallel on the same model
+	protected String workerId = ""
 	protected Logger logger = Logger.getLogger("GammaLogger")
 	
 	protected extension FileUtil codeGeneratorUtil = FileUtil.INSTANCE
@@ -68,8 +70,23 @@ abstract class AbstractVerifier {
 		return output
 	}
 	
+	/**
+	 * Identifies the version of the used verification tool.
+	 */
+	def String getToolVersion() {
+		return class.simpleName
+	}
+	
+	def getWorkerId() {
+		return workerId
+	}
+	
+	def setWorkerId(String workerId) {
+		this.workerId = workerId
+	}
+	
 	protected def getTemporaryQueryFilename(File modelFile) {
-		return "." + modelFile.extensionlessName + ".q"
+		return "." + modelFile.extensionlessName + workerId + ".q"
 	}
 	
 	@Data
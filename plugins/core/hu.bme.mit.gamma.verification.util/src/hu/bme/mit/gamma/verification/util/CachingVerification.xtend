@@ -0,0 +1,50 @@
+/********************************************************************************
+ * Copyright (c) 2018-2021 Contributors to the Gamma project
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ ********************************************************************************/
+package hu.bme.mit.gamma.verification.util
+
+import hu.bme.mit.gamma.verification.util.AbstractVerifier.Result
+import java.io.File
+
+/**
+ * Decorates a verification task with a result cache: the wrapped task is executed only
+ * if the model, the query or the back-end has changed since the last verification.
+ */
+class CachingVerification extends AbstractVerification {
+	
+	protected final AbstractVerification verification
+	protected final VerificationResultCache cache
+	
+	new(AbstractVerification verification, VerificationResultCache cache) {
+		this.verification = verification
+		this.cache = cache
+	}
+	
+	override Result execute(File modelFile, File queryFile, String workerId) {
+		val query = fileUtil.loadString(queryFile)
+		val key = cache.getKey(#[modelFile, modelFile.traceabilityFile], query, backendDescriptor)
+		val cachedResult = cache.load(key)
+		if (cachedResult !== null) {
+			return cachedResult
+		}
+		val result = verification.execute(modelFile, queryFile, workerId)
+		cache.store(key, result)
+		return result
+	}
+	
+	override getTraceabilityFile(File modelFile) {
+		return verification.getTraceabilityFile(modelFile)
+	}
+	
+	override getBackendDescriptor() {
+		return verification.backendDescriptor
+	}
+	
+}
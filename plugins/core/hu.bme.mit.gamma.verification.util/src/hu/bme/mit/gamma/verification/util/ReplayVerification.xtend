@@ -0,0 +1,76 @@
+/********************************************************************************
+ * Copyright (c) 2018-2021 Contributors to the Gamma project
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ ********************************************************************************/
+package hu.bme.mit.gamma.verification.util
+
+import hu.bme.mit.gamma.transformation.util.PhaseTimer
+import hu.bme.mit.gamma.verification.util.AbstractVerifier.Result
+import java.io.File
+
+import static com.google.common.base.Preconditions.checkState
+
+/**
+ * Stand-in for a verification task that replays the results (and execution times) recorded in an
+ * earlier execution of the wrapped task, so the back-annotation and test generation can be executed
+ * (e.g., benchmarked) without the verification back-end being installed.
+ * In contrast to the CachingVerification, the recordings are identified by the name of the model file,
+ * the query and the type of the back-end, as the generated models are not required to be byte-identical
+ * across transformation runs, and the back-end version is not accessible without the back-end.
+ */
+class ReplayVerification extends AbstractVerification {
+
+	protected static final String TIME_EXTENSION = "time"
+	public static final String RECORDED_VERIFICATION_PHASE = "Verification (recorded)"
+
+	protected final AbstractVerification verification
+	protected final VerificationResultCache recordings
+	protected final boolean record
+
+	/**
+	 * If record is true, the wrapped task is executed and its results are recorded,
+	 * otherwise the recorded results are replayed.
+	 */
+	new(AbstractVerification verification, VerificationResultCache recordings, boolean record) {
+		this.verification = verification
+		this.recordings = recordings
+		this.record = record
+	}
+
+	override Result execute(File modelFile, File queryFile, String workerId) {
+		val query = fileUtil.loadString(queryFile)
+		val key = recordings.getKey(#[], modelFile.name + "\n" + query, verification.class.name)
+		val timeFile = recordings.getFile(key, TIME_EXTENSION)
+		if (record) {
+			val start = System.nanoTime
+			val result = verification.execute(modelFile, queryFile, workerId)
+			val time = System.nanoTime - start
+			PhaseTimer.record(RECORDED_VERIFICATION_PHASE, time)
+			recordings.store(key, result)
+			fileUtil.saveString(timeFile, Long.toString(time))
+			return result
+		}
+		val result = recordings.load(key)
+		checkState(result !== null, "No recorded verification result for " + modelFile.name +
+			" and query " + query.trim + " in " + recordings.cacheFolder)
+		if (timeFile.exists) {
+			PhaseTimer.record(RECORDED_VERIFICATION_PHASE, Long.parseLong(fileUtil.loadString(timeFile).trim))
+		}
+		return result
+	}
+
+	override getTraceabilityFile(File modelFile) {
+		return verification.getTraceabilityFile(modelFile)
+	}
+
+	override getBackendDescriptor() {
+		return verification.class.simpleName + " (replayed)"
+	}
+
+}
@@ -0,0 +1,174 @@
+/********************************************************************************
+ * Copyright (c) 2018-2021 Contributors to the Gamma project
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ ********************************************************************************/
+package hu.bme.mit.gamma.verification.util
+
+import hu.bme.mit.gamma.trace.model.ExecutionTrace
+import hu.bme.mit.gamma.util.FileUtil
+import hu.bme.mit.gamma.util.GammaEcoreUtil
+import hu.bme.mit.gamma.verification.result.ThreeStateBoolean
+import hu.bme.mit.gamma.verification.util.AbstractVerifier.Result
+import java.io.File
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.security.MessageDigest
+import java.util.List
+import java.util.logging.Level
+import java.util.logging.Logger
+import org.eclipse.emf.ecore.EObject
+
+/**
+ * Content-addressed on-disk store of verification results. The key of an entry is the hash
+ * of the model (and traceability) files and their paths relative to the project, the normalized
+ * query and the back-end descriptor (tool version and parameters). An entry consists of a .result
+ * file containing the ThreeStateBoolean and an optional .get file containing the execution trace.
+ */
+class VerificationResultCache {
+	
+	public static final String CACHE_FOLDER_NAME = ".gamma-cache"
+	protected static final String RESULT_EXTENSION = "result"
+	protected static final String TRACE_EXTENSION = "get"
+	
+	protected final File cacheFolder
+	protected final TraceSerializer traceSerializer
+	
+	protected final extension FileUtil fileUtil = FileUtil.INSTANCE
+	protected final extension GammaEcoreUtil ecoreUtil = GammaEcoreUtil.INSTANCE
+	protected final Logger logger = Logger.getLogger("GammaLogger")
+	
+	/**
+	 * The serializer is needed as the textual trace language is not accessible from this plugin.
+	 */
+	new(File projectFolder, TraceSerializer traceSerializer) {
+		this(projectFolder, CACHE_FOLDER_NAME, traceSerializer)
+	}
+	
+	new(File parentFolder, String cacheFolderName, TraceSerializer traceSerializer) {
+		this.cacheFolder = new File(parentFolder + File.separator + cacheFolderName)
+		this.traceSerializer = traceSerializer
+	}
+	
+	def String getKey(List<File> inputFiles, String query, String backendDescriptor) {
+		val digest = MessageDigest.getInstance("SHA-256")
+		for (inputFile : inputFiles.filterNull) {
+			// The cached trace refers to the model, so equal models at different paths are not shared
+			digest.update(inputFile.relativePath.getBytes(StandardCharsets.UTF_8))
+			digest.update(0 as byte)
+			if (inputFile.exists) {
+				digest.update(Files.readAllBytes(inputFile.toPath))
+			}
+			digest.update(0 as byte) // Separator
+		}
+		digest.update(query.normalizeQuery.getBytes(StandardCharsets.UTF_8))
+		digest.update(0 as byte)
+		digest.update(backendDescriptor.getBytes(StandardCharsets.UTF_8))
+		val key = new StringBuilder
+		for (hashByte : digest.digest) {
+			key.append(String.format("%02x", hashByte))
+		}
+		return key.toString
+	}
+	
+	/**
+	 * Returns the path of the file relative to the parent (project) folder of the cache, or the
+	 * absolute path if it is on a different root.
+	 */
+	protected def getRelativePath(File file) {
+		val parentPath = cacheFolder.absoluteFile.parentFile.toPath.normalize
+		val path = file.absoluteFile.toPath.normalize
+		val relativePath = if (path.root == parentPath.root) {
+			parentPath.relativize(path)
+		}
+		else {
+			path
+		}
+		return relativePath.toString.replace(File.separator, "/")
+	}
+	
+	protected def normalizeQuery(String query) {
+		return query.split("\\r?\\n")
+			.map[it.trim.replaceAll("\\s+", " ")]
+			.reject[it.empty]
+			.join("\n")
+	}
+	
+	/**
+	 * Returns null if there is no entry for the given key.
+	 */
+	def synchronized Result load(String key) {
+		val resultFile = key.getFile(RESULT_EXTENSION)
+		if (!resultFile.exists) {
+			return null
+		}
+		try {
+			val result = ThreeStateBoolean.valueOf(resultFile.loadString.trim)
+			val traceFile = key.getFile(TRACE_EXTENSION)
+			val trace = if (traceFile.exists) {
+				traceFile.normalLoad as ExecutionTrace
+			}
+			logger.log(Level.INFO, "Reusing cached verification result " + key)
+			return new Result(result, trace)
+		} catch (Exception e) {
+			// Corrupted or not loadable (e.g., the referenced model has been deleted) entry
+			logger.log(Level.WARNING, "Cannot load cached verification result " + key + ": " + e.message)
+			key.delete
+			return null
+		}
+	}
+	
+	def synchronized void store(String key, Result result) {
+		val verificationResult = result.result
+		if (verificationResult === null || verificationResult == ThreeStateBoolean.UNDEF) {
+			// Cancelled or inconclusive verifications are not cached
+			return
+		}
+		val trace = result.trace
+		if (trace !== null) {
+			try {
+				traceSerializer.serialize(trace, cacheFolder.toString, key.getFile(TRACE_EXTENSION).name)
+			} catch (Exception e) {
+				logger.log(Level.WARNING, "Cannot cache execution trace " + key + ": " + e.message)
+				key.delete
+				return
+			}
+		}
+		// The result file is written last, so its existence denotes a complete entry
+		key.getFile(RESULT_EXTENSION).saveString(verificationResult.toString)
+	}
+	
+	def synchronized void clear() {
+		val files = cacheFolder.listFiles
+		if (files !== null) {
+			for (file : files) {
+				file.delete
+			}
+		}
+	}
+	
+	protected def getFile(String key, String fileExtension) {
+		return new File(cacheFolder + File.separator + key + "." + fileExtension)
+	}
+	
+	protected def delete(String key) {
+		key.getFile(RESULT_EXTENSION).delete
+		key.getFile(TRACE_EXTENSION).delete
+	}
+	
+	def getCacheFolder() {
+		return cacheFolder
+	}
+	
+	interface TraceSerializer {
+		
+		def void serialize(EObject trace, String parentFolder, String fileName)
+		
+	}
+	
+}
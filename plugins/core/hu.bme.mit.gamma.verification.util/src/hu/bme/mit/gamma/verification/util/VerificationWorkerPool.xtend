@@ -0,0 +1,163 @@
+/********************************************************************************
+ * Copyright (c) 2018-2021 Contributors to the Gamma project
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ ********************************************************************************/
+package hu.bme.mit.gamma.verification.util
+
+import hu.bme.mit.gamma.verification.util.AbstractVerifier.Result
+import java.io.File
+import java.util.BitSet
+import java.util.List
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executors
+import java.util.logging.Level
+import java.util.logging.Logger
+
+import static com.google.common.base.Preconditions.checkArgument
+
+/**
+ * Executes the verification of multiple queries on a bounded number of worker threads.
+ * Every worker has its own verifier (created by the verification task) and temporary files.
+ * The results are committed to the handler in the order of the queries, and the handler is asked
+ * if a not yet started query can be skipped, based on these committed results. As a consequence,
+ * the committed results are the same as the ones of a sequential execution.
+ */
+class VerificationWorkerPool<T> {
+
+	protected final AbstractVerification verification
+	protected final int workerCount
+	// State of the actual execution, guarded by the lock of the results
+	protected final List<Result> results = newArrayList
+	protected final BitSet finished = new BitSet
+	protected final BitSet skipped = new BitSet
+	protected int next
+	protected int committed
+	protected volatile boolean cancelled
+
+	protected final Logger logger = Logger.getLogger("GammaLogger")
+
+	new(AbstractVerification verification, int workerCount) {
+		checkArgument(workerCount > 0, "The number of workers must be positive: " + workerCount)
+		this.verification = verification
+		this.workerCount = workerCount
+	}
+
+	def synchronized void execute(File modelFile, List<T> queries, VerificationJobHandler<T> handler) {
+		queries.reset
+		if (workerCount == 1 || queries.size <= 1) {
+			// No need for additional threads
+			modelFile.work(queries, handler, "")
+			return
+		}
+		val threadCount = Math.min(workerCount, queries.size)
+		logger.log(Level.INFO, "Verifying " + queries.size + " queries on " + threadCount + " threads")
+		val executor = Executors.newFixedThreadPool(threadCount)
+		try {
+			val futures = newArrayList
+			for (var i = 0; i < threadCount; i++) {
+				val workerId = "_worker" + i
+				val Runnable worker = [modelFile.work(queries, handler, workerId)]
+				futures += executor.submit(worker)
+			}
+			for (future : futures) {
+				try {
+					future.get
+				} catch (ExecutionException e) {
+					// The other workers stop after their actual verification
+					cancelled = true
+					throw e.cause
+				}
+			}
+		} finally {
+			executor.shutdownNow
+		}
+	}
+
+	protected def void reset(List<T> queries) {
+		results.clear
+		for (query : queries) {
+			results += null
+		}
+		finished.clear
+		skipped.clear
+		next = 0
+		committed = 0
+		cancelled = false
+	}
+
+	protected def void work(File modelFile, List<T> queries,
+			VerificationJobHandler<T> handler, String workerId) {
+		while (true) {
+			var index = -1
+			synchronized (results) {
+				while (index < 0 && !cancelled && next < queries.size) {
+					val candidate = next
+					next = candidate + 1
+					if (handler.isSkippable(queries.get(candidate))) {
+						// Covered by an already committed result
+						skipped.set(candidate)
+						finished.set(candidate)
+						queries.commit(handler)
+					}
+					else {
+						index = candidate
+					}
+				}
+			}
+			if (index < 0) {
+				return
+			}
+			val query = queries.get(index)
+			val queryFile = handler.createQueryFile(query, workerId)
+			val result = verification.execute(modelFile, queryFile, workerId)
+			synchronized (results) {
+				results.set(index, result)
+				finished.set(index)
+				queries.commit(handler)
+			}
+		}
+	}
+
+	/**
+	 * Has to be called holding the lock of the results.
+	 */
+	protected def void commit(List<T> queries, VerificationJobHandler<T> handler) {
+		while (committed < queries.size && finished.get(committed)) {
+			if (!skipped.get(committed)) {
+				handler.commit(queries.get(committed), results.get(committed))
+			}
+			results.set(committed, null) // Not needed anymore
+			committed++
+		}
+	}
+
+	/**
+	 * Callbacks of the pool. Except for createQueryFile, the methods are called
+	 * in a synchronized manner, so they do not have to be thread-safe.
+	 */
+	interface VerificationJobHandler<T> {
+
+		/**
+		 * Serializes the query into a file unique to the given worker.
+		 */
+		def File createQueryFile(T query, String workerId)
+
+		/**
+		 * Called before starting the verification of the query.
+		 */
+		def boolean isSkippable(T query)
+
+		/**
+		 * Called for every verified query in the order of the queries.
+		 */
+		def void commit(T query, Result result)
+
+	}
+
+}
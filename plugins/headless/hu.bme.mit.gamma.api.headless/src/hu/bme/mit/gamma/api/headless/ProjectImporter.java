@@ -0,0 +1,118 @@
+/********************************************************************************
+ * Copyright (c) 2018-2021 Contributors to the Gamma project
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ ********************************************************************************/
+package hu.bme.mit.gamma.api.headless;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.Arrays;
+
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Path;
+
+/**
+ * Makes the project containing a file (e.g., a ggen model) available in the workspace of the headless application.
+ */
+public class ProjectImporter {
+
+	private final IProgressMonitor progressMonitor = new NullProgressMonitor();
+
+	/**
+	 * Copies the containing project of the file into the workspace if it is not there yet,
+	 * and returns the workspace relative path of the file.
+	 */
+	public String importContainingProject(File file) throws Exception {
+		File projectFolder = getContainingProject(file);
+		String projectName = projectFolder.getName();
+		String fileWorkspaceRelativePath = file.getPath().substring(projectFolder.getParent().length());
+		IWorkspace workspace = ResourcesPlugin.getWorkspace();
+		IWorkspaceRoot workspaceRoot = workspace.getRoot();
+		File workspaceFolder = workspaceRoot.getLocation().toFile();
+		// The file and its containing project is not in the given workspace
+		// The project has to be copied into the workspace
+		if (!contains(workspaceFolder, file)) {
+			// Note that in this case the ggen cannot refer to models outside of the project
+			IProject project = workspaceRoot.getProject(projectName);
+			try {
+				project.create(progressMonitor);
+			} catch (CoreException creationException) {
+				// Project with same name exists, trying to open it
+				try {
+					project.open(progressMonitor);
+				} catch (CoreException openException) {
+					// Open did not succeed, deleting and creating needed
+					project.delete(true, progressMonitor);
+					project.create(progressMonitor);
+				}
+			}
+			project.open(progressMonitor);
+			//
+			IProjectDescription description = project.getDescription();
+			project.setDescription(description, progressMonitor);
+			// Not needed to add project natures like this, maybe copyDirectory does that?
+			copyDirectory(projectFolder, project);
+			workspace.save(true, progressMonitor);
+		}
+		return fileWorkspaceRelativePath;
+	}
+
+	public boolean contains(File folder, File file) {
+		File parentFolder = file.getParentFile();
+		if (parentFolder == null) {
+			return false;
+		}
+		if (folder.equals(parentFolder)) {
+			return true;
+		}
+		return contains(folder, parentFolder);
+	}
+
+	public void copyDirectory(File sourceFolder, IContainer destinationFolder) throws Exception {
+		for (File file : sourceFolder.listFiles()) {
+			if (file.isDirectory()) {
+				IFolder newFolder = destinationFolder.getFolder(new Path(file.getName()));
+				if (newFolder.exists()) {
+					// Overwriting old directory
+					newFolder.delete(true, null);
+				}
+				newFolder.create(true, true, null);
+				copyDirectory(file, newFolder);
+			} else {
+				IFile newFile = destinationFolder.getFile(new Path(file.getName()));
+				if (newFile.exists()) {
+					// Overwriting old file
+					newFile.delete(true, null);
+				}
+				newFile.create(new FileInputStream(file), true, null);
+			}
+		}
+	}
+
+	public File getContainingProject(File file) {
+		File parentFolder = file.getParentFile();
+		if (Arrays.asList(parentFolder.listFiles()).stream()
+				// It is a project folder, if it contains a .project file
+				.anyMatch(it -> it.getName().equals(".project"))) {
+			return parentFolder;
+		}
+		return getContainingProject(parentFolder);
+	}
+
+}
@@ -0,0 +1,41 @@
+/********************************************************************************
+ * Copyright (c) 2018-2021 Contributors to the Gamma project
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ ********************************************************************************/
+package hu.bme.mit.gamma.api.headless;
+
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.xtext.resource.XtextResourceSet;
+
+import com.google.inject.Injector;
+
+import hu.bme.mit.gamma.statechart.language.StatechartLanguageStandaloneSetupGenerated;
+import hu.bme.mit.gamma.ui.GammaApi.ResourceSetCreator;
+
+/**
+ * Creates the resource sets of the headless applications, the languages have to be set up beforehand.
+ */
+public class StandaloneResourceSetCreator implements ResourceSetCreator {
+
+	private Injector injector = null;
+
+	private Injector getInjector() {
+		if (injector == null) {
+			injector = new StatechartLanguageStandaloneSetupGenerated().createInjectorAndDoEMFRegistration();
+		}
+		return injector;
+	}
+
+	public ResourceSet createResourceSet() {
+		Injector injector = getInjector();
+		XtextResourceSet resourceSet = injector.getInstance(XtextResourceSet.class);
+		return resourceSet;
+	}
+
+}
@@ -0,0 +1,165 @@
+/********************************************************************************
+ * Copyright (c) 2018-2021 Contributors to the Gamma project
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ ********************************************************************************/
+package hu.bme.mit.gamma.api.headless.benchmark;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.equinox.app.IApplication;
+import org.eclipse.equinox.app.IApplicationContext;
+
+import hu.bme.mit.gamma.action.language.ActionLanguageStandaloneSetup;
+import hu.bme.mit.gamma.api.headless.ProjectImporter;
+import hu.bme.mit.gamma.api.headless.StandaloneResourceSetCreator;
+import hu.bme.mit.gamma.expression.language.ExpressionLanguageStandaloneSetup;
+import hu.bme.mit.gamma.genmodel.language.GenModelStandaloneSetup;
+import hu.bme.mit.gamma.property.language.PropertyLanguageStandaloneSetup;
+import hu.bme.mit.gamma.statechart.language.StatechartLanguageStandaloneSetup;
+import hu.bme.mit.gamma.trace.language.TraceLanguageStandaloneSetup;
+import hu.bme.mit.gamma.util.FileUtil;
+
+/**
+ * Benchmarks the tasks (e.g., the analysis model transformations and verifications) of the given
+ * GenModels: after the warmup runs, every GenModel is executed the given number of times and the
+ * execution times of its tasks and their phases are saved into the measurements folder of the
+ * containing project as JSON and CSV files, and compared to the baseline stored there.
+ * The verification back-ends are replaced by the results recorded in the measurements folder,
+ * so UPPAAL and Theta are needed only for recording them (--record).
+ * <p>
+ * Arguments: ggen-file... [--warmup n] [--iterations n] [--tolerance ratio] [--record] [--update-baseline]
+ * <p>
+ * The exit code is 1 if the execution time of a task or phase has regressed compared to the baseline.
+ */
+public class BenchmarkApplication implements IApplication {
+
+	public static final String MEASUREMENTS_FOLDER_NAME = "measurements";
+	public static final String RECORDINGS_FOLDER_NAME = "verifier-recordings";
+	public static final String RESULTS_FOLDER_NAME = "results";
+	public static final String BASELINE_POSTFIX = ".baseline.json";
+
+	private static final String WARMUP_ARGUMENT = "--warmup";
+	private static final String ITERATIONS_ARGUMENT = "--iterations";
+	private static final String TOLERANCE_ARGUMENT = "--tolerance";
+	private static final String RECORD_ARGUMENT = "--record";
+	private static final String UPDATE_BASELINE_ARGUMENT = "--update-baseline";
+	// Differences below this are considered noise
+	private static final double MINIMUM_DIFFERENCE_MILLIS = 10.0;
+
+	private int warmupCount = 2;
+	private int iterationCount = 10;
+	private double tolerance = 0.2;
+	private boolean record = false;
+	private boolean updateBaseline = false;
+	private final List<File> genmodelFiles = new ArrayList<File>();
+
+	private final FileUtil fileUtil = FileUtil.INSTANCE;
+	private final Logger logger = Logger.getLogger("GammaLogger");
+
+	@Override
+	public Object start(final IApplicationContext context) throws Exception {
+		ExpressionLanguageStandaloneSetup.doSetup();
+		ActionLanguageStandaloneSetup.doSetup();
+		StatechartLanguageStandaloneSetup.doSetup();
+		TraceLanguageStandaloneSetup.doSetup();
+		PropertyLanguageStandaloneSetup.doSetup();
+		GenModelStandaloneSetup.doSetup();
+		final Map<?, ?> args = context.getArguments();
+		parseArguments((String[]) args.get(IApplicationContext.APPLICATION_ARGS));
+		IWorkspace workspace = ResourcesPlugin.getWorkspace();
+		ProjectImporter projectImporter = new ProjectImporter();
+		List<String> regressions = new ArrayList<String>();
+		for (File genmodelFile : genmodelFiles) {
+			String genmodelName = fileUtil.getExtensionlessName(genmodelFile);
+			File measurementsFolder = new File(projectImporter.getContainingProject(genmodelFile) +
+					File.separator + MEASUREMENTS_FOLDER_NAME);
+			String fileWorkspaceRelativePath = projectImporter.importContainingProject(genmodelFile);
+			BenchmarkGammaApi gammaApi = new BenchmarkGammaApi(
+					new File(measurementsFolder + File.separator + RECORDINGS_FOLDER_NAME), record);
+			StandaloneResourceSetCreator resourceSetCreator = new StandaloneResourceSetCreator();
+			BenchmarkReport report = new BenchmarkReport(genmodelName, warmupCount, iterationCount, !record);
+			for (int i = 0; i < warmupCount + iterationCount; ++i) {
+				boolean isWarmup = i < warmupCount;
+				logger.log(Level.INFO, "Benchmarking " + genmodelName + ": " +
+						(isWarmup ? "warmup " + (i + 1) : "iteration " + (i - warmupCount + 1)));
+				Map<String, Map<String, Long>> times = gammaApi.measure(fileWorkspaceRelativePath, resourceSetCreator);
+				if (!isWarmup) {
+					report.add(times);
+				}
+			}
+			File resultsFolder = new File(measurementsFolder + File.separator + RESULTS_FOLDER_NAME);
+			report.saveJson(new File(resultsFolder + File.separator + genmodelName + ".json"));
+			report.saveCsv(new File(resultsFolder + File.separator + genmodelName + ".csv"));
+			File baselineFile = new File(measurementsFolder + File.separator + genmodelName + BASELINE_POSTFIX);
+			if (updateBaseline) {
+				report.saveJson(baselineFile);
+				logger.log(Level.INFO, "The baseline has been updated: " + baselineFile);
+			}
+			else if (baselineFile.exists()) {
+				BenchmarkReport baseline = BenchmarkReport.loadJson(baselineFile);
+				regressions.addAll(report.getRegressions(baseline, tolerance, MINIMUM_DIFFERENCE_MILLIS));
+			}
+			else {
+				logger.log(Level.WARNING, "No baseline for " + genmodelName + ", it can be created with " +
+						UPDATE_BASELINE_ARGUMENT);
+			}
+		}
+		workspace.save(true, new NullProgressMonitor());
+		if (!regressions.isEmpty()) {
+			for (String regression : regressions) {
+				logger.log(Level.SEVERE, "Performance regression: " + regression);
+			}
+			return Integer.valueOf(1);
+		}
+		return IApplication.EXIT_OK;
+	}
+
+	private void parseArguments(String[] appArgs) {
+		for (int i = 0; i < appArgs.length; ++i) {
+			String argument = appArgs[i];
+			switch (argument) {
+				case WARMUP_ARGUMENT:
+					warmupCount = Integer.parseInt(appArgs[++i]);
+					break;
+				case ITERATIONS_ARGUMENT:
+					iterationCount = Integer.parseInt(appArgs[++i]);
+					break;
+				case TOLERANCE_ARGUMENT:
+					tolerance = Double.parseDouble(appArgs[++i]);
+					break;
+				case RECORD_ARGUMENT:
+					record = true;
+					break;
+				case UPDATE_BASELINE_ARGUMENT:
+					updateBaseline = true;
+					break;
+				default:
+					genmodelFiles.add(new File(URI.decode(argument)));
+			}
+		}
+		if (genmodelFiles.isEmpty()) {
+			throw new IllegalArgumentException("No GenModel files are given to benchmark");
+		}
+	}
+
+	@Override
+	public void stop() {
+
+	}
+
+}
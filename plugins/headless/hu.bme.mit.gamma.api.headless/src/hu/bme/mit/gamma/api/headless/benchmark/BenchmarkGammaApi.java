@@ -0,0 +1,149 @@
+/********************************************************************************
+ * Copyright (c) 2018-2021 Contributors to the Gamma project
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ ********************************************************************************/
+package hu.bme.mit.gamma.api.headless.benchmark;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.stream.Collectors;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+
+import hu.bme.mit.gamma.genmodel.model.AnalysisModelTransformation;
+import hu.bme.mit.gamma.genmodel.model.Task;
+import hu.bme.mit.gamma.genmodel.model.Verification;
+import hu.bme.mit.gamma.trace.language.ui.serializer.TraceLanguageSerializer;
+import hu.bme.mit.gamma.transformation.util.PhaseTimer;
+import hu.bme.mit.gamma.ui.GammaApi;
+import hu.bme.mit.gamma.ui.taskhandler.VerificationHandler;
+import hu.bme.mit.gamma.verification.util.AbstractVerification;
+import hu.bme.mit.gamma.verification.util.ReplayVerification;
+import hu.bme.mit.gamma.verification.util.VerificationResultCache;
+
+/**
+ * Executes the tasks of a GenModel one after the other and measures the execution time of each task
+ * and its phases. The verification back-ends are replaced by the recorded results, unless the
+ * results are being recorded.
+ */
+public class BenchmarkGammaApi extends GammaApi {
+
+	public static final String TOTAL_PHASE = "Total";
+
+	protected final File recordingsFolder;
+	protected final boolean record;
+	// Task -> phase -> nanoseconds of the last run
+	protected final Map<String, Map<String, Long>> times = new LinkedHashMap<String, Map<String, Long>>();
+
+	public BenchmarkGammaApi(File recordingsFolder, boolean record) {
+		this.recordingsFolder = recordingsFolder;
+		this.record = record;
+	}
+
+	/**
+	 * Executes the GenModel and returns the execution times of its tasks and their phases.
+	 */
+	public Map<String, Map<String, Long>> measure(String fileWorkspaceRelativePath,
+			ResourceSetCreator resourceSetCreator) throws Exception {
+		times.clear();
+		run(fileWorkspaceRelativePath, resourceSetCreator);
+		return new LinkedHashMap<String, Map<String, Long>>(times);
+	}
+
+	/**
+	 * The tasks are executed sequentially, so they do not distort each other's execution times.
+	 */
+	@Override
+	protected int getWorkerCount() {
+		return 1;
+	}
+
+	@Override
+	protected void execute(Task task, ResourceSet resourceSet, IFile file) throws Exception {
+		try (PhaseTimer timer = PhaseTimer.start()) {
+			long start = System.nanoTime();
+			if (task instanceof Verification) {
+				Verification verification = (Verification) task;
+				VerificationHandler handler = new ReplayVerificationHandler(file);
+				handler.setTargetFolder(verification);
+				handler.execute(verification);
+				logger.log(Level.INFO, "The verification has been finished.");
+			}
+			else {
+				super.execute(task, resourceSet, file);
+			}
+			long time = System.nanoTime() - start;
+			Map<String, Long> phaseTimes = new LinkedHashMap<String, Long>();
+			phaseTimes.put(TOTAL_PHASE, time);
+			phaseTimes.putAll(timer.getTimes());
+			times.put(getUniqueLabel(getLabel(task)), phaseTimes);
+		}
+	}
+
+	/**
+	 * Identifies the task in the reports, e.g., "AnalysisModelTransformation [UPPAAL] Controller".
+	 * The file name has to be queried after the execution, as it is set by the handlers if it is missing.
+	 */
+	protected String getLabel(Task task) {
+		List<String> languages = (task instanceof AnalysisModelTransformation) ?
+				toStrings(((AnalysisModelTransformation) task).getLanguages()) :
+				(task instanceof Verification) ?
+					toStrings(((Verification) task).getLanguages()) : List.of();
+		List<String> fileNames = task.getFileName();
+		String fileName = fileNames.isEmpty() ? "" : new File(fileNames.get(0)).getName();
+		String label = task.eClass().getName() + " " + languages + " " + fileName;
+		if (task instanceof Verification && ((Verification) task).isOptimize()) {
+			label += " (optimized)";
+		}
+		return label;
+	}
+
+	protected String getUniqueLabel(String label) {
+		String uniqueLabel = label;
+		for (int i = 2; times.containsKey(uniqueLabel); ++i) {
+			uniqueLabel = label + " #" + i;
+		}
+		return uniqueLabel;
+	}
+
+	private List<String> toStrings(List<?> objects) {
+		return objects.stream().map(it -> it.toString()).collect(Collectors.toList());
+	}
+
+	protected class ReplayVerificationHandler extends VerificationHandler {
+
+		public ReplayVerificationHandler(IFile file) {
+			super(file);
+		}
+
+		@Override
+		protected AbstractVerification decorate(AbstractVerification verificationTask, Verification verification) {
+			VerificationResultCache recordings = new VerificationResultCache(recordingsFolder.getParentFile(),
+					recordingsFolder.getName(),
+					(trace, parentFolder, fileName) -> new TraceLanguageSerializer().serialize(trace, parentFolder, fileName));
+			// No result cache, as it would hide the verification in the recording runs
+			return new ReplayVerification(verificationTask, recordings, record);
+		}
+
+		/**
+		 * The recorded verification times are collected by the phase timer of the actual thread,
+		 * so the queries are verified on it.
+		 */
+		@Override
+		protected int getWorkerCount(Verification verification) {
+			return 1;
+		}
+
+	}
+
+}
@@ -0,0 +1,216 @@
+/********************************************************************************
+ * Copyright (c) 2018-2021 Contributors to the Gamma project
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ ********************************************************************************/
+package hu.bme.mit.gamma.api.headless.benchmark;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * The execution times of the tasks of a GenModel and their phases in the measured iterations,
+ * serializable as JSON (also used as the baseline) and CSV.
+ */
+public class BenchmarkReport {
+
+	protected String genmodel;
+	protected int warmupCount;
+	protected int iterationCount;
+	protected boolean replayedVerification;
+	protected Map<String, String> environment;
+	protected List<Measurement> measurements = new ArrayList<Measurement>();
+
+	public BenchmarkReport(String genmodel, int warmupCount, int iterationCount, boolean replayedVerification) {
+		this.genmodel = genmodel;
+		this.warmupCount = warmupCount;
+		this.iterationCount = iterationCount;
+		this.replayedVerification = replayedVerification;
+		this.environment = Map.of(
+			"java.version", System.getProperty("java.version"),
+			"os.name", System.getProperty("os.name"),
+			"os.arch", System.getProperty("os.arch"),
+			"processors", Integer.toString(Runtime.getRuntime().availableProcessors()));
+	}
+
+	/**
+	 * Adds the execution times (task -> phase -> nanoseconds) of an iteration.
+	 */
+	public void add(Map<String, Map<String, Long>> times) {
+		for (Entry<String, Map<String, Long>> taskTimes : times.entrySet()) {
+			String task = taskTimes.getKey();
+			for (Entry<String, Long> phaseTime : taskTimes.getValue().entrySet()) {
+				String phase = phaseTime.getKey();
+				double time = TimeUnit.NANOSECONDS.toMicros(phaseTime.getValue()) / 1000.0;
+				getOrCreateMeasurement(task, phase).samples.add(time);
+			}
+		}
+	}
+
+	protected Measurement getOrCreateMeasurement(String task, String phase) {
+		Measurement measurement = getMeasurement(task, phase);
+		if (measurement == null) {
+			measurement = new Measurement(task, phase);
+			measurements.add(measurement);
+		}
+		return measurement;
+	}
+
+	public Measurement getMeasurement(String task, String phase) {
+		for (Measurement measurement : measurements) {
+			if (measurement.task.equals(task) && measurement.phase.equals(phase)) {
+				return measurement;
+			}
+		}
+		return null;
+	}
+
+	public List<Measurement> getMeasurements() {
+		return measurements;
+	}
+
+	/**
+	 * Returns the descriptions of the measurements whose medians are larger than the ones in the baseline
+	 * by more than the given ratio (e.g., 0.2) and the given absolute time (filtering the noise of short phases).
+	 */
+	public List<String> getRegressions(BenchmarkReport baseline, double tolerance, double minimumDifferenceMillis) {
+		List<String> regressions = new ArrayList<String>();
+		for (Measurement baselineMeasurement : baseline.measurements) {
+			Measurement measurement = getMeasurement(baselineMeasurement.task, baselineMeasurement.phase);
+			if (measurement == null) {
+				regressions.add(baselineMeasurement + ": missing measurement");
+				continue;
+			}
+			double baselineMedian = baselineMeasurement.getMedian();
+			double median = measurement.getMedian();
+			if (median > baselineMedian * (1 + tolerance) &&
+					median - baselineMedian > minimumDifferenceMillis) {
+				regressions.add(String.format("%s: median %.1f ms, baseline %.1f ms (+%.0f%%)",
+						measurement, median, baselineMedian, (median / baselineMedian - 1) * 100));
+			}
+		}
+		return regressions;
+	}
+
+	public void saveJson(File file) throws IOException {
+		file.getParentFile().mkdirs();
+		for (Measurement measurement : measurements) {
+			measurement.updateStatistics();
+		}
+		try (Writer writer = new FileWriter(file)) {
+			createGson().toJson(this, writer);
+		}
+	}
+
+	public static BenchmarkReport loadJson(File file) throws IOException {
+		try (Reader reader = new FileReader(file)) {
+			return createGson().fromJson(reader, BenchmarkReport.class);
+		}
+	}
+
+	public void saveCsv(File file) throws IOException {
+		file.getParentFile().mkdirs();
+		try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
+			List<String> header = new ArrayList<String>(List.of("genmodel", "task", "phase",
+					"median_ms", "mean_ms", "min_ms", "max_ms"));
+			for (int i = 1; i <= iterationCount; ++i) {
+				header.add("iteration_" + i + "_ms");
+			}
+			writer.println(String.join(",", header));
+			for (Measurement measurement : measurements) {
+				List<String> row = new ArrayList<String>(List.of(quote(genmodel), quote(measurement.task),
+						quote(measurement.phase), format(measurement.getMedian()), format(measurement.getMean()),
+						format(measurement.getMin()), format(measurement.getMax())));
+				row.addAll(measurement.samples.stream().map(it -> format(it)).collect(Collectors.toList()));
+				writer.println(String.join(",", row));
+			}
+		}
+	}
+
+	private static Gson createGson() {
+		return new GsonBuilder().setPrettyPrinting().create();
+	}
+
+	private String quote(String value) {
+		return "\"" + value.replace("\"", "\"\"") + "\"";
+	}
+
+	private String format(double value) {
+		return String.format(Locale.ROOT, "%.3f", value);
+	}
+
+	public static class Measurement {
+
+		protected String task;
+		protected String phase;
+		protected double median;
+		protected double mean;
+		protected double min;
+		protected double max;
+		// Milliseconds
+		protected List<Double> samples = new ArrayList<Double>();
+
+		public Measurement(String task, String phase) {
+			this.task = task;
+			this.phase = phase;
+		}
+
+		protected void updateStatistics() {
+			median = getMedian();
+			mean = getMean();
+			min = getMin();
+			max = getMax();
+		}
+
+		public double getMedian() {
+			if (samples.isEmpty()) {
+				return median; // Loaded baseline without samples
+			}
+			List<Double> sortedSamples = new ArrayList<Double>(samples);
+			Collections.sort(sortedSamples);
+			int size = sortedSamples.size();
+			return (size % 2 == 1) ? sortedSamples.get(size / 2) :
+				(sortedSamples.get(size / 2 - 1) + sortedSamples.get(size / 2)) / 2;
+		}
+
+		public double getMean() {
+			return samples.stream().mapToDouble(it -> it).average().orElse(mean);
+		}
+
+		public double getMin() {
+			return samples.stream().mapToDouble(it -> it).min().orElse(min);
+		}
+
+		public double getMax() {
+			return samples.stream().mapToDouble(it -> it).max().orElse(max);
+		}
+
+		@Override
+		public String toString() {
+			return task + " / " + phase;
+		}
+
+	}
+
+}
@@ -16,18 +16,11 @@ import hu.bme.mit.gamma.expression.model.Expression
 import hu.bme.mit.gamma.expression.model.TypeDeclaration
 import hu.bme.mit.gamma.expression.model.TypeReference
 import hu.bme.mit.gamma.expression.model.VariableDeclaration
-import hu.bme.mit.gamma.lowlevel.xsts.transformation.patterns.ChoiceTransitionTrace
-import hu.bme.mit.gamma.lowlevel.xsts.transformation.patterns.EventTrace
-import hu.bme.mit.gamma.lowlevel.xsts.transformation.patterns.ForkTransitionTrace
-import hu.bme.mit.gamma.lowlevel.xsts.transformation.patterns.JoinTransitionTrace
-import hu.bme.mit.gamma.lowlevel.xsts.transformation.patterns.MergeTransitionTrace
-import hu.bme.mit.gamma.lowlevel.xsts.transformation.patterns.RegionTrace
-import hu.bme.mit.gamma.lowlevel.xsts.transformation.patterns.SimpleTransitionTrace
-import hu.bme.mit.gamma.lowlevel.xsts.transformation.patterns.StateTrace
-import hu.bme.mit.gamma.lowlevel.xsts.transformation.patterns.TypeDeclarationTrace
-import hu.bme.mit.gamma.lowlevel.xsts.transformation.patterns.VariableTrace
 import hu.bme.mit.gamma.lowlevel.xsts.transformation.traceability.L2STrace
 import hu.bme.mit.gamma.lowlevel.xsts.transformation.traceability.TraceabilityFactory
+import hu.bme.mit.gamma.lowlevel.xsts.transformation.traceability.TraceabilityPackage
+import hu.bme.mit.gamma.lowlevel.xsts.transformation.traceability.TransitionTrace
+import hu.bme.mit.gamma.lowlevel.xsts.transformation.traceability.VariableTrace
 import hu.bme.mit.gamma.statechart.lowlevel.model.ChoiceState
 import hu.bme.mit.gamma.statechart.lowlevel.model.EventDeclaration
 import hu.bme.mit.gamma.statechart.lowlevel.model.ForkState
@@ -38,12 +31,14 @@ import hu.bme.mit.gamma.statechart.lowlevel.model.Region
 import hu.bme.mit.gamma.statechart.lowlevel.model.State
 import hu.bme.mit.gamma.statechart.lowlevel.model.Transition
 import hu.bme.mit.gamma.util.GammaEcoreUtil
+import hu.bme.mit.gamma.util.ReferenceIndex
 import hu.bme.mit.gamma.xsts.model.NonDeterministicAction
 import hu.bme.mit.gamma.xsts.model.ParallelAction
 import hu.bme.mit.gamma.xsts.model.XSTS
 import hu.bme.mit.gamma.xsts.model.XTransition
-import org.eclipse.viatra.query.runtime.api.ViatraQueryEngine
-import org.eclipse.viatra.query.runtime.emf.EMFScope
+import java.util.Set
+import org.eclipse.emf.ecore.EObject
+import org.eclipse.emf.ecore.EReference
 
 import static com.google.common.base.Preconditions.checkArgument
 import static com.google.common.base.Preconditions.checkState
@@ -52,10 +47,11 @@ import hu.bme.mit.gamma.action.model.VariableDeclarationStatement
 package class Trace {
 	// Trace model
 	protected final L2STrace trace
-	// Tracing engine
-	protected final ViatraQueryEngine tracingEngine
+	// Index of the trace model, kept in sync with it, instead of pattern matching for every lookup
+	protected final ReferenceIndex traceIndex
 	// Trace model factory
 	protected final extension TraceabilityFactory traceabilityFactory = TraceabilityFactory.eINSTANCE
+	protected final TraceabilityPackage traceabilityPackage = TraceabilityPackage.eINSTANCE
 	// Auxiliary
 	protected final extension GammaEcoreUtil ecoreUtil = GammaEcoreUtil.INSTANCE
 	
@@ -64,7 +60,33 @@ package class Trace {
 			it.lowlevelPackage = _package
 			it.XSts = xSts
 		]
-		this.tracingEngine = ViatraQueryEngine.on(new EMFScope(trace))
+		this.traceIndex = ReferenceIndex.getIndex(trace)
+	}
+	
+	/**
+	 * Returns the objects the matching traces referring to the given key via the key reference
+	 * refer to via the value reference.
+	 */
+	protected def getValues(EObject key, EReference keyReference, EReference valueReference) {
+		val Set<EObject> values = newLinkedHashSet
+		for (trace : key.getMatchingTraces(keyReference)) {
+			if (valueReference.EContainingClass.isSuperTypeOf(trace.eClass)) {
+				values += trace.eGet(valueReference) as EObject
+			}
+		}
+		return values
+	}
+	
+	/**
+	 * Returns the traces referring to the given key via the key reference that match the trace pattern
+	 * of their class, i.e., all their references are set.
+	 */
+	protected def getMatchingTraces(EObject key, EReference keyReference) {
+		return traceIndex.getReferrers(keyReference, key).filter[it.matching].toList
+	}
+	
+	protected def isMatching(EObject trace) {
+		return trace.eClass.EAllReferences.forall[trace.eGet(it) !== null]
 	}
 	
 	// Statechart - xSTS	
@@ -88,21 +110,24 @@ package class Trace {
 	
 	def isTraced(TypeDeclaration lowlevelTypeDeclaration) {
 		checkArgument(lowlevelTypeDeclaration !== null)
-		return TypeDeclarationTrace.Matcher.on(tracingEngine).hasMatch(lowlevelTypeDeclaration, null)
+		return !lowlevelTypeDeclaration.getValues(traceabilityPackage.typeDeclarationTrace_LowlevelTypeDeclaration,
+			traceabilityPackage.typeDeclarationTrace_XStsTypeDeclaration).empty
 	}
 	
 	def getXStsTypeDeclaration(TypeDeclaration lowlevelTypeDeclaration) {
 		checkArgument(lowlevelTypeDeclaration !== null)
-		val matches = TypeDeclarationTrace.Matcher.on(tracingEngine).getAllValuesOfxStsTypeDeclaration(lowlevelTypeDeclaration)
+		val matches = lowlevelTypeDeclaration.getValues(traceabilityPackage.typeDeclarationTrace_LowlevelTypeDeclaration,
+			traceabilityPackage.typeDeclarationTrace_XStsTypeDeclaration)
 		checkState(matches.size == 1, matches.size)
-		return matches.head
+		return matches.head as TypeDeclaration
 	}
 	
 	def getLowlevelTypeDeclaration(TypeDeclaration xStsTypeDeclaration) {
 		checkArgument(xStsTypeDeclaration !== null)
-		val matches = TypeDeclarationTrace.Matcher.on(tracingEngine).getAllValuesOflowlevelTypeDeclaration(xStsTypeDeclaration)
+		val matches = xStsTypeDeclaration.getValues(traceabilityPackage.typeDeclarationTrace_XStsTypeDeclaration,
+			traceabilityPackage.typeDeclarationTrace_LowlevelTypeDeclaration)
 		checkState(matches.size == 1, matches.size)
-		return matches.head
+		return matches.head as TypeDeclaration
 	}
 	
 	// Event - variable
@@ -117,16 +142,16 @@ package class Trace {
 	
 	def getXStsVariable(EventDeclaration lowlevelEvent) {
 		checkArgument(lowlevelEvent !== null)
-		val matches = EventTrace.Matcher.on(tracingEngine).getAllValuesOfxStsVariable(lowlevelEvent)
+		val matches = lowlevelEvent.getValues(traceabilityPackage.eventTrace_LowlevelEvent, traceabilityPackage.eventTrace_XStsVariable)
 		checkState(matches.size == 1, matches.size)
-		return matches.head
+		return matches.head as VariableDeclaration
 	}
 	
 	def getLowlevelEvent(VariableDeclaration xStsVariable) {
 		checkArgument(xStsVariable !== null)
-		val matches = EventTrace.Matcher.on(tracingEngine).getAllValuesOflowlevelEvent(xStsVariable)
+		val matches = xStsVariable.getValues(traceabilityPackage.eventTrace_XStsVariable, traceabilityPackage.eventTrace_LowlevelEvent)
 		checkState(matches.size == 1, matches.size)
-		return matches.head
+		return matches.head as EventDeclaration
 	}
 	
 	// Variable - variable
@@ -150,35 +175,33 @@ package class Trace {
 	
 	def getXStsVariable(VariableDeclaration lowlevelVariable) {
 		checkArgument(lowlevelVariable !== null)
-		val matches = VariableTrace.Matcher.on(tracingEngine).getAllValuesOfxStsVariable(lowlevelVariable)
+		val matches = lowlevelVariable.getValues(traceabilityPackage.variableTrace_LowlevelVariable, traceabilityPackage.variableTrace_XStsVariable)
 		checkState(matches.size == 1, '''«matches.size» «lowlevelVariable»''')
-		return matches.head
+		return matches.head as VariableDeclaration
 	}
 	
 	def getLowlevelVariable(VariableDeclaration xStsVariable) {
 		checkArgument(xStsVariable !== null)
-		val matches = VariableTrace.Matcher.on(tracingEngine).getAllValuesOflowlevelVariable(xStsVariable)
+		val matches = xStsVariable.getValues(traceabilityPackage.variableTrace_XStsVariable, traceabilityPackage.variableTrace_LowlevelVariable)
 		checkState(matches.size == 1, matches.size)
-		return matches.head
+		return matches.head as VariableDeclaration
 	}
 	
 	def hasXStsVariable(VariableDeclaration lowlevelVariable) {
 		checkArgument(lowlevelVariable !== null)
-		return VariableTrace.Matcher.on(tracingEngine).hasMatch(lowlevelVariable, null)
+		return !lowlevelVariable.getValues(traceabilityPackage.variableTrace_LowlevelVariable, traceabilityPackage.variableTrace_XStsVariable).empty
 	}
 	
 	def getTrace(VariableDeclaration lowlevelVariable) {
 		checkArgument(lowlevelVariable !== null)
-		val traces = trace.traces.filter(hu.bme.mit.gamma.lowlevel.xsts.transformation.traceability.VariableTrace)
-			.filter[it.lowlevelVariable === lowlevelVariable].toSet
+		val traces = traceIndex.getReferrers(traceabilityPackage.variableTrace_LowlevelVariable, lowlevelVariable)
 		checkState(traces.size == 1)
-		return traces.head
+		return traces.head as VariableTrace
 	}
 	
 	def delete(VariableDeclaration xStsVariable) {
 		checkArgument(xStsVariable !== null)
-		val traces = trace.traces.filter(hu.bme.mit.gamma.lowlevel.xsts.transformation.traceability.VariableTrace)
-			.filter[it.XStsVariable === xStsVariable].toSet
+		val traces = traceIndex.getReferrers(traceabilityPackage.variableTrace_XStsVariable, xStsVariable)
 		for (trace : traces) {
 			trace.remove
 		}
@@ -196,21 +219,21 @@ package class Trace {
 	
 	def isTraced(Region lowlevelRegion) {
 		checkArgument(lowlevelRegion !== null)
-		return RegionTrace.Matcher.on(tracingEngine).hasMatch(lowlevelRegion, null)
+		return !lowlevelRegion.getValues(traceabilityPackage.regionTrace_LowlevelRegion, traceabilityPackage.regionTrace_XStsRegionVariable).empty
 	}
 	
 	def getXStsVariable(Region lowlevelRegion) {
 		checkArgument(lowlevelRegion !== null)
-		val matches = RegionTrace.Matcher.on(tracingEngine).getAllValuesOfxStsVariable(lowlevelRegion)
+		val matches = lowlevelRegion.getValues(traceabilityPackage.regionTrace_LowlevelRegion, traceabilityPackage.regionTrace_XStsRegionVariable)
 		checkState(matches.size == 1, matches.size)
-		return matches.head
+		return matches.head as VariableDeclaration
 	}
 	
 	def getLowlevelRegion(VariableDeclaration xStsVariable) {
 		checkArgument(xStsVariable !== null)
-		val matches = RegionTrace.Matcher.on(tracingEngine).getAllValuesOflowlevelRegion(xStsVariable)
+		val matches = xStsVariable.getValues(traceabilityPackage.regionTrace_XStsRegionVariable, traceabilityPackage.regionTrace_LowlevelRegion)
 		checkState(matches.size == 1, matches.size)
-		return matches.head
+		return matches.head as Region
 	}
 	
 	// Region - __Deactivated__ enum literal
@@ -246,34 +269,31 @@ package class Trace {
 	
 	def getXStsEnumLiteral(State lowlevelState) {
 		checkArgument(lowlevelState !== null)
-		val matches = StateTrace.Matcher.on(tracingEngine).getAllValuesOfxStsEnumLiteral(lowlevelState)
+		val matches = lowlevelState.getValues(traceabilityPackage.stateTrace_LowlevelState, traceabilityPackage.stateTrace_XStsEnumLiteral)
 		checkState(matches.size == 1, matches.size)
-		return matches.head
+		return matches.head as EnumerationLiteralDefinition
 	}
 	
 	def getLowlevelState(EnumerationLiteralDefinition xStsEnumLiteral) {
 		checkArgument(xStsEnumLiteral !== null)
-		val matches = StateTrace.Matcher.on(tracingEngine).getAllValuesOflowlevelState(xStsEnumLiteral)
+		val matches = xStsEnumLiteral.getValues(traceabilityPackage.stateTrace_XStsEnumLiteral, traceabilityPackage.stateTrace_LowlevelState)
 		checkState(matches.size == 1, matches.size)
-		return matches.head
+		return matches.head as State
 	}
 	
 	
 	def getXStsPrecondition(XTransition xStsTransition) {
 		checkArgument(xStsTransition !== null)
-		var matches = SimpleTransitionTrace.Matcher.on(tracingEngine).getAllValuesOfxStsPrecondition(null, xStsTransition)
-		if (matches.size < 1) {
-			matches = ChoiceTransitionTrace.Matcher.on(tracingEngine).getAllValuesOfxStsPrecondition(null, xStsTransition, null)
-		}
-		// No else
-		if (matches.size < 1) {
-			matches = MergeTransitionTrace.Matcher.on(tracingEngine).getAllValuesOfxStsPrecondition(null, xStsTransition, null)
-		}
-		if (matches.size < 1) {
-			matches = ForkTransitionTrace.Matcher.on(tracingEngine).getAllValuesOfxStsPrecondition(null, xStsTransition, null)
-		}
-		if (matches.size < 1) {
-			matches = JoinTransitionTrace.Matcher.on(tracingEngine).getAllValuesOfxStsPrecondition(null, xStsTransition, null)
+		val traces = xStsTransition.getMatchingTraces(traceabilityPackage.transitionTrace_XStsTransition)
+			.filter(TransitionTrace).toList
+		var Set<Expression> matches = emptySet
+		// Simple, choice, merge, fork and join transitions are checked in this order
+		for (traceClass : #[traceabilityPackage.simpleTransitionTrace, traceabilityPackage.choiceTransitionTrace,
+				traceabilityPackage.mergeTransitionTrace, traceabilityPackage.forkTransitionTrace,
+				traceabilityPackage.joinTransitionTrace]) {
+			if (matches.size < 1) {
+				matches = traces.filter[it.eClass == traceClass].map[it.XStsPrecondition].toSet
+			}
 		}
 		// TODO additional traces
 		checkState(matches.size == 1, matches.size)
@@ -293,21 +313,24 @@ package class Trace {
 	
 	def isTraced(Transition lowlevelSimpleTransition) {
 		checkArgument(lowlevelSimpleTransition !== null)
-		return SimpleTransitionTrace.Matcher.on(tracingEngine).hasMatch(lowlevelSimpleTransition, null, null)
+		return !lowlevelSimpleTransition.getValues(traceabilityPackage.simpleTransitionTrace_LowlevelTransition,
+			traceabilityPackage.transitionTrace_XStsTransition).empty
 	}
 	
 	def getXStsTransition(Transition lowlevelSimpleTransition) {
 		checkArgument(lowlevelSimpleTransition !== null)
-		val matches = SimpleTransitionTrace.Matcher.on(tracingEngine).getAllValuesOfxStsTransition(lowlevelSimpleTransition, null)
+		val matches = lowlevelSimpleTransition.getValues(traceabilityPackage.simpleTransitionTrace_LowlevelTransition,
+			traceabilityPackage.transitionTrace_XStsTransition)
 		checkState(matches.size == 1, matches.size)
-		return matches.head
+		return matches.head as XTransition
 	}
 	
 	def getLowlevelSimpleTransition(XTransition xStsTransition) {
 		checkArgument(xStsTransition !== null)
-		val matches = SimpleTransitionTrace.Matcher.on(tracingEngine).getAllValuesOflowlevelSimpleTransition(xStsTransition, null)
+		val matches = xStsTransition.getValues(traceabilityPackage.transitionTrace_XStsTransition,
+			traceabilityPackage.simpleTransitionTrace_LowlevelTransition)
 		checkState(matches.size == 1, matches.size)
-		return matches.head
+		return matches.head as Transition
 	}
 	
 	// Choice transition - xTransition
@@ -326,28 +349,32 @@ package class Trace {
 	
 	def isTraced(ChoiceState lowlevelChoiceState) {
 		checkArgument(lowlevelChoiceState !== null)
-		return ChoiceTransitionTrace.Matcher.on(tracingEngine).hasMatch(lowlevelChoiceState, null, null, null)
+		return !lowlevelChoiceState.getValues(traceabilityPackage.choiceTransitionTrace_LowlevelChoiceState,
+			traceabilityPackage.transitionTrace_XStsTransition).empty
 	}
 	
 	def getXStsTransition(ChoiceState lowlevelChoiceState) {
 		checkArgument(lowlevelChoiceState !== null)
-		val matches = ChoiceTransitionTrace.Matcher.on(tracingEngine).getAllValuesOfxStsTransition(lowlevelChoiceState, null, null)
+		val matches = lowlevelChoiceState.getValues(traceabilityPackage.choiceTransitionTrace_LowlevelChoiceState,
+			traceabilityPackage.transitionTrace_XStsTransition)
 		checkState(matches.size == 1, matches.size)
-		return matches.head
+		return matches.head as XTransition
 	}
 	
 	def getXStsChoiceAction(ChoiceState lowlevelChoiceState) {
 		checkArgument(lowlevelChoiceState !== null)
-		val matches = ChoiceTransitionTrace.Matcher.on(tracingEngine).getAllValuesOfxStsChoiceAction(lowlevelChoiceState, null, null)
+		val matches = lowlevelChoiceState.getValues(traceabilityPackage.choiceTransitionTrace_LowlevelChoiceState,
+			traceabilityPackage.choiceTransitionTrace_XStsChoiceAction)
 		checkState(matches.size == 1, matches.size)
-		return matches.head
+		return matches.head as NonDeterministicAction
 	}
 	
 	def getLowlevelChoiceState(XTransition xStsTransition) {
 		checkArgument(xStsTransition !== null)
-		val matches = ChoiceTransitionTrace.Matcher.on(tracingEngine).getAllValuesOflowlevelChoiceState(xStsTransition, null, null)
+		val matches = xStsTransition.getValues(traceabilityPackage.transitionTrace_XStsTransition,
+			traceabilityPackage.choiceTransitionTrace_LowlevelChoiceState)
 		checkState(matches.size == 1, matches.size)
-		return matches.head
+		return matches.head as ChoiceState
 	}
 	
 	// Merge transition - xTransition
@@ -366,28 +393,32 @@ package class Trace {
 	
 	def isTraced(MergeState lowlevelMergeState) {
 		checkArgument(lowlevelMergeState !== null)
-		return MergeTransitionTrace.Matcher.on(tracingEngine).hasMatch(lowlevelMergeState, null, null, null)
+		return !lowlevelMergeState.getValues(traceabilityPackage.mergeTransitionTrace_LowlevelMergeState,
+			traceabilityPackage.transitionTrace_XStsTransition).empty
 	}
 	
 	def getXStsTransition(MergeState lowlevelMergeState) {
 		checkArgument(lowlevelMergeState !== null)
-		val matches = MergeTransitionTrace.Matcher.on(tracingEngine).getAllValuesOfxStsTransition(lowlevelMergeState, null, null)
+		val matches = lowlevelMergeState.getValues(traceabilityPackage.mergeTransitionTrace_LowlevelMergeState,
+			traceabilityPackage.transitionTrace_XStsTransition)
 		checkState(matches.size == 1, matches.size)
-		return matches.head
+		return matches.head as XTransition
 	}
 	
 	def getXStsMergeAction(MergeState lowlevelMergeState) {
 		checkArgument(lowlevelMergeState !== null)
-		val matches = MergeTransitionTrace.Matcher.on(tracingEngine).getAllValuesOfxStsMergeAction(lowlevelMergeState, null, null)
+		val matches = lowlevelMergeState.getValues(traceabilityPackage.mergeTransitionTrace_LowlevelMergeState,
+			traceabilityPackage.mergeTransitionTrace_XStsMergeAction)
 		checkState(matches.size == 1, matches.size)
-		return matches.head
+		return matches.head as NonDeterministicAction
 	}
 	
 	def getLowlevelMergeState(XTransition xStsTransition) {
 		checkArgument(xStsTransition !== null)
-		val matches = MergeTransitionTrace.Matcher.on(tracingEngine).getAllValuesOflowlevelMergeState(xStsTransition, null, null)
+		val matches = xStsTransition.getValues(traceabilityPackage.transitionTrace_XStsTransition,
+			traceabilityPackage.mergeTransitionTrace_LowlevelMergeState)
 		checkState(matches.size == 1, matches.size)
-		return matches.head
+		return matches.head as MergeState
 	}
 	
 	// Fork transition - xTransition
@@ -406,28 +437,32 @@ package class Trace {
 	
 	def isTraced(ForkState lowlevelForkState) {
 		checkArgument(lowlevelForkState !== null)
-		return ForkTransitionTrace.Matcher.on(tracingEngine).hasMatch(lowlevelForkState, null, null, null)
+		return !lowlevelForkState.getValues(traceabilityPackage.forkTransitionTrace_LowlevelForkState,
+			traceabilityPackage.transitionTrace_XStsTransition).empty
 	}
 	
 	def getXStsTransition(ForkState lowlevelForkState) {
 		checkArgument(lowlevelForkState !== null)
-		val matches = ForkTransitionTrace.Matcher.on(tracingEngine).getAllValuesOfxStsTransition(lowlevelForkState, null, null)
+		val matches = lowlevelForkState.getValues(traceabilityPackage.forkTransitionTrace_LowlevelForkState,
+			traceabilityPackage.transitionTrace_XStsTransition)
 		checkState(matches.size == 1, matches.size)
-		return matches.head
+		return matches.head as XTransition
 	}
 	
 	def getXStsParallelAction(ForkState lowlevelForkState) {
 		checkArgument(lowlevelForkState !== null)
-		val matches = ForkTransitionTrace.Matcher.on(tracingEngine).getAllValuesOfxStsForkAction(lowlevelForkState, null, null)
+		val matches = lowlevelForkState.getValues(traceabilityPackage.forkTransitionTrace_LowlevelForkState,
+			traceabilityPackage.forkTransitionTrace_XStsParallelAction)
 		checkState(matches.size == 1, matches.size)
-		return matches.head
+		return matches.head as ParallelAction
 	}
 	
 	def getLowlevelForkState(XTransition xStsTransition) {
 		checkArgument(xStsTransition !== null)
-		val matches = ForkTransitionTrace.Matcher.on(tracingEngine).getAllValuesOflowlevelForkState(xStsTransition, null, null)
+		val matches = xStsTransition.getValues(traceabilityPackage.transitionTrace_XStsTransition,
+			traceabilityPackage.forkTransitionTrace_LowlevelForkState)
 		checkState(matches.size == 1, matches.size)
-		return matches.head
+		return matches.head as ForkState
 	}
 		
 	// Join transition - xTransition
@@ -446,28 +481,32 @@ package class Trace {
 	
 	def isTraced(JoinState lowlevelJoinState) {
 		checkArgument(lowlevelJoinState !== null)
-		return JoinTransitionTrace.Matcher.on(tracingEngine).hasMatch(lowlevelJoinState, null, null, null)
+		return !lowlevelJoinState.getValues(traceabilityPackage.joinTransitionTrace_LowlevelJoinState,
+			traceabilityPackage.transitionTrace_XStsTransition).empty
 	}
 	
 	def getXStsTransition(JoinState lowlevelJoinState) {
 		checkArgument(lowlevelJoinState !== null)
-		val matches = JoinTransitionTrace.Matcher.on(tracingEngine).getAllValuesOfxStsTransition(lowlevelJoinState, null, null)
+		val matches = lowlevelJoinState.getValues(traceabilityPackage.joinTransitionTrace_LowlevelJoinState,
+			traceabilityPackage.transitionTrace_XStsTransition)
 		checkState(matches.size == 1, matches.size)
-		return matches.head
+		return matches.head as XTransition
 	}
 	
 	def getXStsParallelAction(JoinState lowlevelJoinState) {
 		checkArgument(lowlevelJoinState !== null)
-		val matches = JoinTransitionTrace.Matcher.on(tracingEngine).getAllValuesOfxStsForkAction(lowlevelJoinState, null, null)
+		val matches = lowlevelJoinState.getValues(traceabilityPackage.joinTransitionTrace_LowlevelJoinState,
+			traceabilityPackage.joinTransitionTrace_XStsParallelAction)
 		checkState(matches.size == 1, matches.size)
-		return matches.head
+		return matches.head as ParallelAction
 	}
 	
 	def getLowlevelJoinState(XTransition xStsTransition) {
 		checkArgument(xStsTransition !== null)
-		val matches = JoinTransitionTrace.Matcher.on(tracingEngine).getAllValuesOflowlevelJoinState(xStsTransition, null, null)
+		val matches = xStsTransition.getValues(traceabilityPackage.transitionTrace_XStsTransition,
+			traceabilityPackage.joinTransitionTrace_LowlevelJoinState)
 		checkState(matches.size == 1, matches.size)
-		return matches.head
+		return matches.head as JoinState
 	}
 	
 	def getTrace() {
@@ -13,24 +13,22 @@ package hu.bme.mit.gamma.lowlevel.xsts.transformation.optimizer
 import hu.bme.mit.gamma.action.model.VariableDeclarationStatement
 import hu.bme.mit.gamma.expression.model.DirectReferenceExpression
 import hu.bme.mit.gamma.expression.model.ExpressionModelFactory
-import hu.bme.mit.gamma.expression.model.VariableDeclaration
 import hu.bme.mit.gamma.expression.util.ExpressionUtil
 import hu.bme.mit.gamma.util.GammaEcoreUtil
 import hu.bme.mit.gamma.xsts.model.Action
 import hu.bme.mit.gamma.xsts.model.AssignmentAction
 import hu.bme.mit.gamma.xsts.model.AssumeAction
-import hu.bme.mit.gamma.xsts.model.AtomicAction
 import hu.bme.mit.gamma.xsts.model.CompositeAction
 import hu.bme.mit.gamma.xsts.model.EmptyAction
 import hu.bme.mit.gamma.xsts.model.NonDeterministicAction
-import hu.bme.mit.gamma.xsts.model.OrthogonalAction
 import hu.bme.mit.gamma.xsts.model.ParallelAction
 import hu.bme.mit.gamma.xsts.model.SequentialAction
 import hu.bme.mit.gamma.xsts.model.XSTSModelFactory
-import java.util.Collection
 import java.util.List
-
-import static com.google.common.base.Preconditions.checkState
+import java.util.Map
+import java.util.TreeMap
+import java.util.logging.Level
+import java.util.logging.Logger
 
 import static extension hu.bme.mit.gamma.xsts.derivedfeatures.XstsDerivedFeatures.*
 
@@ -44,274 +42,228 @@ class ActionOptimizer {
 	// Model factories
 	protected final ExpressionModelFactory expressionFactory = ExpressionModelFactory.eINSTANCE
 	protected final extension XSTSModelFactory xStsFactory = XSTSModelFactory.eINSTANCE
+	// Number of rewrites per rule in the optimization running in the current thread
+	protected final ThreadLocal<Map<String, Integer>> rewriteCounts = ThreadLocal.withInitial[new TreeMap]
+	// Logger
+	protected final Logger logger = Logger.getLogger("GammaLogger")
 	
-	def optimize(Action action) {
-		var Action oldXStsAction
-		var Action newXStsAction = action
-		// Until the action cannot be optimized any more
-		while (!oldXStsAction.helperEquals(newXStsAction)) {
-			oldXStsAction = newXStsAction.clone
-			newXStsAction = newXStsAction
-				/* Cannot use "clone" as local variable actions contain variable declarations and
-				   cloning would break the references: they would be set to the "old" declaration */
-				.simplifyCompositeActions
-				.simplifySequentialActions
-				.simplifyParallelActions
-				.simplifyOrthogonalActions
-				.simplifyNonDeterministicActions
-			newXStsAction.optimizeAssignmentActions
-			newXStsAction.deleteTrivialNonDeterministicActions
-			newXStsAction = newXStsAction.optimizeParallelActions // Might be resource intensive
-			newXStsAction.deleteUnnecessaryAssumeActions // Not correct in other transformation implementations
-			newXStsAction.deleteDefinitelyFalseBranches
-		}
-		return newXStsAction
-	}
-	
-	// Composite actions
-	
-	// Deleting composite actions with less than two actions 
-	protected def dispatch Action simplifyCompositeActions(AtomicAction action) {
-		return action
+	/**
+	 * Optimizes the action, then logs the number of rewrites per rule.
+	 */
+	def Action optimize(Action action) {
+		val optimizedAction = action.optimizeAction(true)
+		logRewriteCounts
+		return optimizedAction
 	}
 	
-	protected def dispatch Action simplifyCompositeActions(CompositeAction action) {
-		var xStsActionList = newLinkedList
-		xStsActionList += action.actions
-		if (xStsActionList.size > 1) {
-			val remainingXStsActions = newLinkedList
-			// Sequence order must be reserved
-			xStsActionList.removeIf[it instanceof EmptyAction || 
-				it instanceof CompositeAction && (it as CompositeAction).actions.empty]
-			for (xStsSubaction : xStsActionList) {
-				remainingXStsActions += xStsSubaction.simplifyCompositeActions
+	/**
+	 * Optimizes the subactions first, then applies the rules to the action until none of them fires.
+	 * A rule reads only the subtree of the action and changes only its subaction list (or replaces
+	 * the action itself), so an already optimized subaction never has to be revisited.
+	 * The isTop flag specifies whether the given action is preserved (true) or flattened into its
+	 * parent sequential action (false). Nested sequential actions are flattened as a whole by their
+	 * top sequential action, like in the original fixpoint.
+	 */
+	protected def Action optimizeAction(Action action, boolean isTop) {
+		if (action instanceof CompositeAction) {
+			val xStsSubactions = action.actions
+			for (var i = 0; i < xStsSubactions.size; i++) {
+				val xStsSubaction = xStsSubactions.get(i)
+				val isSubactionTop = !(action instanceof SequentialAction && xStsSubaction instanceof SequentialAction)
+				val optimizedXStsSubaction = xStsSubaction.optimizeAction(isSubactionTop)
+				if (optimizedXStsSubaction !== xStsSubaction) {
+					xStsSubactions.set(i, optimizedXStsSubaction)
+				}
 			}
-			remainingXStsActions.removeIf[it instanceof EmptyAction] // Important
-			xStsActionList = remainingXStsActions
-			// Very important that we check the size of xStsActionList again
 		}
-		// No "else" here
-		if (xStsActionList.size == 1) {
-			val xStsSubaction = xStsActionList.head
-			val newXStsAction = xStsSubaction.simplifyCompositeActions
-			if (newXStsAction instanceof CompositeAction) {
-				checkState(newXStsAction.actions.size > 1 && !newXStsAction.actions.exists[it instanceof EmptyAction])
+		var xStsAction = action
+		var fired = true
+		while (fired) {
+			val newXStsAction = xStsAction.replaceAction(isTop)
+			fired = newXStsAction !== xStsAction
+			xStsAction = newXStsAction
+			if (xStsAction instanceof CompositeAction) {
+				fired = xStsAction.rewriteSubactions(isTop) || fired
 			}
-			return newXStsAction
-		}
-		else if (xStsActionList.empty) {
-			// Will be either removed in previous recursive call or single top action
-			return createEmptyAction
 		}
-		else {
-			// 1 < Size, even after clearing
-			checkState(xStsActionList.size > 1)
-			val newXStsCompositeAction = create(action.eClass) as CompositeAction
-			newXStsCompositeAction.actions += xStsActionList
-			checkState(newXStsCompositeAction.actions.size > 1 &&
-				!newXStsCompositeAction.actions.exists[it instanceof EmptyAction])
-			return newXStsCompositeAction
-		}
-	}
-	
-	// Sequential actions
-	
-	/**
-	 * Deletes sequential actions contained by other sequential actions (parent) and moves its children
-	 * one level higher.
-	 */
-	protected def simplifySequentialActions(Action action) {
-		val simplifiedXStsActions = action.simplifySequentialActions(true)
-		checkState(simplifiedXStsActions.size == 1) // A single top level element each time
-		return simplifiedXStsActions.head
+		return xStsAction
 	}
 	
-	protected def dispatch List<Action> simplifySequentialActions(AtomicAction action, boolean isTop) {
-		return #[action]
+	protected def void logRewriteCounts() {
+		val counts = rewriteCounts.get
+		if (!counts.empty) {
+			logger.log(Level.FINE, "Number of rewrites per rule in the action optimization: " + counts)
+		}
+		rewriteCounts.remove
 	}
 	
-	protected def dispatch List<Action> simplifySequentialActions(CompositeAction action, boolean isTop) {
-		val xStsSubactions = newArrayList
-		xStsSubactions += action.actions
-		val newXStsCompositeAction = create(action.eClass) as CompositeAction
-		for (xStsSubaction : xStsSubactions) {
-			newXStsCompositeAction.actions += xStsSubaction.simplifySequentialActions(true)
+	protected def boolean count(String rule, int rewriteCount) {
+		if (rewriteCount > 0) {
+			rewriteCounts.get.merge(rule, rewriteCount, [a, b | a + b])
+			return true
 		}
-		return #[newXStsCompositeAction]
+		return false
 	}
 	
-	/**
-	 * The isTop flag specifies whether the given action should be preserved (true) or deleted (false).
-	 */
-	protected def dispatch List<Action> simplifySequentialActions(SequentialAction action, boolean isTop) {
-		val xStsSubactions = newArrayList
-		xStsSubactions += action.actions
-		val newXStsActions = newLinkedList
-		// Additional checks - is a definitely false assumption there
-		if (xStsSubactions.filter(AssumeAction).exists[it.assumption.definitelyFalseExpression]) {
-			// This action cannot be executed
-			if (isTop) {
-				return #[createSequentialAction => [it.actions += createEmptyAction]]
+	// Replacement of the action
+	
+	protected def Action replaceAction(Action action, boolean isTop) {
+		if (action instanceof CompositeAction) {
+			val xStsSubactions = action.actions
+			// Deleting composite actions with less than two actions
+			if (xStsSubactions.empty) {
+				"simplifyCompositeActions".count(1)
+				return createEmptyAction
 			}
-			return newXStsActions
-		}
-		// The assumptions can be true
-		for (xStsSubaction : xStsSubactions) {
-			if (xStsSubaction instanceof SequentialAction) {
-				// Subactions of a SequentialAction
-				for (xStsSequentialSubaction : xStsSubaction.actions) {
-					newXStsActions += xStsSequentialSubaction.simplifySequentialActions(false)
+			if (xStsSubactions.size == 1) {
+				"simplifyCompositeActions".count(1)
+				return xStsSubactions.head
+			}
+			if (action instanceof SequentialAction) {
+				// Additional checks - is a definitely false assumption there
+				// A nested sequential action is checked when it is flattened, see liftSequentialActions
+				if (isTop && xStsSubactions.filter(AssumeAction).exists[it.assumption.definitelyFalseExpression]) {
+					// This action cannot be executed: it is deleted from its container
+					"simplifySequentialActions".count(1)
+					return createEmptyAction
 				}
 			}
-			else {
-				newXStsActions += xStsSubaction.simplifySequentialActions(true)
+			else if (action instanceof ParallelAction) {
+				// Now all parallel actions are optimized to sequential actions
+				"optimizeParallelActions".count(1)
+				val copiedXStsSubactions = newArrayList
+				copiedXStsSubactions += xStsSubactions
+				return createSequentialAction => [
+					it.actions += copiedXStsSubactions
+				]
 			}
 		}
-		// Top call, this sequential action must be preserved
-		if (isTop) {
-			return #[createSequentialAction => [it.actions += newXStsActions]]
-		}
-		// Not top call, this sequential action must be deleted 
-		return newXStsActions
-	}
-	
-	// Parallel actions
-	
-	/**
-	 * Deletes parallel actions contained by other parallel actions (parent) and moves its children
-	 * one level higher.
-	 */
-	protected def simplifyParallelActions(Action action) {
-		val simplifiedXStsActions = action.simplifyParallelActions(true)
-		checkState(simplifiedXStsActions.size == 1) // A single top level element each time
-		return simplifiedXStsActions.head
+		return action
 	}
 	
-	protected def dispatch List<Action> simplifyParallelActions(AtomicAction action, boolean isTop) {
-		return #[action]
-	}
+	// Rewriting of subactions
 	
-	protected def dispatch List<Action> simplifyParallelActions(CompositeAction action, boolean isTop) {
-		val xStsSubactions = newArrayList
-		xStsSubactions += action.actions
-		val newXStsCompositeAction = create(action.eClass) as CompositeAction
-		for (xStsSubaction : xStsSubactions) {
-			newXStsCompositeAction.actions += xStsSubaction.simplifyParallelActions(true)
+	protected def boolean rewriteSubactions(CompositeAction action, boolean isTop) {
+		if (action instanceof SequentialAction && !isTop) {
+			// Nested sequential actions are flattened by their top sequential action
+			val fired = action.deleteEmptySubactions
+			return action.deleteTrivialNonDeterministicActions || fired
+		}
+		var fired = if (action instanceof SequentialAction) {
+			action.flattenSequentialSubactions
+		} else {
+			action.flattenSubactions
+		}
+		fired = action.deleteEmptySubactions || fired
+		fired = action.deleteTrivialNonDeterministicActions || fired
+		if (action instanceof SequentialAction) {
+			fired = action.deleteUnnecessaryAssumeActions || fired
+			fired = action.optimizeAssignmentActions || fired
 		}
-		return #[newXStsCompositeAction]
+		else if (action instanceof NonDeterministicAction) {
+			fired = action.deleteSameBranches || fired
+		}
+		return fired
 	}
 	
 	/**
-	 * The isTop flag specifies whether the given action should be preserved (true) or deleted (false).
+	 * Deletes sequential actions contained by the given sequential action and moves their children
+	 * to the given action, except for the nested sequential actions that cannot be executed.
 	 */
-	protected def dispatch List<Action> simplifyParallelActions(ParallelAction action, boolean isTop) {
-		val xStsSubactions = newArrayList
-		xStsSubactions += action.actions
-		val newXStsActions = newLinkedList
-		for (xStsSubaction : xStsSubactions) {
-			if (xStsSubaction instanceof ParallelAction) {
-				// Subactions of a ParallelAction
-				for (xStsParallelSubaction : xStsSubaction.actions) {
-					newXStsActions += xStsParallelSubaction.simplifyParallelActions(false)
+	protected def boolean flattenSequentialSubactions(SequentialAction action) {
+		val xStsSubactions = action.actions
+		var flattenCount = 0
+		var i = 0
+		while (i < xStsSubactions.size) {
+			val xStsSubaction = xStsSubactions.get(i)
+			if (xStsSubaction instanceof SequentialAction) {
+				val xStsGrandchildActions = <Action>newArrayList
+				for (xStsGrandchildAction : newArrayList(xStsSubaction.actions)) {
+					xStsGrandchildActions += xStsGrandchildAction.liftSequentialActions
 				}
+				xStsSubactions.remove(i)
+				xStsSubactions.addAll(i, xStsGrandchildActions)
+				i += xStsGrandchildActions.size
+				flattenCount++
 			}
 			else {
-				newXStsActions += xStsSubaction.simplifyParallelActions(true)
+				i++
 			}
 		}
-		// Top call, this parallel action must be preserved
-		if (isTop) {
-			return #[createParallelAction => [it.actions += newXStsActions]]
-		}
-		// Not top call, this parallel action must be deleted 
-		return newXStsActions
+		return "simplifySequentialActions".count(flattenCount)
 	}
 	
-	// Orthogonal actions
-	
 	/**
-	 * Deletes orthogonal actions contained by other orthogonal actions (parent) and moves its children
-	 * one level higher.
+	 * Returns the actions replacing the given grandchild of a sequential action: a sequential action
+	 * with a definitely false assumption is deleted, the children of its sequential subactions are
+	 * moved one level higher, like in the non-top calls of the original fixpoint.
 	 */
-	protected def simplifyOrthogonalActions(Action action) {
-		val simplifiedXStsActions = action.simplifyOrthogonalActions(true)
-		checkState(simplifiedXStsActions.size == 1) // A single top level element each time
-		return simplifiedXStsActions.head
-	}
-	
-	protected def dispatch List<Action> simplifyOrthogonalActions(AtomicAction action, boolean isTop) {
-		return #[action]
-	}
-	
-	protected def dispatch List<Action> simplifyOrthogonalActions(CompositeAction action, boolean isTop) {
-		val xStsSubactions = newArrayList
-		xStsSubactions += action.actions
-		val newXStsCompositeAction = create(action.eClass) as CompositeAction
-		for (xStsSubaction : xStsSubactions) {
-			newXStsCompositeAction.actions += xStsSubaction.simplifyOrthogonalActions(true)
+	protected def List<Action> liftSequentialActions(Action action) {
+		if (action instanceof SequentialAction) {
+			val xStsSubactions = newArrayList(action.actions)
+			// Additional checks - is a definitely false assumption there
+			if (xStsSubactions.filter(AssumeAction).exists[it.assumption.definitelyFalseExpression]) {
+				// This action cannot be executed: it is deleted
+				"simplifySequentialActions".count(1)
+				return #[]
+			}
+			val xStsActions = <Action>newArrayList
+			for (xStsSubaction : xStsSubactions) {
+				if (xStsSubaction instanceof SequentialAction) {
+					for (xStsSequentialSubaction : newArrayList(xStsSubaction.actions)) {
+						xStsActions += xStsSequentialSubaction.liftSequentialActions
+					}
+				}
+				else {
+					xStsActions += xStsSubaction
+				}
+			}
+			return xStsActions
 		}
-		return #[newXStsCompositeAction]
+		return #[action]
 	}
 	
 	/**
-	 * The isTop flag specifies whether the given action should be preserved (true) or deleted (false).
+	 * Deletes parallel, orthogonal and nondeterministic actions contained by actions of the same
+	 * type (parent) and moves their children one level higher.
 	 */
-	protected def dispatch List<Action> simplifyOrthogonalActions(OrthogonalAction action, boolean isTop) {
-		val xStsSubactions = newArrayList
-		xStsSubactions += action.actions
-		val newXStsActions = newLinkedList
-		for (xStsSubaction : xStsSubactions) {
-			if (xStsSubaction instanceof OrthogonalAction) {
-				// Subactions of a OrthogonalAction
-				for (xStsOrthogonalSubaction : xStsSubaction.actions) {
-					newXStsActions += xStsOrthogonalSubaction.simplifyOrthogonalActions(false)
-				}
+	protected def boolean flattenSubactions(CompositeAction action) {
+		val xStsSubactions = action.actions
+		var flattenCount = 0
+		var i = 0
+		while (i < xStsSubactions.size) {
+			val xStsSubaction = xStsSubactions.get(i)
+			if (xStsSubaction.eClass == action.eClass) {
+				val xStsGrandchildActions = newArrayList
+				xStsGrandchildActions += (xStsSubaction as CompositeAction).actions
+				xStsSubactions.remove(i)
+				xStsSubactions.addAll(i, xStsGrandchildActions)
+				i += xStsGrandchildActions.size
+				flattenCount++
 			}
 			else {
-				newXStsActions += xStsSubaction.simplifyOrthogonalActions(true)
+				i++
 			}
 		}
-		// Top call, this orthogonal action must be preserved
-		if (isTop) {
-			return #[createOrthogonalAction => [it.actions += newXStsActions]]
-		}
-		// Not top call, this orthogonal action must be deleted 
-		return newXStsActions
-	}
-	
-	// NonDeterministic actions
-	
-	/**
-	 * Deletes nondeterministic actions contained by other nondeterministic actions (parent) and moves its children
-	 * one level higher.
-	 */
-	protected def simplifyNonDeterministicActions(Action action) {
-		val simplifiedXStsActions = action.simplifyNonDeterministicActions(true)
-		checkState(simplifiedXStsActions.size == 1) // A single top level element each time
-		return simplifiedXStsActions.head
-	}
-	
-	protected def dispatch List<Action> simplifyNonDeterministicActions(AtomicAction action, boolean isTop) {
-		return #[action]
+		// E.g., simplifySequentialActions
+		return ("simplify" + action.eClass.name + "s").count(flattenCount)
 	}
 	
-	protected def dispatch List<Action> simplifyNonDeterministicActions(CompositeAction action, boolean isTop) {
-		val xStsSubactions = newArrayList
-		xStsSubactions += action.actions
-		val newXStsCompositeAction = create(action.eClass) as CompositeAction
-		for (xStsSubaction : xStsSubactions) {
-			newXStsCompositeAction.actions += xStsSubaction.simplifyNonDeterministicActions(true)
+	protected def boolean deleteEmptySubactions(CompositeAction action) {
+		val xStsSubactions = action.actions
+		if (xStsSubactions.size <= 1) {
+			return false
 		}
-		return #[newXStsCompositeAction]
+		val emptyXStsSubactions = xStsSubactions.filter[it instanceof EmptyAction || 
+			it instanceof CompositeAction && (it as CompositeAction).actions.empty].toList
+		xStsSubactions -= emptyXStsSubactions
+		return "simplifyCompositeActions".count(emptyXStsSubactions.size)
 	}
 	
-	/**
-	 * The isTop flag specifies whether the given action should be preserved (true) or deleted (false).
-	 */
-	protected def dispatch List<Action> simplifyNonDeterministicActions(NonDeterministicAction action, boolean isTop) {
+	// Nondeterministic actions
+	
+	protected def boolean deleteSameBranches(NonDeterministicAction action) {
 		val actions = action.actions
-		val newXStsActions = newLinkedList
-		// Removing same branches
 		val coveredXStsActions = newArrayList
 		for (var i = 0; i < actions.size - 1; i++) {
 			val lhs = actions.get(i)
@@ -322,99 +274,55 @@ class ActionOptimizer {
 				}
 			}
 		}
-		for (xStsSubaction : actions.reject[coveredXStsActions.contains(it)]) {
-			if (xStsSubaction instanceof NonDeterministicAction) {
-				// Subactions of a NonDeterministicAction
-				for (xStsNonDeterministicSubaction : xStsSubaction.actions) {
-					newXStsActions += xStsNonDeterministicSubaction.simplifyNonDeterministicActions(false)
-				}
-			}
-			else {
-				newXStsActions += xStsSubaction.simplifyNonDeterministicActions(true)
-			}
-		}
-		// Top call, this non deterministic action must be preserved
-		if (isTop) {
-			return #[createNonDeterministicAction => [it.actions += newXStsActions]]
-		}
-		// Not top call, this nondeterministic action must be deleted 
-		return newXStsActions
-	}	
-	
-	// Transforming parallel actions to sequential actions when possible
-	
-	protected def dispatch Action optimizeParallelActions(ParallelAction action) {
-		val xStsSubactions = newArrayList
-		xStsSubactions += action.actions
-		// Now all parallel actions are optimized to sequential actions
-		if (true || action.isOptimizableToSequentialAction) {
-			return createSequentialAction => [
-				for (xStsSubaction : xStsSubactions) {
-					it.actions += xStsSubaction.optimizeParallelActions
-				}
-			]
-		}
-		// This particular parallel action cannot be optimized
-		return createParallelAction => [
-			for (xStsSubaction : xStsSubactions) {
-				it.actions += xStsSubaction.optimizeParallelActions
-			}
-		]
+		actions -= coveredXStsActions
+		return "simplifyNonDeterministicActions".count(coveredXStsActions.size)
 	}
 	
-	protected def dispatch Action optimizeParallelActions(CompositeAction action) {
-		val xStsSubactions = newArrayList
-		xStsSubactions += action.actions
-		return create(action.eClass) as CompositeAction => [
-			for (xStsSubaction : xStsSubactions) {
-				it.actions += xStsSubaction.optimizeParallelActions
-			}
-		]
+	protected def boolean deleteTrivialNonDeterministicActions(CompositeAction action) {
+		val trivialXStsActions = action.actions.filter(NonDeterministicAction)
+			.filter[it.unnecessaryNonDeterministicAction].toList
+		action.actions -= trivialXStsActions
+		return "deleteTrivialNonDeterministicActions".count(trivialXStsActions.size)
 	}
 	
-	protected def dispatch Action optimizeParallelActions(AtomicAction action) {
-		return action
-	}
-	
-	protected def boolean isOptimizableToSequentialAction(ParallelAction action) {
-		val List<Collection<VariableDeclaration>> readVariables = newLinkedList
-		val List<Collection<VariableDeclaration>> writtenVariables = newLinkedList
-		for (var i = 0; i < action.actions.size; i++) {
-			val xStsSubaction = action.actions.get(i)
-			val newlyWrittenVariables = xStsSubaction.writtenVariables
-			writtenVariables += newlyWrittenVariables
-			val newlyReadVariables = newHashSet
-			newlyReadVariables += xStsSubaction.readVariables
-			newlyReadVariables -= newlyWrittenVariables
-			readVariables += newlyReadVariables
-			for (var j = 0; j < i; j++) {
-				val previouslyReadVariables = readVariables.get(j)
-				val previouslyWrittenVariables = writtenVariables.get(j)
-				// If a written variable is read or written somewhere, the parallel action cannot be optimized
-				if (previouslyReadVariables.exists[newlyWrittenVariables.contains(it)] ||
-						previouslyWrittenVariables.exists[newlyWrittenVariables.contains(it)] ||
-						previouslyWrittenVariables.exists[newlyReadVariables.contains(it)]) {
-					return false
+	protected def isUnnecessaryNonDeterministicAction(NonDeterministicAction action) {
+		val xStsNonDeterministicSubactions = action.actions
+		if (xStsNonDeterministicSubactions.forall[it instanceof AssumeAction]) {
+			/* This way assertions inside non deterministic actions cannot be used. This is needed
+				to delete the remaining nondet actions of not existing state entry and exit action:
+				choice { assume (normal == Yellow); } or { assume (normal == Red); }
+				Needed for optimization only, the program would work correctly functionally without this. */
+			return true
+			// choice { assume (expression); } { assume (!expression); } formulations are also covered by this.
+		}
+		// choice { assume (a = b); a := b; } { assume (!(a = b)); }
+		else if (xStsNonDeterministicSubactions.size == 2 &&
+				xStsNonDeterministicSubactions.filter(SequentialAction).size == 1 && 
+				xStsNonDeterministicSubactions.filter(AssumeAction).size == 1) {
+			val xStsSequentialAction = xStsNonDeterministicSubactions.filter(SequentialAction).head
+			val xStsRhsAssumeAction = xStsNonDeterministicSubactions.filter(AssumeAction).head
+			val xStsRhsAssumption = xStsRhsAssumeAction.assumption
+			val xStsSequentialSubactions = xStsSequentialAction.actions
+			if (xStsSequentialSubactions.size == 2 &&
+					xStsSequentialSubactions.filter(AssumeAction).size == 1 &&
+					xStsSequentialSubactions.filter(AssignmentAction).size == 1) {
+				val xStsLhsAssumeAction = xStsSequentialSubactions.filter(AssumeAction).head
+				val xStsLhsAssumption = xStsLhsAssumeAction.assumption
+				val xStsAssignmentAction = xStsSequentialSubactions.filter(AssignmentAction).head
+				if (isCertainEvent(xStsLhsAssumption, xStsRhsAssumption)) {
+					return xStsLhsAssumeAction.isTrivialAssignment(xStsAssignmentAction)
 				}
 			}
 		}
-		return true
+		return false
 	}
 	
 	// Assignment actions
 	
-	protected def dispatch void optimizeAssignmentActions(Action action) {
-		// No op
-	}
-	
-	protected def dispatch void optimizeAssignmentActions(CompositeAction action) {
-		// Recursion
-		for (xStsAction : action.actions) {
-			xStsAction.optimizeAssignmentActions
-		}
-	}
-	
-	protected def dispatch void optimizeAssignmentActions(SequentialAction action) {
+	/**
+	 * Deletes the assignments that are overwritten later in the sequential action without being read.
+	 */
+	protected def boolean optimizeAssignmentActions(SequentialAction action) {
 		val xStsActions = action.actions
 		val removeableXStsActions = <AssignmentAction>newLinkedList
 		for (var i = 0; i < xStsActions.size; i++) {
@@ -444,20 +352,15 @@ class ActionOptimizer {
 		}
 		// Removing unnecessary assignments
 		xStsActions -= removeableXStsActions
-		// Recursion
-		for (xStsAction : action.actions.filter(CompositeAction)) {
-			xStsAction.optimizeAssignmentActions
-		}
+		return "optimizeAssignmentActions".count(removeableXStsActions.size)
 	}
 	
 	// Assume actions
 	
-	protected def void deleteUnnecessaryAssumeActions(Action action) {
-		for (assumeAction : action.getAllContentsOfType(AssumeAction)) {
-			if (assumeAction.isUnnecessary) {
-				assumeAction.delete
-			}
-		}
+	protected def boolean deleteUnnecessaryAssumeActions(SequentialAction action) {
+		val unnecessaryXStsActions = action.actions.filter(AssumeAction).filter[it.isUnnecessary].toList
+		action.actions -= unnecessaryXStsActions
+		return "deleteUnnecessaryAssumeActions".count(unnecessaryXStsActions.size)
 	}
 	
 	/**
@@ -475,89 +378,4 @@ class ActionOptimizer {
 		return false
 	}
 	
-	// Non deterministic actions
-	
-	protected def dispatch void deleteTrivialNonDeterministicActions(Action action) {
-		// No op
-	}
-	
-	protected def dispatch void deleteTrivialNonDeterministicActions(CompositeAction action) {
-		val copiedXStsActions = newLinkedList
-		copiedXStsActions += action.actions
-		for (copiedXStsAction : copiedXStsActions) {
-			if (copiedXStsAction instanceof NonDeterministicAction) {
-				if (copiedXStsAction.unnecessaryNonDeterministicAction) {
-					 action.actions -= copiedXStsAction
-				}
-			}
-		}
-		// Recursion
-		for (xStsAction : action.actions.filter(CompositeAction)) {
-			xStsAction.deleteTrivialNonDeterministicActions
-		}
-	}
-	
-	protected def isUnnecessaryNonDeterministicAction(NonDeterministicAction action) {
-		val xStsNonDeterministicSubactions = action.actions
-		if (xStsNonDeterministicSubactions.forall[it instanceof AssumeAction]) {
-			/* This way assertions inside non deterministic actions cannot be used. This is needed
-				to delete the remaining nondet actions of not existing state entry and exit action:
-				choice { assume (normal == Yellow); } or { assume (normal == Red); }
-				Needed for optimization only, the program would work correctly functionally without this. */
-			return true
-			// choice { assume (expression); } { assume (!expression); } formulations are also covered by this.
-		}
-		// choice { assume (a = b); a := b; } { assume (!(a = b)); }
-		else if (xStsNonDeterministicSubactions.size == 2 &&
-				xStsNonDeterministicSubactions.filter(SequentialAction).size == 1 && 
-				xStsNonDeterministicSubactions.filter(AssumeAction).size == 1) {
-			val xStsSequentialAction = xStsNonDeterministicSubactions.filter(SequentialAction).head
-			val xStsRhsAssumeAction = xStsNonDeterministicSubactions.filter(AssumeAction).head
-			val xStsRhsAssumption = xStsRhsAssumeAction.assumption
-			val xStsSequentialSubactions = xStsSequentialAction.actions
-			if (xStsSequentialSubactions.size == 2 &&
-					xStsSequentialSubactions.filter(AssumeAction).size == 1 &&
-					xStsSequentialSubactions.filter(AssignmentAction).size == 1) {
-				val xStsLhsAssumeAction = xStsSequentialSubactions.filter(AssumeAction).head
-				val xStsLhsAssumption = xStsLhsAssumeAction.assumption
-				val xStsAssignmentAction = xStsSequentialSubactions.filter(AssignmentAction).head
-				if (isCertainEvent(xStsLhsAssumption, xStsRhsAssumption)) {
-					return xStsLhsAssumeAction.isTrivialAssignment(xStsAssignmentAction)
-				}
-			}
-		}
-		return false
-	}
-	
-	// Deletion of false branches
-	
-	protected def dispatch void deleteDefinitelyFalseBranches(Action action) {
-		// No op
-	}
-	
-	protected def dispatch void deleteDefinitelyFalseBranches(CompositeAction action) {
-		for (xStsAction : action.actions) {
-			xStsAction.deleteDefinitelyFalseBranches
-		}
-	}
-	
-	protected def dispatch void deleteDefinitelyFalseBranches(NonDeterministicAction action) {
-		val xStsSubactions = newArrayList
-		xStsSubactions += action.actions
-		for (branch : xStsSubactions) {
-			val firstAction = branch.firstAtomicAction
-			if (firstAction instanceof AssumeAction) {
-				if (firstAction.isDefinitelyFalseAssumeAction) {
-					val falseAssume = createAssumeAction => [
-						it.assumption = expressionFactory.createFalseExpression
-					]
-					branch.replace(falseAssume)
-				}
-				else {
-					branch.deleteDefinitelyFalseBranches
-				}
-			}
-		}
-	}
-	
 }
\ No newline at end of file
@@ -10,6 +10,8 @@
  ********************************************************************************/
 package hu.bme.mit.gamma.statechart.lowlevel.transformation.commandhandler;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 import java.io.File;
 import java.util.Map.Entry;
 import java.util.logging.Level;
@@ -34,14 +36,20 @@ import hu.bme.mit.gamma.lowlevel.xsts.transformation.actionprimer.ActionPrimer;
 import hu.bme.mit.gamma.lowlevel.xsts.transformation.actionprimer.ChoiceInliner;
 import hu.bme.mit.gamma.lowlevel.xsts.transformation.actionprimer.VariableCommonizer;
 import hu.bme.mit.gamma.lowlevel.xsts.transformation.traceability.L2STrace;
+import hu.bme.mit.gamma.statechart.composite.AbstractSynchronousCompositeComponent;
+import hu.bme.mit.gamma.statechart.derivedfeatures.StatechartModelDerivedFeatures;
+import hu.bme.mit.gamma.statechart.interface_.Component;
 import hu.bme.mit.gamma.statechart.interface_.Package;
 import hu.bme.mit.gamma.statechart.lowlevel.transformation.GammaToLowlevelTransformer;
 import hu.bme.mit.gamma.statechart.statechart.StatechartDefinition;
+import hu.bme.mit.gamma.transformation.util.AnalysisModelPreprocessor;
 import hu.bme.mit.gamma.util.GammaEcoreUtil;
 import hu.bme.mit.gamma.xsts.codegeneration.java.CommonizedVariableActionSerializer;
+import hu.bme.mit.gamma.xsts.codegeneration.java.CompositeToJavaCodeGenerator;
 import hu.bme.mit.gamma.xsts.codegeneration.java.InlinedChoiceActionSerializer;
 import hu.bme.mit.gamma.xsts.codegeneration.java.StatechartToJavaCodeGenerator;
 import hu.bme.mit.gamma.xsts.model.XSTS;
+import hu.bme.mit.gamma.xsts.transformation.GammaToXstsTransformer;
 import hu.bme.mit.gamma.xsts.transformation.serializer.ActionSerializer;
 
 public class CommandHandler extends AbstractHandler {
@@ -82,6 +90,14 @@ public class CommandHandler extends AbstractHandler {
 	}
 
 	public void run(StatechartDefinition gammaStatechart, String modelFolderUri, String targetFolderUri, String basePackageName) {
+		run(gammaStatechart, modelFolderUri, targetFolderUri, basePackageName, false);
+	}
+	
+	/**
+	 * If bitsetStates is true, the state configuration of the generated wrapper is stored as a bitset.
+	 */
+	public void run(StatechartDefinition gammaStatechart, String modelFolderUri, String targetFolderUri,
+			String basePackageName, boolean bitsetStates) {
 		String fileNameWithoutExtenstion = gammaStatechart.getName();
 		Package gammaPackage = (Package) gammaStatechart.eContainer();
 		GammaToLowlevelTransformer transformer = new GammaToLowlevelTransformer();
@@ -128,7 +144,33 @@ public class CommandHandler extends AbstractHandler {
 		System.out.println(xStsString);
 		logger.log(Level.INFO, "Starting xSTS Java code generation.");
 		StatechartToJavaCodeGenerator codeGenerator = new StatechartToJavaCodeGenerator(
-			targetFolderUri, basePackageName, gammaStatechart, xSts, javaActionSerializer);
+			targetFolderUri, basePackageName, gammaStatechart, xSts, javaActionSerializer, bitsetStates);
+		codeGenerator.execute();
+		logger.log(Level.INFO, "The xSTS transformation has been finished.");
+	}
+	
+	/**
+	 * Generates a single flat statemachine class from the merged XSTS of the given synchronous composite
+	 * component, wrapped by a class with the interface of the class generated by the glue code generator.
+	 */
+	public void run(AbstractSynchronousCompositeComponent gammaComposite, String modelFolderUri,
+			String targetFolderUri, String basePackageName) {
+		checkArgument(gammaComposite.getParameterDeclarations().isEmpty(),
+			"Flat code generation is not supported for composite components with parameters: " + gammaComposite.getName());
+		String fileNameWithoutExtenstion = gammaComposite.getName();
+		Package gammaPackage = StatechartModelDerivedFeatures.getContainingPackage(gammaComposite);
+		logger.log(Level.INFO, "Starting Gamma - xSTS transformation of " + fileNameWithoutExtenstion + ".");
+		// Unfolding the composite, the instances of the unfolded composite are referenced by the XSTS variable names
+		Component unfoldedComposite = AnalysisModelPreprocessor.INSTANCE.preprocess(gammaPackage,
+			modelFolderUri, fileNameWithoutExtenstion);
+		// Orthogonal actions are transformed, as the Java action serializer does not support them
+		GammaToXstsTransformer gammaToXstsTransformer = new GammaToXstsTransformer(null, true, true);
+		XSTS xSts = gammaToXstsTransformer.execute(StatechartModelDerivedFeatures.getContainingPackage(unfoldedComposite));
+		ecoreUtil.normalSave(xSts, modelFolderUri, fileNameWithoutExtenstion + ".gsts");
+		logger.log(Level.INFO, "The Gamma - xSTS transformation has been finished.");
+		logger.log(Level.INFO, "Starting xSTS Java code generation.");
+		CompositeToJavaCodeGenerator codeGenerator = new CompositeToJavaCodeGenerator(targetFolderUri,
+			basePackageName, gammaComposite, unfoldedComposite, xSts, new CommonizedVariableActionSerializer());
 		codeGenerator.execute();
 		logger.log(Level.INFO, "The xSTS transformation has been finished.");
 	}
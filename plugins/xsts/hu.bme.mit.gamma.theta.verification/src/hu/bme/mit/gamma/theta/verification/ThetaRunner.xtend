@@ -0,0 +1,349 @@
+/********************************************************************************
+ * Copyright (c) 2018-2021 Contributors to the Gamma project
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ ********************************************************************************/
+package hu.bme.mit.gamma.theta.verification
+
+import hu.bme.mit.gamma.util.FileUtil
+import java.io.BufferedReader
+import java.io.BufferedWriter
+import java.io.File
+import java.io.IOException
+import java.io.InputStreamReader
+import java.io.OutputStreamWriter
+import java.nio.file.Files
+import java.util.List
+import java.util.Map
+import java.util.concurrent.Executors
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.TimeUnit
+import java.util.logging.Level
+import java.util.logging.Logger
+import java.util.regex.Pattern
+import java.util.stream.Collectors
+
+import static com.google.common.base.Preconditions.checkArgument
+
+/**
+ * A long-lived child JVM that executes the main class of the Theta jar for each received
+ * argument list, so the JVM startup, class loading and JIT warm-up are paid only once.
+ * Only these are amortized: the CLI of Theta has no entry point to reuse a loaded model, so
+ * the model is parsed again for every query.
+ * Protocol: a single line of tab-separated arguments on the standard input of the runner,
+ * the output of Theta followed by the END line on its standard output.
+ * Theta does not react to interruptions, so an execution cannot be cancelled without terminating
+ * the JVM. Instead, a cancelled (e.g., lost racing) execution is abandoned: it runs to completion,
+ * its output is discarded and the runner is reused afterwards. The pool terminates the runners
+ * whose abandoned execution takes too long.
+ * The runner is launched from its source file, which requires the source-file mode of Java 11 or later;
+ * with an earlier java command, the pool provides no runners.
+ */
+class ThetaRunner {
+
+	protected static final String RUNNER_CLASS_NAME = "GammaThetaRunner"
+	protected static final String END = "#END_OF_GAMMA_THETA_RUN#"
+	protected static final String ARGUMENT_SEPARATOR = "\t"
+	protected static final Pattern VERSION_PATTERN = Pattern.compile("version \"(\\d+)(?:\\.(\\d+))?")
+
+	protected static File runnerSourceFile // Shared by every runner
+	protected static Boolean sourceLauncherSupported // Checked once
+
+	protected final String jar
+	protected final Process process
+	protected final BufferedReader reader
+	protected final BufferedWriter writer
+	// The time of abandoning the actual execution or 0 if it is not abandoned
+	protected volatile long abandonTime = 0
+
+	protected final Logger logger = Logger.getLogger("GammaLogger")
+
+	new(String jar) {
+		this.jar = jar
+		val command = #["java", "-cp", jar, runnerSource.canonicalPath, jar]
+		logger.log(Level.INFO, "Starting persistent Theta runner: " + command.join(" "))
+		this.process = new ProcessBuilder(command)
+			.redirectErrorStream(true) // Errors are also processed as Theta output
+			.start
+		this.reader = new BufferedReader(new InputStreamReader(process.inputStream))
+		this.writer = new BufferedWriter(new OutputStreamWriter(process.outputStream))
+	}
+
+	/**
+	 * Executes Theta with the given arguments and returns the last line of its output (the result).
+	 */
+	def String execute(List<String> arguments, boolean log) {
+		checkArgument(arguments.forall[!it.contains(ARGUMENT_SEPARATOR)], "Arguments cannot contain tabs")
+		arguments.join(ARGUMENT_SEPARATOR).writeLine
+		var lastLine = ""
+		var line = reader.readLine
+		// A null line means the runner has terminated (disposed or Theta exited the JVM)
+		while (line !== null && line != END) {
+			if (log) {
+				logger.log(Level.INFO, line)
+			}
+			lastLine = line
+			line = reader.readLine
+		}
+		return lastLine
+	}
+
+	/**
+	 * Marks the running execution as abandoned; it is not interrupted, but its output has to be discarded.
+	 */
+	def void abandon() {
+		abandonTime = System.currentTimeMillis
+	}
+
+	def isAbandoned() {
+		return abandonTime > 0
+	}
+
+	def getAbandonTime() {
+		return abandonTime
+	}
+
+	protected def void writeLine(String line) {
+		writer.write(line)
+		writer.newLine
+		writer.flush
+	}
+
+	def getJar() {
+		return jar
+	}
+
+	def getProcess() {
+		return process
+	}
+
+	def isAlive() {
+		return process.alive
+	}
+
+	def void dispose() {
+		process.destroy
+	}
+
+	/**
+	 * Returns whether the java command supports launching single-file source-code programs (Java 11+).
+	 */
+	static synchronized def boolean isSourceLauncherSupported() {
+		if (sourceLauncherSupported === null) {
+			sourceLauncherSupported = javaMajorVersion >= 11
+		}
+		return sourceLauncherSupported
+	}
+
+	protected static def int getJavaMajorVersion() {
+		try {
+			// E.g., java version "1.8.0_281" or openjdk version "11.0.2" 2019-01-15
+			val process = new ProcessBuilder(#["java", "-version"])
+				.redirectErrorStream(true)
+				.start
+			val reader = new BufferedReader(new InputStreamReader(process.inputStream))
+			try {
+				val matcher = VERSION_PATTERN.matcher(reader.lines.collect(Collectors.joining("\n")))
+				process.waitFor
+				if (!matcher.find) {
+					return -1
+				}
+				val major = Integer.parseInt(matcher.group(1))
+				if (major == 1 && matcher.group(2) !== null) {
+					return Integer.parseInt(matcher.group(2)) // Java 8 and earlier
+				}
+				return major
+			} finally {
+				reader.close
+			}
+		} catch (IOException e) {
+			return -1
+		}
+	}
+
+	protected static synchronized def getRunnerSource() {
+		if (runnerSourceFile === null || !runnerSourceFile.exists) {
+			// Launched in single-file source-code mode, so no compiled class has to be located
+			val folder = Files.createTempDirectory("gamma-theta").toFile
+			folder.deleteOnExit
+			val file = new File(folder + File.separator + RUNNER_CLASS_NAME + ".java")
+			FileUtil.INSTANCE.saveString(file, runnerCode)
+			file.deleteOnExit
+			runnerSourceFile = file
+		}
+		return runnerSourceFile
+	}
+
+	protected static def getRunnerCode() '''
+		import java.io.BufferedReader;
+		import java.io.InputStreamReader;
+		import java.lang.reflect.InvocationTargetException;
+		import java.lang.reflect.Method;
+		import java.util.jar.Attributes;
+		import java.util.jar.JarFile;
+
+		public class «RUNNER_CLASS_NAME» {
+
+			public static void main(String[] args) throws Exception {
+				String mainClassName;
+				try (JarFile jarFile = new JarFile(args[0])) {
+					mainClassName = jarFile.getManifest().getMainAttributes().getValue(Attributes.Name.MAIN_CLASS);
+				}
+				Method main = Class.forName(mainClassName).getMethod("main", String[].class);
+				BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
+				String line;
+				// The runner terminates if its input is closed
+				while ((line = reader.readLine()) != null) {
+					execute(main, line.split("\t"));
+				}
+			}
+
+			private static void execute(Method main, String[] arguments) {
+				try {
+					main.invoke(null, (Object) arguments);
+				} catch (InvocationTargetException e) {
+					e.getCause().printStackTrace(System.out);
+				} catch (IllegalAccessException e) {
+					e.printStackTrace(System.out);
+				}
+				System.out.println("«END»");
+				System.out.flush();
+			}
+
+		}
+	'''
+
+}
+
+class ThetaRunnerPool {
+	// Singleton
+	public static final ThetaRunnerPool INSTANCE = new ThetaRunnerPool
+	protected new() {
+		Runtime.runtime.addShutdownHook(new Thread[dispose])
+		evictor.scheduleWithFixedDelay([closeExpiredRunners], EVICTION_PERIOD, EVICTION_PERIOD, TimeUnit.MILLISECONDS)
+	}
+	//
+
+	protected static final long EVICTION_PERIOD = 10000 // ms
+
+	// Maximum number of (idle and busy) runners
+	protected int maxRunnerCount = Runtime.runtime.availableProcessors
+	// Idle runners are closed after this time
+	protected long maxIdleTime = 60000 // ms
+	// Busy runners are closed if their abandoned execution has not finished in this time
+	protected long maxAbandonedTime = 60000 // ms
+
+	// Idle runners with the time of their release, the least recently released first
+	protected final Map<ThetaRunner, Long> idleRunners = newLinkedHashMap
+	protected final List<ThetaRunner> busyRunners = newLinkedList
+	protected boolean sourceLauncherWarningLogged = false
+
+	protected final Logger logger = Logger.getLogger("GammaLogger")
+
+	protected final ScheduledExecutorService evictor = Executors.newSingleThreadScheduledExecutor[ runnable |
+		val thread = new Thread(runnable, "Theta runner evictor")
+		thread.daemon = true
+		return thread
+	]
+
+	/**
+	 * Returns an idle runner for the given jar or starts a new one if there is none.
+	 * Runners used by parallel verifiers are different. Returns null if the maximum number
+	 * of runners are busy or the runners cannot be launched by the java command, in which case
+	 * Theta has to be executed in a separate process.
+	 */
+	def synchronized ThetaRunner acquire(String jar) {
+		if (!ThetaRunner.isSourceLauncherSupported) {
+			if (!sourceLauncherWarningLogged) {
+				logger.log(Level.WARNING, "The java command does not support single-file source-code programs " +
+					"(Java 11+ is required), so Theta is executed in a separate process for every query")
+				sourceLauncherWarningLogged = true
+			}
+			return null
+		}
+		idleRunners.keySet.removeIf[!it.alive]
+		var runner = idleRunners.keySet.findFirst[it.jar == jar]
+		if (runner === null) {
+			if (idleRunners.size + busyRunners.size >= maxRunnerCount) {
+				// Making room by closing the least recently used idle runner (of another jar)
+				val idleRunner = idleRunners.keySet.head
+				if (idleRunner === null) {
+					return null
+				}
+				idleRunners.remove(idleRunner)
+				idleRunner.dispose
+			}
+			runner = new ThetaRunner(jar)
+		}
+		else {
+			idleRunners.remove(runner)
+		}
+		busyRunners += runner
+		return runner
+	}
+
+	def synchronized void release(ThetaRunner runner) {
+		busyRunners -= runner
+		runner.abandonTime = 0
+		if (runner.alive) {
+			idleRunners.put(runner, System.currentTimeMillis)
+		}
+	}
+
+	/**
+	 * Closes the runners that have been idle for longer than the maximum idle time and the ones
+	 * whose abandoned execution has been running for longer than the maximum abandoned time.
+	 */
+	def synchronized void closeExpiredRunners() {
+		val now = System.currentTimeMillis
+		val expiredRunners = idleRunners.entrySet.filter[now - it.value >= maxIdleTime].map[it.key].toList
+		for (runner : expiredRunners) {
+			idleRunners.remove(runner)
+			runner.dispose
+		}
+		// The verifier of the execution releases the terminated runner
+		for (runner : busyRunners.filter[it.abandoned && now - it.abandonTime >= maxAbandonedTime]) {
+			logger.log(Level.INFO, "Closing Theta runner with a long abandoned execution")
+			runner.dispose
+		}
+	}
+
+	/**
+	 * Closes every idle runner, e.g., at the end of a verification session. Busy runners are not affected.
+	 */
+	def synchronized void closeIdleRunners() {
+		for (runner : idleRunners.keySet) {
+			runner.dispose
+		}
+		idleRunners.clear
+	}
+
+	def synchronized void setMaxRunnerCount(int maxRunnerCount) {
+		checkArgument(maxRunnerCount >= 0, "The maximum number of runners cannot be negative: " + maxRunnerCount)
+		this.maxRunnerCount = maxRunnerCount
+	}
+
+	def synchronized void setMaxIdleTime(long maxIdleTime) {
+		checkArgument(maxIdleTime >= 0, "The maximum idle time cannot be negative: " + maxIdleTime)
+		this.maxIdleTime = maxIdleTime
+	}
+
+	def synchronized void setMaxAbandonedTime(long maxAbandonedTime) {
+		checkArgument(maxAbandonedTime >= 0, "The maximum abandoned time cannot be negative: " + maxAbandonedTime)
+		this.maxAbandonedTime = maxAbandonedTime
+	}
+
+	def synchronized void dispose() {
+		for (runner : idleRunners.keySet + busyRunners) {
+			runner.dispose
+		}
+		idleRunners.clear
+		busyRunners.clear
+	}
+
+}
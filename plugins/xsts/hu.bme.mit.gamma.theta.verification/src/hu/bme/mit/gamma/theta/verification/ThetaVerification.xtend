@@ -24,20 +24,36 @@ class ThetaVerification extends AbstractVerification {
 	protected new() {}
 	//
 	
-	override Result execute(File modelFile, File queryFile) {
-		this.execute(modelFile, queryFile, #[
-			"",
-			"--domain EXPL --refinement SEQ_ITP --maxenum 250"
-		])
-		// --domain PRED_CART --refinement SEQ_ITP // default
-		// --domain EXPL --refinement SEQ_ITP --maxenum 250
+	protected static final Collection<String> PARAMETERS = #[
+		"",
+		"--domain EXPL --refinement SEQ_ITP --maxenum 250"
+	]
+	// --domain PRED_CART --refinement SEQ_ITP // default
+	// --domain EXPL --refinement SEQ_ITP --maxenum 250
+	
+	override Result execute(File modelFile, File queryFile, String workerId) {
+		this.execute(modelFile, queryFile, workerId, PARAMETERS)
 	}
 	
-	def Result execute(File modelFile, File queryFile,
-			Collection<String> parameters) {
+	override getTraceabilityFile(File modelFile) {
 		val fileName = modelFile.name
 		val packageFileName = fileName.unfoldedPackageFileName
-		val gammaPackage = ecoreUtil.normalLoad(modelFile.parent, packageFileName)
+		return new File(modelFile.parent + File.separator + packageFileName)
+	}
+	
+	override getBackendDescriptor() {
+		// The racing configurations can return different (but valid) traces
+		return new ThetaVerifier().toolVersion + " " + PARAMETERS.join(";")
+	}
+	
+	def Result execute(File modelFile, File queryFile,
+			Collection<String> parameters) {
+		return execute(modelFile, queryFile, "", parameters)
+	}
+	
+	def Result execute(File modelFile, File queryFile, String workerId,
+			Collection<String> parameters) {
+		val gammaPackage = ecoreUtil.normalLoad(modelFile.traceabilityFile)
 		val queries = fileUtil.loadString(queryFile)
 		
 //		ThetaVerifier verifier = new ThetaVerifier()
@@ -47,6 +63,8 @@ class ThetaVerification extends AbstractVerification {
 		val callables = <InterruptableCallable<Result>>newArrayList
 		for (parameter : parameters) {
 			val verifier = new ThetaVerifier
+			// The racing verifiers must not share temporary query and cex files either
+			verifier.workerId = workerId + "_" + callables.size
 			callables += new InterruptableCallable<Result> {
 				override Result call() {
 					logger.log(Level.INFO, '''Starting Theta on thread «Thread.currentThread.name» with "«parameter»"''')
@@ -22,14 +22,29 @@ import static com.google.common.base.Preconditions.checkState
 
 class ThetaVerifier extends AbstractVerifier {
 	
-	protected final extension ThetaQueryAdapter thetaQueryAdapter = ThetaQueryAdapter.INSTANCE
+	// Not shared, as the adapter stores the inversion of the actual query
+	protected final extension ThetaQueryAdapter thetaQueryAdapter = new ThetaQueryAdapter
 	protected final extension ThetaValidator thetaValidator = ThetaValidator.INSTANCE
+	protected final ThetaRunnerPool runnerPool = ThetaRunnerPool.INSTANCE
 	
 	final String ENVIRONMENT_VARIABLE_FOR_THETA_JAR = "THETA_XSTS_CLI_PATH"
 	
 	final String SAFE = "SafetyResult Safe"
 	final String UNSAFE = "SafetyResult Unsafe"
 	
+	// Persistent runners spare the JVM startup for every query
+	protected final boolean usePersistentRunner
+	// The runner executing the actual query, guarded by this verifier
+	protected ThetaRunner activeRunner
+	
+	new() {
+		this(true)
+	}
+	
+	new(boolean usePersistentRunner) {
+		this.usePersistentRunner = usePersistentRunner
+	}
+	
 	override Result verifyQuery(Object traceability, String parameters, File modelFile,
 			String query, boolean log, boolean storeOutput) {
 		var Result result = null
@@ -67,18 +82,49 @@ class ThetaVerifier extends AbstractVerifier {
 			// java -jar %THETA_XSTS_CLI_PATH% --model trafficlight.xsts --property red_green.prop
 			val traceFile = new File(modelFile.traceFile)
 			traceFile.delete // So no invalid/old cex is parsed if this actual process does not generate one 
-			val command = '''java -jar «jar.escapePath» «parameters» --model «modelFile.canonicalPath.escapePath» --property «queryFile.canonicalPath.escapePath» --cex «traceFile.canonicalPath.escapePath» --stacktrace'''
-			// Executing the command
-			logger.log(Level.INFO, "Executing command: " + command)
-			process = Runtime.getRuntime().exec(command)
-			val outputStream = process.inputStream
-			resultReader = new Scanner(outputStream)
 			var line = ""
-			while (resultReader.hasNext) {
-				// (SafetyResult Safe) or (SafetyResult Unsafe)
-				line = resultReader.nextLine
-				if (log) {
-					logger.log(Level.INFO, line)
+			// Null if every runner is busy
+			val runner = if (usePersistentRunner) runnerPool.acquire(jar) else null
+			if (runner !== null) {
+				val arguments = <String>newArrayList
+				arguments += parameters.split("\\s+").reject[it.empty]
+				arguments += #["--model", modelFile.canonicalPath, "--property", queryFile.canonicalPath,
+					"--cex", traceFile.canonicalPath, "--stacktrace"]
+				try {
+					synchronized (this) {
+						activeRunner = runner // So the verification can be cancelled without killing the runner
+					}
+					logger.log(Level.INFO, "Executing Theta with arguments: " + arguments.join(" "))
+					if (isCancelled) {
+						runner.abandon // Cancelled before the runner became active
+					}
+					// (SafetyResult Safe) or (SafetyResult Unsafe)
+					line = runner.execute(arguments, log)
+				} finally {
+					// A later cancel must not reach the runner that is reused by other verifiers
+					synchronized (this) {
+						activeRunner = null
+					}
+					runnerPool.release(runner)
+				}
+				if (isCancelled) {
+					// The abandoned execution has finished, its output is discarded
+					return new Result(ThreeStateBoolean.UNDEF, null)
+				}
+			}
+			else {
+				val command = '''java -jar «jar.escapePath» «parameters» --model «modelFile.canonicalPath.escapePath» --property «queryFile.canonicalPath.escapePath» --cex «traceFile.canonicalPath.escapePath» --stacktrace'''
+				// Executing the command
+				logger.log(Level.INFO, "Executing command: " + command)
+				process = Runtime.getRuntime().exec(command)
+				val outputStream = process.inputStream
+				resultReader = new Scanner(outputStream)
+				while (resultReader.hasNext) {
+					// (SafetyResult Safe) or (SafetyResult Unsafe)
+					line = resultReader.nextLine
+					if (log) {
+						logger.log(Level.INFO, line)
+					}
 				}
 			}
 			// Variable 'line' contains the last line of the output - the result
@@ -113,20 +159,39 @@ class ThetaVerifier extends AbstractVerifier {
 		}
 	}
 	
+	/**
+	 * Abandons the query of a persistent runner instead of terminating it: the runner finishes the query
+	 * (e.g., of a lost racing configuration) in the background and can be reused afterwards.
+	 */
+	override cancel() {
+		synchronized (this) {
+			activeRunner?.abandon
+		}
+		super.cancel // The process is null while a persistent runner executes the query
+	}
+	
+	override getToolVersion() {
+		val jar = System.getenv(ENVIRONMENT_VARIABLE_FOR_THETA_JAR)
+		if (jar === null) {
+			return "Theta"
+		}
+		// Hashing the jar itself would be too expensive
+		val jarFile = new File(jar)
+		return '''Theta «jarFile.canonicalPath» «jarFile.length» «jarFile.lastModified»'''
+	}
+	
 	override getTemporaryQueryFilename(File modelFile) {
-		return "." + modelFile.extensionlessName + ".prop"
+		return "." + modelFile.extensionlessName + workerId + ".prop"
 	}
 	
 	def getTraceFile(File modelFile) {
-		return modelFile.parent + File.separator + modelFile.extensionlessName + ".cex";
+		return modelFile.parent + File.separator + modelFile.extensionlessName + workerId + ".cex";
 	}
 	
 }
 
 class ThetaQueryAdapter {
-	public static ThetaQueryAdapter INSTANCE = new ThetaQueryAdapter
-	private new() {}
-	// Singleton
+	// Not a singleton: every verifier has its own adapter
 	final String EF = "E<>"
 	final String AG = "A[]"
 	
@@ -12,6 +12,7 @@ package hu.bme.mit.gamma.theta.verification
 
 import hu.bme.mit.gamma.expression.model.Expression
 import hu.bme.mit.gamma.expression.model.ParameterDeclaration
+import hu.bme.mit.gamma.querygenerator.BackAnnotationSymbolTable
 import hu.bme.mit.gamma.querygenerator.ThetaQueryGenerator
 import hu.bme.mit.gamma.statechart.interface_.Component
 import hu.bme.mit.gamma.statechart.interface_.Event
@@ -46,6 +47,7 @@ class TraceBackAnnotator {
 	
 	protected final Scanner traceScanner
 	protected final ThetaQueryGenerator thetaQueryGenerator
+	protected final BackAnnotationSymbolTable symbolTable
 	
 	protected final Package gammaPackage
 	protected final Component component
@@ -67,6 +69,7 @@ class TraceBackAnnotator {
 		this.gammaPackage = gammaPackage
 		this.component = gammaPackage.components.head
 		this.thetaQueryGenerator = new ThetaQueryGenerator(gammaPackage)
+		this.symbolTable = thetaQueryGenerator.symbolTable
 		this.traceScanner = traceScanner
 		this.sortTrace = sortTrace
 		val schedulingConstraintAnnotation = gammaPackage.annotations
@@ -162,19 +165,19 @@ class TraceBackAnnotator {
 				switch (state) {
 					case STATE_CHECK: {
 						val potentialStateString = '''«id» == «value»'''
-						if (thetaQueryGenerator.isSourceState(potentialStateString)) {
-							val instanceState = thetaQueryGenerator.getSourceState(potentialStateString)
+						if (symbolTable.isSourceState(potentialStateString)) {
+							val instanceState = symbolTable.getSourceState(potentialStateString)
 							val controlState = instanceState.key
 							val instance = instanceState.value
 							step.addInstanceState(instance, controlState)
 							activatedStates += controlState
 						}
-						else if (thetaQueryGenerator.isSourceVariable(id)) {
-							val instanceVariable = thetaQueryGenerator.getSourceVariable(id)
+						else if (symbolTable.isSourceVariable(id)) {
+							val instanceVariable = symbolTable.getSourceVariable(id)
 							step.addInstanceVariableState(instanceVariable.value, instanceVariable.key, value)
 						}
-						else if (thetaQueryGenerator.isSourceOutEvent(id)) {
-							val systemOutEvent = thetaQueryGenerator.getSourceOutEvent(id)
+						else if (symbolTable.isSourceOutEvent(id)) {
+							val systemOutEvent = symbolTable.getSourceOutEvent(id)
 							if (value.equals("true")) {
 								val event = systemOutEvent.get(0) as Event
 								val port = systemOutEvent.get(1) as Port
@@ -184,8 +187,8 @@ class TraceBackAnnotator {
 								raisedOutEvents += new Pair(systemPort, event)
 							}
 						}
-						else if (thetaQueryGenerator.isSourceOutEventParamater(id)) {
-							val systemOutEvent = thetaQueryGenerator.getSourceOutEventParamater(id)
+						else if (symbolTable.isSourceOutEventParamater(id)) {
+							val systemOutEvent = symbolTable.getSourceOutEventParamater(id)
 							val event = systemOutEvent.get(0) as Event
 							val port = systemOutEvent.get(1) as Port
 							val systemPort = port.connectedTopComponentPort // Back-tracking to the system port
@@ -195,8 +198,8 @@ class TraceBackAnnotator {
 					}
 					case ENVIRONMENT_CHECK: {
 						// TODO delays
-						if (thetaQueryGenerator.isSourceInEvent(id)) {
-							val systemInEvent = thetaQueryGenerator.getSourceInEvent(id)
+						if (symbolTable.isSourceInEvent(id)) {
+							val systemInEvent = symbolTable.getSourceInEvent(id)
 							if (value.equals("true")) {
 								val event = systemInEvent.get(0) as Event
 								val port = systemInEvent.get(1) as Port
@@ -206,8 +209,8 @@ class TraceBackAnnotator {
 								raisedInEvents += new Pair(systemPort, event)
 							}
 						}
-						else if (thetaQueryGenerator.isSourceInEventParamater(id)) {
-							val systemInEvent = thetaQueryGenerator.getSourceInEventParamater(id)
+						else if (symbolTable.isSourceInEventParamater(id)) {
+							val systemInEvent = symbolTable.getSourceInEventParamater(id)
 							val event = systemInEvent.get(0) as Event
 							val port = systemInEvent.get(1) as Port
 							val systemPort = port.connectedTopComponentPort // Back-tracking to the system port
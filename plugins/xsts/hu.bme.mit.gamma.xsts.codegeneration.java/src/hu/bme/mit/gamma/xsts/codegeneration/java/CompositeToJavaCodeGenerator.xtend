@@ -0,0 +1,184 @@
+/********************************************************************************
+ * Copyright (c) 2018-2021 Contributors to the Gamma project
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ ********************************************************************************/
+package hu.bme.mit.gamma.xsts.codegeneration.java
+
+import hu.bme.mit.gamma.codegenerator.java.util.EventCodeGenerator
+import hu.bme.mit.gamma.codegenerator.java.util.InterfaceCodeGenerator
+import hu.bme.mit.gamma.codegenerator.java.util.TimerCallbackInterfaceGenerator
+import hu.bme.mit.gamma.codegenerator.java.util.TimerInterfaceGenerator
+import hu.bme.mit.gamma.codegenerator.java.util.TimerServiceCodeGenerator
+import hu.bme.mit.gamma.codegenerator.java.util.TypeDeclarationGenerator
+import hu.bme.mit.gamma.codegenerator.java.util.VirtualTimerServiceCodeGenerator
+import hu.bme.mit.gamma.statechart.composite.AbstractSynchronousCompositeComponent
+import hu.bme.mit.gamma.statechart.interface_.Component
+import hu.bme.mit.gamma.util.FileUtil
+import hu.bme.mit.gamma.xsts.model.XSTS
+import java.io.File
+
+import static extension hu.bme.mit.gamma.codegenerator.java.util.Namings.*
+
+/**
+ * Generates a single flat statemachine class from the merged XSTS of a synchronous composite component,
+ * wrapped by a class that has the same interface as the class generated by the glue code generator.
+ */
+class CompositeToJavaCodeGenerator {
+
+	final String BASE_PACKAGE_NAME
+	final String INTERFACE_PACKAGE_NAME
+	final String COMPOSITE_PACKAGE_NAME
+
+	final String BASE_FOLDER_URI
+	final String INTERFACE_FOLDER_URI
+	final String COMPOSITE_FOLDER_URI
+
+	final EventCodeGenerator eventCodeGenerator
+	final TimerInterfaceGenerator timerInterfaceGenerator
+	final TimerCallbackInterfaceGenerator timerCallbackInterfaceGenerator
+	final TimerServiceCodeGenerator timerServiceCodeGenerator
+	final VirtualTimerServiceCodeGenerator virtualTimerServiceCodeGenerator
+	final TypeDeclarationGenerator typeDeclarationSerializer
+	final InterfaceCodeGenerator interfaceGenerator
+	final StatechartInterfaceCodeGenerator compositeInterfaceGenerator
+	final CompositeWrapperCodeGenerator compositeWrapperCodeGenerator
+	final StatechartCodeGenerator statechartCodeGenerator
+
+	final AbstractSynchronousCompositeComponent gammaComposite
+	final XSTS xSts
+
+	// Auxiliary objects
+	protected final extension FileUtil fileUtil = FileUtil.INSTANCE
+
+	/**
+	 * The XSTS must have been transformed from the unfolded version of the given composite component.
+	 */
+	new(String targetFolderUri, String basePackageName, AbstractSynchronousCompositeComponent gammaComposite,
+			Component unfoldedComposite, XSTS xSts, ActionSerializer actionSerializer) {
+		this.BASE_PACKAGE_NAME = basePackageName
+		this.BASE_FOLDER_URI = targetFolderUri + "/" + BASE_PACKAGE_NAME.replaceAll("\\.", "/")
+		this.INTERFACE_PACKAGE_NAME = BASE_PACKAGE_NAME.interfacePackageString
+		this.INTERFACE_FOLDER_URI = targetFolderUri + "/" + INTERFACE_PACKAGE_NAME.replaceAll("\\.", "/")
+		this.COMPOSITE_PACKAGE_NAME = gammaComposite.getPackageString(BASE_PACKAGE_NAME)
+		this.COMPOSITE_FOLDER_URI = targetFolderUri + "/" + COMPOSITE_PACKAGE_NAME.replaceAll("\\.", "/")
+		// Classes
+		this.eventCodeGenerator = new EventCodeGenerator(BASE_PACKAGE_NAME)
+		this.typeDeclarationSerializer = new TypeDeclarationGenerator(BASE_PACKAGE_NAME)
+		this.timerInterfaceGenerator = new TimerInterfaceGenerator(BASE_PACKAGE_NAME)
+		this.timerCallbackInterfaceGenerator = new TimerCallbackInterfaceGenerator(BASE_PACKAGE_NAME)
+		this.timerServiceCodeGenerator = new TimerServiceCodeGenerator(BASE_PACKAGE_NAME)
+		this.virtualTimerServiceCodeGenerator = new VirtualTimerServiceCodeGenerator(BASE_PACKAGE_NAME)
+		this.interfaceGenerator = new InterfaceCodeGenerator(BASE_PACKAGE_NAME)
+		this.compositeInterfaceGenerator = new StatechartInterfaceCodeGenerator(INTERFACE_PACKAGE_NAME,
+			COMPOSITE_PACKAGE_NAME, gammaComposite)
+		this.compositeWrapperCodeGenerator = new CompositeWrapperCodeGenerator(BASE_PACKAGE_NAME,
+			INTERFACE_PACKAGE_NAME, COMPOSITE_PACKAGE_NAME, gammaComposite, unfoldedComposite, xSts)
+		this.statechartCodeGenerator = new StatechartCodeGenerator(BASE_PACKAGE_NAME, COMPOSITE_PACKAGE_NAME,
+			gammaComposite.wrappedStatemachineClassName, xSts, actionSerializer)
+		this.gammaComposite = gammaComposite
+		this.xSts = xSts
+	}
+
+	def execute() {
+		generateEventClass
+		generateTimerInterface
+		generateTimerCallbackInterface
+		generateTimerServiceClass
+		generateVirtualTimerServiceClass
+		generateTypeDeclarations
+		generateInterfaces
+		generateCompositeWrapperInterface
+		generateCompositeWrapperClass
+		generateStatechartClass
+	}
+
+	def generateEventClass() {
+		val componentUri = BASE_FOLDER_URI + File.separator + eventCodeGenerator.className + ".java"
+		val code = eventCodeGenerator.createEventClass
+		code.saveCode(componentUri)
+	}
+
+	def generateTimerInterface() {
+		val componentUri = BASE_FOLDER_URI + File.separator + timerInterfaceGenerator.yakinduInterfaceName + ".java"
+		val code = timerInterfaceGenerator.createITimerInterfaceCode
+		code.saveCode(componentUri)
+		val gammaComponentUri = BASE_FOLDER_URI + File.separator + timerInterfaceGenerator.gammaInterfaceName + ".java"
+		val gammaCode = timerInterfaceGenerator.createGammaTimerInterfaceCode
+		gammaCode.saveCode(gammaComponentUri)
+		val unifiedTimerInterfaceUri = BASE_FOLDER_URI + File.separator + timerInterfaceGenerator.unifiedInterfaceName + ".java"
+		val unifiedTimerInterfaceCode = timerInterfaceGenerator.createUnifiedTimerInterfaceCode
+		unifiedTimerInterfaceCode.saveCode(unifiedTimerInterfaceUri)
+	}
+
+	def generateTimerCallbackInterface() {
+		val componentUri = BASE_FOLDER_URI + File.separator + timerCallbackInterfaceGenerator.interfaceName + ".java"
+		val code = timerCallbackInterfaceGenerator.createITimerCallbackInterfaceCode
+		code.saveCode(componentUri)
+	}
+
+	def generateTimerServiceClass() {
+		val componentUri = BASE_FOLDER_URI + File.separator + timerServiceCodeGenerator.yakinduClassName + ".java"
+		val code = timerServiceCodeGenerator.createTimerServiceClassCode
+		code.saveCode(componentUri)
+		val gammaComponentUri = BASE_FOLDER_URI + File.separator + timerServiceCodeGenerator.gammaClassName + ".java"
+		val gammaCode = timerServiceCodeGenerator.createGammaTimerClassCode
+		gammaCode.saveCode(gammaComponentUri)
+		val unifiedTimerClassUri = BASE_FOLDER_URI + File.separator + timerServiceCodeGenerator.unifiedClassName + ".java"
+		val unifiedTimerClassCode = timerServiceCodeGenerator.createUnifiedTimerClassCode
+		unifiedTimerClassCode.saveCode(unifiedTimerClassUri)
+	}
+
+	def generateVirtualTimerServiceClass() {
+		val componentUri = BASE_FOLDER_URI + File.separator + virtualTimerServiceCodeGenerator.className + ".java"
+		val code = virtualTimerServiceCodeGenerator.createVirtualTimerClassCode
+		code.saveCode(componentUri)
+	}
+
+	def generateTypeDeclarations() {
+		for (typeDeclaration : xSts.publicTypeDeclarations) {
+			val componentUri = BASE_FOLDER_URI + File.separator + typeDeclaration.name + ".java"
+			val code = typeDeclarationSerializer.generateTypeDeclarationCode(typeDeclaration)
+			code.saveCode(componentUri)
+		}
+	}
+
+	def generateInterfaces() {
+		for (interface : gammaComposite.ports.map[it.interfaceRealization.interface].toSet) {
+			val componentUri = INTERFACE_FOLDER_URI + File.separator + interface.implementationName + ".java"
+			val code = interfaceGenerator.createInterface(interface)
+			code.saveCode(componentUri)
+		}
+	}
+
+	def generateCompositeWrapperInterface() {
+		val componentUri = COMPOSITE_FOLDER_URI + File.separator + compositeInterfaceGenerator.interfaceName + ".java"
+		val code = compositeInterfaceGenerator.createStatechartWrapperInterface
+		code.saveCode(componentUri)
+	}
+
+	def generateCompositeWrapperClass() {
+		val componentUri = COMPOSITE_FOLDER_URI + File.separator + compositeWrapperCodeGenerator.className + ".java"
+		val code = compositeWrapperCodeGenerator.createCompositeWrapperClass
+		code.saveCode(componentUri)
+	}
+
+	def generateStatechartClass() {
+		val componentUri = COMPOSITE_FOLDER_URI + File.separator + statechartCodeGenerator.className + ".java"
+		val code = statechartCodeGenerator.createStatechartClass
+		code.saveCode(componentUri)
+	}
+
+	/**
+	 * Creates a Java class from the the given code at the location specified by the given URI.
+	 */
+	protected def void saveCode(CharSequence code, String uri) {
+		uri.saveString(code.toString)
+	}
+
+}
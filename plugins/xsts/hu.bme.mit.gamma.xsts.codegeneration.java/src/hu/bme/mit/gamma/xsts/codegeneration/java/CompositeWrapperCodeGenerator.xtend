@@ -0,0 +1,253 @@
+/********************************************************************************
+ * Copyright (c) 2018-2021 Contributors to the Gamma project
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ ********************************************************************************/
+package hu.bme.mit.gamma.xsts.codegeneration.java
+
+import hu.bme.mit.gamma.codegenerator.java.util.TypeSerializer
+import hu.bme.mit.gamma.expression.model.ParameterDeclaration
+import hu.bme.mit.gamma.statechart.interface_.Component
+import hu.bme.mit.gamma.statechart.interface_.Event
+import hu.bme.mit.gamma.statechart.interface_.EventDirection
+import hu.bme.mit.gamma.statechart.interface_.Port
+import hu.bme.mit.gamma.xsts.model.XSTS
+
+import static extension hu.bme.mit.gamma.codegenerator.java.util.Namings.*
+import static extension hu.bme.mit.gamma.expression.derivedfeatures.ExpressionModelDerivedFeatures.*
+import static extension hu.bme.mit.gamma.statechart.derivedfeatures.StatechartModelDerivedFeatures.*
+import static extension hu.bme.mit.gamma.xsts.transformation.util.Namings.*
+
+/**
+ * Generates the port facade of the flat statemachine class of a synchronous composite component.
+ * The ports write and read the event variables of the merged XSTS directly, so there are no
+ * component instance objects, event queues or listeners between the component instances.
+ */
+class CompositeWrapperCodeGenerator {
+
+	final String BASE_PACKAGE_NAME
+	final String INTERFACE_PACKAGE_NAME
+	final String COMPOSITE_PACKAGE_NAME
+	final String CLASS_NAME
+
+	final Component gammaComposite
+	// The unfolded composite the XSTS has been transformed from: its ports are connected to statechart ports
+	final Component unfoldedComposite
+	final XSTS xSts
+
+	final extension TypeSerializer typeSerializer = TypeSerializer.INSTANCE
+	final extension ExpressionSerializer expressionSerializer = ExpressionSerializer.INSTANCE
+	final extension VariableDiagnoser variableDiagnoser = VariableDiagnoser.INSTANCE
+	final extension PortDiagnoser portDiagnoser = PortDiagnoser.INSTANCE
+
+	new(String basePackageName, String interfacePackageName, String compositePackageName,
+			Component gammaComposite, Component unfoldedComposite, XSTS xSts) {
+		this.BASE_PACKAGE_NAME = basePackageName
+		this.INTERFACE_PACKAGE_NAME = interfacePackageName
+		this.COMPOSITE_PACKAGE_NAME = compositePackageName
+		this.CLASS_NAME = gammaComposite.componentClassName
+		this.gammaComposite = gammaComposite
+		this.unfoldedComposite = unfoldedComposite
+		this.xSts = xSts
+	}
+
+	protected def createCompositeWrapperClass() '''
+		package «COMPOSITE_PACKAGE_NAME»;
+
+		import java.util.List;
+		import java.util.LinkedList;
+		import «BASE_PACKAGE_NAME».*;
+		import «BASE_PACKAGE_NAME».«GAMMA_TIMER_INTERFACE».*;
+		import «INTERFACE_PACKAGE_NAME».*;
+
+		public class «CLASS_NAME» implements «CLASS_NAME»Interface {
+			// Port instances
+			«FOR port : gammaComposite.ports»
+				private final «port.name.toFirstUpper» «port.name.toFirstLower» = new «port.name.toFirstUpper»();
+			«ENDFOR»
+			// Flat statemachine of every component instance
+			private final «gammaComposite.wrappedStatemachineClassName» «CLASS_NAME.toFirstLower» = new «gammaComposite.wrappedStatemachineClassName»();
+			// Clocks
+			private «GAMMA_TIMER_INTERFACE» timer = new «GAMMA_TIMER_CLASS»();
+
+			«IF !xSts.clockVariables.empty»
+				public «CLASS_NAME»(«GAMMA_TIMER_INTERFACE» timer) {
+					setTimer(timer);
+				}
+
+			«ENDIF»
+			public «CLASS_NAME»() {}
+
+			/** Resets the statemachine. Must be called to initialize the component. */
+			@Override
+			public void reset() {
+				«CLASS_NAME.toFirstLower».reset();
+				timer.saveTime(this);
+				notifyListeners();
+			}
+
+			«FOR port : gammaComposite.ports SEPARATOR System.lineSeparator»
+				public class «port.name.toFirstUpper» implements «port.implementedInterfaceName» {
+					private List<«port.listenerInterfaceName»> listeners = new LinkedList<«port.listenerInterfaceName»>();
+					«FOR event : port.getEvents(EventDirection.IN)»
+						@Override
+						public void raise«event.name.toFirstUpper»(«FOR parameter : event.parameterDeclarations SEPARATOR ', '»«parameter.type.serialize» «parameter.name»«ENDFOR») {
+							«FOR simplePort : port.unfoldedPort.allConnectedSimplePorts»
+								«IF event.getInputVariableName(simplePort).hasVariable»
+									«CLASS_NAME.toFirstLower».set«event.getInputVariableName(simplePort).toFirstUpper»(true);
+									«FOR parameter : event.parameterDeclarations.filter[it.getInputVariableName(simplePort).hasVariable]»
+										«CLASS_NAME.toFirstLower».set«parameter.getInputVariableName(simplePort).toFirstUpper»(«parameter.name»);
+									«ENDFOR»
+								«ENDIF»
+							«ENDFOR»
+						}
+					«ENDFOR»
+					«FOR event : port.getEvents(EventDirection.OUT)»
+						@Override
+						public boolean isRaised«event.name.toFirstUpper»() {
+							«IF event.getOutputVariableName(port.boundSimplePort).hasVariable»
+								return «CLASS_NAME.toFirstLower».get«event.getOutputVariableName(port.boundSimplePort).toFirstUpper»();
+							«ELSE»
+								return false;
+							«ENDIF»
+						}
+						«FOR parameter : event.parameterDeclarations»
+							@Override
+							public «parameter.type.serialize» get«parameter.name.toFirstUpper»() {
+								«IF parameter.getOutputVariableName(port.boundSimplePort).hasVariable»
+									return «CLASS_NAME.toFirstLower».get«parameter.getOutputVariableName(port.boundSimplePort).toFirstUpper»();
+								«ELSE»
+									return «parameter.type.defaultExpression.serialize»;
+								«ENDIF»
+							}
+						«ENDFOR»
+					«ENDFOR»
+					@Override
+					public void registerListener(«port.listenerInterfaceName» listener) {
+						listeners.add(listener);
+					}
+					@Override
+					public List<«port.listenerInterfaceName»> getRegisteredListeners() {
+						return listeners;
+					}
+				}
+
+				@Override
+				public «port.name.toFirstUpper» get«port.name.toFirstUpper»() {
+					return «port.name.toFirstLower»;
+				}
+			«ENDFOR»
+
+			/** Runs a cycle of every component instance. The events raised through channels are processed in the next cycle. */
+			@Override
+			public void runCycle() {
+				«IF !xSts.clockVariables.empty»int elapsedTime = (int) timer.getElapsedTime(this, TimeUnit.MILLISECOND);«ENDIF»
+				«FOR timeout : xSts.clockVariables»
+					«CLASS_NAME.toFirstLower».set«timeout.name.toFirstUpper»(«CLASS_NAME.toFirstLower».get«timeout.name.toFirstUpper»() + elapsedTime);
+				«ENDFOR»
+				«CLASS_NAME.toFirstLower».runCycle();
+				«IF !xSts.clockVariables.empty»timer.saveTime(this);«ENDIF»
+				notifyListeners();
+			}
+
+			/** Initiates cycle runs until no event is raised through the channels of the component instances. */
+			@Override
+			public void runFullCycle() {
+				do {
+					runCycle();
+				}
+				while (!isEventQueueEmpty());
+			}
+
+			/** Returns whether there is no event raised through channels that has to be processed in the next cycle. */
+			public boolean isEventQueueEmpty() {
+				«IF xSts.retrieveChannelInEvents.empty»
+					return true;
+				«ELSE»
+					return «FOR channelInEvent : xSts.retrieveChannelInEvents SEPARATOR " && "»!«CLASS_NAME.toFirstLower».get«channelInEvent.name.toFirstUpper»()«ENDFOR»;
+				«ENDIF»
+			}
+
+			/** Interface method, needed for composite component initialization chain. */
+			public void notifyAllListeners() {
+				notifyListeners();
+			}
+
+			public void notifyListeners() {
+				«FOR port : gammaComposite.ports»
+					«FOR event : port.getEvents(EventDirection.OUT)»
+						if («port.name.toFirstLower».isRaised«event.name.toFirstUpper»()) {
+							for («port.listenerInterfaceName» listener : «port.name.toFirstLower».getRegisteredListeners()) {
+								listener.raise«event.name.toFirstUpper»(«FOR parameter : event.parameterDeclarations SEPARATOR ", "»«port.name.toFirstLower».get«parameter.name.toFirstUpper»()«ENDFOR»);
+							}
+						}
+					«ENDFOR»
+				«ENDFOR»
+			}
+
+			«IF !xSts.clockVariables.empty»
+				/** Setter for the timer e.g., a virtual timer. */
+				public void setTimer(«GAMMA_TIMER_INTERFACE» timer) {
+					this.timer = timer;
+					reset();
+				}
+
+			«ENDIF»
+			@Override
+			public String toString() {
+				return «CLASS_NAME.toFirstLower».toString();
+			}
+		}
+	'''
+
+	protected def getListenerInterfaceName(Port port) '''«port.interfaceRealization.interface.implementationName».Listener.«port.interfaceRealization.realizationMode.literal.toLowerCase.toFirstUpper»'''
+
+	/**
+	 * Returns the port of the unfolded composite with the same name as the given port.
+	 */
+	protected def getUnfoldedPort(Port port) {
+		return unfoldedComposite.ports.findFirst[it.name == port.name]
+	}
+
+	/**
+	 * Returns the statechart port the given system port is bound to, whose out events are the out events of the system port.
+	 */
+	protected def getBoundSimplePort(Port port) {
+		return port.unfoldedPort.allConnectedSimplePorts.head
+	}
+
+	// The XSTS variables of the events and parameters of the statechart ports
+
+	protected def getInputVariableName(Event event, Port simplePort) {
+		return event.customizeInputName(simplePort, simplePort.containingStatechart.referencingComponentInstance)
+	}
+
+	protected def getOutputVariableName(Event event, Port simplePort) {
+		return event.customizeOutputName(simplePort, simplePort.containingStatechart.referencingComponentInstance)
+	}
+
+	protected def getInputVariableName(ParameterDeclaration parameter, Port simplePort) {
+		return parameter.customizeInNames(simplePort, simplePort.containingStatechart.referencingComponentInstance).head
+	}
+
+	protected def getOutputVariableName(ParameterDeclaration parameter, Port simplePort) {
+		return parameter.customizeOutNames(simplePort, simplePort.containingStatechart.referencingComponentInstance).head
+	}
+
+	/**
+	 * Returns whether the XSTS contains the variable, as unused event variables are removed by the optimization.
+	 */
+	protected def hasVariable(String name) {
+		return xSts.variableDeclarations.exists[it.name == name]
+	}
+
+	def getClassName() {
+		return CLASS_NAME
+	}
+
+}
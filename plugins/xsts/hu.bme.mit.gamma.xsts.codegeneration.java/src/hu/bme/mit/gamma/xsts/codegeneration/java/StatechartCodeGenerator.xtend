@@ -77,9 +77,7 @@ class StatechartCodeGenerator {
 			}
 			
 «««			No separation of variables on this level
-			«FOR variable : xSts.variableGroups
-					.map[it.variables]
-					.flatten SEPARATOR System.lineSeparator»
+			«FOR variable : xSts.retrieveVariables SEPARATOR System.lineSeparator»
 				public void set«variable.name.toFirstUpper»(«variable.type.serialize» «variable.name») {
 					this.«variable.name» = «variable.name»;
 				}
@@ -106,32 +104,35 @@ class StatechartCodeGenerator {
 
 			«xSts.serializeChangeState»
 			
+«««			In composite XSTSs, channel events (and parameters) are reset by the merged action
 			private void clearOutEvents() {
-				«FOR event : xSts.retrieveOutEvents»
+				«FOR event : xSts.retrieveSystemOutEvents»
 					«event.name» = false;
 				«ENDFOR»
-«««				Clearing transient event parameters
-				«FOR transientOutParameter : xSts.retrieveOutEventParameters.filter[xSts.transientVariables.contains(it)]»
-					«transientOutParameter.name» = «transientOutParameter.initialValue.serialize»;
-				«ENDFOR»
+				«IF !xSts.hasSystemEventGroups»
+«««					Clearing transient event parameters
+					«FOR transientOutParameter : xSts.retrieveOutEventParameters.filter[xSts.transientVariables.contains(it)]»
+						«transientOutParameter.name» = «transientOutParameter.initialValue.serialize»;
+					«ENDFOR»
+				«ENDIF»
 			}
 			
 			private void clearInEvents() {
-				«FOR event : xSts.retrieveInEvents»
+				«FOR event : xSts.retrieveSystemInEvents»
 					«event.name» = false;
 				«ENDFOR»
-«««				Clearing transient event parameters
-				«FOR transientInParameter : xSts.retrieveInEventParameters.filter[xSts.transientVariables.contains(it)]»
-					«transientInParameter.name» = «transientInParameter.initialValue.serialize»;
-				«ENDFOR»
+				«IF !xSts.hasSystemEventGroups»
+«««					Clearing transient event parameters
+					«FOR transientInParameter : xSts.retrieveInEventParameters.filter[xSts.transientVariables.contains(it)]»
+						«transientInParameter.name» = «transientInParameter.initialValue.serialize»;
+					«ENDFOR»
+				«ENDIF»
 			}
 			
 			@Override
 			public String toString() {
 				return
-					«FOR variable : xSts.variableGroups
-										.map[it.variables]
-										.flatten
+					«FOR variable : xSts.retrieveVariables
 										SEPARATOR ' + System.lineSeparator() +'»
 						"«variable.name» = " + «variable.name»
 					«ENDFOR»
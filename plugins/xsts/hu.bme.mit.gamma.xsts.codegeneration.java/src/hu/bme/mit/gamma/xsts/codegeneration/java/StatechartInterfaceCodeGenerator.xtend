@@ -10,7 +10,8 @@
  ********************************************************************************/
 package hu.bme.mit.gamma.xsts.codegeneration.java
 
-import hu.bme.mit.gamma.statechart.statechart.StatechartDefinition
+import hu.bme.mit.gamma.statechart.composite.AbstractSynchronousCompositeComponent
+import hu.bme.mit.gamma.statechart.interface_.Component
 
 import static extension hu.bme.mit.gamma.codegenerator.java.util.Namings.*
 
@@ -20,9 +21,12 @@ class StatechartInterfaceCodeGenerator {
 	final String STATECHART_PACKAGE_NAME
 	final String INTERFACE_NAME
 	
-	final StatechartDefinition gammaStatechart
+	final Component gammaStatechart
 	
-	new(String interfacePackageName, String statechartPackageName, StatechartDefinition gammaStatechart) {
+	/**
+	 * The component is either a statechart or a synchronous composite component generated into a flat class.
+	 */
+	new(String interfacePackageName, String statechartPackageName, Component gammaStatechart) {
 		this.INTERFACE_PACKAGE_NAME = interfacePackageName
 		this.STATECHART_PACKAGE_NAME = statechartPackageName
 		this.INTERFACE_NAME = gammaStatechart.name.toFirstUpper + "Interface"
@@ -41,6 +45,9 @@ class StatechartInterfaceCodeGenerator {
 			«ENDFOR»
 			
 			void runCycle();
+			«IF gammaStatechart instanceof AbstractSynchronousCompositeComponent»
+				void runFullCycle();
+			«ENDIF»
 			void reset();
 		
 		}
@@ -55,6 +55,15 @@ class StatechartToJavaCodeGenerator {
 	
 	new(String targetFolderUri, String basePackageName,
 			StatechartDefinition gammaStatechart, XSTS xSts, ActionSerializer actionSerializer) {
+		this(targetFolderUri, basePackageName, gammaStatechart, xSts, actionSerializer, false)
+	}
+	
+	/**
+	 * If bitsetStates is true, the generated wrapper stores the state configuration as a bitset
+	 * and provides state queries based on state handles.
+	 */
+	new(String targetFolderUri, String basePackageName,
+			StatechartDefinition gammaStatechart, XSTS xSts, ActionSerializer actionSerializer, boolean bitsetStates) {
 		this.BASE_PACKAGE_NAME = basePackageName
 		this.BASE_FOLDER_URI = targetFolderUri + "/" + BASE_PACKAGE_NAME.replaceAll("\\.", "/")
 		this.INTERFACE_PACKAGE_NAME = BASE_PACKAGE_NAME.interfacePackageString
@@ -72,10 +81,10 @@ class StatechartToJavaCodeGenerator {
 		this.statechartInterfaceGenerator = new StatechartInterfaceCodeGenerator(INTERFACE_PACKAGE_NAME,
 			STATECHART_PACKAGE_NAME, gammaStatechart)
 		this.statechartWrapperCodeGenerator = new StatechartWrapperCodeGenerator(BASE_PACKAGE_NAME,
-			INTERFACE_PACKAGE_NAME, STATECHART_PACKAGE_NAME, gammaStatechart, xSts)
+			INTERFACE_PACKAGE_NAME, STATECHART_PACKAGE_NAME, gammaStatechart, xSts, bitsetStates)
 		this.statechartCodeGenerator = new StatechartCodeGenerator(BASE_PACKAGE_NAME, STATECHART_PACKAGE_NAME,
 			gammaStatechart.wrappedStatemachineClassName, xSts, actionSerializer)
-		this.reflectiveComponentCodeGenerator = new ReflectiveComponentCodeGenerator(BASE_PACKAGE_NAME, gammaStatechart)
+		this.reflectiveComponentCodeGenerator = new ReflectiveComponentCodeGenerator(BASE_PACKAGE_NAME, gammaStatechart, bitsetStates)
 		this.gammaStatechart = gammaStatechart
 		this.xSts = xSts
 	}
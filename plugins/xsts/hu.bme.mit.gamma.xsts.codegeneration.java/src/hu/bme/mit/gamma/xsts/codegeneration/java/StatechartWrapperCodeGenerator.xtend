@@ -11,6 +11,7 @@
 package hu.bme.mit.gamma.xsts.codegeneration.java
 
 import hu.bme.mit.gamma.codegenerator.java.util.TypeSerializer
+import hu.bme.mit.gamma.statechart.statechart.Region
 import hu.bme.mit.gamma.statechart.statechart.StatechartDefinition
 import hu.bme.mit.gamma.statechart.interface_.EventDirection
 import hu.bme.mit.gamma.xsts.model.XSTS
@@ -25,6 +26,7 @@ class StatechartWrapperCodeGenerator {
 	final String INTERFACE_PACKAGE_NAME
 	final String STATECHART_PACKAGE_NAME
 	final String CLASS_NAME
+	final boolean BITSET_STATES
 	
 	final StatechartDefinition gammaStatechart
 	final XSTS xSts
@@ -34,10 +36,20 @@ class StatechartWrapperCodeGenerator {
 	
 	new(String basePackageName, String interfacePackageName, String statechartPackageName,
 			StatechartDefinition gammaStatechart, XSTS xSts) {
+		this(basePackageName, interfacePackageName, statechartPackageName, gammaStatechart, xSts, false)
+	}
+	
+	/**
+	 * If bitsetStates is true, the active state configuration is also stored as a bitset (a bit for every state),
+	 * which is updated after every cycle and can be queried using state handles.
+	 */
+	new(String basePackageName, String interfacePackageName, String statechartPackageName,
+			StatechartDefinition gammaStatechart, XSTS xSts, boolean bitsetStates) {
 		this.BASE_PACKAGE_NAME = basePackageName
 		this.INTERFACE_PACKAGE_NAME = interfacePackageName
 		this.STATECHART_PACKAGE_NAME = statechartPackageName
 		this.CLASS_NAME = gammaStatechart.componentClassName
+		this.BITSET_STATES = bitsetStates
 		this.gammaStatechart = gammaStatechart
 		this.xSts = xSts
 	}
@@ -45,6 +57,9 @@ class StatechartWrapperCodeGenerator {
 	protected def createStatechartWrapperClass() '''
 		package «STATECHART_PACKAGE_NAME»;
 		
+		«IF BITSET_STATES»
+			import java.util.Arrays;
+		«ENDIF»
 		import java.util.List;
 		import java.util.Queue;
 		import java.util.LinkedList;
@@ -68,6 +83,9 @@ class StatechartWrapperCodeGenerator {
 			private Queue<Event> eventQueue2 = new LinkedList<Event>();
 			// Clocks
 			private «GAMMA_TIMER_INTERFACE» timer = new «GAMMA_TIMER_CLASS»();
+			«IF BITSET_STATES»
+				«generateStateConfigurationFields»
+			«ENDIF»
 			
 			public «CLASS_NAME»(«FOR parameter : gammaStatechart.parameterDeclarations SEPARATOR ', '»«parameter.type.serialize» «parameter.name»«ENDFOR») {
 				«CLASS_NAME.toFirstLower» = new «gammaStatechart.wrappedStatemachineClassName»(«FOR parameter : gammaStatechart.parameterDeclarations SEPARATOR ', '»«parameter.name»«ENDFOR»);
@@ -81,6 +99,9 @@ class StatechartWrapperCodeGenerator {
 				eventQueue2.clear();
 				//
 				«CLASS_NAME.toFirstLower».reset();
+				«IF BITSET_STATES»
+					updateStateConfiguration();
+				«ENDIF»
 				timer.saveTime(this);
 				notifyListeners();
 			}
@@ -186,6 +207,9 @@ class StatechartWrapperCodeGenerator {
 					«CLASS_NAME.toFirstLower».set«timeout.name.toFirstUpper»(«CLASS_NAME.toFirstLower».get«timeout.name.toFirstUpper»() + elapsedTime);
 				«ENDFOR»
 				«CLASS_NAME.toFirstLower».runCycle();
+				«IF BITSET_STATES»
+					updateStateConfiguration();
+				«ENDIF»
 				«IF !xSts.clockVariables.empty»timer.saveTime(this);«ENDIF»
 				notifyListeners();
 			}
@@ -211,15 +235,19 @@ class StatechartWrapperCodeGenerator {
 				this.timer = timer;
 			}
 			
-			public boolean isStateActive(String region, String state) {
-				switch (region) {
-					«FOR region : gammaStatechart.allRegions»
-						case "«region.name»":
-							return «CLASS_NAME.toFirstLower».get«region.name.toFirstUpper»() == «region.name.toFirstUpper».valueOf(state);
-					«ENDFOR»
+			«IF BITSET_STATES»
+				«generateStateConfigurationQueries»
+			«ELSE»
+				public boolean isStateActive(String region, String state) {
+					switch (region) {
+						«FOR region : gammaStatechart.allRegions»
+							case "«region.name»":
+								return «CLASS_NAME.toFirstLower».get«region.name.toFirstUpper»() == «region.name.toFirstUpper».valueOf(state);
+						«ENDFOR»
+					}
+					return false;
 				}
-				return false;
-			}
+			«ENDIF»
 			
 			«FOR plainVariable : gammaStatechart.variableDeclarations SEPARATOR System.lineSeparator»
 				public «plainVariable.type.serialize» get«plainVariable.name.toFirstUpper»() {
@@ -234,6 +262,126 @@ class StatechartWrapperCodeGenerator {
 		}
 	'''
 	
+	/**
+	 * The handles of the states are their indexes in the statechart (in the order of the regions),
+	 * and the handles of the regions are their indexes.
+	 */
+	protected def generateStateConfigurationFields() '''
+		// State configuration: the bit of a state (indexed by its handle) is set if the state is active
+		private static final int STATE_COUNT = «gammaStatechart.allRegions.map[it.states.size].fold(0)[a, b | a + b]»;
+		private static final long[] STATE_MASKS = new long[STATE_COUNT];
+		// The handle of the first state of each region, and the state count in the end
+		private static final int[] REGION_OFFSETS = { «FOR offset : regionOffsets SEPARATOR ", "»«offset»«ENDFOR» };
+		private static final String[] STATE_NAMES = { «FOR state : gammaStatechart.allRegions.map[it.states].flatten SEPARATOR ", "»"«state.name»"«ENDFOR» };
+		// The state handles indexed by the ordinals of the region literals, -1 for inactive regions
+		private static final int[][] STATE_HANDLES = new int[«gammaStatechart.allRegions.size»][];
+		static {
+			for (int i = 0; i < STATE_COUNT; i++) {
+				STATE_MASKS[i] = 1L << (i & 63);
+			}
+			«FOR i : 0 ..< gammaStatechart.allRegions.size»
+				«gammaStatechart.allRegions.get(i).generateStateHandles(i)»
+			«ENDFOR»
+		}
+		private final long[] stateConfiguration = new long[(STATE_COUNT + 63) >>> 6];
+	'''
+	
+	protected def generateStateHandles(Region region, int regionHandle) '''
+		STATE_HANDLES[«regionHandle»] = new int[«region.name.toFirstUpper».values().length];
+		Arrays.fill(STATE_HANDLES[«regionHandle»], -1);
+		«FOR j : 0 ..< region.states.size»
+			STATE_HANDLES[«regionHandle»][«region.name.toFirstUpper».«region.states.get(j).name».ordinal()] = «regionOffsets.get(regionHandle) + j»;
+		«ENDFOR»
+	'''
+	
+	protected def generateStateConfigurationQueries() '''
+		/** Sets the bits of the active states, based on the region variables of the wrapped statemachine. */
+		private void updateStateConfiguration() {
+			Arrays.fill(stateConfiguration, 0L);
+			«FOR i : 0 ..< gammaStatechart.allRegions.size»
+				setStateActive(STATE_HANDLES[«i»][«CLASS_NAME.toFirstLower».get«gammaStatechart.allRegions.get(i).name.toFirstUpper»().ordinal()]);
+			«ENDFOR»
+		}
+		
+		private void setStateActive(int stateHandle) {
+			if (stateHandle >= 0) {
+				stateConfiguration[stateHandle >>> 6] |= STATE_MASKS[stateHandle];
+			}
+		}
+		
+		/** Returns the handle of the region, it should be retrieved only once and used in the queries. */
+		public static int getRegionHandle(String region) {
+			switch (region) {
+				«FOR i : 0 ..< gammaStatechart.allRegions.size»
+					case "«gammaStatechart.allRegions.get(i).name»":
+						return «i»;
+				«ENDFOR»
+			}
+			throw new IllegalArgumentException("Not known region: " + region);
+		}
+		
+		/** Returns the handle of the state, it should be retrieved only once and used in the queries. */
+		public static int getStateHandle(String region, String state) {
+			int stateHandle = findStateHandle(region, state);
+			if (stateHandle < 0) {
+				throw new IllegalArgumentException("Not known region: " + region);
+			}
+			return stateHandle;
+		}
+		
+		/** Returns the handle of the state or -1 if the region is not known. */
+		private static int findStateHandle(String region, String state) {
+			switch (region) {
+				«FOR i : 0 ..< gammaStatechart.allRegions.size»
+					«gammaStatechart.allRegions.get(i).generateStateHandleCase(i)»
+				«ENDFOR»
+			}
+			return -1;
+		}
+		
+		public static String getStateName(int stateHandle) {
+			return STATE_NAMES[stateHandle];
+		}
+		
+		public boolean isStateActive(int stateHandle) {
+			return (stateConfiguration[stateHandle >>> 6] & STATE_MASKS[stateHandle]) != 0;
+		}
+		
+		/** Returns the handle of the active state of the region, or -1 if the region is inactive. */
+		public int getActiveState(int regionHandle) {
+			for (int i = REGION_OFFSETS[regionHandle]; i < REGION_OFFSETS[regionHandle + 1]; i++) {
+				if (isStateActive(i)) {
+					return i;
+				}
+			}
+			return -1;
+		}
+		
+		public boolean isStateActive(String region, String state) {
+			int stateHandle = findStateHandle(region, state);
+			return stateHandle >= 0 && isStateActive(stateHandle);
+		}
+	'''
+	
+	protected def generateStateHandleCase(Region region, int regionHandle) '''
+		case "«region.name»":
+			switch (state) {
+				«FOR j : 0 ..< region.states.size»
+					case "«region.states.get(j).name»":
+						return «regionOffsets.get(regionHandle) + j»;
+				«ENDFOR»
+			}
+			throw new IllegalArgumentException("Not known state: " + region + "." + state);
+	'''
+	
+	protected def getRegionOffsets() {
+		val offsets = newArrayList(0)
+		for (region : gammaStatechart.allRegions) {
+			offsets += offsets.last + region.states.size
+		}
+		return offsets
+	}
+	
 	def getClassName() {
 		return CLASS_NAME
 	}
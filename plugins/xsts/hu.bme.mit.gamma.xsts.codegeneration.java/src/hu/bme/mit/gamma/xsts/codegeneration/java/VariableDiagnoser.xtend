@@ -20,7 +20,10 @@ import hu.bme.mit.gamma.xsts.model.OutEventGroup
 import hu.bme.mit.gamma.xsts.model.OutEventParameterGroup
 import hu.bme.mit.gamma.xsts.model.PlainVariableGroup
 import hu.bme.mit.gamma.xsts.model.RegionGroup
+import hu.bme.mit.gamma.xsts.model.SystemInEventGroup
+import hu.bme.mit.gamma.xsts.model.SystemOutEventGroup
 import hu.bme.mit.gamma.xsts.model.TimeoutGroup
+import hu.bme.mit.gamma.xsts.model.VariableGroup
 import hu.bme.mit.gamma.xsts.model.XSTS
 
 class VariableDiagnoser {
@@ -29,6 +32,14 @@ class VariableDiagnoser {
 	protected new() {}
 	//
 	
+	def retrieveVariables(XSTS xSts) {
+		// System event groups refer to the variables of the event groups of the component instances
+		return xSts.variableGroups
+				.filter[!it.systemEventGroup]
+				.map[it.variables]
+				.flatten
+	}
+	
 	def retrieveInEvents(XSTS xSts) {
 		return xSts.variableGroups
 				.filter[it.annotation instanceof InEventGroup]
@@ -45,6 +56,45 @@ class VariableDiagnoser {
 				.filter(VariableDeclaration)
 	}
 	
+	def retrieveSystemInEvents(XSTS xSts) {
+		if (!xSts.hasSystemEventGroups) {
+			// Every in event of a single statechart is a system event
+			return xSts.retrieveInEvents
+		}
+		return xSts.variableGroups
+				.filter[it.annotation instanceof SystemInEventGroup]
+				.map[it.variables]
+				.flatten
+				.filter(VariableDeclaration)
+	}
+	
+	def retrieveSystemOutEvents(XSTS xSts) {
+		if (!xSts.hasSystemEventGroups) {
+			return xSts.retrieveOutEvents
+		}
+		return xSts.variableGroups
+				.filter[it.annotation instanceof SystemOutEventGroup]
+				.map[it.variables]
+				.flatten
+				.filter(VariableDeclaration)
+	}
+	
+	/**
+	 * Returns the in events of the component instances of a composite XSTS that are raised through channels.
+	 */
+	def retrieveChannelInEvents(XSTS xSts) {
+		val systemInEvents = xSts.retrieveSystemInEvents.toSet
+		return xSts.retrieveInEvents
+				.filter[!systemInEvents.contains(it)]
+	}
+	
+	/**
+	 * Returns whether the XSTS has been created from a composite component, i.e., it has system event groups.
+	 */
+	def hasSystemEventGroups(XSTS xSts) {
+		return xSts.variableGroups.exists[it.systemEventGroup]
+	}
+	
 	def retrieveInEventParameters(XSTS xSts) {
 		return xSts.variableGroups
 				.filter[it.annotation instanceof InEventParameterGroup]
@@ -70,7 +120,7 @@ class VariableDiagnoser {
 	
 	def retrieveNotTimeoutVariables(XSTS xSts) {
 		return xSts.variableGroups
-				.filter[!(it.annotation instanceof TimeoutGroup)]
+				.filter[!(it.annotation instanceof TimeoutGroup) && !it.systemEventGroup]
 				.map[it.variables]
 				.flatten
 	}
@@ -104,4 +154,9 @@ class VariableDiagnoser {
 				]
 	}
 	
-}
\ No newline at end of file
+	private def isSystemEventGroup(VariableGroup variableGroup) {
+		val annotation = variableGroup.annotation
+		return annotation instanceof SystemInEventGroup || annotation instanceof SystemOutEventGroup
+	}
+	
+}
@@ -21,6 +21,7 @@ import hu.bme.mit.gamma.statechart.composite.AsynchronousAdapter
 import hu.bme.mit.gamma.statechart.composite.CascadeCompositeComponent
 import hu.bme.mit.gamma.statechart.composite.ComponentInstance
 import hu.bme.mit.gamma.statechart.composite.ControlFunction
+import hu.bme.mit.gamma.statechart.composite.SynchronousComponentInstance
 import hu.bme.mit.gamma.statechart.interface_.AnyTrigger
 import hu.bme.mit.gamma.statechart.interface_.Component
 import hu.bme.mit.gamma.statechart.interface_.InterfaceModelFactory
@@ -30,6 +31,7 @@ import hu.bme.mit.gamma.statechart.lowlevel.transformation.GammaToLowlevelTransf
 import hu.bme.mit.gamma.statechart.statechart.StatechartDefinition
 import hu.bme.mit.gamma.statechart.util.StatechartUtil
 import hu.bme.mit.gamma.transformation.util.AnalysisModelPreprocessor
+import hu.bme.mit.gamma.util.EObjectCanonicalizer
 import hu.bme.mit.gamma.util.GammaEcoreUtil
 import hu.bme.mit.gamma.xsts.model.AssignmentAction
 import hu.bme.mit.gamma.xsts.model.CompositeAction
@@ -43,8 +45,11 @@ import hu.bme.mit.gamma.xsts.transformation.serializer.ActionSerializer
 import hu.bme.mit.gamma.xsts.transformation.util.OrthogonalActionTransformer
 import hu.bme.mit.gamma.xsts.util.XstsActionUtil
 import java.math.BigInteger
-import java.util.Collections
 import java.util.List
+import java.util.Map
+import java.util.concurrent.Callable
+import java.util.concurrent.ForkJoinPool
+import java.util.concurrent.ForkJoinTask
 import java.util.logging.Level
 import java.util.logging.Logger
 import org.eclipse.emf.ecore.util.EcoreUtil
@@ -58,8 +63,11 @@ import static extension hu.bme.mit.gamma.xsts.transformation.util.Namings.*
 class GammaToXstsTransformer {
 	// This gammaToLowlevelTransformer must be the same during this transformation cycle due to tracing
 	GammaToLowlevelTransformer gammaToLowlevelTransformer = new GammaToLowlevelTransformer
+	// Instances of the same statechart type with the same arguments are transformed only once
+	protected final StatechartTransformationCache statechartTransformationCache = createStatechartTransformationCache
 	// Auxiliary objects
 	protected final extension GammaEcoreUtil ecoreUtil = GammaEcoreUtil.INSTANCE
+	protected final extension EObjectCanonicalizer canonicalizer = EObjectCanonicalizer.INSTANCE
 	protected final extension ActionSerializer actionSerializer = ActionSerializer.INSTANCE
 	protected final extension OrthogonalActionTransformer orthogonalActionTransformer = OrthogonalActionTransformer.INSTANCE
 	protected final extension EnvironmentalActionFilter environmentalActionFilter = EnvironmentalActionFilter.INSTANCE
@@ -76,6 +84,8 @@ class GammaToXstsTransformer {
 	protected final Integer schedulingConstraint
 	protected boolean transformOrthogonalActions
 	protected boolean optimize
+	// Transforming the statechart instances of a composite concurrently
+	protected boolean parallel
 	// Logger
 	protected final Logger logger = Logger.getLogger("GammaLogger")
 	
@@ -85,9 +95,19 @@ class GammaToXstsTransformer {
 	
 	new(Integer schedulingConstraint,
 			boolean transformOrthogonalActions, boolean optimize) {
+		this(schedulingConstraint, transformOrthogonalActions, optimize, false)
+	}
+	
+	new(Integer schedulingConstraint,
+			boolean transformOrthogonalActions, boolean optimize, boolean parallel) {
 		this.schedulingConstraint = schedulingConstraint
 		this.transformOrthogonalActions = transformOrthogonalActions
 		this.optimize = optimize
+		this.parallel = parallel
+	}
+	
+	protected def StatechartTransformationCache createStatechartTransformationCache() {
+		return new StatechartTransformationCache
 	}
 	
 	def preprocessAndExecuteAndSerialize(hu.bme.mit.gamma.statechart.interface_.Package _package,
@@ -254,6 +274,7 @@ class GammaToXstsTransformer {
 		val scheduledInstances = component.scheduledInstances
 		val mergedAction = if (component instanceof CascadeCompositeComponent) createSequentialAction else createOrthogonalAction
 		val componentMergedActions = newHashMap // To handle multiple schedulings in CascadeCompositeComponents
+		val instanceXStses = scheduledInstances.transformInstances(lowlevelPackage) // In schedule order
 		for (var i = 0; i < scheduledInstances.size; i++) {
 			val subcomponent = scheduledInstances.get(i)
 			val type = subcomponent.type
@@ -264,8 +285,7 @@ class GammaToXstsTransformer {
 			}
 			else {
 				// Normal transformation
-				type.transformParameters(subcomponent.arguments) // Change the reference from parameters to constants
-				val newXSts = type.transform(lowlevelPackage)
+				val newXSts = instanceXStses.get(type)
 				newXSts.customizeDeclarationNames(subcomponent)
 				if (xSts === null) {
 					xSts = newXSts
@@ -362,14 +382,100 @@ class GammaToXstsTransformer {
 		return xSts
 	}
 	
+	/**
+	 * Transforms the types of the given instances (only the first scheduling of each type) in schedule order.
+	 * In parallel mode, the Gamma-lowlevel transformation is executed sequentially (it uses a single trace),
+	 * whereas the lowlevel-XSTS transformations are executed concurrently on thread-confined lowlevel packages.
+	 */
+	protected def Map<Component, XSTS> transformInstances(List<SynchronousComponentInstance> instances,
+			Package lowlevelPackage) {
+		val Map<Component, XSTS> xStses = newLinkedHashMap
+		// Statechart type -> cache key
+		val Map<Component, StatechartTransformationKey> keys = newHashMap
+		// Statechart types to be transformed concurrently -> their own lowlevel packages
+		val Map<Component, Package> instancePackages = newLinkedHashMap
+		// Statechart types that are equal to one of the concurrently transformed ones
+		val List<Component> duplicatedTypes = newArrayList
+		for (instance : instances) {
+			val type = instance.type
+			val arguments = instance.arguments
+			if (!xStses.containsKey(type)) { // Only the first scheduling is transformed
+				if (type instanceof StatechartDefinition) {
+					// The key has to be created before changing the parameters
+					val key = statechartTransformationCache.createKey(type, arguments)
+					keys.put(type, key)
+					type.transformParameters(arguments) // Constants are needed for back-annotation even if cached
+					val cachedXSts = statechartTransformationCache.get(key)
+					if (cachedXSts !== null) {
+						logger.log(Level.INFO, "Reusing the transformation of statechart " + type.name)
+						xStses.put(type, cachedXSts)
+					}
+					else if (parallel) {
+						xStses.put(type, null) // Placeholder to keep the schedule order
+						if (instancePackages.keySet.exists[keys.get(it) == key]) {
+							duplicatedTypes += type
+						}
+						else {
+							instancePackages.put(type, type.createInstancePackage(lowlevelPackage))
+						}
+					}
+					else {
+						val xSts = type.transform(lowlevelPackage)
+						statechartTransformationCache.put(key, xSts) // Not customized yet
+						xStses.put(type, xSts)
+					}
+				}
+				else {
+					type.transformParameters(arguments) // Change the reference from parameters to constants
+					xStses.put(type, type.transform(lowlevelPackage))
+				}
+			}
+		}
+		if (!instancePackages.empty) {
+			logger.log(Level.INFO, "Transforming " + instancePackages.size + " statecharts concurrently")
+			val pool = ForkJoinPool.commonPool
+			val Map<Component, ForkJoinTask<XSTS>> tasks = newLinkedHashMap
+			for (type : instancePackages.keySet) {
+				val instancePackage = instancePackages.get(type)
+				val Callable<XSTS> task = [| instancePackage.transformLowlevelPackage ]
+				tasks.put(type, pool.submit(task))
+			}
+			// Merging in schedule order, so the result is deterministic
+			for (type : tasks.keySet) {
+				val xSts = tasks.get(type).join
+				statechartTransformationCache.put(keys.get(type), xSts) // Not customized yet
+				xStses.put(type, xSts)
+			}
+			for (type : duplicatedTypes) {
+				xStses.put(type, statechartTransformationCache.get(keys.get(type)))
+			}
+		}
+		return xStses
+	}
+	
+	protected def Package createInstancePackage(StatechartDefinition statechart, Package lowlevelPackage) {
+		logger.log(Level.INFO, "Transforming statechart " + statechart.name + " into lowlevel")
+		val lowlevelStatechart = gammaToLowlevelTransformer.transform(statechart)
+		lowlevelPackage.components += lowlevelStatechart
+		// The clone contains the statechart and the declarations it refers to, so it can be used in a single thread
+		val instancePackage = lowlevelPackage.clone
+		lowlevelPackage.components -= lowlevelStatechart
+		return instancePackage
+	}
+	
 	protected def dispatch XSTS transform(StatechartDefinition statechart, Package lowlevelPackage) {
 		logger.log(Level.INFO, "Transforming statechart " + statechart.name)
 		// Note that the package is already transformed and traced because of the "val lowlevelPackage = gammaToLowlevelTransformer.transform(_package)" call
 		val lowlevelStatechart = gammaToLowlevelTransformer.transform(statechart)
 		lowlevelPackage.components += lowlevelStatechart
+		val xSts = lowlevelPackage.transformLowlevelPackage
+		lowlevelPackage.components -= lowlevelStatechart // So that next time the matches do not return elements from this statechart
+		return xSts
+	}
+	
+	protected def XSTS transformLowlevelPackage(Package lowlevelPackage) {
 		val lowlevelToXSTSTransformer = new LowlevelToXstsTransformer(lowlevelPackage, optimize)
 		val xStsEntry = lowlevelToXSTSTransformer.execute
-		lowlevelPackage.components -= lowlevelStatechart // So that next time the matches do not return elements from this statechart
 		val xSts = xStsEntry.key
 		// 0-ing all variable declaration initial expression, the normal ones are in the init action
 		for (variable : xSts.variableDeclarations) {
@@ -436,21 +542,16 @@ class GammaToXstsTransformer {
 	
 	protected def removeDuplicatedTypes(XSTS xSts) {
 		val types = xSts.typeDeclarations
-		for (var i = 0; i < types.size - 1; i++) {
-			val lhs = types.get(i)
-			for (var j = i + 1; j < types.size; j++) {
-				val rhs = types.get(j)
-				if (lhs.helperEquals(rhs)) {
-					lhs.changeAllAndDelete(rhs, xSts)
-					j--
-				}
-			}
-		}
+		// Hash-consing: references to duplicates are redirected to the first equal type in a single sweep
+		types.removeDuplicates(xSts)
 		// Type declaration names are not customized as multiple types can refer to the same type
 		// These types would be different in XSTS, when they are the same in Gamma
 		// Note: for this reason, every type declaration must have a different name
-		val typeDeclarationNames = types.map[it.name]
-		val duplications = typeDeclarationNames.filter[Collections.frequency(typeDeclarationNames, it) > 1].toList
+		val Map<String, Integer> typeDeclarationNameCounts = newHashMap
+		for (type : types) {
+			typeDeclarationNameCounts.merge(type.name, 1, [lhs, rhs | lhs + rhs])
+		}
+		val duplications = typeDeclarationNameCounts.keySet.filter[typeDeclarationNameCounts.get(it) > 1].toSet
 		logger.log(Level.INFO, "The XSTS contains multiple type declarations with the same name:" + duplications)
 		// It is possible that in some instances of the same region, some states are removed due to optimization
 		var id = 0
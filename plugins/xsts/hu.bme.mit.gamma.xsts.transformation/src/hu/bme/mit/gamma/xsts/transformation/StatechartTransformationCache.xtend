@@ -0,0 +1,109 @@
+/********************************************************************************
+ * Copyright (c) 2018-2021 Contributors to the Gamma project
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ ********************************************************************************/
+package hu.bme.mit.gamma.xsts.transformation
+
+import hu.bme.mit.gamma.expression.model.Expression
+import hu.bme.mit.gamma.statechart.statechart.StatechartDefinition
+import hu.bme.mit.gamma.util.EObjectCanonicalizer
+import hu.bme.mit.gamma.util.GammaEcoreUtil
+import hu.bme.mit.gamma.xsts.model.XSTS
+import java.util.List
+import java.util.Map
+import org.eclipse.emf.ecore.EObject
+
+/**
+ * Cache of the XSTS models of statechart instances keyed by the statechart type and the argument binding.
+ * As the model unfolder clones the statechart for every instance, types are compared structurally;
+ * the keys must be created before the parameters of the instance are changed to argument constants.
+ * The structural hash of a key is computed once, so the equality helper runs only for keys with equal hashes.
+ * The cached models are not customized, i.e., their declaration names are not instance-specific.
+ */
+class StatechartTransformationCache {
+	protected final Map<StatechartTransformationKey, XSTS> cache = newHashMap
+
+	protected final extension GammaEcoreUtil ecoreUtil = GammaEcoreUtil.INSTANCE
+
+	/**
+	 * Returns the key of the given statechart instance, which is independent of the later changes of the statechart.
+	 */
+	def StatechartTransformationKey createKey(StatechartDefinition statechart, List<Expression> arguments) {
+		val List<EObject> objects = newArrayList
+		objects += statechart.clone
+		objects += arguments.map[it.clone]
+		return new StatechartTransformationKey(objects)
+	}
+
+	/**
+	 * Returns a new copy of the XSTS cached for the key or null if there is no such XSTS.
+	 */
+	def XSTS get(StatechartTransformationKey key) {
+		val xSts = cache.get(key)
+		if (xSts === null) {
+			return null
+		}
+		return xSts.clone
+	}
+
+	/**
+	 * Caches a copy of the given, not yet customized XSTS.
+	 */
+	def void put(StatechartTransformationKey key, XSTS xSts) {
+		cache.put(key, xSts.clone)
+	}
+
+}
+
+/**
+ * Statechart and argument clones with their structural hash computed at creation.
+ */
+class StatechartTransformationKey {
+	protected final List<EObject> objects
+	protected final int hash
+
+	protected final extension GammaEcoreUtil ecoreUtil = GammaEcoreUtil.INSTANCE
+	protected final extension EObjectCanonicalizer canonicalizer = EObjectCanonicalizer.INSTANCE
+
+	new(List<EObject> objects) {
+		this.objects = objects
+		var hash = 1
+		for (object : objects) {
+			hash = 31 * hash + object.structuralHash
+		}
+		this.hash = hash
+	}
+
+	override hashCode() {
+		return hash
+	}
+
+	/**
+	 * Returns whether the two keys denote the same statechart type and argument binding.
+	 */
+	override equals(Object object) {
+		if (this === object) {
+			return true
+		}
+		if (!(object instanceof StatechartTransformationKey)) {
+			return false
+		}
+		val rhs = object as StatechartTransformationKey
+		if (hash != rhs.hash || objects.size != rhs.objects.size) {
+			return false
+		}
+		for (var i = 0; i < objects.size; i++) {
+			if (!objects.get(i).helperEquals(rhs.objects.get(i))) {
+				return false
+			}
+		}
+		return true
+	}
+
+}
@@ -17,6 +17,7 @@ import hu.bme.mit.gamma.statechart.interface_.Component
 import hu.bme.mit.gamma.transformation.util.AnalysisModelPreprocessor
 import hu.bme.mit.gamma.transformation.util.GammaFileNamer
 import hu.bme.mit.gamma.transformation.util.ModelSlicerModelAnnotatorPropertyGenerator
+import hu.bme.mit.gamma.transformation.util.PhaseTimer
 import hu.bme.mit.gamma.transformation.util.annotations.DataflowCoverageCriterion
 import hu.bme.mit.gamma.transformation.util.annotations.InteractionCoverageCriterion
 import hu.bme.mit.gamma.transformation.util.annotations.ModelAnnotatorPropertyGenerator.ComponentInstancePortReferences
@@ -37,6 +38,8 @@ class Gamma2XstsTransformerSerializer {
 	protected final String targetFolderUri
 	protected final String fileName
 	protected final Integer schedulingConstraint
+	// Transforming the component instances of synchronous composites in parallel
+	protected final boolean parallel
 	// Slicing
 	protected final PropertyPackage propertyPackage
 	// Annotation
@@ -87,11 +90,33 @@ class Gamma2XstsTransformerSerializer {
 			InteractionCoverageCriterion receiverCoverageCriterion,
 			ComponentInstanceVariableReferences dataflowTestedVariables,
 			DataflowCoverageCriterion dataflowCoverageCriterion) {
+		this(component, arguments, targetFolderUri, fileName, schedulingConstraint,
+			propertyPackage, testedComponentsForStates, testedComponentsForTransitions,
+			testedComponentsForTransitionPairs, testedComponentsForOutEvents, testedInteractions,
+			senderCoverageCriterion, receiverCoverageCriterion,
+			dataflowTestedVariables, dataflowCoverageCriterion, false)
+	}
+	
+	new(Component component, List<Expression> arguments,
+			String targetFolderUri, String fileName,
+			Integer schedulingConstraint,
+			PropertyPackage propertyPackage,
+			ComponentInstanceReferences testedComponentsForStates,
+			ComponentInstanceReferences testedComponentsForTransitions,
+			ComponentInstanceReferences testedComponentsForTransitionPairs,
+			ComponentInstancePortReferences testedComponentsForOutEvents,
+			ComponentInstancePortStateTransitionReferences testedInteractions,
+			InteractionCoverageCriterion senderCoverageCriterion,
+			InteractionCoverageCriterion receiverCoverageCriterion,
+			ComponentInstanceVariableReferences dataflowTestedVariables,
+			DataflowCoverageCriterion dataflowCoverageCriterion,
+			boolean parallel) {
 		this.component = component
 		this.arguments = arguments
 		this.targetFolderUri = targetFolderUri
 		this.fileName = fileName
 		this.schedulingConstraint = schedulingConstraint
+		this.parallel = parallel
 		//
 		this.propertyPackage = propertyPackage
 		//
@@ -109,7 +134,9 @@ class Gamma2XstsTransformerSerializer {
 	def void execute() {
 		val gammaPackage = StatechartModelDerivedFeatures.getContainingPackage(component)
 		// Preprocessing
-		val newTopComponent = preprocessor.preprocess(gammaPackage, arguments, targetFolderUri, fileName)
+		val newTopComponent = PhaseTimer.measure("Preprocessing") [
+			preprocessor.preprocess(gammaPackage, arguments, targetFolderUri, fileName)
+		]
 		val newGammaPackage = StatechartModelDerivedFeatures.getContainingPackage(newTopComponent)
 		// Slicing and Property generation
 		val slicerAnnotatorAndPropertyGenerator = new ModelSlicerModelAnnotatorPropertyGenerator(
@@ -120,16 +147,22 @@ class Gamma2XstsTransformerSerializer {
 				testedInteractions, senderCoverageCriterion, receiverCoverageCriterion,
 				dataflowTestedVariables, dataflowCoverageCriterion,
 				targetFolderUri, fileName)
-		slicerAnnotatorAndPropertyGenerator.execute
-		val gammaToXSTSTransformer = new GammaToXstsTransformer(schedulingConstraint, true, true)
+		PhaseTimer.execute("Slicing and annotation") [
+			slicerAnnotatorAndPropertyGenerator.execute
+		]
+		val gammaToXSTSTransformer = new GammaToXstsTransformer(schedulingConstraint, true, true, parallel)
 		// Normal transformation
-		val xSts = gammaToXSTSTransformer.execute(newGammaPackage)
-		// EMF
-		xSts.normalSave(targetFolderUri, fileName.emfXStsFileName)
-		// String
-		val xStsFile = new File(targetFolderUri + File.separator + fileName.xtextXStsFileName)
-		val xStsString = xSts.serializeXSTS
-		xStsFile.saveString(xStsString)
+		val xSts = PhaseTimer.measure("XSTS transformation") [
+			gammaToXSTSTransformer.execute(newGammaPackage)
+		]
+		PhaseTimer.execute("Serialization") [
+			// EMF
+			xSts.normalSave(targetFolderUri, fileName.emfXStsFileName)
+			// String
+			val xStsFile = new File(targetFolderUri + File.separator + fileName.xtextXStsFileName)
+			val xStsString = xSts.serializeXSTS
+			xStsFile.saveString(xStsString)
+		]
 	}
 	
 }
\ No newline at end of file
@@ -41,6 +41,8 @@ class XstsToUppaalTransformer {
 	protected final NTA nta
 	// Local variables
 	protected final Set<VariableContainer> transientVariables = newHashSet
+	// Id of the next committed location, per transformer, so transformations can run in parallel
+	protected int committedLocationId = 0
 	// Auxiliary
 	protected final extension NtaBuilder ntaBuilder
 	protected final extension AssignmentExpressionCreator assignmentExpressionCreator
@@ -61,8 +63,12 @@ class XstsToUppaalTransformer {
 		this.ntaOptimizer = new NtaOptimizer(ntaBuilder)
 	}
 	
+	protected def getNextCommittedLocationName() {
+		return getCommittedLocationName(committedLocationId++)
+	}
+	
 	def execute() {
-		resetCommittedLocationName
+		committedLocationId = 0
 		val initialLocation = createTemplateWithInitLoc(templateName, initialLocationName)
 		initialLocation.locationTimeKind = LocationKind.COMMITED
 		
@@ -1,6 +1,7 @@
 package hu.bme.mit.gamma.xsts.uppaal.transformation.api
 
 import hu.bme.mit.gamma.transformation.util.GammaFileNamer
+import hu.bme.mit.gamma.transformation.util.PhaseTimer
 import hu.bme.mit.gamma.uppaal.serializer.UppaalModelSerializer
 import hu.bme.mit.gamma.util.GammaEcoreUtil
 import hu.bme.mit.gamma.xsts.model.XSTS
@@ -23,10 +24,14 @@ class Xsts2UppaalTransformerSerializer {
 	
 	def execute() {
 		val xStsToUppaalTransformer = new XstsToUppaalTransformer(xSts)
-		val nta = xStsToUppaalTransformer.execute
-		nta.normalSave(targetFolderUri, fileName.emfUppaalFileName)
-		// Serializing the NTA model to XML
-		UppaalModelSerializer.saveToXML(nta, targetFolderUri, fileName.xmlUppaalFileName);
+		val nta = PhaseTimer.measure("XSTS-UPPAAL transformation") [
+			xStsToUppaalTransformer.execute
+		]
+		PhaseTimer.execute("Serialization") [
+			nta.normalSave(targetFolderUri, fileName.emfUppaalFileName)
+			// Serializing the NTA model to XML
+			UppaalModelSerializer.saveToXML(nta, targetFolderUri, fileName.xmlUppaalFileName);
+		]
 	}
 	
 }
\ No newline at end of file
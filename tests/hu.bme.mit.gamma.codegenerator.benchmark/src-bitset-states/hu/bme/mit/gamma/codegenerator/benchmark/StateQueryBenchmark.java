@@ -0,0 +1,139 @@
+/********************************************************************************
+ * Copyright (c) 2018-2021 Contributors to the Gamma project
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ ********************************************************************************/
+package hu.bme.mit.gamma.codegenerator.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hu.bme.mit.gamma.codegenerator.benchmark.crossroad.ReflectiveComponentInterface;
+import hu.bme.mit.gamma.codegenerator.benchmark.crossroad.VirtualTimerService;
+import hu.bme.mit.gamma.codegenerator.benchmark.crossroad.controller.Controller;
+import hu.bme.mit.gamma.codegenerator.benchmark.crossroad.controller.ReflectiveController;
+import hu.bme.mit.gamma.codegenerator.benchmark.crossroad.trafficlightctrl.ReflectiveTrafficLightCtrl;
+import hu.bme.mit.gamma.codegenerator.benchmark.crossroad.trafficlightctrl.TrafficLightCtrl;
+import hu.bme.mit.gamma.codegenerator.benchmark.crossroad.tutorial.Crossroad;
+
+/**
+ * Measures polling every state of the statecharts of the Crossroad, as a monitor does after every cycle,
+ * using the state handles of the bitset-states variant (resolved once). The other variants contain the same
+ * benchmarks using the region and state names, pollStatesByName measures them in this variant.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class StateQueryBenchmark {
+
+	private static final long ELAPSED_MILLIS = 100;
+
+	private VirtualTimerService timer;
+	private Crossroad crossroad;
+	private Controller controller;
+	private TrafficLightCtrl prior;
+	private TrafficLightCtrl secondary;
+	private String[][] controllerStates;
+	private String[][] trafficLightStates;
+	private int[] controllerStateHandles;
+	private int[] trafficLightStateHandles;
+
+	@Setup
+	public void setup() {
+		timer = new VirtualTimerService();
+		crossroad = new Crossroad(timer);
+		crossroad.reset();
+		controller = crossroad.getController();
+		prior = crossroad.getPrior();
+		secondary = crossroad.getSecondary();
+		controllerStates = getStates(new ReflectiveController(controller));
+		trafficLightStates = getStates(new ReflectiveTrafficLightCtrl(prior));
+		controllerStateHandles = new int[controllerStates.length];
+		for (int i = 0; i < controllerStates.length; i++) {
+			controllerStateHandles[i] = Controller.getStateHandle(controllerStates[i][0], controllerStates[i][1]);
+		}
+		trafficLightStateHandles = new int[trafficLightStates.length];
+		for (int i = 0; i < trafficLightStates.length; i++) {
+			trafficLightStateHandles[i] = TrafficLightCtrl.getStateHandle(trafficLightStates[i][0], trafficLightStates[i][1]);
+		}
+	}
+
+	/**
+	 * Returns the region-state name pairs of the statechart.
+	 */
+	private String[][] getStates(ReflectiveComponentInterface statechart) {
+		List<String[]> states = new ArrayList<String[]>();
+		for (String region : statechart.getRegions()) {
+			for (String state : statechart.getStates(region)) {
+				states.add(new String[] { region, state });
+			}
+		}
+		return states.toArray(new String[0][]);
+	}
+
+	@Benchmark
+	public int pollStates() {
+		int activeStateCount = 0;
+		for (int stateHandle : controllerStateHandles) {
+			if (controller.isStateActive(stateHandle)) {
+				++activeStateCount;
+			}
+		}
+		for (int stateHandle : trafficLightStateHandles) {
+			if (prior.isStateActive(stateHandle)) {
+				++activeStateCount;
+			}
+			if (secondary.isStateActive(stateHandle)) {
+				++activeStateCount;
+			}
+		}
+		return activeStateCount;
+	}
+
+	@Benchmark
+	public int pollStatesByName() {
+		int activeStateCount = 0;
+		for (String[] state : controllerStates) {
+			if (controller.isStateActive(state[0], state[1])) {
+				++activeStateCount;
+			}
+		}
+		for (String[] state : trafficLightStates) {
+			if (prior.isStateActive(state[0], state[1])) {
+				++activeStateCount;
+			}
+			if (secondary.isStateActive(state[0], state[1])) {
+				++activeStateCount;
+			}
+		}
+		return activeStateCount;
+	}
+
+	@Benchmark
+	public int runCycleAndPollStates() {
+		timer.elapse(ELAPSED_MILLIS);
+		crossroad.runCycle();
+		return pollStates();
+	}
+
+}
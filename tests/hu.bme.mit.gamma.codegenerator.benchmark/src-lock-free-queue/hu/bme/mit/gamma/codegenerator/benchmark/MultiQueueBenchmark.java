@@ -0,0 +1,99 @@
+/********************************************************************************
+ * Copyright (c) 2018-2021 Contributors to the Gamma project
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ ********************************************************************************/
+package hu.bme.mit.gamma.codegenerator.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import lbmq.LockFreeMultiQueue;
+
+/**
+ * Measures the LockFreeMultiQueue generated in the lock-free-queue variant with the same
+ * benchmarks as the LinkedBlockingMultiQueue of the other variants, so the results are comparable.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class MultiQueueBenchmark {
+
+	private static final int SUB_QUEUE_COUNT = 4;
+	private static final int CAPACITY = 1024;
+	private static final Object EVENT = new Object();
+
+	private final AtomicInteger subQueueCounter = new AtomicInteger();
+	private LockFreeMultiQueue<Integer, Object> queue;
+
+	@Setup
+	public void setup() {
+		queue = new LockFreeMultiQueue<Integer, Object>();
+		for (int i = 0; i < SUB_QUEUE_COUNT; ++i) {
+			queue.addSubQueue(i, i, CAPACITY);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Producer {
+
+		private LockFreeMultiQueue<Integer, Object>.SubQueue subQueue;
+
+		@Setup
+		public void setup(MultiQueueBenchmark benchmark) {
+			int key = benchmark.subQueueCounter.getAndIncrement() % SUB_QUEUE_COUNT;
+			subQueue = benchmark.queue.getSubQueue(key);
+		}
+
+	}
+
+	/**
+	 * Uncontended round trip of an event, the take does not block as the queue is not empty.
+	 */
+	@Benchmark
+	@Group("uncontended")
+	public Object offerTake(Producer producer) throws InterruptedException {
+		producer.subQueue.offer(EVENT);
+		return queue.take();
+	}
+
+	/**
+	 * Producers offer into their sub-queues (the offer fails if the sub-queue is full),
+	 * while a consumer polls, so it does not block when the measurement ends.
+	 */
+	@Benchmark
+	@Group("contended")
+	@GroupThreads(3)
+	public boolean offer(Producer producer) {
+		return producer.subQueue.offer(EVENT);
+	}
+
+	@Benchmark
+	@Group("contended")
+	@GroupThreads(1)
+	public Object poll() {
+		return queue.poll();
+	}
+
+}
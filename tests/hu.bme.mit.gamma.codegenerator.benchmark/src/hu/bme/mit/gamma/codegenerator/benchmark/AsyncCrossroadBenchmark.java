@@ -0,0 +1,92 @@
+/********************************************************************************
+ * Copyright (c) 2018-2021 Contributors to the Gamma project
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ ********************************************************************************/
+package hu.bme.mit.gamma.codegenerator.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hu.bme.mit.gamma.codegenerator.benchmark.crossroad.VirtualTimerService;
+import hu.bme.mit.gamma.codegenerator.benchmark.crossroad.asynccrossroad.AsyncCrossroad;
+import hu.bme.mit.gamma.codegenerator.benchmark.crossroad.interfaces.LightCommandsInterface;
+
+/**
+ * Measures the latency of an event raised on a port of the generated asynchronous adapter
+ * until the reaction of the wrapped Crossroad arrives at a listener of its output:
+ * message queue, adapter thread (or shared executor), wrapper and listener notification.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class AsyncCrossroadBenchmark {
+
+	private AsyncCrossroad adapter;
+	private volatile long outputCount;
+
+	@Setup
+	public void setup() {
+		// The clock of the adapter is not advanced, so only the raised events are processed
+		adapter = new AsyncCrossroad(new VirtualTimerService());
+		adapter.getPriorityOutput().registerListener(new LightCommandsInterface.Listener.Provided() {
+			@Override
+			public void raiseDisplayRed() {
+				++outputCount;
+			}
+			@Override
+			public void raiseDisplayYellow() {
+				++outputCount;
+			}
+			@Override
+			public void raiseDisplayGreen() {
+				++outputCount;
+			}
+			@Override
+			public void raiseDisplayNone() {
+				++outputCount;
+			}
+		});
+		adapter.reset();
+		adapter.start();
+	}
+
+	@TearDown
+	public void tearDown() {
+		adapter.interrupt();
+	}
+
+	/**
+	 * Every police interrupt switches the priority traffic light (to or from blinking yellow),
+	 * which is signaled on its output.
+	 */
+	@Benchmark
+	public long raisePoliceAndAwaitOutput() {
+		long count = outputCount;
+		adapter.getPolice().raisePolice();
+		while (outputCount == count) {
+			Thread.onSpinWait();
+		}
+		return outputCount;
+	}
+
+}
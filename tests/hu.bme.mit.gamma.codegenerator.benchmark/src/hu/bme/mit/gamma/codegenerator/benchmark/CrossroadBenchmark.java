@@ -0,0 +1,113 @@
+/********************************************************************************
+ * Copyright (c) 2018-2021 Contributors to the Gamma project
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ ********************************************************************************/
+package hu.bme.mit.gamma.codegenerator.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import hu.bme.mit.gamma.codegenerator.benchmark.crossroad.VirtualTimerService;
+import hu.bme.mit.gamma.codegenerator.benchmark.crossroad.interfaces.LightCommandsInterface;
+import hu.bme.mit.gamma.codegenerator.benchmark.crossroad.tutorial.Crossroad;
+
+/**
+ * Measures the generated synchronous composite of the tutorial (statechart wrappers, channels and
+ * composite ports) driven by a virtual timer, with listeners registered to both light outputs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class CrossroadBenchmark {
+
+	// Advanced before every cycle, so the timeouts of the controller and the traffic lights fire regularly
+	private static final long ELAPSED_MILLIS = 100;
+
+	private VirtualTimerService timer;
+	private Crossroad crossroad;
+
+	@Setup
+	public void setup(Blackhole blackhole) {
+		timer = new VirtualTimerService();
+		crossroad = new Crossroad(timer);
+		LightCommandsListener listener = new LightCommandsListener(blackhole);
+		crossroad.getPriorityOutput().registerListener(listener);
+		crossroad.getSecondaryOutput().registerListener(listener);
+		crossroad.reset();
+	}
+
+	@Benchmark
+	public void runCycle() {
+		timer.elapse(ELAPSED_MILLIS);
+		crossroad.runCycle();
+	}
+
+	@Benchmark
+	public void runFullCycle() {
+		timer.elapse(ELAPSED_MILLIS);
+		crossroad.runFullCycle();
+	}
+
+	/**
+	 * Raises an event on the input port that is processed by every component instance and
+	 * is reflected on both outputs (the traffic lights are switched to and from blinking yellow).
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public void raisePolice() {
+		crossroad.getPolice().raisePolice();
+		crossroad.runFullCycle();
+	}
+
+	private static class LightCommandsListener implements LightCommandsInterface.Listener.Provided {
+
+		private final Blackhole blackhole;
+
+		public LightCommandsListener(Blackhole blackhole) {
+			this.blackhole = blackhole;
+		}
+
+		@Override
+		public void raiseDisplayRed() {
+			blackhole.consume(1);
+		}
+
+		@Override
+		public void raiseDisplayYellow() {
+			blackhole.consume(2);
+		}
+
+		@Override
+		public void raiseDisplayGreen() {
+			blackhole.consume(3);
+		}
+
+		@Override
+		public void raiseDisplayNone() {
+			blackhole.consume(4);
+		}
+
+	}
+
+}
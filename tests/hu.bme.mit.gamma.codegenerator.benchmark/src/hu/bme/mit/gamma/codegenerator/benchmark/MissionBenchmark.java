@@ -0,0 +1,78 @@
+/********************************************************************************
+ * Copyright (c) 2018-2021 Contributors to the Gamma project
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ ********************************************************************************/
+package hu.bme.mit.gamma.codegenerator.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hu.bme.mit.gamma.codegenerator.benchmark.spacemission.VirtualTimerService;
+import hu.bme.mit.gamma.codegenerator.benchmark.spacemission.mission.Mission;
+
+/**
+ * Measures the generated synchronous composite of the spacemission case study, whose statecharts
+ * communicate through a channel and are mostly driven by time events.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class MissionBenchmark {
+
+	// Advanced before every cycle, so the timeouts of the station and the spacecraft fire regularly
+	private static final long ELAPSED_MILLIS = 500;
+
+	private VirtualTimerService timer;
+	private Mission mission;
+
+	@Setup
+	public void setup() {
+		timer = new VirtualTimerService();
+		mission = new Mission(timer);
+		mission.reset();
+		mission.getControl().raiseStart();
+		mission.runFullCycle();
+	}
+
+	@Benchmark
+	public void runCycle() {
+		timer.elapse(ELAPSED_MILLIS);
+		mission.runCycle();
+	}
+
+	@Benchmark
+	public void runFullCycle() {
+		timer.elapse(ELAPSED_MILLIS);
+		mission.runFullCycle();
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public void raiseShutdownAndStart() {
+		mission.getControl().raiseShutdown();
+		mission.runFullCycle();
+		mission.getControl().raiseStart();
+		mission.runFullCycle();
+	}
+
+}
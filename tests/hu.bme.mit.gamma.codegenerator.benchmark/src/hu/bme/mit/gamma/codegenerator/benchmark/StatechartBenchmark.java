@@ -0,0 +1,121 @@
+/********************************************************************************
+ * Copyright (c) 2018-2021 Contributors to the Gamma project
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ ********************************************************************************/
+package hu.bme.mit.gamma.codegenerator.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import hu.bme.mit.gamma.codegenerator.benchmark.crossroad.VirtualTimerService;
+import hu.bme.mit.gamma.codegenerator.benchmark.crossroad.controller.Controller;
+import hu.bme.mit.gamma.codegenerator.benchmark.crossroad.interfaces.LightCommandsInterface;
+import hu.bme.mit.gamma.codegenerator.benchmark.crossroad.trafficlightctrl.TrafficLightCtrl;
+
+/**
+ * Measures the statecharts of the tutorial generated from their XSTS, without the composite
+ * (channels and event queues of the containing component), driven by a virtual timer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class StatechartBenchmark {
+
+	// Advanced before every cycle, so the timeouts of the controller and the blinking traffic light fire regularly
+	private static final long ELAPSED_MILLIS = 100;
+
+	private VirtualTimerService timer;
+	private Controller controller;
+	private TrafficLightCtrl trafficLight;
+
+	@Setup
+	public void setup(Blackhole blackhole) {
+		timer = new VirtualTimerService();
+		controller = new Controller();
+		controller.setTimer(timer);
+		controller.reset();
+		trafficLight = new TrafficLightCtrl();
+		trafficLight.setTimer(timer);
+		trafficLight.getLightCommands().registerListener(new LightCommandsListener(blackhole));
+		trafficLight.reset();
+	}
+
+	@Benchmark
+	public void runControllerCycle() {
+		timer.elapse(ELAPSED_MILLIS);
+		controller.runCycle();
+	}
+
+	/**
+	 * Switches the controller to and from the interrupted state.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public void raiseControllerPolice() {
+		controller.getPoliceInterrupt().raisePolice();
+		controller.runCycle();
+	}
+
+	/**
+	 * Switches the lights of the traffic light, which are reflected on its output.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public void raiseTrafficLightToggle() {
+		trafficLight.getControl().raiseToggle();
+		trafficLight.runCycle();
+	}
+
+	private static class LightCommandsListener implements LightCommandsInterface.Listener.Provided {
+
+		private final Blackhole blackhole;
+
+		public LightCommandsListener(Blackhole blackhole) {
+			this.blackhole = blackhole;
+		}
+
+		@Override
+		public void raiseDisplayRed() {
+			blackhole.consume(1);
+		}
+
+		@Override
+		public void raiseDisplayYellow() {
+			blackhole.consume(2);
+		}
+
+		@Override
+		public void raiseDisplayGreen() {
+			blackhole.consume(3);
+		}
+
+		@Override
+		public void raiseDisplayNone() {
+			blackhole.consume(4);
+		}
+
+	}
+
+}
@@ -0,0 +1,88 @@
+/********************************************************************************
+ * Copyright (c) 2018-2021 Contributors to the Gamma project
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ ********************************************************************************/
+package hu.bme.mit.gamma.codegenerator.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hu.bme.mit.gamma.codegenerator.benchmark.crossroad.ITimerCallback;
+import hu.bme.mit.gamma.codegenerator.benchmark.crossroad.TimerService;
+
+/**
+ * Measures setting and unsetting time events in the generated (real-time) TimerService,
+ * by a single thread and by threads contending for the same instance, as the timeouts of
+ * the statecharts and the clocks of the adapters are set from their own threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class TimerServiceBenchmark {
+
+	// The time events never fire during the measurement
+	private static final long TIMEOUT_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+	private final AtomicInteger eventIdCounter = new AtomicInteger();
+	private final ITimerCallback callback = eventId -> {};
+	private TimerService timerService;
+
+	@Setup
+	public void setup() {
+		timerService = new TimerService();
+	}
+
+	@TearDown
+	public void tearDown() {
+		timerService.cancel();
+	}
+
+	@State(Scope.Thread)
+	public static class TimeEvent {
+
+		private int eventId;
+
+		@Setup
+		public void setup(TimerServiceBenchmark benchmark) {
+			eventId = benchmark.eventIdCounter.getAndIncrement();
+		}
+
+	}
+
+	@Benchmark
+	@Threads(1)
+	public void setAndUnsetTimer(TimeEvent timeEvent) {
+		timerService.setTimer(callback, timeEvent.eventId, TIMEOUT_MILLIS, false);
+		timerService.unsetTimer(callback, timeEvent.eventId);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void setAndUnsetTimerContended(TimeEvent timeEvent) {
+		timerService.setTimer(callback, timeEvent.eventId, TIMEOUT_MILLIS, false);
+		timerService.unsetTimer(callback, timeEvent.eventId);
+	}
+
+}
@@ -0,0 +1,162 @@
+package hu.bme.mit.gamma.statechart.lowlevel.transformation.test;
+
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+
+import org.junit.Test;
+
+import hu.bme.mit.gamma.expression.model.ExpressionModelFactory;
+import hu.bme.mit.gamma.expression.model.IntegerLiteralExpression;
+import hu.bme.mit.gamma.expression.model.VariableDeclaration;
+import hu.bme.mit.gamma.lowlevel.xsts.transformation.optimizer.ActionOptimizer;
+import hu.bme.mit.gamma.util.GammaEcoreUtil;
+import hu.bme.mit.gamma.xsts.model.Action;
+import hu.bme.mit.gamma.xsts.model.AssignmentAction;
+import hu.bme.mit.gamma.xsts.model.AssumeAction;
+import hu.bme.mit.gamma.xsts.model.CompositeAction;
+import hu.bme.mit.gamma.xsts.model.EmptyAction;
+import hu.bme.mit.gamma.xsts.model.ParallelAction;
+import hu.bme.mit.gamma.xsts.model.SequentialAction;
+import hu.bme.mit.gamma.xsts.model.XSTSModelFactory;
+import hu.bme.mit.gamma.xsts.util.XstsActionUtil;
+
+/**
+ * The expected actions are the outputs of the original clone-and-compare fixpoint optimization.
+ */
+public class ActionOptimizerTest {
+	private final ExpressionModelFactory expressionFactory = ExpressionModelFactory.eINSTANCE;
+	private final XSTSModelFactory xStsFactory = XSTSModelFactory.eINSTANCE;
+	private final XstsActionUtil actionUtil = XstsActionUtil.INSTANCE;
+	private final GammaEcoreUtil ecoreUtil = GammaEcoreUtil.INSTANCE;
+	private final ActionOptimizer optimizer = ActionOptimizer.INSTANCE;
+
+	private final VariableDeclaration a = createVariable("a");
+	private final VariableDeclaration b = createVariable("b");
+	private final VariableDeclaration c = createVariable("c");
+
+	@Test
+	public void testParallelActionToSequentialAction() {
+		// Arrange
+		ParallelAction target = xStsFactory.createParallelAction();
+		add(target, createAssignment(a, 1), createAssignment(b, 2));
+
+		// Act
+		Action optimizedAction = optimizer.optimize(target);
+
+		// Assert
+		SequentialAction expectedAction = xStsFactory.createSequentialAction();
+		add(expectedAction, createAssignment(a, 1), createAssignment(b, 2));
+		assertTrue(ecoreUtil.helperEquals(expectedAction, optimizedAction));
+	}
+
+	@Test
+	public void testSequentialActionWithFalseAssumptionToEmptyAction() {
+		// Arrange
+		SequentialAction target = xStsFactory.createSequentialAction();
+		add(target, createFalseAssumption(), createAssignment(a, 1));
+
+		// Act
+		Action optimizedAction = optimizer.optimize(target);
+
+		// Assert
+		assertTrue(optimizedAction instanceof EmptyAction);
+	}
+
+	@Test
+	public void testEmptySubactionDeletion() {
+		// Arrange
+		SequentialAction target = xStsFactory.createSequentialAction();
+		add(target, createAssignment(a, 1), xStsFactory.createEmptyAction(),
+			xStsFactory.createParallelAction(), createAssignment(b, 2));
+
+		// Act
+		Action optimizedAction = optimizer.optimize(target);
+
+		// Assert
+		SequentialAction expectedAction = xStsFactory.createSequentialAction();
+		add(expectedAction, createAssignment(a, 1), createAssignment(b, 2));
+		assertTrue(ecoreUtil.helperEquals(expectedAction, optimizedAction));
+	}
+
+	@Test
+	public void testNestedSequentialActionFlattening() {
+		// Arrange
+		SequentialAction innerAction = xStsFactory.createSequentialAction();
+		add(innerAction, createAssignment(c, 3));
+		SequentialAction middleAction = xStsFactory.createSequentialAction();
+		add(middleAction, createAssignment(b, 2), innerAction);
+		SequentialAction target = xStsFactory.createSequentialAction();
+		add(target, createAssignment(a, 1), middleAction);
+
+		// Act
+		Action optimizedAction = optimizer.optimize(target);
+
+		// Assert
+		SequentialAction expectedAction = xStsFactory.createSequentialAction();
+		add(expectedAction, createAssignment(a, 1), createAssignment(b, 2), createAssignment(c, 3));
+		assertTrue(ecoreUtil.helperEquals(expectedAction, optimizedAction));
+	}
+
+	@Test
+	public void testNestedSequentialActionWithFalseAssumptionFlattening() {
+		// Arrange
+		SequentialAction nestedAction = xStsFactory.createSequentialAction();
+		add(nestedAction, createFalseAssumption(), createAssignment(b, 2));
+		SequentialAction target = xStsFactory.createSequentialAction();
+		add(target, createAssignment(a, 1), nestedAction);
+
+		// Act
+		Action optimizedAction = optimizer.optimize(target);
+
+		// Assert
+		// The nested action is flattened and its assumption is deleted as it is not at index 0
+		SequentialAction expectedAction = xStsFactory.createSequentialAction();
+		add(expectedAction, createAssignment(a, 1), createAssignment(b, 2));
+		assertTrue(ecoreUtil.helperEquals(expectedAction, optimizedAction));
+	}
+
+	@Test
+	public void testDoublyNestedSequentialActionWithFalseAssumptionDeletion() {
+		// Arrange
+		SequentialAction innerAction = xStsFactory.createSequentialAction();
+		add(innerAction, createFalseAssumption(), createAssignment(c, 3));
+		SequentialAction middleAction = xStsFactory.createSequentialAction();
+		add(middleAction, innerAction, createAssignment(b, 2));
+		SequentialAction target = xStsFactory.createSequentialAction();
+		add(target, middleAction, createAssignment(a, 1));
+
+		// Act
+		Action optimizedAction = optimizer.optimize(target);
+
+		// Assert
+		// Only the sequential action directly containing the assumption is deleted
+		SequentialAction expectedAction = xStsFactory.createSequentialAction();
+		add(expectedAction, createAssignment(b, 2), createAssignment(a, 1));
+		assertTrue(ecoreUtil.helperEquals(expectedAction, optimizedAction));
+	}
+
+	private VariableDeclaration createVariable(String name) {
+		VariableDeclaration variable = expressionFactory.createVariableDeclaration();
+		variable.setName(name);
+		variable.setType(expressionFactory.createIntegerTypeDefinition());
+		return variable;
+	}
+
+	private AssignmentAction createAssignment(VariableDeclaration variable, int value) {
+		IntegerLiteralExpression literal = expressionFactory.createIntegerLiteralExpression();
+		literal.setValue(BigInteger.valueOf(value));
+		return actionUtil.createAssignmentAction(variable, literal);
+	}
+
+	private AssumeAction createFalseAssumption() {
+		return actionUtil.createAssumeAction(expressionFactory.createFalseExpression());
+	}
+
+	private void add(CompositeAction action, Action... subactions) {
+		for (Action subaction : subactions) {
+			action.getActions().add(subaction);
+		}
+	}
+
+}
@@ -0,0 +1,116 @@
+package hu.bme.mit.gamma.statechart.model.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigInteger;
+import java.util.List;
+
+import org.junit.Test;
+
+import hu.bme.mit.gamma.statechart.derivedfeatures.StatechartTransitionIndex;
+import hu.bme.mit.gamma.statechart.statechart.Region;
+import hu.bme.mit.gamma.statechart.statechart.State;
+import hu.bme.mit.gamma.statechart.statechart.StatechartDefinition;
+import hu.bme.mit.gamma.statechart.statechart.StatechartModelFactory;
+import hu.bme.mit.gamma.statechart.statechart.Transition;
+
+public class StatechartTransitionIndexTest {
+	private final StatechartModelFactory statechartFactory = StatechartModelFactory.eINSTANCE;
+
+	private final StatechartDefinition statechart = statechartFactory.createStatechartDefinition();
+	private final State s1 = createState("s1");
+	private final State s2 = createState("s2");
+	private final State s3 = createState("s3");
+
+	public StatechartTransitionIndexTest() {
+		Region region = statechartFactory.createRegion();
+		region.setName("testRegion");
+		region.getStateNodes().add(s1);
+		region.getStateNodes().add(s2);
+		region.getStateNodes().add(s3);
+		statechart.setName("TestStatechart");
+		statechart.getRegions().add(region);
+	}
+
+	@Test
+	public void testOutgoingAndIncomingTransitions() {
+		// Arrange
+		Transition t1 = addTransition(s1, s2);
+		Transition t2 = addTransition(s1, s3);
+		Transition t3 = addTransition(s2, s3);
+
+		// Act
+		StatechartTransitionIndex index = StatechartTransitionIndex.getIndex(statechart);
+
+		// Assert
+		assertEquals(List.of(t1, t2), index.getOutgoingTransitions(s1));
+		assertEquals(List.of(t2, t3), index.getIncomingTransitions(s3));
+		assertEquals(List.of(), index.getOutgoingTransitions(s3));
+	}
+
+	@Test
+	public void testOrderBasedPriorities() {
+		// Arrange
+		Transition t1 = addTransition(s1, s2);
+		Transition t2 = addTransition(s1, s3);
+		Transition t3 = addTransition(s2, s3);
+
+		// Act
+		StatechartTransitionIndex index = StatechartTransitionIndex.getIndex(statechart);
+
+		// Assert
+		assertEquals(BigInteger.valueOf(2), index.getOrderBasedPriority(t1));
+		assertEquals(BigInteger.valueOf(1), index.getOrderBasedPriority(t2));
+		assertEquals(BigInteger.valueOf(1), index.getOrderBasedPriority(t3));
+	}
+
+	@Test
+	public void testOrderBasedPriorityOfNotContainedTransition() {
+		// Arrange
+		addTransition(s1, s2);
+		addTransition(s1, s3);
+		Transition transition = statechartFactory.createTransition();
+		transition.setSourceState(s1);
+		transition.setTargetState(s3);
+
+		// Act
+		StatechartTransitionIndex index = StatechartTransitionIndex.getIndex(statechart);
+
+		// Assert
+		assertEquals(BigInteger.valueOf(3), index.getOrderBasedPriority(transition));
+	}
+
+	@Test
+	public void testIndexIsRebuiltAfterChanges() {
+		// Arrange
+		Transition t1 = addTransition(s1, s2);
+		Transition t2 = addTransition(s1, s3);
+		StatechartTransitionIndex index = StatechartTransitionIndex.getIndex(statechart);
+		index.getOutgoingTransitions(s1);
+
+		// Act
+		Transition t3 = addTransition(s1, s2);
+		t2.setSourceState(s2);
+
+		// Assert
+		assertEquals(List.of(t1, t3), index.getOutgoingTransitions(s1));
+		assertEquals(List.of(t2), index.getOutgoingTransitions(s2));
+		assertEquals(BigInteger.valueOf(2), index.getOrderBasedPriority(t1));
+		assertEquals(BigInteger.valueOf(1), index.getOrderBasedPriority(t2));
+	}
+
+	private State createState(String name) {
+		State state = statechartFactory.createState();
+		state.setName(name);
+		return state;
+	}
+
+	private Transition addTransition(State source, State target) {
+		Transition transition = statechartFactory.createTransition();
+		transition.setSourceState(source);
+		transition.setTargetState(target);
+		statechart.getTransitions().add(transition);
+		return transition;
+	}
+
+}
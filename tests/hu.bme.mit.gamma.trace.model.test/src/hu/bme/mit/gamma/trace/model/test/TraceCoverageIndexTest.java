@@ -0,0 +1,126 @@
+package hu.bme.mit.gamma.trace.model.test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceImpl;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.junit.Test;
+
+import hu.bme.mit.gamma.statechart.interface_.Event;
+import hu.bme.mit.gamma.statechart.interface_.EventDeclaration;
+import hu.bme.mit.gamma.statechart.interface_.EventDirection;
+import hu.bme.mit.gamma.statechart.interface_.Interface;
+import hu.bme.mit.gamma.statechart.interface_.InterfaceModelFactory;
+import hu.bme.mit.gamma.statechart.interface_.InterfaceRealization;
+import hu.bme.mit.gamma.statechart.interface_.Package;
+import hu.bme.mit.gamma.statechart.interface_.Port;
+import hu.bme.mit.gamma.statechart.interface_.RealizationMode;
+import hu.bme.mit.gamma.statechart.statechart.StatechartDefinition;
+import hu.bme.mit.gamma.statechart.statechart.StatechartModelFactory;
+import hu.bme.mit.gamma.trace.model.ExecutionTrace;
+import hu.bme.mit.gamma.trace.model.RaiseEventAct;
+import hu.bme.mit.gamma.trace.model.Step;
+import hu.bme.mit.gamma.trace.model.TraceModelFactory;
+import hu.bme.mit.gamma.trace.util.TraceCoverageIndex;
+
+public class TraceCoverageIndexTest {
+	private final InterfaceModelFactory interfaceFactory = InterfaceModelFactory.eINSTANCE;
+	private final StatechartModelFactory statechartFactory = StatechartModelFactory.eINSTANCE;
+	private final TraceModelFactory traceFactory = TraceModelFactory.eINSTANCE;
+
+	// The same model file is loaded into separate resource sets, as in the case of back-annotated traces
+	private final URI modelUri = URI.createFileURI("/model/Component.gcd");
+
+	@Test
+	public void testTracesOfSeparateResourceSetsAreCovered() {
+		// Arrange
+		Package firstPackage = loadPackage(new ResourceSetImpl());
+		Package secondPackage = loadPackage(new ResourceSetImpl());
+		ExecutionTrace coveringTrace = createTrace(firstPackage, 0, 1);
+		ExecutionTrace coveredTrace = createTrace(secondPackage, 0);
+		assertNotSame(getPort(firstPackage), getPort(secondPackage));
+
+		// Act
+		TraceCoverageIndex coverageIndex = new TraceCoverageIndex();
+		coverageIndex.add(coveringTrace);
+
+		// Assert
+		assertTrue(coverageIndex.isCovered(coveredTrace));
+		assertTrue(coverageIndex.isCoveredByOther(coveredTrace));
+	}
+
+	@Test
+	public void testDifferentEventsOfSeparateResourceSetsAreNotCovered() {
+		// Arrange
+		Package firstPackage = loadPackage(new ResourceSetImpl());
+		Package secondPackage = loadPackage(new ResourceSetImpl());
+		ExecutionTrace coveringTrace = createTrace(firstPackage, 0, 1);
+		ExecutionTrace notCoveredTrace = createTrace(secondPackage, 1);
+
+		// Act
+		TraceCoverageIndex coverageIndex = new TraceCoverageIndex();
+		coverageIndex.add(coveringTrace);
+
+		// Assert
+		assertFalse(coverageIndex.isCovered(notCoveredTrace));
+	}
+
+	private Package loadPackage(ResourceSet resourceSet) {
+		Resource resource = new ResourceImpl(modelUri);
+		resourceSet.getResources().add(resource);
+		Package gammaPackage = interfaceFactory.createPackage();
+		gammaPackage.setName("component");
+		resource.getContents().add(gammaPackage);
+
+		Interface _interface = interfaceFactory.createInterface();
+		_interface.setName("Interface");
+		for (String eventName : new String[] {"a", "b"}) {
+			Event event = interfaceFactory.createEvent();
+			event.setName(eventName);
+			EventDeclaration eventDeclaration = interfaceFactory.createEventDeclaration();
+			eventDeclaration.setDirection(EventDirection.IN);
+			eventDeclaration.setEvent(event);
+			_interface.getEvents().add(eventDeclaration);
+		}
+		gammaPackage.getInterfaces().add(_interface);
+
+		StatechartDefinition statechart = statechartFactory.createStatechartDefinition();
+		statechart.setName("Component");
+		InterfaceRealization interfaceRealization = interfaceFactory.createInterfaceRealization();
+		interfaceRealization.setRealizationMode(RealizationMode.PROVIDED);
+		interfaceRealization.setInterface(_interface);
+		Port port = interfaceFactory.createPort();
+		port.setName("port");
+		port.setInterfaceRealization(interfaceRealization);
+		statechart.getPorts().add(port);
+		gammaPackage.getComponents().add(statechart);
+		return gammaPackage;
+	}
+
+	private Port getPort(Package gammaPackage) {
+		return gammaPackage.getComponents().get(0).getPorts().get(0);
+	}
+
+	private ExecutionTrace createTrace(Package gammaPackage, int... eventIndexes) {
+		ExecutionTrace trace = traceFactory.createExecutionTrace();
+		trace.setName("trace");
+		trace.setComponent(gammaPackage.getComponents().get(0));
+		Port port = getPort(gammaPackage);
+		for (int eventIndex : eventIndexes) {
+			Step step = traceFactory.createStep();
+			RaiseEventAct raiseEventAct = traceFactory.createRaiseEventAct();
+			raiseEventAct.setPort(port);
+			raiseEventAct.setEvent(port.getInterfaceRealization().getInterface()
+				.getEvents().get(eventIndex).getEvent());
+			step.getActions().add(raiseEventAct);
+			trace.getSteps().add(step);
+		}
+		return trace;
+	}
+
+}
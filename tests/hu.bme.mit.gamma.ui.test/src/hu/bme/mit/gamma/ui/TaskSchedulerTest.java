@@ -0,0 +1,135 @@
+package hu.bme.mit.gamma.ui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.xmi.impl.XMIResourceImpl;
+import org.junit.Test;
+
+import hu.bme.mit.gamma.statechart.interface_.InterfaceModelFactory;
+import hu.bme.mit.gamma.statechart.interface_.Package;
+import hu.bme.mit.gamma.transformation.util.QueryEngineRegistry;
+import hu.bme.mit.gamma.ui.TaskScheduler.TaskNode;
+import hu.bme.mit.gamma.ui.TaskScheduler.Worker;
+
+public class TaskSchedulerTest {
+	private static final String FOLDER = "platform:/resource/project/model/";
+
+	private final TaskScheduler scheduler = new TaskScheduler(URI.createURI(FOLDER + "Test.ggen"), null,
+		ResourceSetImpl::new, it -> 0, (task, resourceSet) -> {});
+
+	@Test
+	public void testConflictingNodesAreOrdered() {
+		// Arrange
+		TaskNode writer = createNode("writer", List.of(), List.of("A"));
+		TaskNode reader = createNode("reader", List.of("A"), List.of("B"));
+		TaskNode independent = createNode("independent", List.of("C"), List.of("D"));
+		TaskNode transitiveReader = createNode("transitiveReader", List.of("B"), List.of("E"));
+		TaskNode overwriter = createNode("overwriter", List.of(), List.of("A"));
+
+		// Act
+		addNodes(writer, reader, independent, transitiveReader, overwriter);
+
+		// Assert
+		assertEquals(List.of(), writer.predecessors);
+		assertEquals(List.of(writer), reader.predecessors);
+		assertEquals(List.of(), independent.predecessors);
+		// The transitive reader also reads the models read by the reader, so it depends on the writer too
+		assertEquals(List.of(reader, writer), transitiveReader.predecessors);
+		assertEquals(List.of(writer, reader, transitiveReader), overwriter.predecessors);
+		assertEquals(3, overwriter.unfinishedPredecessorCount);
+		assertEquals(List.of(reader, transitiveReader, overwriter), writer.successors);
+	}
+
+	@Test
+	public void testOpaqueNodesAreOrderedWithEveryNode() {
+		// Arrange
+		TaskNode first = createNode("first", List.of("A"), List.of("B"));
+		TaskNode second = createNode("second", List.of("C"), List.of("D"));
+		TaskNode opaque = createNode("opaque", List.of(), List.of("E"));
+		opaque.opaque = true;
+		TaskNode later = createNode("later", List.of("F"), List.of("G"));
+
+		// Act
+		addNodes(first, second, opaque, later);
+
+		// Assert
+		assertEquals(List.of(), second.predecessors);
+		// Every node is in the same phase
+		assertEquals(List.of(first, second), opaque.predecessors);
+		assertEquals(List.of(opaque), later.predecessors);
+	}
+
+	@Test
+	public void testWrittenAndModifiedResourcesAreUnloaded() {
+		// Arrange
+		ResourceSet resourceSet = new ResourceSetImpl();
+		Resource writtenResource = createResource(resourceSet, "A.gcd");
+		Resource hiddenResource = createResource(resourceSet, ".A.g");
+		Resource readResource = createResource(resourceSet, "B.gcd");
+		Worker worker = scheduler.new Worker(resourceSet);
+		worker.queryEngineRegistry = QueryEngineRegistry.open(resourceSet);
+		try {
+			// Act
+			worker.refresh();
+
+			// Assert
+			assertEquals(List.of(writtenResource, hiddenResource, readResource), resourceSet.getResources());
+			assertTrue(readResource.isTrackingModification());
+
+			// Act
+			scheduler.writtenModels.add(scheduler.getModelKey(writtenResource.getURI()));
+			worker.refresh();
+
+			// Assert
+			assertEquals(List.of(readResource), resourceSet.getResources());
+
+			// Act
+			((Package) readResource.getContents().get(0)).setName("modified");
+			worker.refresh();
+
+			// Assert
+			assertTrue(resourceSet.getResources().isEmpty());
+		} finally {
+			worker.queryEngineRegistry.close();
+		}
+	}
+
+	private TaskNode createNode(String name, List<String> readModels, List<String> writtenModels) {
+		TaskNode node = new TaskNode(URI.createURI(FOLDER + "Test.ggen#" + name));
+		for (String readModel : readModels) {
+			node.readModels.add(getModelKey(readModel));
+		}
+		for (String writtenModel : writtenModels) {
+			node.writtenModels.add(getModelKey(writtenModel));
+		}
+		return node;
+	}
+
+	private URI getModelKey(String stem) {
+		return URI.createURI(FOLDER + stem);
+	}
+
+	private void addNodes(TaskNode... nodes) {
+		for (TaskNode node : nodes) {
+			scheduler.addDependencies(node);
+			scheduler.nodes.add(node);
+		}
+	}
+
+	private Resource createResource(ResourceSet resourceSet, String fileName) {
+		Package gammaPackage = InterfaceModelFactory.eINSTANCE.createPackage();
+		gammaPackage.setName("testPackage");
+		Resource resource = new XMIResourceImpl(URI.createURI(FOLDER + fileName));
+		resource.getContents().add(gammaPackage);
+		resourceSet.getResources().add(resource);
+		return resource;
+	}
+
+}
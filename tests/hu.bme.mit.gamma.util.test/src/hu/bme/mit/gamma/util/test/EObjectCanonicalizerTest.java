@@ -0,0 +1,118 @@
+package hu.bme.mit.gamma.util.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import hu.bme.mit.gamma.expression.model.ConstantDeclaration;
+import hu.bme.mit.gamma.expression.model.EnumerationLiteralDefinition;
+import hu.bme.mit.gamma.expression.model.EnumerationLiteralExpression;
+import hu.bme.mit.gamma.expression.model.EnumerationTypeDefinition;
+import hu.bme.mit.gamma.expression.model.ExpressionModelFactory;
+import hu.bme.mit.gamma.expression.model.Type;
+import hu.bme.mit.gamma.expression.model.TypeDeclaration;
+import hu.bme.mit.gamma.expression.model.TypeReference;
+import hu.bme.mit.gamma.statechart.interface_.InterfaceModelFactory;
+import hu.bme.mit.gamma.statechart.interface_.Package;
+import hu.bme.mit.gamma.util.EObjectCanonicalizer;
+import hu.bme.mit.gamma.util.GammaEcoreUtil;
+
+public class EObjectCanonicalizerTest {
+	private final ExpressionModelFactory expressionFactory = ExpressionModelFactory.eINSTANCE;
+	private final InterfaceModelFactory interfaceFactory = InterfaceModelFactory.eINSTANCE;
+	private final GammaEcoreUtil ecoreUtil = GammaEcoreUtil.INSTANCE;
+	private final EObjectCanonicalizer canonicalizer = EObjectCanonicalizer.INSTANCE;
+
+	@Test
+	public void testEqualElementsHaveEqualHashes() {
+		// Arrange
+		TypeDeclaration type = createEnumerationType("Color", "Red", "Green");
+		TypeDeclaration clonedType = ecoreUtil.clone(type);
+		TypeDeclaration otherType = createEnumerationType("Color", "Red", "Blue");
+
+		// Act & Assert
+		assertEquals(canonicalizer.getStructuralHash(type), canonicalizer.getStructuralHash(clonedType));
+		assertNotEquals(canonicalizer.getStructuralHash(type), canonicalizer.getStructuralHash(otherType));
+	}
+
+	@Test
+	public void testDifferentElementsInTheSameBucketAreKept() {
+		// Arrange
+		// Cross-references contribute only the class of the referred element to the hash
+		TypeDeclaration firstReferredType = createTypeDeclaration("First", expressionFactory.createIntegerTypeDefinition());
+		TypeDeclaration secondReferredType = createTypeDeclaration("Second", expressionFactory.createBooleanTypeDefinition());
+		TypeDeclaration firstType = createTypeDeclaration("Alias", createTypeReference(firstReferredType));
+		TypeDeclaration secondType = createTypeDeclaration("Alias", createTypeReference(secondReferredType));
+		TypeDeclaration thirdType = createTypeDeclaration("Alias", createTypeReference(firstReferredType));
+
+		// Act
+		Map<TypeDeclaration, TypeDeclaration> duplicates = canonicalizer.getDuplicates(
+			List.of(firstType, secondType, thirdType));
+
+		// Assert
+		assertEquals(canonicalizer.getStructuralHash(firstType), canonicalizer.getStructuralHash(secondType));
+		assertEquals(1, duplicates.size());
+		assertSame(firstType, duplicates.get(thirdType));
+	}
+
+	@Test
+	public void testReferencesToDuplicatesAndTheirContentsAreRedirected() {
+		// Arrange
+		TypeDeclaration type = createEnumerationType("Color", "Red", "Green");
+		TypeDeclaration duplicatedType = ecoreUtil.clone(type);
+		EnumerationLiteralDefinition duplicatedLiteral =
+			((EnumerationTypeDefinition) duplicatedType.getType()).getLiterals().get(1);
+		EnumerationLiteralExpression literalExpression = expressionFactory.createEnumerationLiteralExpression();
+		literalExpression.setReference(duplicatedLiteral);
+		ConstantDeclaration constant = expressionFactory.createConstantDeclaration();
+		constant.setName("color");
+		constant.setType(createTypeReference(duplicatedType));
+		constant.setExpression(literalExpression);
+
+		Package gammaPackage = interfaceFactory.createPackage();
+		gammaPackage.setName("testPackage");
+		gammaPackage.getTypeDeclarations().add(type);
+		gammaPackage.getTypeDeclarations().add(duplicatedType);
+		gammaPackage.getConstantDeclarations().add(constant);
+
+		// Act
+		canonicalizer.removeDuplicates(gammaPackage.getTypeDeclarations(), gammaPackage);
+
+		// Assert
+		assertEquals(List.of(type), gammaPackage.getTypeDeclarations());
+		assertSame(type, ((TypeReference) constant.getType()).getReference());
+		EnumerationLiteralDefinition literal = ((EnumerationTypeDefinition) type.getType()).getLiterals().get(1);
+		assertSame(literal, literalExpression.getReference());
+		assertNull(duplicatedType.eContainer());
+	}
+
+	private TypeDeclaration createEnumerationType(String name, String... literalNames) {
+		EnumerationTypeDefinition enumeration = expressionFactory.createEnumerationTypeDefinition();
+		for (String literalName : literalNames) {
+			EnumerationLiteralDefinition literal = expressionFactory.createEnumerationLiteralDefinition();
+			literal.setName(literalName);
+			enumeration.getLiterals().add(literal);
+		}
+		return createTypeDeclaration(name, enumeration);
+	}
+
+	private TypeDeclaration createTypeDeclaration(String name, Type type) {
+		TypeDeclaration typeDeclaration = expressionFactory.createTypeDeclaration();
+		typeDeclaration.setName(name);
+		typeDeclaration.setType(type);
+		return typeDeclaration;
+	}
+
+	private TypeReference createTypeReference(TypeDeclaration typeDeclaration) {
+		TypeReference typeReference = expressionFactory.createTypeReference();
+		typeReference.setReference(typeDeclaration);
+		return typeReference;
+	}
+
+}
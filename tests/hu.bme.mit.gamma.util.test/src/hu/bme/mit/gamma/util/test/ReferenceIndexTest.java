@@ -0,0 +1,131 @@
+package hu.bme.mit.gamma.util.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Set;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.junit.Test;
+
+import hu.bme.mit.gamma.expression.model.ConstantDeclaration;
+import hu.bme.mit.gamma.expression.model.ExpressionModelFactory;
+import hu.bme.mit.gamma.expression.model.ExpressionModelPackage;
+import hu.bme.mit.gamma.expression.model.TypeDeclaration;
+import hu.bme.mit.gamma.expression.model.TypeReference;
+import hu.bme.mit.gamma.statechart.interface_.InterfaceModelFactory;
+import hu.bme.mit.gamma.statechart.interface_.Package;
+import hu.bme.mit.gamma.util.ReferenceIndex;
+
+public class ReferenceIndexTest {
+	private final ExpressionModelFactory expressionFactory = ExpressionModelFactory.eINSTANCE;
+	private final InterfaceModelFactory interfaceFactory = InterfaceModelFactory.eINSTANCE;
+	private final EReference typeReference = ExpressionModelPackage.eINSTANCE.getTypeReference_Reference();
+
+	@Test
+	public void testAddedElementsAreIndexed() {
+		// Arrange
+		Package gammaPackage = createPackage();
+		TypeDeclaration type = gammaPackage.getTypeDeclarations().get(0);
+		ReferenceIndex index = ReferenceIndex.getIndex(gammaPackage);
+		ConstantDeclaration constant = createConstant("constant", type);
+
+		// Act
+		gammaPackage.getConstantDeclarations().add(constant);
+
+		// Assert
+		assertEquals(Set.of(constant.getType()), index.getReferrers(typeReference, type));
+		assertEquals(Set.of(type), index.getValues(typeReference, type, typeReference));
+	}
+
+	@Test
+	public void testElementsContainedBeforeAttachmentAreIndexed() {
+		// Arrange
+		Package gammaPackage = createPackage();
+		TypeDeclaration type = gammaPackage.getTypeDeclarations().get(0);
+		ConstantDeclaration constant = createConstant("constant", type);
+		gammaPackage.getConstantDeclarations().add(constant);
+
+		// Act
+		ReferenceIndex index = ReferenceIndex.getIndex(gammaPackage);
+
+		// Assert
+		assertEquals(Set.of(constant.getType()), index.getReferrers(typeReference, type));
+	}
+
+	@Test
+	public void testRemovedElementsAreUnindexed() {
+		// Arrange
+		Package gammaPackage = createPackage();
+		TypeDeclaration type = gammaPackage.getTypeDeclarations().get(0);
+		ConstantDeclaration firstConstant = createConstant("first", type);
+		ConstantDeclaration secondConstant = createConstant("second", type);
+		gammaPackage.getConstantDeclarations().add(firstConstant);
+		gammaPackage.getConstantDeclarations().add(secondConstant);
+		ReferenceIndex index = ReferenceIndex.getIndex(gammaPackage);
+
+		// Act
+		gammaPackage.getConstantDeclarations().remove(firstConstant);
+
+		// Assert
+		assertEquals(Set.of(secondConstant.getType()), index.getReferrers(typeReference, type));
+
+		// Act
+		gammaPackage.getConstantDeclarations().clear();
+
+		// Assert
+		assertTrue(index.getReferrers(typeReference, type).isEmpty());
+	}
+
+	@Test
+	public void testSetReferencesAreReindexed() {
+		// Arrange
+		Package gammaPackage = createPackage();
+		TypeDeclaration type = gammaPackage.getTypeDeclarations().get(0);
+		TypeDeclaration otherType = createTypeDeclaration("OtherType");
+		gammaPackage.getTypeDeclarations().add(otherType);
+		ConstantDeclaration constant = createConstant("constant", type);
+		gammaPackage.getConstantDeclarations().add(constant);
+		TypeReference constantType = (TypeReference) constant.getType();
+		ReferenceIndex index = ReferenceIndex.getIndex(gammaPackage);
+
+		// Act
+		constantType.setReference(otherType);
+
+		// Assert
+		assertTrue(index.getReferrers(typeReference, type).isEmpty());
+		assertEquals(Set.<EObject>of(constantType), index.getReferrers(typeReference, otherType));
+
+		// Act
+		constantType.setReference(null);
+
+		// Assert
+		assertTrue(index.getReferrers(typeReference, otherType).isEmpty());
+	}
+
+	private Package createPackage() {
+		Package gammaPackage = interfaceFactory.createPackage();
+		gammaPackage.setName("testPackage");
+		gammaPackage.getTypeDeclarations().add(createTypeDeclaration("TestType"));
+		return gammaPackage;
+	}
+
+	private TypeDeclaration createTypeDeclaration(String name) {
+		TypeDeclaration type = expressionFactory.createTypeDeclaration();
+		type.setName(name);
+		type.setType(expressionFactory.createIntegerTypeDefinition());
+		return type;
+	}
+
+	private ConstantDeclaration createConstant(String name, TypeDeclaration type) {
+		TypeReference reference = expressionFactory.createTypeReference();
+		reference.setReference(type);
+		ConstantDeclaration constant = expressionFactory.createConstantDeclaration();
+		constant.setName(name);
+		constant.setType(reference);
+		constant.setExpression(expressionFactory.createIntegerLiteralExpression());
+		return constant;
+	}
+
+}
@@ -0,0 +1,174 @@
+package hu.bme.mit.gamma.xsts.transformation.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import hu.bme.mit.gamma.action.model.ActionModelFactory;
+import hu.bme.mit.gamma.action.model.AssignmentStatement;
+import hu.bme.mit.gamma.expression.model.ConstantDeclaration;
+import hu.bme.mit.gamma.expression.model.DirectReferenceExpression;
+import hu.bme.mit.gamma.expression.model.ExpressionModelFactory;
+import hu.bme.mit.gamma.expression.model.IntegerLiteralExpression;
+import hu.bme.mit.gamma.expression.model.ParameterDeclaration;
+import hu.bme.mit.gamma.expression.model.VariableDeclaration;
+import hu.bme.mit.gamma.statechart.composite.CascadeCompositeComponent;
+import hu.bme.mit.gamma.statechart.composite.CompositeModelFactory;
+import hu.bme.mit.gamma.statechart.composite.SynchronousComponentInstance;
+import hu.bme.mit.gamma.statechart.interface_.InterfaceModelFactory;
+import hu.bme.mit.gamma.statechart.interface_.Package;
+import hu.bme.mit.gamma.statechart.statechart.InitialState;
+import hu.bme.mit.gamma.statechart.statechart.Region;
+import hu.bme.mit.gamma.statechart.statechart.State;
+import hu.bme.mit.gamma.statechart.statechart.StatechartDefinition;
+import hu.bme.mit.gamma.statechart.statechart.StatechartModelFactory;
+import hu.bme.mit.gamma.statechart.statechart.Transition;
+import hu.bme.mit.gamma.util.GammaEcoreUtil;
+import hu.bme.mit.gamma.xsts.model.XSTS;
+import hu.bme.mit.gamma.xsts.transformation.GammaToXstsTransformer;
+import hu.bme.mit.gamma.xsts.transformation.StatechartTransformationCache;
+import hu.bme.mit.gamma.xsts.transformation.StatechartTransformationKey;
+import hu.bme.mit.gamma.xsts.transformation.serializer.ActionSerializer;
+
+public class StatechartTransformationCacheTest {
+	private final StatechartModelFactory statechartFactory = StatechartModelFactory.eINSTANCE;
+	private final CompositeModelFactory compositeFactory = CompositeModelFactory.eINSTANCE;
+	private final InterfaceModelFactory interfaceFactory = InterfaceModelFactory.eINSTANCE;
+	private final ActionModelFactory actionFactory = ActionModelFactory.eINSTANCE;
+	private final ExpressionModelFactory expressionFactory = ExpressionModelFactory.eINSTANCE;
+	private final GammaEcoreUtil ecoreUtil = GammaEcoreUtil.INSTANCE;
+	private final ActionSerializer serializer = ActionSerializer.INSTANCE;
+
+	@Test
+	public void testInstancesWithEqualArgumentsAreTransformedAsWithoutCache() {
+		// Arrange
+		Package cachedPackage = createUnfoldedCascadePackage(1, 1);
+		Package uncachedPackage = createUnfoldedCascadePackage(1, 1);
+
+		// Act
+		XSTS cachedXSts = new GammaToXstsTransformer().execute(cachedPackage);
+		XSTS uncachedXSts = createUncachedTransformer().execute(uncachedPackage);
+
+		// Assert
+		assertEquals(serializer.serializeXSTS(uncachedXSts), serializer.serializeXSTS(cachedXSts));
+		// Back-annotation retrieves the arguments of the second, not transformed, instance from the constants
+		assertEquals(getArgumentValues(uncachedPackage), getArgumentValues(cachedPackage));
+		assertEquals(List.of(1, 1), getArgumentValues(cachedPackage));
+	}
+
+	@Test
+	public void testInstancesWithDifferentArgumentsAreTransformedAsWithoutCache() {
+		// Arrange
+		Package cachedPackage = createUnfoldedCascadePackage(1, 2);
+		Package uncachedPackage = createUnfoldedCascadePackage(1, 2);
+
+		// Act
+		XSTS cachedXSts = new GammaToXstsTransformer().execute(cachedPackage);
+		XSTS uncachedXSts = createUncachedTransformer().execute(uncachedPackage);
+
+		// Assert
+		assertEquals(serializer.serializeXSTS(uncachedXSts), serializer.serializeXSTS(cachedXSts));
+		assertEquals(List.of(1, 2), getArgumentValues(cachedPackage));
+	}
+
+	private GammaToXstsTransformer createUncachedTransformer() {
+		return new GammaToXstsTransformer() {
+			@Override
+			protected StatechartTransformationCache createStatechartTransformationCache() {
+				return new StatechartTransformationCache() {
+					@Override
+					public XSTS get(StatechartTransformationKey key) {
+						return null;
+					}
+				};
+			}
+		};
+	}
+
+	private List<Integer> getArgumentValues(Package gammaPackage) {
+		return gammaPackage.getConstantDeclarations().stream()
+			.map(ConstantDeclaration::getExpression)
+			.map(it -> ((IntegerLiteralExpression) it).getValue().intValue())
+			.collect(Collectors.toList());
+	}
+
+	/**
+	 * Creates a cascade composite with two instances of a statechart, which is cloned for each instance
+	 * like in the case of unfolded models.
+	 */
+	private Package createUnfoldedCascadePackage(int firstArgument, int secondArgument) {
+		StatechartDefinition firstStatechart = createParametricStatechart();
+		StatechartDefinition secondStatechart = ecoreUtil.clone(firstStatechart);
+
+		CascadeCompositeComponent cascade = compositeFactory.createCascadeCompositeComponent();
+		cascade.setName("TestCascade");
+		cascade.getComponents().add(createInstance("first", firstStatechart, firstArgument));
+		cascade.getComponents().add(createInstance("second", secondStatechart, secondArgument));
+
+		Package gammaPackage = interfaceFactory.createPackage();
+		gammaPackage.setName("testPackage");
+		gammaPackage.getComponents().add(cascade);
+		gammaPackage.getComponents().add(firstStatechart);
+		gammaPackage.getComponents().add(secondStatechart);
+
+		return gammaPackage;
+	}
+
+	private SynchronousComponentInstance createInstance(String name, StatechartDefinition type, int argument) {
+		IntegerLiteralExpression argumentExpression = expressionFactory.createIntegerLiteralExpression();
+		argumentExpression.setValue(BigInteger.valueOf(argument));
+		SynchronousComponentInstance instance = compositeFactory.createSynchronousComponentInstance();
+		instance.setName(name);
+		instance.setType(type);
+		instance.getArguments().add(argumentExpression);
+		return instance;
+	}
+
+	/**
+	 * Creates a statechart assigning its parameter to a variable when leaving its initial state.
+	 */
+	private StatechartDefinition createParametricStatechart() {
+		ParameterDeclaration parameter = expressionFactory.createParameterDeclaration();
+		parameter.setName("parameter");
+		parameter.setType(expressionFactory.createIntegerTypeDefinition());
+		VariableDeclaration variable = expressionFactory.createVariableDeclaration();
+		variable.setName("variable");
+		variable.setType(expressionFactory.createIntegerTypeDefinition());
+
+		DirectReferenceExpression variableReference = expressionFactory.createDirectReferenceExpression();
+		variableReference.setDeclaration(variable);
+		DirectReferenceExpression parameterReference = expressionFactory.createDirectReferenceExpression();
+		parameterReference.setDeclaration(parameter);
+		AssignmentStatement assignment = actionFactory.createAssignmentStatement();
+		assignment.setLhs(variableReference);
+		assignment.setRhs(parameterReference);
+
+		InitialState initialState = statechartFactory.createInitialState();
+		initialState.setName("Entry");
+		State state = statechartFactory.createState();
+		state.setName("Idle");
+		Transition transition = statechartFactory.createTransition();
+		transition.setSourceState(initialState);
+		transition.setTargetState(state);
+		transition.getEffects().add(assignment);
+
+		Region region = statechartFactory.createRegion();
+		region.setName("main");
+		region.getStateNodes().add(initialState);
+		region.getStateNodes().add(state);
+
+		StatechartDefinition statechart = statechartFactory.createStatechartDefinition();
+		statechart.setName("TestStatechart");
+		statechart.getParameterDeclarations().add(parameter);
+		statechart.getVariableDeclarations().add(variable);
+		statechart.getRegions().add(region);
+		statechart.getTransitions().add(transition);
+
+		return statechart;
+	}
+
+}